@@ -6,10 +6,15 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import com.bishnet.cucumber.parallel.runtime.ExecutorMode;
+import com.bishnet.cucumber.parallel.runtime.Granularity;
 import com.bishnet.cucumber.parallel.runtime.RuntimeConfiguration;
+import com.bishnet.cucumber.parallel.runtime.SchedulingMode;
 
 public class ArgumentsParser {
 
+	private static final String AUTO_THREADS = "auto";
+
 	private List<String> arguments;
 
 	public ArgumentsParser(List<String> arguments) {
@@ -28,12 +33,95 @@ public class ArgumentsParser {
 		Path htmlReportPath = null;
 		boolean threadTimelineReportRequired = false;
 		Path threadTimelineReportPath = null;
+		SchedulingMode schedulingMode = SchedulingMode.STATIC;
+		Path durationHistoryPath = null;
+		Granularity granularity = Granularity.FEATURE;
+		int numberOfForks = 0;
+		int coordinatorPort = 0;
+		String coordinatorBindAddress = null;
+		String coordinatorAddress = null;
+		String agentToken = null;
+		int shardIndex = 0;
+		int shardCount = 0;
+		int retryCount = 0;
+		int failFastThreshold = 0;
+		int minimumThreads = 0;
+		int maximumThreads = 0;
+		int heapPressureThreshold = 0;
+		ExecutorMode executorMode = ExecutorMode.PLATFORM;
+		Path glueIndexPath = null;
+		Path featureCachePath = null;
+		boolean streamFeatures = false;
+		boolean bufferOutput = false;
+		Path workspacePath = null;
 
 		while (!parseArguments.isEmpty()) {
 			String arg = parseArguments.remove(0).trim();
 
 			if (arg.equals("--num-threads")) {
-				numberOfThreads = Integer.parseInt(parseArguments.remove(0));
+				String threads = parseArguments.remove(0).trim();
+				if (threads.equals(AUTO_THREADS) || threads.startsWith(AUTO_THREADS + ":")) {
+					int[] threadRange = parseThreadRange(threads.substring(AUTO_THREADS.length()));
+					minimumThreads = threadRange[0];
+					maximumThreads = threadRange[1];
+					numberOfThreads = Math.max(minimumThreads, Math.min(maximumThreads, numberOfThreads));
+				} else {
+					numberOfThreads = Integer.parseInt(threads);
+					minimumThreads = 0;
+					maximumThreads = 0;
+				}
+			} else if (arg.equals("--scheduler")) {
+				schedulingMode = SchedulingMode.fromArgument(parseArguments.remove(0));
+			} else if (arg.equals("--duration-history")) {
+				durationHistoryPath = Paths.get(parseArguments.remove(0));
+			} else if (arg.equals("--granularity")) {
+				granularity = Granularity.fromArgument(parseArguments.remove(0));
+			} else if (arg.equals("--fork")) {
+				numberOfForks = Integer.parseInt(parseArguments.remove(0));
+			} else if (arg.equals("--coordinator")) {
+				String coordinatorListenAddress = parseArguments.remove(0);
+				int portSeparator = coordinatorListenAddress.lastIndexOf(':');
+				if (portSeparator >= 0)
+					coordinatorBindAddress = coordinatorListenAddress.substring(0, portSeparator);
+				coordinatorPort = Integer.parseInt(coordinatorListenAddress.substring(portSeparator + 1));
+			} else if (arg.equals("--agent")) {
+				coordinatorAddress = parseArguments.remove(0);
+			} else if (arg.equals("--agent-token")) {
+				agentToken = parseArguments.remove(0);
+			} else if (arg.equals("--shard")) {
+				String[] shard = parseArguments.remove(0).split("/");
+				if (shard.length != 2)
+					throw new IllegalArgumentException("--shard should be given as <index>/<total>");
+				shardIndex = Integer.parseInt(shard[0].trim());
+				shardCount = Integer.parseInt(shard[1].trim());
+				if (shardCount < 1 || shardIndex < 1 || shardIndex > shardCount)
+					throw new IllegalArgumentException("--shard index should be between 1 and " + shardCount);
+			} else if (arg.equals("--retry")) {
+				retryCount = Integer.parseInt(parseArguments.remove(0));
+				if (retryCount < 0)
+					throw new IllegalArgumentException("--retry should not be negative");
+			} else if (arg.equals("--fail-fast")) {
+				failFastThreshold = 1;
+				if (!parseArguments.isEmpty() && parseArguments.get(0).trim().matches("\\d+"))
+					failFastThreshold = Integer.parseInt(parseArguments.remove(0).trim());
+				if (failFastThreshold < 1)
+					throw new IllegalArgumentException("--fail-fast threshold should be at least 1");
+			} else if (arg.equals("--heap-pressure")) {
+				heapPressureThreshold = Integer.parseInt(parseArguments.remove(0).trim());
+				if (heapPressureThreshold < 1 || heapPressureThreshold > 100)
+					throw new IllegalArgumentException("--heap-pressure should be a percentage between 1 and 100");
+			} else if (arg.equals("--executor")) {
+				executorMode = ExecutorMode.fromArgument(parseArguments.remove(0));
+			} else if (arg.equals("--glue-index")) {
+				glueIndexPath = Paths.get(parseArguments.remove(0));
+			} else if (arg.equals("--feature-cache")) {
+				featureCachePath = Paths.get(parseArguments.remove(0));
+			} else if (arg.equals("--stream")) {
+				streamFeatures = true;
+			} else if (arg.equals("--buffer-output")) {
+				bufferOutput = true;
+			} else if (arg.equals("--workspace")) {
+				workspacePath = Paths.get(parseArguments.remove(0));
 			} else if (arg.equals("--plugin") || arg.equals("-p") || arg.equals("--format") || arg.equals("-f")) {
 				String pluginValue = parseArguments.remove(0);
 				String[] pluginArgsArray = pluginValue.split(":", 2);
@@ -71,14 +159,88 @@ public class ArgumentsParser {
 				featurePaths.add(arg);
 			}
 		}
+		/*
+		 * Each forked JVM runs a single runtime at a time so the number of
+		 * forks takes the place of the number of threads
+		 */
+		if (numberOfForks > 0) {
+			numberOfThreads = numberOfForks;
+			minimumThreads = 0;
+			maximumThreads = 0;
+			heapPressureThreshold = 0;
+		}
+		/*
+		 * Streamed features are run as they are parsed, so anything which
+		 * needs every feature before the first one runs turns streaming off
+		 */
+		if (shardCount > 0 || durationHistoryPath != null || coordinatorPort > 0)
+			streamFeatures = false;
+		/*
+		 * Threads are added and removed, work is held back, streamed work
+		 * arrives and virtual threads are started between work units, so all
+		 * need the work handed out one work unit at a time
+		 */
+		if (maximumThreads > 0 || heapPressureThreshold > 0 || streamFeatures || executorMode == ExecutorMode.VIRTUAL)
+			schedulingMode = SchedulingMode.DYNAMIC;
+		/*
+		 * Agents come and go during a run so a coordinator always hands out
+		 * one work unit at a time
+		 */
+		if (coordinatorPort > 0)
+			schedulingMode = SchedulingMode.DYNAMIC;
 		List<String> fullFeatureParsingArguments = new ArrayList<String>();
 		fullFeatureParsingArguments.addAll(cucumberArgs);
 		fullFeatureParsingArguments.addAll(featureParseOnlyArgs);
 		fullFeatureParsingArguments.addAll(featurePaths);
-		RuntimeConfiguration runtimeConfiguration = new RuntimeConfiguration(numberOfThreads,
-				Collections.unmodifiableList(cucumberArgs), Collections.unmodifiableList(fullFeatureParsingArguments),
-				Collections.unmodifiableList(featurePaths), htmlReportPath, htmlReportRequired, jsonReportPath,
-				jsonReportRequired, threadTimelineReportPath, threadTimelineReportRequired);
+		RuntimeConfiguration runtimeConfiguration = new RuntimeConfiguration.Builder()
+				.numberOfThreads(numberOfThreads)
+				.cucumberPassthroughArguments(Collections.unmodifiableList(cucumberArgs))
+				.featureParsingArguments(Collections.unmodifiableList(fullFeatureParsingArguments))
+				.featurePaths(Collections.unmodifiableList(featurePaths))
+				.htmlReportPath(htmlReportPath).htmlReportRequired(htmlReportRequired)
+				.jsonReportPath(jsonReportPath).jsonReportRequired(jsonReportRequired)
+				.threadTimelineReportPath(threadTimelineReportPath)
+				.threadTimelineReportRequired(threadTimelineReportRequired)
+				.schedulingMode(schedulingMode)
+				.durationHistoryPath(durationHistoryPath)
+				.granularity(granularity)
+				.numberOfForks(numberOfForks)
+				.coordinatorPort(coordinatorPort)
+				.coordinatorBindAddress(coordinatorBindAddress)
+				.coordinatorAddress(coordinatorAddress)
+				.agentToken(agentToken)
+				.shardIndex(shardIndex)
+				.shardCount(shardCount)
+				.retryCount(retryCount)
+				.failFastThreshold(failFastThreshold)
+				.minimumThreads(minimumThreads)
+				.maximumThreads(maximumThreads)
+				.heapPressureThreshold(heapPressureThreshold)
+				.executorMode(executorMode)
+				.glueIndexPath(glueIndexPath)
+				.featureCachePath(featureCachePath)
+				.streamFeatures(streamFeatures)
+				.bufferOutput(bufferOutput)
+				.workspacePath(workspacePath)
+				.build();
 		return runtimeConfiguration;
 	}
+
+	private int[] parseThreadRange(String threadRange) {
+		/*
+		 * Without a range the thread count may go from a single thread up to
+		 * four per core, as I/O bound suites peak well beyond one per core
+		 */
+		int availableProcessors = Runtime.getRuntime().availableProcessors();
+		if (threadRange.isEmpty())
+			return new int[] { 1, availableProcessors * 4 };
+		String[] bounds = threadRange.substring(1).split("-");
+		if (bounds.length != 2)
+			throw new IllegalArgumentException("--num-threads should be given as auto:<min>-<max>");
+		int minimumThreads = Integer.parseInt(bounds[0].trim());
+		int maximumThreads = Integer.parseInt(bounds[1].trim());
+		if (minimumThreads < 1 || maximumThreads < minimumThreads)
+			throw new IllegalArgumentException("--num-threads auto range should be at least 1 and in increasing order");
+		return new int[] { minimumThreads, maximumThreads };
+	}
 }
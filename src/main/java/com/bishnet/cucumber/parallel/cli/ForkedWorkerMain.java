@@ -0,0 +1,37 @@
+package com.bishnet.cucumber.parallel.cli;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import com.bishnet.cucumber.parallel.runtime.ForkedWorkerLoop;
+import com.bishnet.cucumber.parallel.runtime.ForkedWorkerPool;
+import com.bishnet.cucumber.parallel.runtime.RuntimeConfiguration;
+
+public class ForkedWorkerMain {
+
+	public static void main(String[] argv) throws IOException {
+		int port = Integer.parseInt(argv[0]);
+		List<String> arguments = Arrays.asList(argv).subList(1, argv.length);
+		RuntimeConfiguration runtimeConfiguration = new ArgumentsParser(arguments).parse();
+		ForkedWorkerLoop workerLoop = new ForkedWorkerLoop(runtimeConfiguration, Thread.currentThread()
+				.getContextClassLoader());
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			BufferedReader requests = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+					StandardCharsets.UTF_8));
+			Writer responses = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+			responses.write(System.getenv(ForkedWorkerPool.TOKEN_ENVIRONMENT_VARIABLE) + "\n");
+			responses.flush();
+			workerLoop.run(requests, responses);
+		}
+		System.exit(0);
+	}
+}
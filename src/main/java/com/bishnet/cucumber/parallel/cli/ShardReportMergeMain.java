@@ -0,0 +1,49 @@
+package com.bishnet.cucumber.parallel.cli;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.bishnet.cucumber.parallel.report.ShardReportMerger;
+
+public class ShardReportMergeMain {
+
+	public static void main(String[] argv) throws IOException {
+		List<String> parseArguments = new ArrayList<String>(Arrays.asList(argv));
+		List<Path> jsonReports = new ArrayList<Path>();
+		List<Path> htmlReports = new ArrayList<Path>();
+		List<Path> threadTimelineReports = new ArrayList<Path>();
+		Path jsonReportPath = null;
+		Path htmlReportPath = null;
+		Path threadTimelineReportPath = null;
+
+		while (!parseArguments.isEmpty()) {
+			String arg = parseArguments.remove(0).trim();
+
+			if (arg.equals("--json")) {
+				jsonReports.add(Paths.get(parseArguments.remove(0)));
+			} else if (arg.equals("--html")) {
+				htmlReports.add(Paths.get(parseArguments.remove(0)));
+			} else if (arg.equals("--thread-report")) {
+				threadTimelineReports.add(Paths.get(parseArguments.remove(0)));
+			} else if (arg.equals("--plugin") || arg.equals("-p")) {
+				String[] pluginArgsArray = parseArguments.remove(0).split(":", 2);
+				if (pluginArgsArray[0].equals("json"))
+					jsonReportPath = Paths.get(pluginArgsArray[1]);
+				else if (pluginArgsArray[0].equals("html"))
+					htmlReportPath = Paths.get(pluginArgsArray[1]);
+				else if (pluginArgsArray[0].equals("thread-report"))
+					threadTimelineReportPath = Paths.get(pluginArgsArray[1]);
+				else
+					throw new IllegalArgumentException("Only json, html and thread-report shard reports can be merged");
+			} else {
+				throw new IllegalArgumentException("Unknown argument " + arg);
+			}
+		}
+		new ShardReportMerger(jsonReports, htmlReports, threadTimelineReports).merge(jsonReportPath, htmlReportPath,
+				threadTimelineReportPath);
+	}
+}
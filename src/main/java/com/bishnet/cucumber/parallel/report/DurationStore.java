@@ -0,0 +1,154 @@
+package com.bishnet.cucumber.parallel.report;
+
+import gherkin.deps.com.google.gson.stream.JsonReader;
+import gherkin.deps.com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+public class DurationStore {
+
+	private static final String BACKGROUND_TYPE = "background";
+	private static final String ELEMENTS = "elements";
+	private static final String TYPE = "type";
+	private static final String ID = "id";
+	private static final String STEPS = "steps";
+	private static final String BEFORE = "before";
+	private static final String AFTER = "after";
+	private static final String RESULT = "result";
+	private static final String DURATION = "duration";
+	private static final long DEFAULT_STEP_DURATION = 1;
+
+	private Map<String, Long> scenarioDurations = new HashMap<String, Long>();
+	private long totalStepDuration;
+	private long totalStepCount;
+
+	public void addReport(Path jsonReport) throws IOException {
+		/*
+		 * The report is streamed and everything but the durations is skipped,
+		 * so screenshots and output embedded in it are never held in memory
+		 */
+		JsonReportFile report = new JsonReportFile(jsonReport);
+		if (report.isEmpty())
+			return;
+		try (JsonReader reader = report.openReader()) {
+			if (reader.peek() == JsonToken.NULL) {
+				reader.nextNull();
+				return;
+			}
+			reader.beginArray();
+			while (reader.hasNext())
+				readFeature(reader);
+			reader.endArray();
+		}
+	}
+
+	public Long getScenarioDuration(String scenarioId) {
+		return scenarioDurations.get(scenarioId);
+	}
+
+	public long getAverageStepDuration() {
+		if (totalStepCount == 0)
+			return DEFAULT_STEP_DURATION;
+		return Math.max(DEFAULT_STEP_DURATION, totalStepDuration / totalStepCount);
+	}
+
+	private void readFeature(JsonReader reader) throws IOException {
+		reader.beginObject();
+		while (reader.hasNext()) {
+			if (ELEMENTS.equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY)
+				readElements(reader);
+			else
+				reader.skipValue();
+		}
+		reader.endObject();
+	}
+
+	private void readElements(JsonReader reader) throws IOException {
+		/*
+		 * The background is reported as its own element immediately before
+		 * every scenario it ran for, so its time is carried forward onto the
+		 * scenario that follows it
+		 */
+		long backgroundDuration = 0;
+		reader.beginArray();
+		while (reader.hasNext()) {
+			if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+				reader.skipValue();
+				continue;
+			}
+			String type = null;
+			String scenarioId = null;
+			long elementDuration = 0;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				String name = reader.nextName();
+				if (TYPE.equals(name) && reader.peek() == JsonToken.STRING)
+					type = reader.nextString();
+				else if (ID.equals(name) && reader.peek() == JsonToken.STRING)
+					scenarioId = reader.nextString();
+				else if (STEPS.equals(name))
+					elementDuration += sumDurations(reader, true);
+				else if (BEFORE.equals(name) || AFTER.equals(name))
+					elementDuration += sumDurations(reader, false);
+				else
+					reader.skipValue();
+			}
+			reader.endObject();
+			if (BACKGROUND_TYPE.equals(type)) {
+				backgroundDuration = elementDuration;
+			} else {
+				if (scenarioId != null)
+					scenarioDurations.put(scenarioId, backgroundDuration + elementDuration);
+				backgroundDuration = 0;
+			}
+		}
+		reader.endArray();
+	}
+
+	private long sumDurations(JsonReader reader, boolean countSteps) throws IOException {
+		if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+			reader.skipValue();
+			return 0;
+		}
+		long duration = 0;
+		reader.beginArray();
+		while (reader.hasNext()) {
+			long stepDuration = readDuration(reader);
+			duration += stepDuration;
+			if (countSteps) {
+				totalStepDuration += stepDuration;
+				totalStepCount++;
+			}
+		}
+		reader.endArray();
+		return duration;
+	}
+
+	private long readDuration(JsonReader reader) throws IOException {
+		long duration = 0;
+		if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+			reader.skipValue();
+			return duration;
+		}
+		reader.beginObject();
+		while (reader.hasNext()) {
+			if (!RESULT.equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_OBJECT) {
+				reader.skipValue();
+				continue;
+			}
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if (DURATION.equals(reader.nextName()) && reader.peek() == JsonToken.NUMBER)
+					duration = (long) reader.nextDouble();
+				else
+					reader.skipValue();
+			}
+			reader.endObject();
+		}
+		reader.endObject();
+		return duration;
+	}
+}
@@ -0,0 +1,178 @@
+package com.bishnet.cucumber.parallel.report;
+
+import gherkin.deps.com.google.gson.JsonArray;
+import gherkin.deps.com.google.gson.JsonElement;
+import gherkin.deps.com.google.gson.JsonObject;
+import gherkin.deps.com.google.gson.JsonParser;
+import gherkin.deps.com.google.gson.stream.JsonReader;
+import gherkin.deps.com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+public class FailedScenarioCollector {
+
+	private static final String URI = "uri";
+	private static final String ELEMENTS = "elements";
+	private static final String TYPE = "type";
+	private static final String LINE = "line";
+	private static final String RESULT = "result";
+	private static final String STATUS = "status";
+	private static final String BACKGROUND_TYPE = "background";
+	private static final List<String> RESULT_LISTS = Arrays.asList("before", "steps", "after");
+	private static final List<String> FAILED_STATUSES = Arrays.asList("failed");
+	private static final List<String> STRICT_FAILED_STATUSES = Arrays.asList("failed", "undefined", "pending");
+
+	private List<String> failedStatuses;
+	private boolean keepScenarioElements;
+	private Map<String, TreeSet<Integer>> failedScenarios = new LinkedHashMap<String, TreeSet<Integer>>();
+	private Map<String, List<JsonElement>> scenarioElements = new HashMap<String, List<JsonElement>>();
+	private JsonParser parser = new JsonParser();
+
+	public FailedScenarioCollector(boolean strict) {
+		this(strict, false);
+	}
+
+	public FailedScenarioCollector(boolean strict, boolean keepScenarioElements) {
+		this.failedStatuses = strict ? STRICT_FAILED_STATUSES : FAILED_STATUSES;
+		this.keepScenarioElements = keepScenarioElements;
+	}
+
+	public void addReport(Path jsonReport) throws IOException {
+		addReport(JsonReportFile.of(jsonReport));
+	}
+
+	public synchronized void addReport(JsonReport jsonReport) throws IOException {
+		if (jsonReport == null || jsonReport.isEmpty())
+			return;
+		/*
+		 * Elements are read one at a time so a report full of embedded
+		 * screenshots never has to be held in memory as a whole
+		 */
+		try (JsonReader reader = jsonReport.openReader()) {
+			reader.setLenient(true);
+			reader.beginArray();
+			while (reader.hasNext())
+				addFeature(reader);
+			reader.endArray();
+		}
+	}
+
+	public synchronized Map<String, List<Integer>> getFailedScenarios() {
+		Map<String, List<Integer>> featureLines = new LinkedHashMap<String, List<Integer>>();
+		for (Map.Entry<String, TreeSet<Integer>> failedLines : failedScenarios.entrySet())
+			featureLines.put(failedLines.getKey(), new ArrayList<Integer>(failedLines.getValue()));
+		return featureLines;
+	}
+
+	public synchronized boolean hasFailed(String uri, int line) {
+		TreeSet<Integer> failedLines = failedScenarios.get(uri);
+		return failedLines != null && failedLines.contains(line);
+	}
+
+	public synchronized List<JsonElement> getScenarioElements(String uri, int line) {
+		return scenarioElements.get(getScenarioKey(uri, line));
+	}
+
+	private void addFeature(JsonReader reader) throws IOException {
+		String uri = null;
+		List<ScenarioResult> scenarioResults = Collections.emptyList();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (URI.equals(name) && reader.peek() == JsonToken.STRING)
+				uri = reader.nextString();
+			else if (ELEMENTS.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY)
+				scenarioResults = readScenarioResults(reader);
+			else
+				reader.skipValue();
+		}
+		reader.endObject();
+		if (uri == null)
+			return;
+		for (ScenarioResult scenarioResult : scenarioResults) {
+			if (scenarioResult.failed) {
+				TreeSet<Integer> failedLines = failedScenarios.get(uri);
+				if (failedLines == null) {
+					failedLines = new TreeSet<Integer>();
+					failedScenarios.put(uri, failedLines);
+				}
+				failedLines.add(scenarioResult.line);
+			}
+			if (keepScenarioElements)
+				scenarioElements.put(getScenarioKey(uri, scenarioResult.line), scenarioResult.elements);
+		}
+	}
+
+	private List<ScenarioResult> readScenarioResults(JsonReader reader) throws IOException {
+		/*
+		 * A background is reported as its own element in front of every
+		 * scenario it ran for, so a failure in it belongs to that scenario
+		 */
+		List<ScenarioResult> scenarioResults = new ArrayList<ScenarioResult>();
+		ScenarioResult scenarioResult = new ScenarioResult();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			JsonElement element = parser.parse(reader);
+			if (!element.isJsonObject())
+				continue;
+			JsonObject elementObject = element.getAsJsonObject();
+			scenarioResult.failed |= hasFailedResult(elementObject);
+			if (keepScenarioElements)
+				scenarioResult.elements.add(element);
+			if (isBackground(elementObject))
+				continue;
+			JsonElement line = elementObject.get(LINE);
+			if (line != null && line.isJsonPrimitive()) {
+				scenarioResult.line = line.getAsInt();
+				scenarioResults.add(scenarioResult);
+			}
+			scenarioResult = new ScenarioResult();
+		}
+		reader.endArray();
+		return scenarioResults;
+	}
+
+	private boolean isBackground(JsonObject element) {
+		JsonElement type = element.get(TYPE);
+		return type != null && type.isJsonPrimitive() && BACKGROUND_TYPE.equals(type.getAsString());
+	}
+
+	private boolean hasFailedResult(JsonObject element) {
+		for (String resultList : RESULT_LISTS) {
+			JsonElement stepsOrHooks = element.get(resultList);
+			if (stepsOrHooks == null || !stepsOrHooks.isJsonArray())
+				continue;
+			for (JsonElement stepOrHook : (JsonArray) stepsOrHooks) {
+				if (!stepOrHook.isJsonObject())
+					continue;
+				JsonElement result = stepOrHook.getAsJsonObject().get(RESULT);
+				if (result == null || !result.isJsonObject())
+					continue;
+				JsonElement status = result.getAsJsonObject().get(STATUS);
+				if (status != null && status.isJsonPrimitive() && failedStatuses.contains(status.getAsString()))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	private String getScenarioKey(String uri, int line) {
+		return uri + ":" + line;
+	}
+
+	private static class ScenarioResult {
+
+		private int line;
+		private boolean failed;
+		private List<JsonElement> elements = new ArrayList<JsonElement>();
+	}
+}
@@ -1,8 +1,12 @@
 package com.bishnet.cucumber.parallel.report;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.OpenOption;
@@ -10,51 +14,177 @@ import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.ListIterator;
-import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class HtmlReportMerger {
 
 	private static final String IMAGE_PATTERN = "*.png";
+	private static final String IMAGE_EXTENSION = ".png";
 	private static final String REPORT_JS = "report.js";
+	private static final Pattern IMAGE_REFERENCE = Pattern.compile("\"([^\"]+\\" + IMAGE_EXTENSION + ")\"");
+	private static final String HASH_ALGORITHM = "SHA-256";
 	private List<Path> reportDirs;
+	private Path mergedReport;
+	private boolean firstReport;
+	private boolean moveImages;
+
+	public HtmlReportMerger() {
+		this(Collections.<Path> emptyList(), true);
+	}
 
 	public HtmlReportMerger(List<Path> reportDirs) {
+		this(reportDirs, false);
+	}
+
+	public HtmlReportMerger(List<Path> reportDirs, boolean moveImages) {
 		this.reportDirs = reportDirs;
+		this.moveImages = moveImages;
 	}
 
 	public void merge(Path mergedReport) throws IOException {
+		open(mergedReport);
+		if (reportDirs.isEmpty())
+			return;
+		/*
+		 * The images of every report are linked in parallel while report.js
+		 * is appended in report order as each report's images are ready
+		 */
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(reportDirs.size(), Runtime.getRuntime()
+				.availableProcessors()));
+		try {
+			List<Future<Map<String, String>>> imageRenames = new ArrayList<Future<Map<String, String>>>();
+			for (final Path reportDir : reportDirs)
+				imageRenames.add(executor.submit(() -> linkImages(reportDir)));
+			for (int reportIndex = 0; reportIndex < reportDirs.size(); reportIndex++)
+				addReport(reportDirs.get(reportIndex), imageRenames.get(reportIndex).get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	public void open(Path mergedReport) throws IOException {
+		this.mergedReport = mergedReport;
 		Files.createDirectories(mergedReport);
-		boolean firstReport = true;
-		for (Path reportDir : reportDirs) {
-			if (firstReport) {
-				copyResourceFiles(reportDir, mergedReport);
-			}
-			copyImagesAndJavaScriptWithImageRename(reportDir, mergedReport, firstReport);
-			firstReport = false;
+		firstReport = true;
+	}
+
+	public void addReport(Path reportDir) throws IOException {
+		addReport(reportDir, linkImages(reportDir));
+	}
+
+	private void addReport(Path reportDir, Map<String, String> imageRenames) throws IOException {
+		if (firstReport) {
+			copyResourceFiles(reportDir, mergedReport);
 		}
+		writeJavaScriptWithImageRename(reportDir, mergedReport, imageRenames, firstReport);
+		firstReport = false;
 	}
 
-	private void copyImagesAndJavaScriptWithImageRename(Path reportDir, Path targetDir, boolean overwriteReport)
-			throws IOException {
+	private Map<String, String> linkImages(Path reportDir) throws IOException {
+		/*
+		 * Images are named after a hash of their content so identical
+		 * screenshots from any thread end up as a single file in the merged
+		 * report. They are hard linked where the file system allows it and
+		 * otherwise copied, or moved out of reports the run owns itself
+		 */
+		Map<String, String> imageRenames = new HashMap<String, String>();
 		try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(reportDir, IMAGE_PATTERN)) {
-			List<String> reportJs = Files.readAllLines(reportDir.resolve(REPORT_JS), StandardCharsets.UTF_8);
 			for (Path embeddedImage : dirStream) {
-				String uniqueName = UUID.randomUUID().toString() + ".png";
-				Files.copy(embeddedImage, targetDir.resolve(uniqueName));
-				ListIterator<String> listIterator = reportJs.listIterator();
-				while (listIterator.hasNext()) {
-					listIterator.set(listIterator.next().replace(embeddedImage.getFileName().toString(), uniqueName));
-				}
+				String uniqueName = hashContent(embeddedImage) + IMAGE_EXTENSION;
+				Path mergedImage = mergedReport.resolve(uniqueName);
+				if (!Files.exists(mergedImage))
+					linkImage(embeddedImage, mergedImage);
+				imageRenames.put(embeddedImage.getFileName().toString(), uniqueName);
 			}
-			OpenOption[] copyOptions;
-			if (overwriteReport)
-				copyOptions = new OpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING };
-			else
-				copyOptions = new OpenOption[] { StandardOpenOption.APPEND };
-			Files.write(targetDir.resolve(REPORT_JS), reportJs, StandardCharsets.UTF_8, copyOptions);
 		}
+		return imageRenames;
+	}
+
+	private void linkImage(Path embeddedImage, Path mergedImage) throws IOException {
+		try {
+			Files.createLink(mergedImage, embeddedImage);
+		} catch (FileAlreadyExistsException e) {
+			return;
+		} catch (IOException | UnsupportedOperationException e) {
+			try {
+				if (moveImages)
+					Files.move(embeddedImage, mergedImage);
+				else
+					Files.copy(embeddedImage, mergedImage);
+			} catch (FileAlreadyExistsException alreadyMerged) {
+				return;
+			}
+		}
+	}
+
+	private String hashContent(Path file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance(HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+		byte[] buffer = new byte[8192];
+		try (InputStream inputStream = Files.newInputStream(file)) {
+			int bytesRead;
+			while ((bytesRead = inputStream.read(buffer)) != -1)
+				digest.update(buffer, 0, bytesRead);
+		}
+		StringBuilder hash = new StringBuilder();
+		for (byte hashByte : digest.digest())
+			hash.append(String.format("%02x", hashByte));
+		return hash.toString();
+	}
+
+	private void writeJavaScriptWithImageRename(Path reportDir, Path targetDir, Map<String, String> imageRenames,
+			boolean overwriteReport) throws IOException {
+		OpenOption[] copyOptions;
+		if (overwriteReport)
+			copyOptions = new OpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING };
+		else
+			copyOptions = new OpenOption[] { StandardOpenOption.APPEND };
+		try (BufferedReader reader = Files.newBufferedReader(reportDir.resolve(REPORT_JS), StandardCharsets.UTF_8);
+				BufferedWriter writer = Files.newBufferedWriter(targetDir.resolve(REPORT_JS), StandardCharsets.UTF_8,
+						copyOptions)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				writer.write(renameImages(line, imageRenames));
+				writer.newLine();
+			}
+		}
+	}
+
+	private String renameImages(String line, Map<String, String> imageRenames) {
+		if (imageRenames.isEmpty() || !line.contains(IMAGE_EXTENSION))
+			return line;
+		Matcher matcher = IMAGE_REFERENCE.matcher(line);
+		StringBuffer renamedLine = new StringBuffer();
+		while (matcher.find()) {
+			String uniqueName = imageRenames.get(matcher.group(1));
+			String replacement = uniqueName == null ? matcher.group() : "\"" + uniqueName + "\"";
+			matcher.appendReplacement(renamedLine, Matcher.quoteReplacement(replacement));
+		}
+		matcher.appendTail(renamedLine);
+		return renamedLine.toString();
 	}
 
 	private void copyResourceFiles(Path sourceDir, Path targetDir) throws IOException {
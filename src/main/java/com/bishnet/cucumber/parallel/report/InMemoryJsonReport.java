@@ -0,0 +1,192 @@
+package com.bishnet.cucumber.parallel.report;
+
+import gherkin.deps.com.google.gson.stream.JsonReader;
+import gherkin.formatter.Formatter;
+import gherkin.formatter.Reporter;
+import gherkin.formatter.model.Background;
+import gherkin.formatter.model.Examples;
+import gherkin.formatter.model.Feature;
+import gherkin.formatter.model.Match;
+import gherkin.formatter.model.Result;
+import gherkin.formatter.model.Scenario;
+import gherkin.formatter.model.ScenarioOutline;
+import gherkin.formatter.model.Step;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.commons.io.input.CharSequenceReader;
+
+import cucumber.runtime.CucumberException;
+import cucumber.runtime.formatter.CucumberJSONFormatter;
+
+public class InMemoryJsonReport implements JsonReport, Formatter, Reporter {
+
+	private static final int DEFAULT_SPILL_LENGTH = 4 * 1024 * 1024;
+
+	private CucumberJSONFormatter formatter;
+	private StringBuilder json = new StringBuilder();
+	private Path spillDirectory;
+	private int spillLength;
+	private volatile boolean done;
+	private volatile JsonReportFile spilledReport;
+
+	public InMemoryJsonReport() {
+		this(null);
+	}
+
+	public InMemoryJsonReport(Path spillDirectory) {
+		this(spillDirectory, DEFAULT_SPILL_LENGTH);
+	}
+
+	InMemoryJsonReport(Path spillDirectory, int spillLength) {
+		this.formatter = new CucumberJSONFormatter(json);
+		this.spillDirectory = spillDirectory;
+		this.spillLength = spillLength;
+	}
+
+	@Override
+	public void done() {
+		/*
+		 * The formatter writes its results out as JSON text and is then let
+		 * go of, so the maps it built up do not stay behind with the runtime
+		 */
+		formatter.done();
+		formatter = null;
+		if (spillDirectory != null && json.length() > spillLength)
+			spill();
+		done = true;
+	}
+
+	@Override
+	public void close() {
+		formatter = null;
+	}
+
+	@Override
+	public boolean isEmpty() throws IOException {
+		if (spilledReport != null)
+			return spilledReport.isEmpty();
+		return !done || json.length() == 0;
+	}
+
+	@Override
+	public JsonReader openReader() throws IOException {
+		if (spilledReport != null)
+			return spilledReport.openReader();
+		JsonReader reader = new JsonReader(new CharSequenceReader(json));
+		reader.setLenient(true);
+		return reader;
+	}
+
+	boolean isSpilled() {
+		return spilledReport != null;
+	}
+
+	private void spill() {
+		/*
+		 * A large report is written to the run workspace rather than held
+		 * until the merger gets to it, which can be the end of the run for
+		 * the part of a split feature
+		 */
+		try {
+			Path reportFile = Files.createTempFile(spillDirectory, "report", ".json");
+			try (Writer writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+				writer.append(json);
+			}
+			spilledReport = new JsonReportFile(reportFile);
+			json = new StringBuilder();
+		} catch (IOException e) {
+			throw new CucumberException(e);
+		}
+	}
+
+	@Override
+	public void syntaxError(String state, String event, List<String> legalEvents, String uri, Integer line) {
+		formatter.syntaxError(state, event, legalEvents, uri, line);
+	}
+
+	@Override
+	public void uri(String uri) {
+		formatter.uri(uri);
+	}
+
+	@Override
+	public void feature(Feature feature) {
+		formatter.feature(feature);
+	}
+
+	@Override
+	public void scenarioOutline(ScenarioOutline scenarioOutline) {
+		formatter.scenarioOutline(scenarioOutline);
+	}
+
+	@Override
+	public void examples(Examples examples) {
+		formatter.examples(examples);
+	}
+
+	@Override
+	public void startOfScenarioLifeCycle(Scenario scenario) {
+		formatter.startOfScenarioLifeCycle(scenario);
+	}
+
+	@Override
+	public void background(Background background) {
+		formatter.background(background);
+	}
+
+	@Override
+	public void scenario(Scenario scenario) {
+		formatter.scenario(scenario);
+	}
+
+	@Override
+	public void step(Step step) {
+		formatter.step(step);
+	}
+
+	@Override
+	public void endOfScenarioLifeCycle(Scenario scenario) {
+		formatter.endOfScenarioLifeCycle(scenario);
+	}
+
+	@Override
+	public void eof() {
+		formatter.eof();
+	}
+
+	@Override
+	public void before(Match match, Result result) {
+		formatter.before(match, result);
+	}
+
+	@Override
+	public void result(Result result) {
+		formatter.result(result);
+	}
+
+	@Override
+	public void after(Match match, Result result) {
+		formatter.after(match, result);
+	}
+
+	@Override
+	public void match(Match match) {
+		formatter.match(match);
+	}
+
+	@Override
+	public void embedding(String mimeType, byte[] data) {
+		formatter.embedding(mimeType, data);
+	}
+
+	@Override
+	public void write(String text) {
+		formatter.write(text);
+	}
+}
@@ -0,0 +1,12 @@
+package com.bishnet.cucumber.parallel.report;
+
+import gherkin.deps.com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+public interface JsonReport {
+
+	boolean isEmpty() throws IOException;
+
+	JsonReader openReader() throws IOException;
+}
@@ -0,0 +1,37 @@
+package com.bishnet.cucumber.parallel.report;
+
+import gherkin.deps.com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class JsonReportFile implements JsonReport {
+
+	private Path reportFile;
+
+	public JsonReportFile(Path reportFile) {
+		this.reportFile = reportFile;
+	}
+
+	public static JsonReport of(Path reportFile) {
+		return reportFile == null ? null : new JsonReportFile(reportFile);
+	}
+
+	public Path getPath() {
+		return reportFile;
+	}
+
+	@Override
+	public boolean isEmpty() throws IOException {
+		return !Files.exists(reportFile) || Files.size(reportFile) == 0;
+	}
+
+	@Override
+	public JsonReader openReader() throws IOException {
+		JsonReader reader = new JsonReader(Files.newBufferedReader(reportFile, StandardCharsets.UTF_8));
+		reader.setLenient(true);
+		return reader;
+	}
+}
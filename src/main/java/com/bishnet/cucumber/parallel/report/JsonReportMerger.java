@@ -1,51 +1,425 @@
 package com.bishnet.cucumber.parallel.report;
 
-import gherkin.deps.com.google.gson.Gson;
-import gherkin.deps.com.google.gson.GsonBuilder;
-import gherkin.deps.com.google.gson.reflect.TypeToken;
+import gherkin.deps.com.google.gson.JsonElement;
+import gherkin.deps.com.google.gson.stream.JsonReader;
+import gherkin.deps.com.google.gson.stream.JsonToken;
+import gherkin.deps.com.google.gson.stream.JsonWriter;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.Writer;
+import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 public class JsonReportMerger {
 
-	private List<Path> reportFiles;
+	private static final String URI = "uri";
+	private static final String ELEMENTS = "elements";
+	private static final String TYPE = "type";
+	private static final String LINE = "line";
+	private static final String BACKGROUND_TYPE = "background";
+	private static final Pattern INTEGER = Pattern.compile("-?\\d+");
+
+	private List<JsonReport> reports;
+	private Map<String, Integer> featurePartCounts;
+	private boolean joinEveryOccurrence;
+	private JsonDoubleSerializer doubleSerializer = new JsonDoubleSerializer();
+	private Map<String, List<FeatureOccurrence>> partsByUri = new LinkedHashMap<String, List<FeatureOccurrence>>();
+	private Writer output;
+	private JsonWriter writer;
 
 	public JsonReportMerger(List<Path> reportFiles) {
-		this.reportFiles = reportFiles;
+		this.reports = new ArrayList<JsonReport>();
+		for (Path reportFile : reportFiles)
+			reports.add(new JsonReportFile(reportFile));
+		this.featurePartCounts = Collections.emptyMap();
+		this.joinEveryOccurrence = true;
+	}
+
+	public JsonReportMerger(Map<String, Integer> featurePartCounts) {
+		this.reports = Collections.emptyList();
+		this.featurePartCounts = featurePartCounts;
 	}
 
 	public void merge(Path mergedReport) throws IOException {
-		List<Map<String, Object>> features = new ArrayList<Map<String, Object>>();
-		for (Path reportFile : reportFiles) {
-			features.addAll(readSingleReport(reportFile));
+		/*
+		 * Reports are merged as a stream of tokens so that only the index of
+		 * feature and element positions is kept in memory, however large the
+		 * embedded screenshots in the reports are
+		 */
+		List<List<FeatureOccurrence>> reportFeatures = new ArrayList<List<FeatureOccurrence>>();
+		for (JsonReport report : reports)
+			reportFeatures.add(indexReport(report));
+
+		open(mergedReport);
+		try {
+			for (int reportIndex = 0; reportIndex < reports.size(); reportIndex++)
+				writeFirstOccurrences(reports.get(reportIndex), reportFeatures.get(reportIndex));
+		} catch (IOException | RuntimeException e) {
+			output.close();
+			throw e;
 		}
+		close();
+	}
 
+	public void open(Path mergedReport) throws IOException {
 		Path reportDirectory = mergedReport.getParent();
 		if (reportDirectory != null)
 			Files.createDirectories(reportDirectory);
-		try (BufferedWriter bw = new BufferedWriter(new FileWriter(mergedReport.toFile()))) {
-			Gson gson = new GsonBuilder().registerTypeAdapter(Double.class, new JsonDoubleSerializer()).setPrettyPrinting()
-					.create();
-			bw.write(gson.toJson(features));
-			bw.close();
+		output = new BufferedWriter(new FileWriter(mergedReport.toFile()));
+		writer = new JsonWriter(output);
+		writer.setIndent("  ");
+		writer.setHtmlSafe(true);
+		writer.setSerializeNulls(false);
+		writer.beginArray();
+	}
+
+	public void addReport(Path reportFile) throws IOException {
+		addReport(new JsonReportFile(reportFile));
+	}
+
+	public void addReport(JsonReport report) throws IOException {
+		/*
+		 * Features are appended as soon as their report arrives, except for
+		 * the parts of a split feature which wait for the expected number of
+		 * parts so they can be joined
+		 */
+		List<FeatureOccurrence> features = indexReport(report);
+		if (features.isEmpty())
+			return;
+		try (JsonReader reader = openReport(report)) {
+			reader.beginArray();
+			for (FeatureOccurrence feature : features) {
+				if (getExpectedPartCount(feature) <= 1) {
+					writeFeature(reader, feature, false);
+					continue;
+				}
+				reader.skipValue();
+				if (feature.parts.size() == getExpectedPartCount(feature)) {
+					writeJoinedFeature(feature.parts);
+					partsByUri.remove(feature.uri);
+				}
+			}
+		}
+	}
+
+	public void close() throws IOException {
+		/*
+		 * Any split feature still missing parts is written with the parts that
+		 * did arrive
+		 */
+		try {
+			for (List<FeatureOccurrence> parts : partsByUri.values())
+				if (parts.size() < getExpectedPartCount(parts.get(0)))
+					writeJoinedFeature(parts);
+			writer.endArray();
+			writer.close();
+		} finally {
+			output.close();
+		}
+	}
+
+	int getWaitingFeatureCount() {
+		return partsByUri.size();
+	}
+
+	private List<FeatureOccurrence> indexReport(JsonReport report) throws IOException {
+		List<FeatureOccurrence> features = new ArrayList<FeatureOccurrence>();
+		if (report.isEmpty())
+			return features;
+		try (JsonReader reader = openReport(report)) {
+			reader.beginArray();
+			while (reader.hasNext())
+				features.add(indexFeature(reader, report, features.size()));
+			reader.endArray();
 		}
+		return features;
 	}
 
-	private List<Map<String, Object>> readSingleReport(Path reportFile) throws IOException {
-		try (BufferedReader br = new BufferedReader(new FileReader(reportFile.toFile()))) {
-			Type listType = new TypeToken<List<Map<String, Object>>>() {
-			}.getType();
-			return new Gson().fromJson(br, listType);
+	private int getExpectedPartCount(FeatureOccurrence feature) {
+		Integer expectedPartCount = feature.uri == null ? null : featurePartCounts.get(feature.uri);
+		return expectedPartCount == null ? 1 : expectedPartCount;
+	}
+
+	private FeatureOccurrence indexFeature(JsonReader reader, JsonReport report, int featureIndex) throws IOException {
+		FeatureOccurrence feature = new FeatureOccurrence(report, featureIndex);
+		String uri = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (URI.equals(name) && reader.peek() == JsonToken.STRING)
+				uri = reader.nextString();
+			else if (ELEMENTS.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY)
+				indexElements(reader, feature);
+			else
+				reader.skipValue();
+		}
+		reader.endObject();
+		/*
+		 * A feature split into scenarios or examples is reported once by every
+		 * thread which ran part of it, so the parts are joined back into the
+		 * first occurrence. Only those parts are kept until the feature is
+		 * written, a feature in one piece is let go of with its report
+		 */
+		feature.uri = uri;
+		List<FeatureOccurrence> parts = null;
+		boolean joined = uri != null && (joinEveryOccurrence || getExpectedPartCount(feature) > 1);
+		if (joined)
+			parts = partsByUri.get(uri);
+		if (parts == null) {
+			parts = new ArrayList<FeatureOccurrence>();
+			if (joined)
+				partsByUri.put(uri, parts);
+		}
+		parts.add(feature);
+		feature.parts = parts;
+		return feature;
+	}
+
+	private void indexElements(JsonReader reader, FeatureOccurrence feature) throws IOException {
+		/*
+		 * Each background element belongs to the scenario which follows it
+		 * and has to stay directly in front of it
+		 */
+		int groupStart = 0;
+		int elementIndex = 0;
+		reader.beginArray();
+		while (reader.hasNext()) {
+			String type = null;
+			double line = 0;
+			if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+				reader.beginObject();
+				while (reader.hasNext()) {
+					String name = reader.nextName();
+					if (TYPE.equals(name) && reader.peek() == JsonToken.STRING)
+						type = reader.nextString();
+					else if (LINE.equals(name) && reader.peek() == JsonToken.NUMBER)
+						line = reader.nextDouble();
+					else
+						reader.skipValue();
+				}
+				reader.endObject();
+			} else {
+				reader.skipValue();
+			}
+			elementIndex++;
+			if (!BACKGROUND_TYPE.equals(type)) {
+				feature.elementGroups.add(new ElementGroup(feature, groupStart, elementIndex - groupStart, line));
+				groupStart = elementIndex;
+			}
+		}
+		reader.endArray();
+		if (groupStart < elementIndex)
+			feature.elementGroups.add(new ElementGroup(feature, groupStart, elementIndex - groupStart,
+					Double.POSITIVE_INFINITY));
+	}
+
+	private void writeFirstOccurrences(JsonReport report, List<FeatureOccurrence> features) throws IOException {
+		if (features.isEmpty())
+			return;
+		try (JsonReader reader = openReport(report)) {
+			reader.beginArray();
+			for (FeatureOccurrence feature : features) {
+				if (feature.parts.get(0) == feature)
+					writeFeature(reader, feature, feature.parts.size() > 1);
+				else
+					reader.skipValue();
+			}
+		}
+	}
+
+	private void writeJoinedFeature(List<FeatureOccurrence> parts) throws IOException {
+		FeatureOccurrence firstPart = parts.get(0);
+		try (JsonReader reader = openReport(firstPart.report)) {
+			reader.beginArray();
+			for (int i = 0; i < firstPart.featureIndex; i++)
+				reader.skipValue();
+			writeFeature(reader, firstPart, true);
+		}
+	}
+
+	private void writeFeature(JsonReader reader, FeatureOccurrence feature, boolean joined) throws IOException {
+		boolean elementsWritten = false;
+		reader.beginObject();
+		writer.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			writer.name(name);
+			if (joined && ELEMENTS.equals(name)) {
+				reader.skipValue();
+				writeJoinedElements(feature.parts);
+				elementsWritten = true;
+			} else {
+				copyValue(reader);
+			}
+		}
+		if (joined && !elementsWritten) {
+			writer.name(ELEMENTS);
+			writeJoinedElements(feature.parts);
+		}
+		reader.endObject();
+		writer.endObject();
+	}
+
+	private void writeJoinedElements(List<FeatureOccurrence> parts) throws IOException {
+		List<ElementGroup> elementGroups = new ArrayList<ElementGroup>();
+		for (FeatureOccurrence part : parts)
+			elementGroups.addAll(part.elementGroups);
+		Collections.sort(elementGroups, new Comparator<ElementGroup>() {
+			@Override
+			public int compare(ElementGroup first, ElementGroup second) {
+				return Double.compare(first.line, second.line);
+			}
+		});
+		Map<FeatureOccurrence, ElementCursor> cursors = new IdentityHashMap<FeatureOccurrence, ElementCursor>();
+		try {
+			writer.beginArray();
+			for (ElementGroup elementGroup : elementGroups) {
+				ElementCursor cursor = cursors.get(elementGroup.feature);
+				if (cursor == null) {
+					cursor = new ElementCursor(elementGroup.feature);
+					cursors.put(elementGroup.feature, cursor);
+				}
+				cursor.copyElements(elementGroup.firstElement, elementGroup.elementCount);
+			}
+			writer.endArray();
+		} finally {
+			for (ElementCursor cursor : cursors.values())
+				cursor.close();
+		}
+	}
+
+	private void copyValue(JsonReader reader) throws IOException {
+		switch (reader.peek()) {
+		case BEGIN_ARRAY:
+			reader.beginArray();
+			writer.beginArray();
+			while (reader.hasNext())
+				copyValue(reader);
+			reader.endArray();
+			writer.endArray();
+			break;
+		case BEGIN_OBJECT:
+			reader.beginObject();
+			writer.beginObject();
+			while (reader.hasNext()) {
+				writer.name(reader.nextName());
+				copyValue(reader);
+			}
+			reader.endObject();
+			writer.endObject();
+			break;
+		case STRING:
+			writer.value(reader.nextString());
+			break;
+		case NUMBER:
+			copyNumber(reader.nextString());
+			break;
+		case BOOLEAN:
+			writer.value(reader.nextBoolean());
+			break;
+		case NULL:
+			reader.nextNull();
+			writer.nullValue();
+			break;
+		default:
+			reader.skipValue();
+		}
+	}
+
+	private void copyNumber(String number) throws IOException {
+		if (INTEGER.matcher(number).matches()) {
+			writer.value(new BigInteger(number));
+		} else {
+			JsonElement normalisedNumber = doubleSerializer.serialize(Double.valueOf(number), Double.class, null);
+			writer.value(normalisedNumber.getAsNumber());
+		}
+	}
+
+	private JsonReader openReport(JsonReport report) throws IOException {
+		JsonReader reader = report.openReader();
+		reader.setLenient(true);
+		return reader;
+	}
+
+	private static class FeatureOccurrence {
+
+		private JsonReport report;
+		private int featureIndex;
+		private String uri;
+		private List<ElementGroup> elementGroups = new ArrayList<ElementGroup>();
+		private List<FeatureOccurrence> parts;
+
+		public FeatureOccurrence(JsonReport report, int featureIndex) {
+			this.report = report;
+			this.featureIndex = featureIndex;
+		}
+	}
+
+	private static class ElementGroup {
+
+		private FeatureOccurrence feature;
+		private int firstElement;
+		private int elementCount;
+		private double line;
+
+		public ElementGroup(FeatureOccurrence feature, int firstElement, int elementCount, double line) {
+			this.feature = feature;
+			this.firstElement = firstElement;
+			this.elementCount = elementCount;
+			this.line = line;
+		}
+	}
+
+	private class ElementCursor {
+
+		private FeatureOccurrence feature;
+		private JsonReader reader;
+		private int nextElement;
+
+		public ElementCursor(FeatureOccurrence feature) {
+			this.feature = feature;
+		}
+
+		public void copyElements(int firstElement, int elementCount) throws IOException {
+			/*
+			 * Every thread reports its part of a feature in line order so the
+			 * reader normally only moves forward, it is reopened otherwise
+			 */
+			if (reader == null || nextElement > firstElement)
+				open();
+			for (; nextElement < firstElement; nextElement++)
+				reader.skipValue();
+			for (int i = 0; i < elementCount; i++, nextElement++)
+				copyValue(reader);
+		}
+
+		public void close() throws IOException {
+			if (reader != null)
+				reader.close();
+		}
+
+		private void open() throws IOException {
+			close();
+			reader = openReport(feature.report);
+			reader.beginArray();
+			for (int i = 0; i < feature.featureIndex; i++)
+				reader.skipValue();
+			reader.beginObject();
+			while (!ELEMENTS.equals(reader.nextName()))
+				reader.skipValue();
+			reader.beginArray();
+			nextElement = 0;
 		}
 	}
 }
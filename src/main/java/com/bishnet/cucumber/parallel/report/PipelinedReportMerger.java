@@ -0,0 +1,84 @@
+package com.bishnet.cucumber.parallel.report;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class PipelinedReportMerger {
+
+	private Path jsonReportPath;
+	private Path htmlReportPath;
+	private JsonReportMerger jsonReportMerger;
+	private HtmlReportMerger htmlReportMerger;
+	private ExecutorService mergeExecutor = Executors.newSingleThreadExecutor();
+	private List<Future<Void>> merges = Collections.synchronizedList(new ArrayList<Future<Void>>());
+
+	public PipelinedReportMerger(Path jsonReportPath, Path htmlReportPath, Map<String, Integer> featurePartCounts) {
+		this.jsonReportPath = jsonReportPath;
+		this.htmlReportPath = htmlReportPath;
+		if (jsonReportPath != null)
+			jsonReportMerger = new JsonReportMerger(featurePartCounts);
+		if (htmlReportPath != null)
+			htmlReportMerger = new HtmlReportMerger();
+	}
+
+	public void open() throws IOException {
+		if (jsonReportMerger != null)
+			jsonReportMerger.open(jsonReportPath);
+		if (htmlReportMerger != null)
+			htmlReportMerger.open(htmlReportPath);
+	}
+
+	public void addReports(final JsonReport jsonReport, final Path htmlReport) {
+		/*
+		 * Reports are merged one at a time on a single background thread so
+		 * the mergers never see concurrent calls and merging overlaps with the
+		 * runtimes that are still executing
+		 */
+		merges.add(mergeExecutor.submit(() -> {
+			if (jsonReportMerger != null && jsonReport != null)
+				jsonReportMerger.addReport(jsonReport);
+			if (htmlReportMerger != null && htmlReport != null)
+				htmlReportMerger.addReport(htmlReport);
+			return null;
+		}));
+	}
+
+	public void close() throws IOException, InterruptedException {
+		mergeExecutor.shutdown();
+		mergeExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		try {
+			for (Future<Void> merge : merges)
+				merge.get();
+		} catch (ExecutionException e) {
+			IOException mergeFailure;
+			if (e.getCause() instanceof IOException)
+				mergeFailure = (IOException) e.getCause();
+			else
+				mergeFailure = new IOException(e.getCause());
+			closeJsonReportMerger(mergeFailure);
+			throw mergeFailure;
+		}
+		closeJsonReportMerger(null);
+	}
+
+	private void closeJsonReportMerger(IOException mergeFailure) throws IOException {
+		if (jsonReportMerger == null)
+			return;
+		try {
+			jsonReportMerger.close();
+		} catch (IOException | RuntimeException e) {
+			if (mergeFailure == null)
+				throw e;
+			mergeFailure.addSuppressed(e);
+		}
+	}
+}
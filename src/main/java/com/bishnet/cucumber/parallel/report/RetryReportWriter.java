@@ -0,0 +1,177 @@
+package com.bishnet.cucumber.parallel.report;
+
+import gherkin.deps.com.google.gson.Gson;
+import gherkin.deps.com.google.gson.JsonElement;
+import gherkin.deps.com.google.gson.JsonObject;
+import gherkin.deps.com.google.gson.JsonParser;
+import gherkin.deps.com.google.gson.JsonPrimitive;
+import gherkin.deps.com.google.gson.stream.JsonReader;
+import gherkin.deps.com.google.gson.stream.JsonToken;
+import gherkin.deps.com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RetryReportWriter {
+
+	private static final String FLAKY = "flaky";
+	private static final String FAILED = "failed";
+	private static final String URI = "uri";
+	private static final String ELEMENTS = "elements";
+	private static final String TYPE = "type";
+	private static final String LINE = "line";
+	private static final String BACKGROUND_TYPE = "background";
+	private static final String ATTEMPTS = "attempts";
+	private static final String OUTCOME = "outcome";
+
+	private Map<String, RetriedScenario> retriedScenarios = new HashMap<String, RetriedScenario>();
+	private JsonParser parser = new JsonParser();
+	private Gson gson = new Gson();
+
+	public void addRetriedScenario(String uri, int line, List<JsonElement> lastAttemptElements, int attempts,
+			boolean passed) {
+		retriedScenarios.put(uri + ":" + line, new RetriedScenario(lastAttemptElements, attempts, passed));
+	}
+
+	public void write(Path firstRunReport, Path mergedReport) throws IOException {
+		/*
+		 * The report of the first run is copied one element at a time, every
+		 * retried scenario being swapped for its last attempt and marked with
+		 * the number of attempts and whether it turned out flaky or failed
+		 */
+		List<String> featureUris = readFeatureUris(firstRunReport);
+		Path reportDirectory = mergedReport.getParent();
+		if (reportDirectory != null)
+			Files.createDirectories(reportDirectory);
+		try (JsonReader reader = new JsonReader(new BufferedReader(new FileReader(firstRunReport.toFile())));
+				JsonWriter writer = new JsonWriter(new BufferedWriter(new FileWriter(mergedReport.toFile())))) {
+			reader.setLenient(true);
+			writer.setIndent("  ");
+			writer.setHtmlSafe(true);
+			writer.setSerializeNulls(false);
+			writer.beginArray();
+			if (!featureUris.isEmpty()) {
+				reader.beginArray();
+				for (String uri : featureUris)
+					writeFeature(reader, writer, uri);
+				reader.endArray();
+			}
+			writer.endArray();
+		}
+	}
+
+	private List<String> readFeatureUris(Path report) throws IOException {
+		/*
+		 * The uri of a feature can follow its elements so the uris are read
+		 * ahead of copying the report
+		 */
+		List<String> featureUris = new ArrayList<String>();
+		if (Files.size(report) == 0)
+			return featureUris;
+		try (JsonReader reader = new JsonReader(new BufferedReader(new FileReader(report.toFile())))) {
+			reader.setLenient(true);
+			reader.beginArray();
+			while (reader.hasNext()) {
+				String uri = null;
+				reader.beginObject();
+				while (reader.hasNext()) {
+					if (URI.equals(reader.nextName()) && reader.peek() == JsonToken.STRING)
+						uri = reader.nextString();
+					else
+						reader.skipValue();
+				}
+				reader.endObject();
+				featureUris.add(uri);
+			}
+			reader.endArray();
+		}
+		return featureUris;
+	}
+
+	private void writeFeature(JsonReader reader, JsonWriter writer, String uri) throws IOException {
+		reader.beginObject();
+		writer.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			writer.name(name);
+			if (ELEMENTS.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+				writeElements(reader, writer, uri);
+			} else {
+				gson.toJson(parser.parse(reader), writer);
+			}
+		}
+		reader.endObject();
+		writer.endObject();
+	}
+
+	private void writeElements(JsonReader reader, JsonWriter writer, String uri) throws IOException {
+		/*
+		 * A background stays pending until the scenario it belongs to is
+		 * known, as a retried scenario brings the background it ran with
+		 */
+		List<JsonElement> pendingElements = new ArrayList<JsonElement>();
+		reader.beginArray();
+		writer.beginArray();
+		while (reader.hasNext()) {
+			JsonElement element = parser.parse(reader);
+			pendingElements.add(element);
+			if (element.isJsonObject() && isBackground(element.getAsJsonObject()))
+				continue;
+			RetriedScenario retriedScenario = getRetriedScenario(uri, element);
+			if (retriedScenario != null && retriedScenario.lastAttemptElements != null)
+				pendingElements = retriedScenario.lastAttemptElements;
+			if (retriedScenario != null)
+				markScenario(pendingElements.get(pendingElements.size() - 1), retriedScenario);
+			for (JsonElement pendingElement : pendingElements)
+				gson.toJson(pendingElement, writer);
+			pendingElements = new ArrayList<JsonElement>();
+		}
+		for (JsonElement pendingElement : pendingElements)
+			gson.toJson(pendingElement, writer);
+		reader.endArray();
+		writer.endArray();
+	}
+
+	private RetriedScenario getRetriedScenario(String uri, JsonElement element) {
+		if (uri == null || !element.isJsonObject())
+			return null;
+		JsonElement line = element.getAsJsonObject().get(LINE);
+		if (line == null || !line.isJsonPrimitive())
+			return null;
+		return retriedScenarios.get(uri + ":" + line.getAsInt());
+	}
+
+	private void markScenario(JsonElement scenario, RetriedScenario retriedScenario) {
+		if (!scenario.isJsonObject())
+			return;
+		scenario.getAsJsonObject().add(ATTEMPTS, new JsonPrimitive(retriedScenario.attempts));
+		scenario.getAsJsonObject().add(OUTCOME, new JsonPrimitive(retriedScenario.passed ? FLAKY : FAILED));
+	}
+
+	private boolean isBackground(JsonObject element) {
+		JsonElement type = element.get(TYPE);
+		return type != null && type.isJsonPrimitive() && BACKGROUND_TYPE.equals(type.getAsString());
+	}
+
+	private static class RetriedScenario {
+
+		private List<JsonElement> lastAttemptElements;
+		private int attempts;
+		private boolean passed;
+
+		public RetriedScenario(List<JsonElement> lastAttemptElements, int attempts, boolean passed) {
+			this.lastAttemptElements = lastAttemptElements;
+			this.attempts = attempts;
+			this.passed = passed;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.bishnet.cucumber.parallel.report;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import com.bishnet.cucumber.parallel.report.thread.ThreadExecutionReporter;
+import com.bishnet.cucumber.parallel.report.thread.ThreadTimelineData;
+import com.bishnet.cucumber.parallel.report.thread.TimelineThreadIds;
+
+public class ShardReportMerger {
+
+	private static final Logger LOG = Logger.getLogger(ShardReportMerger.class.getName());
+
+	private List<Path> jsonReports;
+	private List<Path> htmlReports;
+	private List<Path> threadTimelineReports;
+
+	public ShardReportMerger(List<Path> jsonReports, List<Path> htmlReports, List<Path> threadTimelineReports) {
+		this.jsonReports = jsonReports;
+		this.htmlReports = htmlReports;
+		this.threadTimelineReports = threadTimelineReports;
+	}
+
+	public void merge(Path jsonReportPath, Path htmlReportPath, Path threadTimelineReportPath) throws IOException {
+		/*
+		 * A shard which was assigned no work writes no reports, so missing
+		 * reports are skipped rather than failing the merge. The shard reports
+		 * belong to the caller, so their images are never moved
+		 */
+		if (jsonReportPath != null)
+			new JsonReportMerger(getExistingReports(jsonReports)).merge(jsonReportPath);
+		if (htmlReportPath != null)
+			new HtmlReportMerger(getExistingReports(htmlReports), false).merge(htmlReportPath);
+		if (threadTimelineReportPath != null)
+			mergeThreadTimelineReports(getExistingReports(threadTimelineReports), threadTimelineReportPath);
+	}
+
+	private void mergeThreadTimelineReports(List<Path> reports, Path threadTimelineReportPath) throws IOException {
+		ThreadExecutionReporter threadExecutionReporter = new ThreadExecutionReporter();
+		TimelineThreadIds timelineThreadIds = new TimelineThreadIds();
+		List<ThreadTimelineData> mergedData = new ArrayList<ThreadTimelineData>();
+		for (int reportIndex = 0; reportIndex < reports.size(); reportIndex++)
+			for (ThreadTimelineData timelineData : threadExecutionReporter.readReportData(reports.get(reportIndex))) {
+				timelineData.setThreadId(timelineThreadIds.getThreadId(String.valueOf(reportIndex),
+						timelineData.getThreadId()));
+				mergedData.add(timelineData);
+			}
+		threadExecutionReporter.writeReport(mergedData, threadTimelineReportPath);
+	}
+
+	private List<Path> getExistingReports(List<Path> reports) {
+		List<Path> existingReports = new ArrayList<Path>();
+		for (Path report : reports) {
+			if (Files.exists(report))
+				existingReports.add(report);
+			else
+				LOG.warning("Skipping missing shard report " + report.toAbsolutePath());
+		}
+		return existingReports;
+	}
+}
@@ -1,19 +1,44 @@
 package com.bishnet.cucumber.parallel.report.thread;
 
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 public class ThreadExecutionRecorder {
 
-	private List<ThreadTimelineData> timelineData = Collections.synchronizedList(new LinkedList<ThreadTimelineData>());
+	/*
+	 * System.nanoTime is monotonic but has no fixed origin, so it is anchored
+	 * to the wall clock once and every timestamp is an offset from that
+	 */
+	private final long epochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+	private final long anchorNanoTime = System.nanoTime();
+	private Queue<List<ThreadTimelineData>> threadBuffers = new ConcurrentLinkedQueue<List<ThreadTimelineData>>();
+	private ThreadLocal<List<ThreadTimelineData>> threadBuffer = ThreadLocal.withInitial(this::createThreadBuffer);
 
 	public void recordEvent(ThreadTimelineData data) {
-		timelineData.add(data);
+		threadBuffer.get().add(data);
+	}
+
+	public long getTimestamp() {
+		return epochNanos + (System.nanoTime() - anchorNanoTime);
 	}
 
 	public List<ThreadTimelineData> getRecordedData() {
+		/*
+		 * Each thread appends to its own buffer without locking, the buffers
+		 * are only combined once the recording threads have finished
+		 */
+		List<ThreadTimelineData> timelineData = new ArrayList<ThreadTimelineData>();
+		for (List<ThreadTimelineData> buffer : threadBuffers)
+			timelineData.addAll(buffer);
 		return timelineData;
 	}
 
+	private List<ThreadTimelineData> createThreadBuffer() {
+		List<ThreadTimelineData> buffer = new ArrayList<ThreadTimelineData>();
+		threadBuffers.add(buffer);
+		return buffer;
+	}
 }
@@ -3,6 +3,8 @@ package com.bishnet.cucumber.parallel.report.thread;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.logging.Logger;
@@ -11,6 +13,7 @@ import org.apache.commons.io.FileUtils;
 
 import gherkin.deps.com.google.gson.Gson;
 import gherkin.deps.com.google.gson.GsonBuilder;
+import gherkin.deps.com.google.gson.reflect.TypeToken;
 
 public class ThreadExecutionReporter {
 
@@ -19,6 +22,7 @@ public class ThreadExecutionReporter {
 	private static final String RESOURCES_DIRECTORY = "timeline/";
 	private static final String OUTPUT_DIRECTORY = "timeline";
 	private static final String DATA_PLACEHOLDER = "${DATA}";
+	private static final String DATA_JSON = "timeline.json";
 
 	private static final String[] RESOURCES = new String[] { "chosen-sprite.png", "chosen.jquery.min.js",
 			"chosen.min.css", "jquery-2.2.3.min.js", "jquery.timepicker.css", "jquery.timepicker.js", "moment.min.js",
@@ -37,9 +41,17 @@ public class ThreadExecutionReporter {
 		
 		buildReportFromTemplate(destinationDirectory, json, templateFile);
 		removeTemplate(templateFile);
+		FileUtils.write(FileUtils.getFile(destinationDirectory, DATA_JSON), json, StandardCharsets.UTF_8);
 		
 	}
 
+	public List<ThreadTimelineData> readReportData(Path outputDirectory) throws IOException {
+		File dataFile = FileUtils.getFile(outputDirectory.toFile(), OUTPUT_DIRECTORY, DATA_JSON);
+		Type listType = new TypeToken<List<ThreadTimelineData>>() {
+		}.getType();
+		return new Gson().fromJson(FileUtils.readFileToString(dataFile, StandardCharsets.UTF_8), listType);
+	}
+
 	private String convertReportDataToJson(List<ThreadTimelineData> reportData) {
 		Gson gson = new GsonBuilder().setPrettyPrinting().create();
 		String json = gson.toJson(reportData);
@@ -49,12 +61,12 @@ public class ThreadExecutionReporter {
 	private void buildReportFromTemplate(File destinationDirectory, String json, File templateFile) throws IOException {
 		File outputFile = FileUtils.getFile(destinationDirectory, INDEX_HTML);
 
-		String templateContent = FileUtils.readFileToString(templateFile);
+		String templateContent = FileUtils.readFileToString(templateFile, StandardCharsets.UTF_8);
 
 		templateContent = templateContent.replace(DATA_PLACEHOLDER, json);
 		LOG.info("Write thread timeline report to: " + outputFile.getAbsolutePath());
 
-		FileUtils.write(outputFile, templateContent);
+		FileUtils.write(outputFile, templateContent, StandardCharsets.UTF_8);
 	}
 	
 	private void removeTemplate(File templateFile) {
@@ -4,6 +4,9 @@ import gherkin.deps.com.google.gson.annotations.SerializedName;
 
 public class ThreadTimelineData {
 
+	/*
+	 * Start and end are nanoseconds since the epoch
+	 */
 	@SerializedName("start")
 	private long startTime;
 	@SerializedName("end")
@@ -14,21 +17,42 @@ public class ThreadTimelineData {
 	private String scenarioId;
 	@SerializedName("featurePath")
 	private String featurePath;
+	@SerializedName("eventType")
+	private ThreadTimelineEventType eventType;
+	@SerializedName("name")
+	private String name;
+	@SerializedName("stepDefinition")
+	private String stepDefinition;
 
 	public ThreadTimelineData(long startTime, long threadId, String scenarioId) {
+		this(startTime, threadId, scenarioId, ThreadTimelineEventType.SCENARIO, null);
+	}
+
+	public ThreadTimelineData(long startTime, long threadId, String scenarioId, ThreadTimelineEventType eventType,
+			String name) {
 		this.startTime = startTime;
 		this.threadId = threadId;
 		this.scenarioId = scenarioId;
+		this.eventType = eventType;
+		this.name = name;
 	}
 
 	public void setEndTime(long endTime) {
 		this.endTime = endTime;
 	}
 
+	public void setThreadId(long threadId) {
+		this.threadId = threadId;
+	}
+
 	public void setFeaturePath(String featurePath) {
 		this.featurePath = featurePath;
 	}
 
+	public void setStepDefinition(String stepDefinition) {
+		this.stepDefinition = stepDefinition;
+	}
+
 	public String getFeaturePath() {
 		return featurePath;
 	}
@@ -48,4 +72,16 @@ public class ThreadTimelineData {
 	public String getScenarioId() {
 		return scenarioId;
 	}
+
+	public ThreadTimelineEventType getEventType() {
+		return eventType;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getStepDefinition() {
+		return stepDefinition;
+	}
 }
@@ -0,0 +1,6 @@
+package com.bishnet.cucumber.parallel.report.thread;
+
+public enum ThreadTimelineEventType {
+
+	SCENARIO, BEFORE_HOOKS, STEP, AFTER_HOOKS, HEAP_PRESSURE_PAUSE;
+}
@@ -0,0 +1,32 @@
+package com.bishnet.cucumber.parallel.report.thread;
+
+import java.util.concurrent.Callable;
+
+public class TimelineLanes {
+
+	/*
+	 * Virtual threads are created for every task and have ids which say
+	 * nothing about how many ran at once, so work run in a lane is shown on
+	 * the row of its lane instead
+	 */
+	private static final ThreadLocal<Long> LANE_ID = new ThreadLocal<Long>();
+
+	private TimelineLanes() {
+	}
+
+	public static <T> Callable<T> inLane(final long laneId, final Callable<T> callable) {
+		return () -> {
+			LANE_ID.set(laneId);
+			try {
+				return callable.call();
+			} finally {
+				LANE_ID.remove();
+			}
+		};
+	}
+
+	public static long getCurrentThreadId() {
+		Long laneId = LANE_ID.get();
+		return laneId != null ? laneId : Thread.currentThread().getId();
+	}
+}
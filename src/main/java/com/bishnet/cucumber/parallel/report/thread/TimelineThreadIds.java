@@ -0,0 +1,23 @@
+package com.bishnet.cucumber.parallel.report.thread;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class TimelineThreadIds {
+
+	/*
+	 * Thread ids are only unique within a JVM, so events gathered from
+	 * several JVMs are given a new id for each thread of each source
+	 */
+	private Map<String, Long> threadIds = new HashMap<String, Long>();
+
+	public synchronized long getThreadId(String source, long threadId) {
+		String sourceThread = source + ":" + threadId;
+		Long mappedThreadId = threadIds.get(sourceThread);
+		if (mappedThreadId == null) {
+			mappedThreadId = (long) threadIds.size();
+			threadIds.put(sourceThread, mappedThreadId);
+		}
+		return mappedThreadId;
+	}
+}
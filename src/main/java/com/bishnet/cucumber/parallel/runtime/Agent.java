@@ -0,0 +1,204 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.Socket;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FileUtils;
+
+import com.bishnet.cucumber.parallel.cli.ArgumentsParser;
+
+import cucumber.runtime.CucumberException;
+
+public class Agent {
+
+	private static final Logger LOG = Logger.getLogger(Agent.class.getName());
+
+	private String host;
+	private int port;
+	private String token;
+	private int numberOfThreads;
+	private CucumberBackendFactory cucumberBackendFactory;
+	private ClassLoader cucumberClassLoader;
+
+	public Agent(String coordinatorAddress, String token, int numberOfThreads, ClassLoader cucumberClassLoader) {
+		this(coordinatorAddress, token, numberOfThreads, null, cucumberClassLoader);
+	}
+
+	public Agent(String coordinatorAddress, String token, int numberOfThreads,
+			CucumberBackendFactory cucumberBackendFactory, ClassLoader cucumberClassLoader) {
+		int portSeparator = coordinatorAddress.lastIndexOf(':');
+		if (portSeparator < 0)
+			throw new CucumberException("Coordinator address " + coordinatorAddress + " should be given as host:port");
+		this.host = coordinatorAddress.substring(0, portSeparator);
+		this.port = Integer.parseInt(coordinatorAddress.substring(portSeparator + 1));
+		this.token = token;
+		this.numberOfThreads = numberOfThreads;
+		this.cucumberBackendFactory = cucumberBackendFactory;
+		this.cucumberClassLoader = cucumberClassLoader;
+	}
+
+	public void run() throws IOException {
+		try (Socket socket = new Socket(host, port)) {
+			socket.setKeepAlive(true);
+			DataInputStream requests = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream responses = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			send(responses, new AgentProtocol.Hello(token, numberOfThreads));
+			AgentProtocol.Setup setup = AgentProtocol.readMessage(requests, AgentProtocol.Setup.class);
+			if (setup == null)
+				throw new CucumberException("The coordinator at " + host + ":" + port
+						+ " closed the connection, check that the agent token matches");
+			LOG.info("Joined the coordinator at " + host + ":" + port + " with " + numberOfThreads + " threads");
+			/*
+			 * The coordinator may still be parsing when the agent connects, so
+			 * it is only expected to keep up its heartbeat once it has answered
+			 */
+			socket.setSoTimeout(setup.getHeartbeatTimeoutMillis());
+			/*
+			 * The features, glue and report formats are those of the
+			 * coordinator so every agent runs exactly the work it is sent
+			 */
+			RuntimeConfiguration runtimeConfiguration = new ArgumentsParser(setup.getArguments()).parse();
+			ForkedWorkerLoop workerLoop = new ForkedWorkerLoop(runtimeConfiguration, cucumberBackendFactory,
+					cucumberClassLoader);
+			ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+			ScheduledExecutorService heartbeat = startHeartbeat(responses, setup.getHeartbeatTimeoutMillis());
+			try {
+				AgentProtocol.Request request;
+				while ((request = AgentProtocol.readMessage(requests, AgentProtocol.Request.class)) != null) {
+					AgentProtocol.Request agentRequest = request;
+					executor.submit(() -> {
+						runRequest(responses, workerLoop, runtimeConfiguration, agentRequest);
+						return null;
+					});
+				}
+			} finally {
+				heartbeat.shutdownNow();
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	private void runRequest(DataOutputStream responses, ForkedWorkerLoop workerLoop,
+			RuntimeConfiguration runtimeConfiguration, AgentProtocol.Request request) throws IOException {
+		Path jsonReport = null;
+		Path htmlReport = null;
+		try {
+			AgentProtocol.Response response;
+			List<Path> htmlReportFiles = null;
+			try {
+				List<String> arguments = new ArrayList<String>();
+				if (runtimeConfiguration.jsonReportRequired || runtimeConfiguration.retryCount > 0) {
+					jsonReport = Files.createTempFile("parallelCukes", ".json");
+					arguments.add("--plugin");
+					arguments.add("json:" + jsonReport);
+				}
+				if (runtimeConfiguration.htmlReportRequired) {
+					htmlReport = Files.createTempDirectory("parallelCukes");
+					arguments.add("--plugin");
+					arguments.add("html:" + htmlReport);
+				}
+				ForkResponse forkResponse = workerLoop.runRequest(new ForkRequest(arguments, request.getFeatureLines(),
+						request.getFailFastBudget()));
+				if (forkResponse.getError() != null) {
+					response = new AgentProtocol.Response(request.getId(), forkResponse.getError());
+				} else {
+					htmlReportFiles = listHtmlReportFiles(htmlReport);
+					response = new AgentProtocol.Response(request.getId(), forkResponse.getExitStatus(),
+							jsonReport != null, getFileNames(htmlReportFiles), forkResponse.getTimelineData(),
+							forkResponse.getFailedScenarioCount());
+				}
+			} catch (IOException e) {
+				StringWriter stackTrace = new StringWriter();
+				e.printStackTrace(new PrintWriter(stackTrace));
+				response = new AgentProtocol.Response(request.getId(), stackTrace.toString());
+			}
+			sendResponse(responses, response, jsonReport, htmlReportFiles);
+		} finally {
+			if (jsonReport != null)
+				FileUtils.deleteQuietly(jsonReport.toFile());
+			if (htmlReport != null)
+				FileUtils.deleteQuietly(htmlReport.toFile());
+		}
+	}
+
+	private List<Path> listHtmlReportFiles(Path htmlReport) throws IOException {
+		if (htmlReport == null)
+			return null;
+		List<Path> htmlReportFiles = new ArrayList<Path>();
+		try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(htmlReport)) {
+			for (Path reportFile : dirStream)
+				if (Files.isRegularFile(reportFile))
+					htmlReportFiles.add(reportFile);
+		}
+		return htmlReportFiles;
+	}
+
+	private List<String> getFileNames(List<Path> files) {
+		if (files == null)
+			return null;
+		List<String> fileNames = new ArrayList<String>();
+		for (Path file : files)
+			fileNames.add(file.getFileName().toString());
+		return fileNames;
+	}
+
+	private ScheduledExecutorService startHeartbeat(DataOutputStream responses, int heartbeatTimeoutMillis) {
+		/*
+		 * The heartbeat keeps going while every thread is busy with a long
+		 * work unit, a failure to send is left to the request loop to notice
+		 */
+		ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor();
+		if (heartbeatTimeoutMillis <= 0)
+			return heartbeat;
+		long heartbeatIntervalMillis = AgentProtocol.getHeartbeatIntervalMillis(heartbeatTimeoutMillis);
+		heartbeat.scheduleAtFixedRate(() -> {
+			try {
+				synchronized (responses) {
+					AgentProtocol.writeHeartbeat(responses);
+				}
+			} catch (IOException e) {
+				LOG.fine("Failed to send a heartbeat: " + e.getMessage());
+			}
+		}, heartbeatIntervalMillis, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+		return heartbeat;
+	}
+
+	private void sendResponse(DataOutputStream responses, AgentProtocol.Response response, Path jsonReport,
+			List<Path> htmlReportFiles) throws IOException {
+		/*
+		 * The reports follow their response as frames of their own, copied
+		 * from the files rather than read into memory first
+		 */
+		synchronized (responses) {
+			AgentProtocol.writeMessage(responses, response);
+			if (response.isJsonReportAttached())
+				AgentProtocol.writeReport(responses, jsonReport);
+			if (response.getHtmlReportFiles() != null)
+				for (Path reportFile : htmlReportFiles)
+					AgentProtocol.writeReport(responses, reportFile);
+			responses.flush();
+		}
+	}
+
+	private void send(DataOutputStream responses, Object message) throws IOException {
+		synchronized (responses) {
+			AgentProtocol.writeMessage(responses, message);
+		}
+	}
+}
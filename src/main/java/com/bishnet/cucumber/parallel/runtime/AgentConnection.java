@@ -0,0 +1,183 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+public class AgentConnection {
+
+	private static final int POLL_TIMEOUT_MILLIS = 1000;
+	private static final Logger LOG = Logger.getLogger(AgentConnection.class.getName());
+
+	private Coordinator coordinator;
+	private int agentIndex;
+	private Socket socket;
+	private DataInputStream responses;
+	private DataOutputStream requests;
+	private Semaphore freeThreads;
+	private Map<Long, CoordinatedWorkUnit> inFlightWorkUnits = new HashMap<Long, CoordinatedWorkUnit>();
+	private long nextRequestId;
+	private long lastSentMillis;
+	private boolean disconnected;
+
+	public AgentConnection(Coordinator coordinator, int agentIndex, Socket socket) throws IOException {
+		this.coordinator = coordinator;
+		this.agentIndex = agentIndex;
+		this.socket = socket;
+		/*
+		 * An agent sends a heartbeat while it has nothing else to send, so one
+		 * which stays silent for longer than the timeout has gone and its work
+		 * is handed to another agent rather than waited on for ever
+		 */
+		socket.setKeepAlive(true);
+		socket.setSoTimeout(coordinator.getHeartbeatTimeoutMillis());
+		responses = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		requests = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+	}
+
+	public void start() {
+		Thread dispatchThread = new Thread(this::dispatchWorkUnits, "coordinator-agent-" + agentIndex);
+		dispatchThread.setDaemon(true);
+		dispatchThread.start();
+	}
+
+	public void disconnect() {
+		/*
+		 * Whatever the agent was still running goes back to the coordinator
+		 * to be handed to another agent
+		 */
+		List<CoordinatedWorkUnit> unfinishedWorkUnits;
+		synchronized (this) {
+			if (disconnected)
+				return;
+			disconnected = true;
+			unfinishedWorkUnits = new ArrayList<CoordinatedWorkUnit>(inFlightWorkUnits.values());
+			inFlightWorkUnits.clear();
+		}
+		try {
+			socket.close();
+		} catch (IOException e) {
+			LOG.warning("Failed to close the connection to agent " + agentIndex + ": " + e.getMessage());
+		}
+		coordinator.requeue(unfinishedWorkUnits);
+		if (!coordinator.isFinished())
+			LOG.warning("Agent " + agentIndex + " left, " + unfinishedWorkUnits.size() + " work units were requeued");
+	}
+
+	private void dispatchWorkUnits() {
+		try {
+			AgentProtocol.Hello hello = AgentProtocol.readMessage(responses, AgentProtocol.Hello.class);
+			if (hello == null || hello.getNumberOfThreads() < 1)
+				throw new IOException("Agent " + agentIndex + " did not introduce itself");
+			/*
+			 * Nothing about the run is sent to a connection until it has
+			 * presented the agent token
+			 */
+			if (!coordinator.isAgentToken(hello.getToken()))
+				throw new IOException("Agent " + agentIndex + " from " + socket.getRemoteSocketAddress()
+						+ " did not present the agent token");
+			freeThreads = new Semaphore(hello.getNumberOfThreads());
+			send(new AgentProtocol.Setup(coordinator.getAgentArguments(), coordinator.getHeartbeatTimeoutMillis()));
+			LOG.info("Agent " + agentIndex + " joined from " + socket.getRemoteSocketAddress() + " with "
+					+ hello.getNumberOfThreads() + " threads");
+			Thread responseThread = new Thread(this::receiveResponses, "coordinator-agent-" + agentIndex + "-responses");
+			responseThread.setDaemon(true);
+			responseThread.start();
+			while (!isDisconnected() && !coordinator.isFinished()) {
+				sendHeartbeatWhenIdle();
+				if (!freeThreads.tryAcquire(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+					continue;
+				CoordinatedWorkUnit workUnit = coordinator.nextWorkUnit();
+				if (workUnit == null) {
+					freeThreads.release();
+					continue;
+				}
+				dispatch(workUnit);
+			}
+		} catch (IOException | RuntimeException e) {
+			if (!coordinator.isFinished())
+				LOG.warning("Lost agent " + agentIndex + ": " + e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			disconnect();
+		}
+	}
+
+	private void dispatch(CoordinatedWorkUnit workUnit) throws IOException {
+		long requestId;
+		synchronized (this) {
+			if (disconnected) {
+				coordinator.requeue(Collections.singletonList(workUnit));
+				return;
+			}
+			requestId = nextRequestId++;
+			inFlightWorkUnits.put(requestId, workUnit);
+		}
+		try {
+			send(new AgentProtocol.Request(requestId, workUnit.getFeatureLines(), coordinator.getFailFastBudget()));
+		} catch (IOException e) {
+			disconnect();
+			throw e;
+		}
+	}
+
+	private void receiveResponses() {
+		try {
+			AgentProtocol.Response response;
+			while ((response = AgentProtocol.readMessage(responses, AgentProtocol.Response.class)) != null) {
+				/*
+				 * The work unit stays in flight until its reports have been
+				 * read, so it is requeued if the agent goes in the meantime
+				 */
+				CoordinatedWorkUnit workUnit;
+				synchronized (this) {
+					workUnit = inFlightWorkUnits.get(response.getId());
+				}
+				coordinator.receiveReports(workUnit, response, responses);
+				synchronized (this) {
+					workUnit = inFlightWorkUnits.remove(response.getId());
+				}
+				freeThreads.release();
+				if (workUnit != null)
+					coordinator.complete(workUnit, response, agentIndex);
+			}
+		} catch (IOException | RuntimeException e) {
+			if (!coordinator.isFinished())
+				LOG.warning("Lost agent " + agentIndex + ": " + e.getMessage());
+		} finally {
+			disconnect();
+		}
+	}
+
+	private synchronized boolean isDisconnected() {
+		return disconnected;
+	}
+
+	private void send(Object message) throws IOException {
+		synchronized (requests) {
+			AgentProtocol.writeMessage(requests, message);
+			lastSentMillis = System.currentTimeMillis();
+		}
+	}
+
+	private void sendHeartbeatWhenIdle() throws IOException {
+		synchronized (requests) {
+			if (System.currentTimeMillis() - lastSentMillis < coordinator.getHeartbeatIntervalMillis())
+				return;
+			AgentProtocol.writeHeartbeat(requests);
+			lastSentMillis = System.currentTimeMillis();
+		}
+	}
+}
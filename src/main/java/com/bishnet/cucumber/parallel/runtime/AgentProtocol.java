@@ -0,0 +1,246 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.output.NullOutputStream;
+
+import com.bishnet.cucumber.parallel.report.thread.ThreadTimelineData;
+
+import cucumber.runtime.CucumberException;
+import gherkin.deps.com.google.gson.Gson;
+
+public class AgentProtocol {
+
+	public static final String TOKEN_ENVIRONMENT_VARIABLE = "PARALLEL_CUCUMBER_AGENT_TOKEN";
+
+	static final int DEFAULT_HEARTBEAT_TIMEOUT_MILLIS = 30000;
+
+	private static final int MAXIMUM_MESSAGE_LENGTH = 64 * 1024 * 1024;
+	private static final int COPY_BUFFER_SIZE = 64 * 1024;
+	private static final Gson GSON = new Gson();
+
+	/*
+	 * Every message is a frame of JSON behind its length. An agent introduces
+	 * itself with a Hello carrying the agent token, the coordinator answers
+	 * an agent presenting the right token with a Setup and then sends
+	 * Requests which the agent answers with Responses in any order. The
+	 * reports of a Response follow it as frames of their own, and an empty
+	 * frame is a heartbeat which either side sends while it has nothing else
+	 * to say
+	 */
+	private AgentProtocol() {
+	}
+
+	static int getHeartbeatIntervalMillis(int heartbeatTimeoutMillis) {
+		/*
+		 * Several heartbeats fit in the timeout so one held up behind a large
+		 * report does not lose the connection
+		 */
+		return Math.max(1, heartbeatTimeoutMillis / 5);
+	}
+
+	static String resolveToken(String token) {
+		/*
+		 * The token is taken from the environment unless it was given on the
+		 * command line, as the command line can be seen by every local user
+		 */
+		if (token == null || token.isEmpty())
+			token = System.getenv(TOKEN_ENVIRONMENT_VARIABLE);
+		if (token == null || token.isEmpty())
+			throw new CucumberException("The coordinator and its agents need a shared token, given with --agent-token "
+					+ "or the " + TOKEN_ENVIRONMENT_VARIABLE + " environment variable");
+		return token;
+	}
+
+	static boolean isToken(String token, String presentedToken) {
+		if (token == null || presentedToken == null)
+			return false;
+		return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+				presentedToken.getBytes(StandardCharsets.UTF_8));
+	}
+
+	static void writeMessage(DataOutputStream output, Object message) throws IOException {
+		byte[] json = GSON.toJson(message).getBytes(StandardCharsets.UTF_8);
+		output.writeInt(json.length);
+		output.write(json);
+		output.flush();
+	}
+
+	static void writeHeartbeat(DataOutputStream output) throws IOException {
+		output.writeInt(0);
+		output.flush();
+	}
+
+	static <T> T readMessage(DataInputStream input, Class<T> messageType) throws IOException {
+		int length;
+		do {
+			try {
+				length = input.readInt();
+			} catch (EOFException e) {
+				return null;
+			}
+		} while (length == 0);
+		if (length < 0 || length > MAXIMUM_MESSAGE_LENGTH)
+			throw new IOException("Received a message of " + length + " bytes");
+		byte[] json = new byte[length];
+		input.readFully(json);
+		return GSON.fromJson(new String(json, StandardCharsets.UTF_8), messageType);
+	}
+
+	static void writeReport(DataOutputStream output, Path reportFile) throws IOException {
+		output.writeLong(Files.size(reportFile));
+		Files.copy(reportFile, output);
+	}
+
+	static void readReport(DataInputStream input, Path reportFile) throws IOException {
+		/*
+		 * A report is copied straight to its file, or skipped when there is
+		 * nowhere to write it, so it is never held in memory as a whole
+		 */
+		long length = input.readLong();
+		if (length < 0)
+			throw new IOException("Received a report of " + length + " bytes");
+		try (OutputStream output = reportFile == null ? new NullOutputStream() : Files.newOutputStream(reportFile)) {
+			byte[] buffer = new byte[COPY_BUFFER_SIZE];
+			while (length > 0) {
+				int read = input.read(buffer, 0, (int) Math.min(buffer.length, length));
+				if (read < 0)
+					throw new EOFException("The connection closed in the middle of a report");
+				output.write(buffer, 0, read);
+				length -= read;
+			}
+		}
+	}
+
+	public static class Hello {
+
+		private String token;
+		private int numberOfThreads;
+
+		public Hello(String token, int numberOfThreads) {
+			this.token = token;
+			this.numberOfThreads = numberOfThreads;
+		}
+
+		public String getToken() {
+			return token;
+		}
+
+		public int getNumberOfThreads() {
+			return numberOfThreads;
+		}
+	}
+
+	public static class Setup {
+
+		private List<String> arguments;
+		private int heartbeatTimeoutMillis;
+
+		public Setup(List<String> arguments, int heartbeatTimeoutMillis) {
+			this.arguments = arguments;
+			this.heartbeatTimeoutMillis = heartbeatTimeoutMillis;
+		}
+
+		public List<String> getArguments() {
+			return arguments;
+		}
+
+		public int getHeartbeatTimeoutMillis() {
+			return heartbeatTimeoutMillis;
+		}
+	}
+
+	public static class Request {
+
+		private long id;
+		private Map<String, List<Integer>> featureLines;
+		private int failFastBudget;
+
+		public Request(long id, Map<String, List<Integer>> featureLines, int failFastBudget) {
+			this.id = id;
+			this.featureLines = featureLines;
+			this.failFastBudget = failFastBudget;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public Map<String, List<Integer>> getFeatureLines() {
+			return featureLines;
+		}
+
+		public int getFailFastBudget() {
+			return failFastBudget;
+		}
+	}
+
+	public static class Response {
+
+		private long id;
+		private byte exitStatus;
+		private boolean jsonReportAttached;
+		private List<String> htmlReportFiles;
+		private List<ThreadTimelineData> timelineData;
+		private int failedScenarioCount;
+		private String error;
+
+		public Response(long id, byte exitStatus, boolean jsonReportAttached, List<String> htmlReportFiles,
+				List<ThreadTimelineData> timelineData) {
+			this(id, exitStatus, jsonReportAttached, htmlReportFiles, timelineData, 0);
+		}
+
+		public Response(long id, byte exitStatus, boolean jsonReportAttached, List<String> htmlReportFiles,
+				List<ThreadTimelineData> timelineData, int failedScenarioCount) {
+			this.id = id;
+			this.exitStatus = exitStatus;
+			this.jsonReportAttached = jsonReportAttached;
+			this.htmlReportFiles = htmlReportFiles;
+			this.timelineData = timelineData;
+			this.failedScenarioCount = failedScenarioCount;
+		}
+
+		public Response(long id, String error) {
+			this.id = id;
+			this.error = error;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public byte getExitStatus() {
+			return exitStatus;
+		}
+
+		public boolean isJsonReportAttached() {
+			return jsonReportAttached;
+		}
+
+		public List<String> getHtmlReportFiles() {
+			return htmlReportFiles;
+		}
+
+		public List<ThreadTimelineData> getTimelineData() {
+			return timelineData;
+		}
+
+		public int getFailedScenarioCount() {
+			return failedScenarioCount;
+		}
+
+		public String getError() {
+			return error;
+		}
+	}
+}
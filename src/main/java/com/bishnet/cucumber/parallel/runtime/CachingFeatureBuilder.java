@@ -0,0 +1,160 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import cucumber.runtime.CucumberException;
+import cucumber.runtime.FeatureBuilder;
+import cucumber.runtime.io.Resource;
+import cucumber.runtime.model.CucumberFeature;
+import gherkin.I18n;
+import gherkin.formatter.model.Background;
+import gherkin.formatter.model.Examples;
+import gherkin.formatter.model.Feature;
+import gherkin.formatter.model.Scenario;
+import gherkin.formatter.model.ScenarioOutline;
+import gherkin.formatter.model.Step;
+
+public class CachingFeatureBuilder extends FeatureBuilder {
+
+	private List<CucumberFeature> cucumberFeatures;
+	private FeatureCache featureCache;
+	private Set<String> contentHashes = new HashSet<String>();
+	private FeatureCache.CachedFeature recording;
+	private String source;
+
+	public CachingFeatureBuilder(List<CucumberFeature> cucumberFeatures, FeatureCache featureCache) {
+		super(cucumberFeatures);
+		this.cucumberFeatures = cucumberFeatures;
+		this.featureCache = featureCache;
+	}
+
+	@Override
+	public void parse(Resource resource, List<Object> filters) {
+		String source = read(resource);
+		parse(resource, source, FeatureCache.hash(source), filters);
+	}
+
+	public void parse(Resource resource, String source, String contentHash, List<Object> filters) {
+		/*
+		 * A feature is cached as the events the parser handed on for it, so
+		 * replaying them builds the same model the parser would have built.
+		 * Features with the same content are only loaded once, as cucumber-jvm
+		 * does itself. The source already read is handed to the parser so the
+		 * file is only read once, and without a cache it is simply parsed
+		 */
+		if (!contentHashes.add(contentHash))
+			return;
+		FeatureCache.CachedFeature cachedFeature = null;
+		if (featureCache != null)
+			cachedFeature = featureCache.get(resource.getPath(), contentHash, filters);
+		if (cachedFeature != null) {
+			replay(cachedFeature);
+			return;
+		}
+		int featureCount = cucumberFeatures.size();
+		if (featureCache != null)
+			recording = new FeatureCache.CachedFeature(contentHash);
+		this.source = source;
+		try {
+			super.parse(resource, filters);
+		} finally {
+			this.source = null;
+			cachedFeature = recording;
+			recording = null;
+		}
+		if (cachedFeature == null)
+			return;
+		if (cucumberFeatures.size() > featureCount)
+			cachedFeature.setIsoCode(cucumberFeatures.get(cucumberFeatures.size() - 1).getI18n().getIsoCode());
+		featureCache.put(resource.getPath(), filters, cachedFeature);
+	}
+
+	@Override
+	public String read(Resource resource) {
+		if (source != null)
+			return source;
+		return super.read(resource);
+	}
+
+	@Override
+	public void uri(String uri) {
+		record(FeatureCache.URI, uri);
+		super.uri(uri);
+	}
+
+	@Override
+	public void feature(Feature feature) {
+		record(FeatureCache.FEATURE, feature);
+		super.feature(feature);
+	}
+
+	@Override
+	public void background(Background background) {
+		record(FeatureCache.BACKGROUND, background);
+		super.background(background);
+	}
+
+	@Override
+	public void scenario(Scenario scenario) {
+		record(FeatureCache.SCENARIO, scenario);
+		super.scenario(scenario);
+	}
+
+	@Override
+	public void scenarioOutline(ScenarioOutline scenarioOutline) {
+		record(FeatureCache.SCENARIO_OUTLINE, scenarioOutline);
+		super.scenarioOutline(scenarioOutline);
+	}
+
+	@Override
+	public void examples(Examples examples) {
+		record(FeatureCache.EXAMPLES, examples);
+		super.examples(examples);
+	}
+
+	@Override
+	public void step(Step step) {
+		record(FeatureCache.STEP, step);
+		super.step(step);
+	}
+
+	private void record(String type, Object data) {
+		if (recording != null)
+			recording.getEvents().add(new FeatureCache.RecordedEvent(type, data));
+	}
+
+	private void replay(FeatureCache.CachedFeature cachedFeature) {
+		for (FeatureCache.RecordedEvent event : cachedFeature.getEvents()) {
+			Object data = event.getData();
+			switch (event.getType()) {
+			case FeatureCache.URI:
+				super.uri((String) data);
+				break;
+			case FeatureCache.FEATURE:
+				super.feature((Feature) data);
+				break;
+			case FeatureCache.BACKGROUND:
+				super.background((Background) data);
+				break;
+			case FeatureCache.SCENARIO:
+				super.scenario((Scenario) data);
+				break;
+			case FeatureCache.SCENARIO_OUTLINE:
+				super.scenarioOutline((ScenarioOutline) data);
+				break;
+			case FeatureCache.EXAMPLES:
+				super.examples((Examples) data);
+				break;
+			case FeatureCache.STEP:
+				super.step((Step) data);
+				break;
+			default:
+				throw new CucumberException("Unknown event " + event.getType() + " in the feature cache");
+			}
+		}
+		if (cachedFeature.getIsoCode() != null)
+			cucumberFeatures.get(cucumberFeatures.size() - 1).setI18n(new I18n(cachedFeature.getIsoCode()));
+	}
+}
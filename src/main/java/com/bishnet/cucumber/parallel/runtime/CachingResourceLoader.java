@@ -0,0 +1,48 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cucumber.runtime.io.MultiLoader;
+import cucumber.runtime.io.Resource;
+import cucumber.runtime.io.ResourceLoader;
+
+public class CachingResourceLoader implements ResourceLoader {
+
+	private static final String CLASS_SUFFIX = ".class";
+
+	private ResourceLoader resourceLoader;
+	private GlueIndex glueIndex;
+	private Map<String, List<Resource>> resources = new ConcurrentHashMap<String, List<Resource>>();
+
+	public CachingResourceLoader(ResourceLoader resourceLoader) {
+		this(resourceLoader, null);
+	}
+
+	public CachingResourceLoader(ResourceLoader resourceLoader, GlueIndex glueIndex) {
+		this.resourceLoader = resourceLoader;
+		this.glueIndex = glueIndex;
+	}
+
+	@Override
+	public Iterable<Resource> resources(String path, String suffix) {
+		/*
+		 * Every runtime and backend looks up the same glue and backend
+		 * packages, so each lookup is only scanned by the first to ask and the
+		 * others wait for and share its result
+		 */
+		return resources.computeIfAbsent(path + "\u0000" + suffix, key -> loadResources(path, suffix));
+	}
+
+	private List<Resource> loadResources(String path, String suffix) {
+		if (glueIndex != null && CLASS_SUFFIX.equals(suffix) && path.startsWith(MultiLoader.CLASSPATH_SCHEME))
+			return Collections.unmodifiableList(glueIndex.resources(path, resourceLoader));
+		List<Resource> loadedResources = new ArrayList<Resource>();
+		for (Resource resource : resourceLoader.resources(path, suffix))
+			loadedResources.add(resource);
+		return Collections.unmodifiableList(loadedResources);
+	}
+}
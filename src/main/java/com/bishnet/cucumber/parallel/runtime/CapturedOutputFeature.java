@@ -0,0 +1,41 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.util.List;
+
+import cucumber.runtime.Runtime;
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberTagStatement;
+import gherkin.formatter.Formatter;
+import gherkin.formatter.Reporter;
+
+public class CapturedOutputFeature extends CucumberFeature {
+
+	private CucumberFeature feature;
+	private OutputCapture outputCapture;
+
+	public CapturedOutputFeature(CucumberFeature feature, OutputCapture outputCapture) {
+		super(feature.getGherkinFeature(), feature.getPath());
+		setI18n(feature.getI18n());
+		this.feature = feature;
+		this.outputCapture = outputCapture;
+	}
+
+	@Override
+	public List<CucumberTagStatement> getFeatureElements() {
+		return feature.getFeatureElements();
+	}
+
+	@Override
+	public void run(Formatter formatter, Reporter reporter, Runtime runtime) {
+		/*
+		 * The pretty formatter only writes the steps of a scenario once the
+		 * next one starts, so a feature is the smallest part of the output
+		 * which always reads as a whole
+		 */
+		try {
+			feature.run(formatter, reporter, runtime);
+		} finally {
+			outputCapture.flushThread();
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+public class CoordinatedWorkUnit {
+
+	private Map<String, List<Integer>> featureLines;
+	private Path jsonReport;
+	private Path htmlReport;
+	private ResourceClaim resourceClaim;
+
+	public CoordinatedWorkUnit(Map<String, List<Integer>> featureLines, Path jsonReport, Path htmlReport) {
+		this(featureLines, jsonReport, htmlReport, ResourceClaim.NONE);
+	}
+
+	public CoordinatedWorkUnit(Map<String, List<Integer>> featureLines, Path jsonReport, Path htmlReport,
+			ResourceClaim resourceClaim) {
+		this.featureLines = featureLines;
+		this.jsonReport = jsonReport;
+		this.htmlReport = htmlReport;
+		this.resourceClaim = resourceClaim;
+	}
+
+	public Map<String, List<Integer>> getFeatureLines() {
+		return featureLines;
+	}
+
+	public Path getJsonReport() {
+		return jsonReport;
+	}
+
+	public Path getHtmlReport() {
+		return htmlReport;
+	}
+
+	public ResourceClaim getResourceClaim() {
+		return resourceClaim;
+	}
+}
@@ -0,0 +1,287 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Logger;
+
+import com.bishnet.cucumber.parallel.report.JsonReportFile;
+import com.bishnet.cucumber.parallel.report.thread.ThreadExecutionRecorder;
+import com.bishnet.cucumber.parallel.report.thread.ThreadTimelineData;
+import com.bishnet.cucumber.parallel.report.thread.TimelineThreadIds;
+
+import cucumber.runtime.CucumberException;
+
+public class Coordinator implements Closeable {
+
+	private static final int POLL_TIMEOUT_MILLIS = 1000;
+	private static final Logger LOG = Logger.getLogger(Coordinator.class.getName());
+
+	private String bindAddress;
+	private int port;
+	private String token;
+	private List<String> agentArguments;
+	private ThreadExecutionRecorder threadExecutionRecorder;
+	private FailFastMonitor failFastMonitor;
+	private ServerSocket serverSocket;
+	private RuntimeReportListener reportListener;
+	private Deque<CoordinatedWorkUnit> pendingWorkUnits = new ArrayDeque<CoordinatedWorkUnit>();
+	private ResourceLimiter resourceLimiter = new ResourceLimiter(Collections.<ResourceClaim> emptyList());
+	private CountDownLatch remainingWorkUnits;
+	private List<AgentConnection> agents = new CopyOnWriteArrayList<AgentConnection>();
+	private List<Throwable> errors = new CopyOnWriteArrayList<Throwable>();
+	private TimelineThreadIds timelineThreadIds = new TimelineThreadIds();
+	private int heartbeatTimeoutMillis = AgentProtocol.DEFAULT_HEARTBEAT_TIMEOUT_MILLIS;
+	private Thread acceptThread;
+	private volatile boolean finished;
+	private byte result;
+
+	public Coordinator(int port, String token, List<String> agentArguments,
+			ThreadExecutionRecorder threadExecutionRecorder) {
+		this(port, token, agentArguments, threadExecutionRecorder, null);
+	}
+
+	public Coordinator(int port, String token, List<String> agentArguments,
+			ThreadExecutionRecorder threadExecutionRecorder, FailFastMonitor failFastMonitor) {
+		this(null, port, token, agentArguments, threadExecutionRecorder, failFastMonitor);
+	}
+
+	public Coordinator(String bindAddress, int port, String token, List<String> agentArguments,
+			ThreadExecutionRecorder threadExecutionRecorder, FailFastMonitor failFastMonitor) {
+		this.bindAddress = bindAddress;
+		this.port = port;
+		this.token = token;
+		this.agentArguments = agentArguments;
+		this.threadExecutionRecorder = threadExecutionRecorder;
+		this.failFastMonitor = failFastMonitor;
+	}
+
+	public void start() throws IOException {
+		/*
+		 * Without a bind address the coordinator only listens on the loopback
+		 * interface, agents on other machines need an address to be given
+		 */
+		if (token == null || token.isEmpty())
+			throw new CucumberException("The coordinator needs a token for its agents to present");
+		InetAddress listenAddress = bindAddress == null ? InetAddress.getLoopbackAddress() : InetAddress
+				.getByName(bindAddress);
+		serverSocket = new ServerSocket(port, 0, listenAddress);
+		LOG.info("Waiting for agents on " + serverSocket.getInetAddress().getHostAddress() + ":" + getPort());
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	InetAddress getBindAddress() {
+		return serverSocket.getInetAddress();
+	}
+
+	public byte run(List<CoordinatedWorkUnit> workUnits, RuntimeReportListener reportListener)
+			throws InterruptedException {
+		/*
+		 * Agents stay connected between runs so failed scenarios can be
+		 * retried on them, they are only let go when the coordinator closes
+		 */
+		this.reportListener = reportListener;
+		synchronized (this) {
+			result = 0;
+		}
+		remainingWorkUnits = new CountDownLatch(workUnits.size());
+		List<ResourceClaim> resourceClaims = new ArrayList<ResourceClaim>();
+		for (CoordinatedWorkUnit workUnit : workUnits)
+			resourceClaims.add(workUnit.getResourceClaim());
+		synchronized (pendingWorkUnits) {
+			resourceLimiter = new ResourceLimiter(resourceClaims);
+			pendingWorkUnits.addAll(workUnits);
+			pendingWorkUnits.notifyAll();
+		}
+		if (acceptThread == null) {
+			acceptThread = new Thread(this::acceptAgents, "coordinator-accept");
+			acceptThread.setDaemon(true);
+			acceptThread.start();
+		}
+		remainingWorkUnits.await();
+		if (!errors.isEmpty())
+			throw new CucumberException(errors.get(0));
+		synchronized (this) {
+			return result;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		finished = true;
+		if (serverSocket != null)
+			serverSocket.close();
+		for (AgentConnection agent : agents)
+			agent.disconnect();
+	}
+
+	boolean isAgentToken(String presentedToken) {
+		return AgentProtocol.isToken(token, presentedToken);
+	}
+
+	List<String> getAgentArguments() {
+		return agentArguments;
+	}
+
+	boolean isFinished() {
+		return finished;
+	}
+
+	int getHeartbeatTimeoutMillis() {
+		return heartbeatTimeoutMillis;
+	}
+
+	int getHeartbeatIntervalMillis() {
+		return AgentProtocol.getHeartbeatIntervalMillis(heartbeatTimeoutMillis);
+	}
+
+	void setHeartbeatTimeoutMillis(int heartbeatTimeoutMillis) {
+		this.heartbeatTimeoutMillis = heartbeatTimeoutMillis;
+	}
+
+	int getFailFastBudget() {
+		return failFastMonitor == null ? 0 : failFastMonitor.getRemainingFailures();
+	}
+
+	CoordinatedWorkUnit nextWorkUnit() throws InterruptedException {
+		/*
+		 * The resource limits hold across all agents, a work unit waiting on
+		 * a resource is passed over for the next one which can run
+		 */
+		long deadline = System.currentTimeMillis() + POLL_TIMEOUT_MILLIS;
+		synchronized (pendingWorkUnits) {
+			while (true) {
+				Iterator<CoordinatedWorkUnit> pendingIterator = pendingWorkUnits.iterator();
+				while (pendingIterator.hasNext()) {
+					CoordinatedWorkUnit workUnit = pendingIterator.next();
+					if (resourceLimiter.tryAcquire(workUnit.getResourceClaim())) {
+						pendingIterator.remove();
+						return workUnit;
+					}
+				}
+				long remainingMillis = deadline - System.currentTimeMillis();
+				if (remainingMillis <= 0)
+					return null;
+				pendingWorkUnits.wait(remainingMillis);
+			}
+		}
+	}
+
+	void requeue(Collection<CoordinatedWorkUnit> workUnits) {
+		/*
+		 * Work units taken back from an agent which left go to the front of
+		 * the queue so they do not end up as the tail of the run
+		 */
+		synchronized (pendingWorkUnits) {
+			for (CoordinatedWorkUnit workUnit : workUnits) {
+				resourceLimiter.release(workUnit.getResourceClaim());
+				pendingWorkUnits.addFirst(workUnit);
+			}
+			pendingWorkUnits.notifyAll();
+		}
+		skipPendingWorkUnitsWhenStopped();
+	}
+
+	void complete(CoordinatedWorkUnit workUnit, AgentProtocol.Response response, int agentIndex) {
+		synchronized (pendingWorkUnits) {
+			resourceLimiter.release(workUnit.getResourceClaim());
+			pendingWorkUnits.notifyAll();
+		}
+		try {
+			if (response.getError() != null)
+				throw new CucumberException("Agent " + agentIndex + " failed: " + response.getError());
+			recordTimelineData(response, agentIndex);
+			if (failFastMonitor != null)
+				failFastMonitor.recordFailedScenarios(response.getFailedScenarioCount());
+			if (reportListener != null)
+				reportListener.reportsCompleted(JsonReportFile.of(workUnit.getJsonReport()), workUnit.getHtmlReport());
+			synchronized (this) {
+				result |= response.getExitStatus();
+			}
+		} catch (RuntimeException e) {
+			errors.add(e);
+		} finally {
+			remainingWorkUnits.countDown();
+		}
+		skipPendingWorkUnitsWhenStopped();
+	}
+
+	private void skipPendingWorkUnitsWhenStopped() {
+		/*
+		 * Work units still queued once the fail fast threshold is reached are
+		 * never handed out, the run only waits for those the agents are on
+		 */
+		if (failFastMonitor == null || !failFastMonitor.isStopped())
+			return;
+		synchronized (pendingWorkUnits) {
+			while (pendingWorkUnits.poll() != null)
+				remainingWorkUnits.countDown();
+		}
+	}
+
+	private void acceptAgents() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				AgentConnection agent = new AgentConnection(this, agents.size(), socket);
+				agents.add(agent);
+				agent.start();
+			} catch (IOException e) {
+				if (!serverSocket.isClosed())
+					LOG.warning("Failed to accept an agent: " + e.getMessage());
+			}
+		}
+	}
+
+	void receiveReports(CoordinatedWorkUnit workUnit, AgentProtocol.Response response, DataInputStream reports)
+			throws IOException {
+		/*
+		 * The reports of a work unit no longer in flight are read all the
+		 * same, only to be skipped
+		 */
+		if (response.isJsonReportAttached())
+			AgentProtocol.readReport(reports, workUnit == null ? null : workUnit.getJsonReport());
+		if (response.getHtmlReportFiles() == null)
+			return;
+		Path htmlReport = workUnit == null ? null : workUnit.getHtmlReport();
+		for (String fileName : response.getHtmlReportFiles())
+			AgentProtocol.readReport(reports, htmlReport == null ? null : resolveHtmlReportFile(htmlReport, fileName));
+	}
+
+	private Path resolveHtmlReportFile(Path htmlReport, String fileName) throws IOException {
+		/*
+		 * Agents only send the files at the top of their report directory, a
+		 * name reaching anywhere else is never written
+		 */
+		Path reportFile = htmlReport.resolve(fileName).normalize();
+		if (fileName.contains("/") || fileName.contains("\\")
+				|| !htmlReport.normalize().equals(reportFile.getParent()))
+			throw new IOException("Agent sent a report file named " + fileName + " outside of its report directory");
+		return reportFile;
+	}
+
+	private void recordTimelineData(AgentProtocol.Response response, int agentIndex) {
+		if (threadExecutionRecorder == null || response.getTimelineData() == null)
+			return;
+		for (ThreadTimelineData timelineData : response.getTimelineData()) {
+			timelineData.setThreadId(timelineThreadIds.getThreadId(String.valueOf(agentIndex), timelineData.getThreadId()));
+			threadExecutionRecorder.recordEvent(timelineData);
+		}
+	}
+}
@@ -4,20 +4,30 @@ import java.util.List;
 import java.util.concurrent.Callable;
 
 import cucumber.runtime.Runtime;
+import cucumber.runtime.model.CucumberFeature;
 
 public class CucumberRuntimeCallable implements Callable<Byte> {
 
 	private List<String> arguments;
+	private List<CucumberFeature> features;
 	private CucumberRuntimeFactory runtimeFactory;
+	private Object plugin;
 
 	public CucumberRuntimeCallable(List<String> arguments, CucumberRuntimeFactory runtimeFactory) {
+		this(arguments, null, runtimeFactory, null);
+	}
+
+	public CucumberRuntimeCallable(List<String> arguments, List<CucumberFeature> features,
+			CucumberRuntimeFactory runtimeFactory, Object plugin) {
 		this.arguments = arguments;
+		this.features = features;
 		this.runtimeFactory = runtimeFactory;
+		this.plugin = plugin;
 	}
 
 	@Override
 	public Byte call() throws Exception {
-		Runtime runtime = runtimeFactory.getRuntime(arguments);
+		Runtime runtime = runtimeFactory.getRuntime(arguments, features, plugin);
 		runtime.run();
 		return runtime.exitStatus();
 	}
@@ -1,52 +1,140 @@
 package com.bishnet.cucumber.parallel.runtime;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.logging.Logger;
 
-import com.bishnet.cucumber.parallel.util.RemoveDirectoryRunnable;
+import com.bishnet.cucumber.parallel.report.InMemoryJsonReport;
+import com.bishnet.cucumber.parallel.report.JsonReport;
+import com.bishnet.cucumber.parallel.report.JsonReportFile;
+import com.bishnet.cucumber.parallel.util.VirtualThreads;
+import com.bishnet.cucumber.parallel.util.WorkQueue;
+import com.bishnet.cucumber.parallel.util.WorkStealingQueue;
 
 import cucumber.runtime.CucumberException;
+import cucumber.runtime.model.CucumberFeature;
 
 public class CucumberRuntimeExecutor {
 
+	private static final Logger LOG = Logger.getLogger(CucumberRuntimeExecutor.class.getName());
+
 	private CucumberRuntimeFactory runtimeFactory;
-	private List<Path> rerunFiles;
+	private List<List<CucumberFeature>> featureGroups;
 	private RuntimeConfiguration runtimeConfiguration;
+	private RuntimeReportListener reportListener;
+	private ForkedWorkerPool forkedWorkerPool;
+	private Coordinator coordinator;
+	private ThreadCountController threadCountController;
+	private ResourceLimitedWorkQueue streamedWork;
 	private List<Path> htmlReports = new ArrayList<Path>();
-	private List<Path> jsonReports = new ArrayList<Path>();
+	private List<JsonReport> jsonReports = Collections.synchronizedList(new ArrayList<JsonReport>());
 
-	public CucumberRuntimeExecutor(CucumberRuntimeFactory runtimeFactory, List<Path> rerunFiles,
+	public CucumberRuntimeExecutor(CucumberRuntimeFactory runtimeFactory, List<List<CucumberFeature>> featureGroups,
 			RuntimeConfiguration runtimeConfiguration) {
-		this.runtimeFactory = runtimeFactory;
-		this.rerunFiles = rerunFiles;
-		this.runtimeConfiguration = runtimeConfiguration;
+		this(new Builder(runtimeFactory, runtimeConfiguration).featureGroups(featureGroups));
+	}
+
+	private CucumberRuntimeExecutor(Builder builder) {
+		this.runtimeFactory = builder.runtimeFactory;
+		this.featureGroups = builder.featureGroups;
+		this.runtimeConfiguration = builder.runtimeConfiguration;
+		this.reportListener = builder.reportListener;
+		this.forkedWorkerPool = builder.forkedWorkerPool;
+		this.coordinator = builder.coordinator;
+		if (builder.streamFeatureGroups)
+			streamedWork = new ResourceLimitedWorkQueue();
+		if (runtimeConfiguration.isThreadCountAdaptive())
+			threadCountController = new ThreadCountController(runtimeConfiguration.minimumThreads,
+					runtimeConfiguration.maximumThreads, runtimeConfiguration.numberOfThreads);
 	}
 
 	public List<Path> getHtmlReports() {
 		return htmlReports;
 	}
 
-	public List<Path> getJsonReports() {
+	public List<JsonReport> getJsonReports() {
 		return jsonReports;
 	}
 
 	public byte run() throws InterruptedException, IOException {
+		if (coordinator != null)
+			return runOnAgents();
+		/*
+		 * Streamed feature groups are added while the workers run, so there
+		 * is a worker for every thread however many groups there turn out to be
+		 */
+		if (streamedWork != null)
+			return runWorkQueue(streamedWork, Math.max(1, getMaximumThreads()));
+		List<Callable<Byte>> runtimes = new ArrayList<Callable<Byte>>();
+		List<ResourceClaim> resourceClaims = new ArrayList<ResourceClaim>();
+		for (List<CucumberFeature> featureGroup : featureGroups) {
+			runtimes.add(createRuntime(featureGroup));
+			resourceClaims.add(ResourceClaim.fromFeatures(featureGroup));
+		}
+		if (runtimeConfiguration.schedulingMode == SchedulingMode.DYNAMIC
+				|| runtimeConfiguration.executorMode == ExecutorMode.VIRTUAL
+				|| ResourceLimitedWorkQueue.isLimited(resourceClaims))
+			return runWorkQueue(runtimes, resourceClaims);
+		return runTasks(runtimes);
+	}
+
+	public synchronized void addFeatureGroups(List<List<CucumberFeature>> featureGroups) throws IOException {
+		for (List<CucumberFeature> featureGroup : featureGroups)
+			streamedWork.add(createRuntime(featureGroup), ResourceClaim.fromFeatures(featureGroup));
+	}
+
+	public void finishFeatureGroups() {
+		streamedWork.close();
+	}
+
+	public void cancelFeatureGroups() {
+		streamedWork.cancel();
+	}
+
+	private Callable<Byte> createRuntime(List<CucumberFeature> featureGroup) throws IOException {
+		/*
+		 * Runtimes in this JVM keep their JSON results in memory for the
+		 * mergers, only a fork has to write them to a file
+		 */
+		Path htmlReport = createHtmlReport();
+		JsonReport jsonReport;
+		Callable<Byte> runtimeCallable;
+		if (forkedWorkerPool != null) {
+			Path jsonReportFile = createJsonReport();
+			jsonReport = JsonReportFile.of(jsonReportFile);
+			runtimeCallable = new ForkedRuntimeCallable(buildCallableRuntimeArgs(jsonReportFile, htmlReport),
+					featureGroup, forkedWorkerPool);
+		} else {
+			InMemoryJsonReport inMemoryJsonReport = createInMemoryJsonReport();
+			jsonReport = inMemoryJsonReport;
+			runtimeCallable = new CucumberRuntimeCallable(buildCallableRuntimeArgs(null, htmlReport), featureGroup,
+					runtimeFactory, inMemoryJsonReport);
+			if (runtimeFactory.getOutputCapture() != null)
+				runtimeCallable = runtimeFactory.getOutputCapture().capture(runtimeCallable);
+		}
+		return countCompletedScenarios(notifyOnCompletion(runtimeCallable, jsonReport, htmlReport), featureGroup);
+	}
+
+	private byte runTasks(List<? extends Callable<Byte>> tasks) throws InterruptedException {
 		byte result = 0;
-		ExecutorService executor = Executors.newFixedThreadPool(rerunFiles.size());
-		List<CucumberRuntimeCallable> runtimes = new ArrayList<CucumberRuntimeCallable>();
-		for (Path rerunFile : rerunFiles) {
-			CucumberRuntimeCallable runtimeCallable = new CucumberRuntimeCallable(buildCallableRuntimeArgs(rerunFile),
-					runtimeFactory);
-			runtimes.add(runtimeCallable);
+		ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+		if (threadCountController != null)
+			threadCountController.start();
+		List<Future<Byte>> futures;
+		try {
+			futures = executor.invokeAll(tasks);
+		} finally {
+			if (threadCountController != null)
+				threadCountController.finish();
 		}
-		List<Future<Byte>> futures = executor.invokeAll(runtimes);
 		executor.shutdown();
 		for (Future<Byte> future : futures)
 			try {
@@ -61,23 +149,182 @@ public class CucumberRuntimeExecutor {
 		return result;
 	}
 
-	private List<String> buildCallableRuntimeArgs(Path rerunFile) throws IOException {
+	private byte runOnAgents() throws InterruptedException, IOException {
+		List<CoordinatedWorkUnit> workUnits = new ArrayList<CoordinatedWorkUnit>();
+		for (List<CucumberFeature> featureGroup : featureGroups) {
+			ForkRequest forkRequest = ForkRequest.fromFeatures(Collections.<String> emptyList(), featureGroup);
+			workUnits.add(new CoordinatedWorkUnit(forkRequest.getFeatureLines(), createJsonReport(), createHtmlReport(),
+					ResourceClaim.fromFeatures(featureGroup)));
+		}
+		return coordinator.run(workUnits, reportListener);
+	}
+
+	private Callable<Byte> notifyOnCompletion(final Callable<Byte> runtimeCallable, final JsonReport jsonReport,
+			final Path htmlReport) {
+		if (reportListener == null)
+			return runtimeCallable;
+		return () -> {
+			byte result = runtimeCallable.call();
+			reportListener.reportsCompleted(jsonReport, htmlReport);
+			/*
+			 * The listener has the report from here on, so the results of a
+			 * finished runtime are not held on to until the whole run is over
+			 */
+			jsonReports.remove(jsonReport);
+			return result;
+		};
+	}
+
+	private Callable<Byte> countCompletedScenarios(final Callable<Byte> runtimeCallable,
+			List<CucumberFeature> featureGroup) {
+		if (!runtimeConfiguration.isThreadCountAdaptive())
+			return runtimeCallable;
+		final int scenarioCount = WorkUnit.split(featureGroup, Granularity.EXAMPLE).size();
+		return () -> {
+			byte result = runtimeCallable.call();
+			threadCountController.recordCompletedScenarios(scenarioCount);
+			return result;
+		};
+	}
+
+	private byte runWorkQueue(List<Callable<Byte>> runtimes, List<ResourceClaim> resourceClaims)
+			throws InterruptedException {
+		int numberOfWorkers = Math.max(1, Math.min(getMaximumThreads(), runtimes.size()));
+		/*
+		 * Groups tagged with resources are handed out under the resource
+		 * limits in either scheduling mode, by no more threads than asked for
+		 */
+		WorkQueue<Callable<Byte>> workQueue;
+		if (ResourceLimitedWorkQueue.isLimited(resourceClaims))
+			workQueue = new ResourceLimitedWorkQueue(runtimes, resourceClaims);
+		else
+			workQueue = new WorkStealingQueue<Callable<Byte>>(runtimes, numberOfWorkers);
+		return runWorkQueue(workQueue, numberOfWorkers);
+	}
+
+	private byte runWorkQueue(WorkQueue<Callable<Byte>> workQueue, int numberOfWorkers) throws InterruptedException {
+		if (runtimeFactory.getHeapPressureMonitor() != null)
+			workQueue = runtimeFactory.getHeapPressureMonitor().throttle(workQueue);
+		if (useVirtualThreads())
+			return runTasks(Collections.singletonList(new VirtualThreadDispatcher(workQueue, numberOfWorkers,
+					runtimeFactory.getFailFastMonitor(), threadCountController)));
+		List<CucumberRuntimeWorker> workers = new ArrayList<CucumberRuntimeWorker>();
+		for (int i = 0; i < numberOfWorkers; i++)
+			workers.add(new CucumberRuntimeWorker(workQueue, i, runtimeFactory.getFailFastMonitor(),
+					threadCountController));
+		return runTasks(workers);
+	}
+
+	private boolean useVirtualThreads() {
+		if (runtimeConfiguration.executorMode != ExecutorMode.VIRTUAL)
+			return false;
+		if (VirtualThreads.isSupported())
+			return true;
+		LOG.warning("Virtual threads need Java 21 or later, running on platform threads instead");
+		return false;
+	}
+
+	private int getMaximumThreads() {
+		/*
+		 * With an adaptive thread count a worker is set up for the most
+		 * threads allowed and the controller decides how many of them run
+		 */
+		if (runtimeConfiguration.isThreadCountAdaptive())
+			return runtimeConfiguration.maximumThreads;
+		return runtimeConfiguration.numberOfThreads;
+	}
+
+	private Path createJsonReport() throws IOException {
+		if (!isJsonReportRequired())
+			return null;
+		Path jsonReport = runtimeFactory.getRunWorkspace().createJsonReport();
+		jsonReports.add(new JsonReportFile(jsonReport));
+		return jsonReport;
+	}
+
+	private InMemoryJsonReport createInMemoryJsonReport() throws IOException {
+		if (!isJsonReportRequired())
+			return null;
+		InMemoryJsonReport jsonReport = new InMemoryJsonReport(runtimeFactory.getRunWorkspace().getDirectory());
+		jsonReports.add(jsonReport);
+		return jsonReport;
+	}
+
+	private boolean isJsonReportRequired() {
+		/*
+		 * Failed scenarios to retry are read from the JSON reports, so they
+		 * are collected even when no merged JSON report was asked for
+		 */
+		return runtimeConfiguration.jsonReportRequired || runtimeConfiguration.retryCount > 0;
+	}
+
+	private Path createHtmlReport() throws IOException {
+		if (!runtimeConfiguration.htmlReportRequired)
+			return null;
+		Path htmlReport = runtimeFactory.getRunWorkspace().createHtmlReport();
+		htmlReports.add(htmlReport);
+		return htmlReport;
+	}
+
+	private List<String> buildCallableRuntimeArgs(Path jsonReport, Path htmlReport) {
 		List<String> callableRuntimeArgs = new ArrayList<String>();
-		if (runtimeConfiguration.jsonReportRequired) {
-			Path jsonReport = Files.createTempFile("parallelCukes", ".json");
-			jsonReport.toFile().deleteOnExit();
-			jsonReports.add(jsonReport);
+		if (jsonReport != null) {
 			callableRuntimeArgs.add("--plugin");
 			callableRuntimeArgs.add("json:" + jsonReport);
 		}
-		if (runtimeConfiguration.htmlReportRequired) {
-			Path htmlReport = Files.createTempDirectory("parallelCukes");
-			Runtime.getRuntime().addShutdownHook(new Thread(new RemoveDirectoryRunnable(htmlReport)));
-			htmlReports.add(htmlReport);
+		if (htmlReport != null) {
 			callableRuntimeArgs.add("--plugin");
 			callableRuntimeArgs.add("html:" + htmlReport);
 		}
-		callableRuntimeArgs.add("@" + rerunFile);
 		return callableRuntimeArgs;
 	}
+
+	public static class Builder {
+
+		private CucumberRuntimeFactory runtimeFactory;
+		private RuntimeConfiguration runtimeConfiguration;
+		private List<List<CucumberFeature>> featureGroups;
+		private RuntimeReportListener reportListener;
+		private ForkedWorkerPool forkedWorkerPool;
+		private Coordinator coordinator;
+		private boolean streamFeatureGroups;
+
+		public Builder(CucumberRuntimeFactory runtimeFactory, RuntimeConfiguration runtimeConfiguration) {
+			this.runtimeFactory = runtimeFactory;
+			this.runtimeConfiguration = runtimeConfiguration;
+		}
+
+		public Builder featureGroups(List<List<CucumberFeature>> featureGroups) {
+			this.featureGroups = featureGroups;
+			return this;
+		}
+
+		public Builder reportListener(RuntimeReportListener reportListener) {
+			this.reportListener = reportListener;
+			return this;
+		}
+
+		public Builder forkedWorkerPool(ForkedWorkerPool forkedWorkerPool) {
+			this.forkedWorkerPool = forkedWorkerPool;
+			return this;
+		}
+
+		public Builder coordinator(Coordinator coordinator) {
+			this.coordinator = coordinator;
+			return this;
+		}
+
+		public Builder streamFeatureGroups(boolean streamFeatureGroups) {
+			/*
+			 * Streamed feature groups are handed to the executor with
+			 * addFeatureGroups while it runs rather than up front
+			 */
+			this.streamFeatureGroups = streamFeatureGroups;
+			return this;
+		}
+
+		public CucumberRuntimeExecutor build() {
+			return new CucumberRuntimeExecutor(this);
+		}
+	}
 }
@@ -17,6 +17,7 @@ import cucumber.runtime.RuntimeOptions;
 import cucumber.runtime.io.MultiLoader;
 import cucumber.runtime.io.ResourceLoader;
 import cucumber.runtime.io.ResourceLoaderClassFinder;
+import cucumber.runtime.model.CucumberFeature;
 
 public class CucumberRuntimeFactory {
 
@@ -24,6 +25,12 @@ public class CucumberRuntimeFactory {
 	private CucumberBackendFactory cucumberBackendFactory;
 	private ClassLoader cucumberClassLoader;
 	private ThreadExecutionRecorder threadExecutionRecorder;
+	private FailFastMonitor failFastMonitor;
+	private HeapPressureMonitor heapPressureMonitor;
+	private ResourceLoader resourceLoader;
+	private ClassFinder classFinder;
+	private RunWorkspace runWorkspace;
+	private OutputCapture outputCapture;
 
 	public CucumberRuntimeFactory(RuntimeConfiguration runtimeConfiguration, ClassLoader cucumberClassLoader) {
 		this(runtimeConfiguration, null, cucumberClassLoader);
@@ -36,16 +43,64 @@ public class CucumberRuntimeFactory {
 
 	public CucumberRuntimeFactory(RuntimeConfiguration runtimeConfiguration, CucumberBackendFactory cucumberBackendFactory,
 								  ClassLoader cucumberClassLoader, ThreadExecutionRecorder threadExecutionRecorder) {
-		this.runtimeConfiguration = runtimeConfiguration;
-		this.cucumberBackendFactory = cucumberBackendFactory;
-		this.cucumberClassLoader = cucumberClassLoader;
-		this.threadExecutionRecorder = threadExecutionRecorder;
+		this(new Builder(runtimeConfiguration, cucumberClassLoader).cucumberBackendFactory(cucumberBackendFactory)
+				.threadExecutionRecorder(threadExecutionRecorder));
+	}
+
+	protected CucumberRuntimeFactory(Builder builder) {
+		this.runtimeConfiguration = builder.runtimeConfiguration;
+		this.cucumberBackendFactory = builder.cucumberBackendFactory;
+		this.cucumberClassLoader = builder.cucumberClassLoader;
+		this.threadExecutionRecorder = builder.threadExecutionRecorder;
+		this.failFastMonitor = builder.failFastMonitor;
+		this.heapPressureMonitor = builder.heapPressureMonitor;
+		this.resourceLoader = builder.resourceLoader;
+		this.runWorkspace = builder.runWorkspace;
+		this.outputCapture = builder.outputCapture;
+	}
+
+	public FailFastMonitor getFailFastMonitor() {
+		return failFastMonitor;
+	}
+
+	public HeapPressureMonitor getHeapPressureMonitor() {
+		return heapPressureMonitor;
+	}
+
+	public OutputCapture getOutputCapture() {
+		return outputCapture;
+	}
+
+	public synchronized RunWorkspace getRunWorkspace() {
+		/*
+		 * Without a workspace from the run the reports go to one of the
+		 * factory's own, removed when the JVM exits
+		 */
+		if (runWorkspace == null)
+			runWorkspace = new RunWorkspace();
+		return runWorkspace;
 	}
 
 	public Runtime getRuntime(List<String> additionalCucumberArguments) {
+		return getRuntime(additionalCucumberArguments, null);
+	}
+
+	public Runtime getRuntime(List<String> additionalCucumberArguments, List<CucumberFeature> features) {
+		return getRuntime(additionalCucumberArguments, features, null);
+	}
+
+	public Runtime getRuntime(List<String> additionalCucumberArguments, List<CucumberFeature> features,
+			Object plugin) {
 		List<String> runtimeCucumberArguments = new ArrayList<String>(runtimeConfiguration.cucumberPassthroughArguments);
 		runtimeCucumberArguments.addAll(additionalCucumberArguments);
-		RuntimeOptions runtimeOptions = new RuntimeOptions(runtimeCucumberArguments);
+		RuntimeOptions runtimeOptions;
+		if (features == null)
+			runtimeOptions = new RuntimeOptions(runtimeCucumberArguments);
+		else
+			runtimeOptions = new ParsedFeatureRuntimeOptions(runtimeCucumberArguments,
+					captureOutput(watchForFailures(features)));
+		if (plugin != null)
+			runtimeOptions.addPlugin(plugin);
 		ResourceLoader resourceLoader = getResourceLoader();
 
 		Runtime runtime = null;
@@ -59,10 +114,27 @@ public class CucumberRuntimeFactory {
 		return runtime;
 	}
 
+	private List<CucumberFeature> watchForFailures(List<CucumberFeature> features) {
+		if (failFastMonitor == null)
+			return features;
+		List<CucumberFeature> failFastFeatures = new ArrayList<CucumberFeature>();
+		for (CucumberFeature feature : features)
+			failFastFeatures.add(new FailFastFeature(feature, failFastMonitor));
+		return failFastFeatures;
+	}
+
+	private List<CucumberFeature> captureOutput(List<CucumberFeature> features) {
+		if (outputCapture == null)
+			return features;
+		List<CucumberFeature> capturedFeatures = new ArrayList<CucumberFeature>();
+		for (CucumberFeature feature : features)
+			capturedFeatures.add(new CapturedOutputFeature(feature, outputCapture));
+		return capturedFeatures;
+	}
+
 	private Runtime createDefaultRuntime(RuntimeOptions runtimeOptions, ResourceLoader resourceLoader) {
 		if (cucumberBackendFactory == null) {
-			ClassFinder classFinder = new ResourceLoaderClassFinder(resourceLoader, cucumberClassLoader);
-			return new Runtime(resourceLoader, classFinder, cucumberClassLoader, runtimeOptions);
+			return new Runtime(resourceLoader, getClassFinder(), cucumberClassLoader, runtimeOptions);
 		} else {
 			return new Runtime(resourceLoader, cucumberClassLoader, cucumberBackendFactory.getBackends(), runtimeOptions);
 		}
@@ -70,17 +142,37 @@ public class CucumberRuntimeFactory {
 
 	private Runtime createThreadLoggedRuntime(RuntimeOptions runtimeOptions, ResourceLoader resourceLoader) {
 		if (cucumberBackendFactory == null) {
-			ClassFinder classFinder = new ResourceLoaderClassFinder(resourceLoader, cucumberClassLoader);
-			return new ThreadLoggedRuntime(resourceLoader, classFinder, cucumberClassLoader, runtimeOptions, threadExecutionRecorder);
+			return new ThreadLoggedRuntime(resourceLoader, getClassFinder(), cucumberClassLoader, runtimeOptions, threadExecutionRecorder);
 		} else {
 			return new ThreadLoggedRuntime(resourceLoader, cucumberClassLoader, cucumberBackendFactory.getBackends(), runtimeOptions, threadExecutionRecorder);
 		}
 	}
 
-	private ResourceLoader getResourceLoader() {
+	public synchronized ResourceLoader getResourceLoader() {
+		/*
+		 * The glue and backend lookups of every runtime are answered by one
+		 * shared loader, so the classpath is only scanned once per run
+		 */
+		if (resourceLoader == null) {
+			ClassLoader featuresClassLoader = getFeaturesClassLoader();
+			GlueIndex glueIndex = null;
+			if (runtimeConfiguration.glueIndexPath != null)
+				glueIndex = new GlueIndex(runtimeConfiguration.glueIndexPath, featuresClassLoader);
+			resourceLoader = new CachingResourceLoader(new MultiLoader(featuresClassLoader), glueIndex);
+		}
+		return resourceLoader;
+	}
+
+	private synchronized ClassFinder getClassFinder() {
+		if (classFinder == null)
+			classFinder = new ResourceLoaderClassFinder(getResourceLoader(), cucumberClassLoader);
+		return classFinder;
+	}
+
+	private ClassLoader getFeaturesClassLoader() {
 		List<Path> fileSystemFeaturePaths = getFileSystemFeaturePaths();
 		if (fileSystemFeaturePaths.size() == 0)
-			return new MultiLoader(cucumberClassLoader);
+			return cucumberClassLoader;
 		URL[] urls = new URL[fileSystemFeaturePaths.size()];
 		int index = 0;
 		for (Path featurePath : fileSystemFeaturePaths) {
@@ -91,8 +183,7 @@ public class CucumberRuntimeFactory {
 			}
 			index++;
 		}
-		URLClassLoader featuresLoader = new URLClassLoader(urls, cucumberClassLoader);
-		return new MultiLoader(featuresLoader);
+		return new URLClassLoader(urls, cucumberClassLoader);
 	}
 
 	private List<Path> getFileSystemFeaturePaths() {
@@ -103,4 +194,61 @@ public class CucumberRuntimeFactory {
 		}
 		return fileSystemFeaturePaths;
 	}
+
+	public static class Builder {
+
+		private RuntimeConfiguration runtimeConfiguration;
+		private ClassLoader cucumberClassLoader;
+		private CucumberBackendFactory cucumberBackendFactory;
+		private ThreadExecutionRecorder threadExecutionRecorder;
+		private FailFastMonitor failFastMonitor;
+		private HeapPressureMonitor heapPressureMonitor;
+		private ResourceLoader resourceLoader;
+		private RunWorkspace runWorkspace;
+		private OutputCapture outputCapture;
+
+		public Builder(RuntimeConfiguration runtimeConfiguration, ClassLoader cucumberClassLoader) {
+			this.runtimeConfiguration = runtimeConfiguration;
+			this.cucumberClassLoader = cucumberClassLoader;
+		}
+
+		public Builder cucumberBackendFactory(CucumberBackendFactory cucumberBackendFactory) {
+			this.cucumberBackendFactory = cucumberBackendFactory;
+			return this;
+		}
+
+		public Builder threadExecutionRecorder(ThreadExecutionRecorder threadExecutionRecorder) {
+			this.threadExecutionRecorder = threadExecutionRecorder;
+			return this;
+		}
+
+		public Builder failFastMonitor(FailFastMonitor failFastMonitor) {
+			this.failFastMonitor = failFastMonitor;
+			return this;
+		}
+
+		public Builder heapPressureMonitor(HeapPressureMonitor heapPressureMonitor) {
+			this.heapPressureMonitor = heapPressureMonitor;
+			return this;
+		}
+
+		public Builder resourceLoader(ResourceLoader resourceLoader) {
+			this.resourceLoader = resourceLoader;
+			return this;
+		}
+
+		public Builder runWorkspace(RunWorkspace runWorkspace) {
+			this.runWorkspace = runWorkspace;
+			return this;
+		}
+
+		public Builder outputCapture(OutputCapture outputCapture) {
+			this.outputCapture = outputCapture;
+			return this;
+		}
+
+		public CucumberRuntimeFactory build() {
+			return new CucumberRuntimeFactory(this);
+		}
+	}
 }
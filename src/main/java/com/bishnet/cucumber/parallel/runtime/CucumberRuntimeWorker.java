@@ -0,0 +1,47 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.util.concurrent.Callable;
+
+import com.bishnet.cucumber.parallel.util.WorkQueue;
+
+public class CucumberRuntimeWorker implements Callable<Byte> {
+
+	private WorkQueue<Callable<Byte>> workQueue;
+	private int workerIndex;
+	private FailFastMonitor failFastMonitor;
+	private ThreadCountController threadCountController;
+
+	public CucumberRuntimeWorker(WorkQueue<Callable<Byte>> workQueue, int workerIndex,
+			FailFastMonitor failFastMonitor, ThreadCountController threadCountController) {
+		this.workQueue = workQueue;
+		this.workerIndex = workerIndex;
+		this.failFastMonitor = failFastMonitor;
+		this.threadCountController = threadCountController;
+	}
+
+	@Override
+	public Byte call() throws Exception {
+		byte result = 0;
+		Callable<Byte> runtimeCallable;
+		try {
+			while (!isStopped() && awaitTurn() && (runtimeCallable = workQueue.poll(workerIndex)) != null)
+				result |= runtimeCallable.call();
+		} finally {
+			/*
+			 * Once a worker runs out of work there is none left for the workers
+			 * waiting on the thread count either
+			 */
+			if (threadCountController != null)
+				threadCountController.finish();
+		}
+		return result;
+	}
+
+	private boolean awaitTurn() throws InterruptedException {
+		return threadCountController == null || threadCountController.awaitTurn(workerIndex);
+	}
+
+	private boolean isStopped() {
+		return failFastMonitor != null && failFastMonitor.isStopped();
+	}
+}
@@ -0,0 +1,56 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import com.bishnet.cucumber.parallel.report.DurationStore;
+
+import cucumber.runtime.model.CucumberBackground;
+import cucumber.runtime.model.CucumberExamples;
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberScenario;
+import cucumber.runtime.model.CucumberScenarioOutline;
+import cucumber.runtime.model.CucumberTagStatement;
+
+public class DurationEstimator {
+
+	private DurationStore durationStore;
+
+	public DurationEstimator(DurationStore durationStore) {
+		this.durationStore = durationStore;
+	}
+
+	public long estimate(CucumberFeature feature) {
+		long duration = 0;
+		for (CucumberTagStatement tagStatement : feature.getFeatureElements()) {
+			if (tagStatement instanceof CucumberScenarioOutline)
+				duration += estimate((CucumberScenarioOutline) tagStatement);
+			else if (tagStatement instanceof CucumberScenario)
+				duration += estimate((CucumberScenario) tagStatement);
+		}
+		return duration;
+	}
+
+	public long estimate(WorkUnit workUnit) {
+		long duration = 0;
+		for (CucumberScenario cucumberScenario : workUnit.getScenarios())
+			duration += estimate(cucumberScenario);
+		return duration;
+	}
+
+	public long estimate(CucumberScenarioOutline scenarioOutline) {
+		long duration = 0;
+		for (CucumberExamples cucumberExamples : scenarioOutline.getCucumberExamplesList())
+			for (CucumberScenario cucumberScenario : cucumberExamples.createExampleScenarios())
+				duration += estimate(cucumberScenario);
+		return duration;
+	}
+
+	public long estimate(CucumberScenario scenario) {
+		Long recordedDuration = durationStore.getScenarioDuration(scenario.getGherkinModel().getId());
+		if (recordedDuration != null)
+			return recordedDuration;
+		int stepCount = scenario.getSteps().size();
+		CucumberBackground background = scenario.getCucumberBackground();
+		if (background != null)
+			stepCount += background.getSteps().size();
+		return stepCount * durationStore.getAverageStepDuration();
+	}
+}
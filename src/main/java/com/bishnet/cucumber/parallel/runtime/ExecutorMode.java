@@ -0,0 +1,10 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+public enum ExecutorMode {
+
+	PLATFORM, VIRTUAL;
+
+	public static ExecutorMode fromArgument(String argument) {
+		return valueOf(argument.trim().toUpperCase());
+	}
+}
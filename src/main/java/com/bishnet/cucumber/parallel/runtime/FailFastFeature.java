@@ -0,0 +1,84 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.util.List;
+
+import cucumber.runtime.Runtime;
+import cucumber.runtime.model.CucumberExamples;
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberScenario;
+import cucumber.runtime.model.CucumberScenarioOutline;
+import cucumber.runtime.model.CucumberTagStatement;
+import gherkin.formatter.Formatter;
+import gherkin.formatter.Reporter;
+
+public class FailFastFeature extends CucumberFeature {
+
+	private CucumberFeature feature;
+	private FailFastMonitor failFastMonitor;
+
+	public FailFastFeature(CucumberFeature feature, FailFastMonitor failFastMonitor) {
+		super(feature.getGherkinFeature(), feature.getPath());
+		setI18n(feature.getI18n());
+		this.feature = feature;
+		this.failFastMonitor = failFastMonitor;
+	}
+
+	@Override
+	public List<CucumberTagStatement> getFeatureElements() {
+		return feature.getFeatureElements();
+	}
+
+	@Override
+	public void run(Formatter formatter, Reporter reporter, Runtime runtime) {
+		/*
+		 * The monitor is checked between scenarios so a scenario is never cut
+		 * short, and a feature which never started is left out of the reports
+		 */
+		if (failFastMonitor.isStopped())
+			return;
+		formatter.uri(getPath());
+		formatter.feature(getGherkinFeature());
+		for (CucumberTagStatement tagStatement : getFeatureElements()) {
+			if (failFastMonitor.isStopped())
+				break;
+			if (tagStatement instanceof CucumberScenarioOutline)
+				runScenarioOutline((CucumberScenarioOutline) tagStatement, formatter, reporter, runtime);
+			else
+				runScenario(tagStatement, formatter, reporter, runtime);
+		}
+		formatter.eof();
+	}
+
+	private void runScenarioOutline(CucumberScenarioOutline scenarioOutline, Formatter formatter, Reporter reporter,
+			Runtime runtime) {
+		/*
+		 * Every example row is a scenario of its own, so each one counts as a
+		 * failure and the rows left are not run once the threshold is reached
+		 */
+		scenarioOutline.formatOutlineScenario(formatter);
+		for (CucumberExamples examples : scenarioOutline.getCucumberExamplesList()) {
+			if (failFastMonitor.isStopped())
+				return;
+			examples.format(formatter);
+			for (CucumberScenario exampleScenario : examples.createExampleScenarios()) {
+				if (failFastMonitor.isStopped())
+					return;
+				runScenario(exampleScenario, formatter, reporter, runtime);
+			}
+		}
+	}
+
+	private void runScenario(CucumberTagStatement scenario, Formatter formatter, Reporter reporter, Runtime runtime) {
+		int previousErrorCount = runtime.getErrors().size();
+		scenario.run(formatter, reporter, runtime);
+		if (hasFailed(runtime.getErrors().subList(previousErrorCount, runtime.getErrors().size())))
+			failFastMonitor.recordFailedScenarios(1);
+	}
+
+	private boolean hasFailed(List<Throwable> errors) {
+		for (Throwable error : errors)
+			if (!Runtime.isPending(error))
+				return true;
+		return false;
+	}
+}
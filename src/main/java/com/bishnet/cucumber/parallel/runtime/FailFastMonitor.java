@@ -0,0 +1,38 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+public class FailFastMonitor {
+
+	private static final Logger LOG = Logger.getLogger(FailFastMonitor.class.getName());
+
+	private int threshold;
+	private AtomicInteger failedScenarioCount = new AtomicInteger();
+	private AtomicBoolean stopped = new AtomicBoolean();
+
+	public FailFastMonitor(int threshold) {
+		this.threshold = threshold;
+	}
+
+	public void recordFailedScenarios(int count) {
+		if (count <= 0)
+			return;
+		int failedScenarios = failedScenarioCount.addAndGet(count);
+		if (failedScenarios >= threshold && stopped.compareAndSet(false, true))
+			LOG.warning(failedScenarios + " scenarios have failed, no further scenarios will be started");
+	}
+
+	public boolean isStopped() {
+		return stopped.get();
+	}
+
+	public int getFailedScenarioCount() {
+		return failedScenarioCount.get();
+	}
+
+	public int getRemainingFailures() {
+		return Math.max(1, threshold - failedScenarioCount.get());
+	}
+}
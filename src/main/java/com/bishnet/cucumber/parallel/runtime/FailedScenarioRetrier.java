@@ -0,0 +1,143 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import com.bishnet.cucumber.parallel.report.FailedScenarioCollector;
+import com.bishnet.cucumber.parallel.report.JsonReport;
+import com.bishnet.cucumber.parallel.report.RetryReportWriter;
+
+import cucumber.runtime.CucumberException;
+import cucumber.runtime.RuntimeOptions;
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberScenario;
+
+public class FailedScenarioRetrier {
+
+	private static final Logger LOG = Logger.getLogger(FailedScenarioRetrier.class.getName());
+
+	private RuntimeConfiguration runtimeConfiguration;
+	private CucumberRuntimeFactory runtimeFactory;
+	private DurationEstimator durationEstimator;
+	private RuntimeReportListener reportListener;
+	private ForkedWorkerPool forkedWorkerPool;
+	private Coordinator coordinator;
+	private boolean strict;
+
+	public FailedScenarioRetrier(RuntimeConfiguration runtimeConfiguration, CucumberRuntimeFactory runtimeFactory,
+			DurationEstimator durationEstimator, RuntimeReportListener reportListener,
+			ForkedWorkerPool forkedWorkerPool, Coordinator coordinator) {
+		this.runtimeConfiguration = runtimeConfiguration;
+		this.runtimeFactory = runtimeFactory;
+		this.durationEstimator = durationEstimator;
+		this.reportListener = reportListener;
+		this.forkedWorkerPool = forkedWorkerPool;
+		this.coordinator = coordinator;
+		this.strict = new RuntimeOptions(new ArrayList<String>(runtimeConfiguration.cucumberPassthroughArguments))
+				.isStrict();
+	}
+
+	public FailedScenarioCollector createFailedScenarioCollector() {
+		return new FailedScenarioCollector(strict);
+	}
+
+	public RuntimeReportListener collectFailures(final FailedScenarioCollector failedScenarioCollector,
+			final RuntimeReportListener completionListener) {
+		return (jsonReport, htmlReport) -> {
+			try {
+				failedScenarioCollector.addReport(jsonReport);
+			} catch (IOException e) {
+				throw new CucumberException(e);
+			}
+			if (completionListener != null)
+				completionListener.reportsCompleted(jsonReport, htmlReport);
+		};
+	}
+
+	public byte retry(List<CucumberFeature> features, FailedScenarioCollector firstRunFailures,
+			RetryReportWriter retryReportWriter) throws InterruptedException, IOException {
+		/*
+		 * Every attempt runs the scenarios still failing as a parallel run of
+		 * its own, so the result only depends on the last attempt of each
+		 */
+		Map<String, List<Integer>> failingScenarios = firstRunFailures.getFailedScenarios();
+		int retriedScenarioCount = countScenarios(failingScenarios);
+		for (int attempt = 1; attempt <= runtimeConfiguration.retryCount && !failingScenarios.isEmpty(); attempt++) {
+			LOG.info("Retrying " + countScenarios(failingScenarios) + " failed scenarios, attempt " + attempt + " of "
+					+ runtimeConfiguration.retryCount);
+			List<CucumberFeature> retryFeatures = selectScenarios(features, failingScenarios);
+			if (retryFeatures.isEmpty())
+				break;
+			FailedScenarioCollector attemptResults = new FailedScenarioCollector(strict, true);
+			List<List<CucumberFeature>> featureGroups = new FeatureSplitter(runtimeConfiguration, retryFeatures,
+					durationEstimator).splitFeaturesIntoGroups();
+			CucumberRuntimeExecutor executor = new CucumberRuntimeExecutor.Builder(runtimeFactory, runtimeConfiguration)
+					.featureGroups(featureGroups)
+					.reportListener(collectFailures(attemptResults, this::addRetryHtmlReport))
+					.forkedWorkerPool(forkedWorkerPool)
+					.coordinator(coordinator)
+					.build();
+			executor.run();
+			Map<String, List<Integer>> stillFailingScenarios = new LinkedHashMap<String, List<Integer>>();
+			for (Map.Entry<String, List<Integer>> featureLines : failingScenarios.entrySet())
+				for (int line : featureLines.getValue()) {
+					String uri = featureLines.getKey();
+					boolean passed = attemptResults.getScenarioElements(uri, line) != null
+							&& !attemptResults.hasFailed(uri, line);
+					retryReportWriter.addRetriedScenario(uri, line, attemptResults.getScenarioElements(uri, line),
+							attempt + 1, passed);
+					if (!passed) {
+						if (!stillFailingScenarios.containsKey(uri))
+							stillFailingScenarios.put(uri, new ArrayList<Integer>());
+						stillFailingScenarios.get(uri).add(line);
+					}
+				}
+			failingScenarios = stillFailingScenarios;
+		}
+		int failedScenarioCount = countScenarios(failingScenarios);
+		LOG.info("Retried " + retriedScenarioCount + " scenarios: " + (retriedScenarioCount - failedScenarioCount)
+				+ " flaky, " + failedScenarioCount + " failed");
+		return (byte) (failingScenarios.isEmpty() ? 0 : 1);
+	}
+
+	private void addRetryHtmlReport(JsonReport jsonReport, Path htmlReport) {
+		/*
+		 * The JSON report of an attempt is only used to replace the retried
+		 * scenarios, the HTML report of every attempt is added to the run's
+		 */
+		if (reportListener != null)
+			reportListener.reportsCompleted(null, htmlReport);
+	}
+
+	private List<CucumberFeature> selectScenarios(List<CucumberFeature> features,
+			Map<String, List<Integer>> featureLines) {
+		FilteredFeatureBuilder filteredFeatureBuilder = new FilteredFeatureBuilder();
+		for (WorkUnit workUnit : WorkUnit.split(features, Granularity.EXAMPLE)) {
+			List<Integer> lines = featureLines.get(workUnit.getFeature().getPath());
+			if (lines == null)
+				continue;
+			Set<Integer> selectedLines = new HashSet<Integer>(lines);
+			List<CucumberScenario> scenarios = new ArrayList<CucumberScenario>();
+			for (CucumberScenario scenario : workUnit.getScenarios())
+				if (selectedLines.contains(scenario.getGherkinModel().getLine()))
+					scenarios.add(scenario);
+			if (!scenarios.isEmpty())
+				filteredFeatureBuilder.addWorkUnit(new WorkUnit(workUnit.getFeature(), scenarios));
+		}
+		return filteredFeatureBuilder.getFeatures();
+	}
+
+	private int countScenarios(Map<String, List<Integer>> featureLines) {
+		int scenarioCount = 0;
+		for (List<Integer> lines : featureLines.values())
+			scenarioCount += lines.size();
+		return scenarioCount;
+	}
+}
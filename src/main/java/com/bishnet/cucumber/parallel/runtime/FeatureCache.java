@@ -0,0 +1,229 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import gherkin.deps.com.google.gson.Gson;
+import gherkin.deps.com.google.gson.JsonParseException;
+import gherkin.deps.com.google.gson.stream.JsonReader;
+import gherkin.deps.com.google.gson.stream.JsonToken;
+import gherkin.deps.com.google.gson.stream.JsonWriter;
+import gherkin.formatter.model.Background;
+import gherkin.formatter.model.Examples;
+import gherkin.formatter.model.Feature;
+import gherkin.formatter.model.Scenario;
+import gherkin.formatter.model.ScenarioOutline;
+import gherkin.formatter.model.Step;
+
+public class FeatureCache {
+
+	public static final String URI = "uri";
+	public static final String FEATURE = "feature";
+	public static final String BACKGROUND = "background";
+	public static final String SCENARIO = "scenario";
+	public static final String SCENARIO_OUTLINE = "scenarioOutline";
+	public static final String EXAMPLES = "examples";
+	public static final String STEP = "step";
+
+	private static final Logger LOG = Logger.getLogger(FeatureCache.class.getName());
+	private static final String CACHE_FORMAT = "1";
+	private static final String CUCUMBER_VERSION = readCucumberVersion();
+	private static final Map<String, Class<?>> EVENT_TYPES = new HashMap<String, Class<?>>();
+
+	static {
+		EVENT_TYPES.put(URI, String.class);
+		EVENT_TYPES.put(FEATURE, Feature.class);
+		EVENT_TYPES.put(BACKGROUND, Background.class);
+		EVENT_TYPES.put(SCENARIO, Scenario.class);
+		EVENT_TYPES.put(SCENARIO_OUTLINE, ScenarioOutline.class);
+		EVENT_TYPES.put(EXAMPLES, Examples.class);
+		EVENT_TYPES.put(STEP, Step.class);
+	}
+
+	private Path cacheDirectory;
+	private Gson gson = new Gson();
+
+	public FeatureCache(Path cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	public static String hash(String... values) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		for (String value : values) {
+			digest.update(value.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+		StringBuilder hash = new StringBuilder();
+		for (byte digestByte : digest.digest())
+			hash.append(String.format("%02x", digestByte));
+		return hash.toString();
+	}
+
+	public CachedFeature get(String path, String contentHash, List<Object> filters) {
+		Path cacheFile = getCacheFile(path, filters);
+		if (!Files.exists(cacheFile))
+			return null;
+		try (JsonReader reader = new JsonReader(new InputStreamReader(new GZIPInputStream(new BufferedInputStream(
+				Files.newInputStream(cacheFile))), StandardCharsets.UTF_8))) {
+			return readCachedFeature(reader, contentHash);
+		} catch (IOException | JsonParseException | IllegalStateException e) {
+			LOG.warning("The cached copy of " + path + " could not be read and is parsed again: " + e);
+			return null;
+		}
+	}
+
+	public void put(String path, List<Object> filters, CachedFeature cachedFeature) {
+		/*
+		 * The cache may be shared by parallel builds, so every entry is written
+		 * to a temporary file first and then moved into place in one step
+		 */
+		try {
+			Path cacheFile = getCacheFile(path, filters);
+			Files.createDirectories(cacheFile.getParent());
+			Path temporaryFile = Files.createTempFile(cacheFile.getParent(), "feature", ".tmp");
+			try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(new GZIPOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temporaryFile))), StandardCharsets.UTF_8))) {
+				writeCachedFeature(writer, cachedFeature);
+			}
+			Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOG.warning("The parsed copy of " + path + " could not be cached: " + e);
+		}
+	}
+
+	private CachedFeature readCachedFeature(JsonReader reader, String contentHash) throws IOException {
+		/*
+		 * Entries are streamed straight into the gherkin model classes, a
+		 * stale entry is given up on as soon as its content hash is read
+		 */
+		reader.beginObject();
+		reader.nextName();
+		if (!contentHash.equals(reader.nextString()))
+			return null;
+		CachedFeature cachedFeature = new CachedFeature(contentHash);
+		reader.nextName();
+		if (reader.peek() == JsonToken.NULL)
+			reader.nextNull();
+		else
+			cachedFeature.setIsoCode(reader.nextString());
+		reader.nextName();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			reader.beginArray();
+			String type = reader.nextString();
+			Class<?> dataClass = EVENT_TYPES.get(type);
+			if (dataClass == null)
+				throw new JsonParseException("Unknown event " + type);
+			cachedFeature.getEvents().add(new RecordedEvent(type, gson.fromJson(reader, dataClass)));
+			reader.endArray();
+		}
+		reader.endArray();
+		reader.endObject();
+		return cachedFeature;
+	}
+
+	private void writeCachedFeature(JsonWriter writer, CachedFeature cachedFeature) throws IOException {
+		writer.beginObject();
+		writer.name("contentHash").value(cachedFeature.getContentHash());
+		writer.name("isoCode").value(cachedFeature.getIsoCode());
+		writer.name("events").beginArray();
+		for (RecordedEvent event : cachedFeature.getEvents()) {
+			writer.beginArray();
+			writer.value(event.getType());
+			gson.toJson(event.getData(), EVENT_TYPES.get(event.getType()), writer);
+			writer.endArray();
+		}
+		writer.endArray();
+		writer.endObject();
+	}
+
+	private Path getCacheFile(String path, List<Object> filters) {
+		/*
+		 * The filters decide which parts of a feature the parser hands on, so
+		 * a feature gets an entry for every set of filters it is read with
+		 */
+		return cacheDirectory.toAbsolutePath().resolve(
+				hash(CACHE_FORMAT, CUCUMBER_VERSION, path, String.valueOf(filters)) + ".json.gz");
+	}
+
+	private static String readCucumberVersion() {
+		Properties versionProperties = new Properties();
+		try (InputStream versionStream = FeatureCache.class.getClassLoader().getResourceAsStream(
+				"cucumber/version.properties")) {
+			if (versionStream != null)
+				versionProperties.load(versionStream);
+		} catch (IOException e) {
+			/* Entries are then only shared with runs missing it as well */
+		}
+		return versionProperties.getProperty("cucumber-jvm.version", "unknown");
+	}
+
+	public static class CachedFeature {
+
+		private String contentHash;
+		private String isoCode;
+		private List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+
+		public CachedFeature(String contentHash) {
+			this.contentHash = contentHash;
+		}
+
+		public String getContentHash() {
+			return contentHash;
+		}
+
+		public String getIsoCode() {
+			return isoCode;
+		}
+
+		public void setIsoCode(String isoCode) {
+			this.isoCode = isoCode;
+		}
+
+		public List<RecordedEvent> getEvents() {
+			return events;
+		}
+	}
+
+	public static class RecordedEvent {
+
+		private String type;
+		private Object data;
+
+		public RecordedEvent(String type, Object data) {
+			this.type = type;
+			this.data = data;
+		}
+
+		public String getType() {
+			return type;
+		}
+
+		public Object getData() {
+			return data;
+		}
+	}
+}
@@ -1,11 +1,24 @@
 package com.bishnet.cucumber.parallel.runtime;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+import cucumber.runtime.FeatureBuilder;
 import cucumber.runtime.RuntimeOptions;
 import cucumber.runtime.io.MultiLoader;
+import cucumber.runtime.io.Resource;
 import cucumber.runtime.io.ResourceLoader;
 import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.PathWithLines;
 
 public class FeatureParser {
 
@@ -18,8 +31,161 @@ public class FeatureParser {
 	}
 
 	public List<CucumberFeature> parseFeatures() {
+		return parseFeatures(null);
+	}
+
+	public List<CucumberFeature> parseFeatures(Consumer<CucumberFeature> featureConsumer) {
 		RuntimeOptions runtimeOptions = new RuntimeOptions(runtimeConfiguration.featureParsingArguments);
 		ResourceLoader resourceLoader = new MultiLoader(featureClassLoader);
-		return runtimeOptions.cucumberFeatures(resourceLoader);
+		FeatureCache featureCache = null;
+		if (runtimeConfiguration.featureCachePath != null)
+			featureCache = new FeatureCache(runtimeConfiguration.featureCachePath);
+		return loadFeatures(runtimeOptions, resourceLoader, featureCache, featureConsumer);
+	}
+
+	private List<CucumberFeature> loadFeatures(RuntimeOptions runtimeOptions, ResourceLoader resourceLoader,
+			FeatureCache featureCache, Consumer<CucumberFeature> featureConsumer) {
+		/*
+		 * Features are found and filtered the way RuntimeOptions does, but
+		 * every feature path is searched and every feature file parsed on the
+		 * fork/join pool. The parsed files are taken in the order they were
+		 * found in and handed on as soon as they and every file found before
+		 * them are parsed, so the features kept when two have the same content
+		 * and the final order do not depend on the timing
+		 */
+		List<String> featurePaths = runtimeOptions.getFeaturePaths();
+		List<Object> filters = runtimeOptions.getFilters();
+		List<FeatureSource> featureSources = featurePaths.parallelStream()
+				.flatMap(featurePath -> findFeatures(resourceLoader, featurePath, filters).stream())
+				.collect(Collectors.toList());
+		/*
+		 * A pool of its own, as CompletableFuture runs every task on a thread
+		 * of its own when the common pool has less than two threads
+		 */
+		ForkJoinPool parsePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		List<CucumberFeature> cucumberFeatures = new ArrayList<CucumberFeature>();
+		try {
+			List<CompletableFuture<ParsedFeature>> parsedFeatures = new ArrayList<CompletableFuture<ParsedFeature>>();
+			for (FeatureSource featureSource : featureSources)
+				parsedFeatures.add(CompletableFuture.supplyAsync(() -> featureSource.parse(featureCache), parsePool));
+			Set<String> contentHashes = new HashSet<String>();
+			for (CompletableFuture<ParsedFeature> parsedFeatureFuture : parsedFeatures) {
+				ParsedFeature parsedFeature = join(parsedFeatureFuture);
+				if (!contentHashes.add(parsedFeature.contentHash))
+					continue;
+				cucumberFeatures.addAll(parsedFeature.cucumberFeatures);
+				if (featureConsumer != null)
+					parsedFeature.cucumberFeatures.forEach(featureConsumer);
+			}
+		} finally {
+			parsePool.shutdownNow();
+		}
+		Collections.sort(cucumberFeatures, Comparator.comparing(CucumberFeature::getPath));
+		if (cucumberFeatures.isEmpty()) {
+			if (featurePaths.isEmpty())
+				System.out.println("Got no path to feature directory or feature file");
+			else if (filters.isEmpty())
+				System.out.println(String.format("No features found at %s", featurePaths));
+			else
+				System.out.println(String.format("None of the features at %s matched the filters: %s", featurePaths,
+						filters));
+		}
+		return cucumberFeatures;
+	}
+
+	private List<FeatureSource> findFeatures(ResourceLoader resourceLoader, String featurePath, List<Object> filters) {
+		List<FeatureSource> featureSources = new ArrayList<FeatureSource>();
+		if (featurePath.startsWith("@"))
+			findFeaturesFromRerunFile(featureSources, resourceLoader, featurePath.substring(1), filters);
+		else
+			findFeaturesFromFeaturePath(featureSources, resourceLoader, featurePath, filters, false);
+		return featureSources;
+	}
+
+	private void findFeaturesFromRerunFile(List<FeatureSource> featureSources, ResourceLoader resourceLoader,
+			String rerunPath, List<Object> filters) {
+		for (Resource resource : resourceLoader.resources(rerunPath, null)) {
+			String source = read(resource);
+			if (source.isEmpty())
+				continue;
+			for (String featurePath : source.split(" "))
+				findFeaturesFromFileSystemOrClasspath(featureSources, resourceLoader, featurePath, filters);
+		}
+	}
+
+	private void findFeaturesFromFileSystemOrClasspath(List<FeatureSource> featureSources,
+			ResourceLoader resourceLoader, String featurePath, List<Object> filters) {
+		try {
+			findFeaturesFromFeaturePath(featureSources, resourceLoader, featurePath, filters, false);
+		} catch (IllegalArgumentException originalException) {
+			if (featurePath.startsWith(MultiLoader.CLASSPATH_SCHEME)
+					|| !originalException.getMessage().contains("Not a file or directory"))
+				throw originalException;
+			try {
+				findFeaturesFromFeaturePath(featureSources, resourceLoader, MultiLoader.CLASSPATH_SCHEME
+						+ featurePath, filters, true);
+			} catch (IllegalArgumentException secondException) {
+				if (secondException.getMessage().contains("No resource found for"))
+					throw new IllegalArgumentException("Neither found on file system or on classpath: "
+							+ originalException.getMessage() + ", " + secondException.getMessage());
+				throw secondException;
+			}
+		}
+	}
+
+	private void findFeaturesFromFeaturePath(List<FeatureSource> featureSources, ResourceLoader resourceLoader,
+			String featurePath, List<Object> filters, boolean failOnNoResource) {
+		PathWithLines pathWithLines = new PathWithLines(featurePath);
+		List<Object> pathFilters = new ArrayList<Object>(filters);
+		pathFilters.addAll(pathWithLines.lines);
+		Iterable<Resource> resources = resourceLoader.resources(pathWithLines.path, ".feature");
+		if (failOnNoResource && !resources.iterator().hasNext())
+			throw new IllegalArgumentException("No resource found for: " + pathWithLines.path);
+		for (Resource resource : resources)
+			featureSources.add(new FeatureSource(resource, pathFilters));
+	}
+
+	private static ParsedFeature join(CompletableFuture<ParsedFeature> parsedFeature) {
+		try {
+			return parsedFeature.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		}
+	}
+
+	private static String read(Resource resource) {
+		return new FeatureBuilder(new ArrayList<CucumberFeature>()).read(resource);
+	}
+
+	private static class FeatureSource {
+
+		private Resource resource;
+		private List<Object> filters;
+
+		public FeatureSource(Resource resource, List<Object> filters) {
+			this.resource = resource;
+			this.filters = filters;
+		}
+
+		public ParsedFeature parse(FeatureCache featureCache) {
+			List<CucumberFeature> cucumberFeatures = new ArrayList<CucumberFeature>();
+			String source = read(resource);
+			String contentHash = FeatureCache.hash(source);
+			new CachingFeatureBuilder(cucumberFeatures, featureCache).parse(resource, source, contentHash, filters);
+			return new ParsedFeature(contentHash, cucumberFeatures);
+		}
+	}
+
+	private static class ParsedFeature {
+
+		private String contentHash;
+		private List<CucumberFeature> cucumberFeatures;
+
+		public ParsedFeature(String contentHash, List<CucumberFeature> cucumberFeatures) {
+			this.contentHash = contentHash;
+			this.cucumberFeatures = cucumberFeatures;
+		}
 	}
 }
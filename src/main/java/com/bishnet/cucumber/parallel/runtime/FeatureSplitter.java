@@ -1,48 +1,104 @@
 package com.bishnet.cucumber.parallel.runtime;
 
-import gherkin.formatter.Formatter;
-import gherkin.formatter.Reporter;
-
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.ToLongFunction;
 
 import com.bishnet.cucumber.parallel.util.ListUtils;
 
-import cucumber.runtime.formatter.PluginFactory;
 import cucumber.runtime.model.CucumberFeature;
 
 public class FeatureSplitter {
 
 	private RuntimeConfiguration runtimeConfiguration;
 	private List<CucumberFeature> features;
+	private DurationEstimator durationEstimator;
 
 	public FeatureSplitter(RuntimeConfiguration runtimeConfiguration, List<CucumberFeature> features) {
+		this(runtimeConfiguration, features, null);
+	}
+
+	public FeatureSplitter(RuntimeConfiguration runtimeConfiguration, List<CucumberFeature> features,
+			DurationEstimator durationEstimator) {
 		this.runtimeConfiguration = runtimeConfiguration;
 		this.features = features;
+		this.durationEstimator = durationEstimator;
 	}
 
-	public List<Path> splitFeaturesIntoRerunFiles() throws IOException {
-		List<Path> rerunPaths = new ArrayList<Path>();
-		List<List<CucumberFeature>> partitionedFeatures = ListUtils.partition(features, runtimeConfiguration.numberOfThreads);
-
-		for (List<CucumberFeature> threadFeatures : partitionedFeatures) {
-			rerunPaths.add(createSingleRerunFile(threadFeatures));
+	public List<List<CucumberFeature>> splitFeaturesIntoGroups() {
+		List<List<CucumberFeature>> featureGroups = new ArrayList<List<CucumberFeature>>();
+		List<WorkUnit> exclusiveWorkUnits = new ArrayList<WorkUnit>();
+		List<WorkUnit> limitedWorkUnits = new ArrayList<WorkUnit>();
+		List<WorkUnit> unlimitedWorkUnits = new ArrayList<WorkUnit>();
+		for (WorkUnit workUnit : WorkUnit.split(features, runtimeConfiguration.granularity)) {
+			ResourceClaim resourceClaim = ResourceClaim.fromWorkUnit(workUnit);
+			if (resourceClaim.isExclusive())
+				exclusiveWorkUnits.add(workUnit);
+			else if (!resourceClaim.isEmpty())
+				limitedWorkUnits.add(workUnit);
+			else
+				unlimitedWorkUnits.add(workUnit);
 		}
-		return rerunPaths;
-	}
-
-	private Path createSingleRerunFile(List<CucumberFeature> rerunFeatures) throws IOException {
-		Path rerunPath = Files.createTempFile("parallelCukes", ".rerun");
-		rerunPath.toFile().deleteOnExit();
-		PluginFactory pluginFactory = new PluginFactory();
-		Object rerunFormatter = pluginFactory.create("rerun:" + rerunPath);
-		RerunFileBuilder rerunFileBuilder = new RerunFileBuilder((Formatter) rerunFormatter, (Reporter) rerunFormatter);
-		for (CucumberFeature feature : rerunFeatures)
-			rerunFileBuilder.addFeature(feature);
-		rerunFileBuilder.close();
-		return rerunPath;
+
+		/*
+		 * Work units tagged with resources get a group each, ahead of the
+		 * rest, so they start early and never hold up a thread's whole share.
+		 * Exclusive ones go first as they can only start with nothing running
+		 */
+		List<WorkUnit> resourceWorkUnits = new ArrayList<WorkUnit>(sortByCost(exclusiveWorkUnits));
+		resourceWorkUnits.addAll(sortByCost(limitedWorkUnits));
+		for (WorkUnit resourceWorkUnit : resourceWorkUnits)
+			featureGroups.add(createSingleFeatureGroup(Collections.singletonList(resourceWorkUnit)));
+		if (!unlimitedWorkUnits.isEmpty() || resourceWorkUnits.isEmpty())
+			for (List<WorkUnit> threadWorkUnits : partitionWorkUnits(unlimitedWorkUnits)) {
+				featureGroups.add(createSingleFeatureGroup(threadWorkUnits));
+			}
+		return featureGroups;
+	}
+
+	public static List<List<CucumberFeature>> splitIntoWorkUnitGroups(CucumberFeature feature,
+			Granularity granularity) {
+		/*
+		 * A streamed feature is split on its own, one group per work unit as
+		 * with the dynamic scheduler
+		 */
+		List<List<CucumberFeature>> featureGroups = new ArrayList<List<CucumberFeature>>();
+		for (WorkUnit workUnit : WorkUnit.split(Collections.singletonList(feature), granularity))
+			featureGroups.add(createSingleFeatureGroup(Collections.singletonList(workUnit)));
+		return featureGroups;
+	}
+
+	private List<WorkUnit> sortByCost(List<WorkUnit> workUnits) {
+		if (durationEstimator == null)
+			return workUnits;
+		return ListUtils.sortByCostDescending(workUnits, durationEstimator::estimate);
+	}
+
+	private List<List<WorkUnit>> partitionWorkUnits(List<WorkUnit> workUnits) {
+		int numberOfGroups = getNumberOfGroups(workUnits);
+		if (durationEstimator == null)
+			return ListUtils.partition(workUnits, numberOfGroups);
+		ToLongFunction<WorkUnit> costFunction = durationEstimator::estimate;
+		if (runtimeConfiguration.schedulingMode == SchedulingMode.DYNAMIC)
+			return ListUtils.partition(ListUtils.sortByCostDescending(workUnits, costFunction), numberOfGroups);
+		return ListUtils.partitionByCost(workUnits, numberOfGroups, costFunction);
+	}
+
+	private int getNumberOfGroups(List<WorkUnit> workUnits) {
+		/*
+		 * Dynamically scheduled workers pull one work unit at a time so each
+		 * work unit gets its own group rather than one per thread
+		 */
+		if (runtimeConfiguration.schedulingMode == SchedulingMode.DYNAMIC)
+			return workUnits.size();
+		return runtimeConfiguration.numberOfThreads;
+	}
+
+	private static List<CucumberFeature> createSingleFeatureGroup(List<WorkUnit> groupWorkUnits) {
+		FilteredFeatureBuilder filteredFeatureBuilder = new FilteredFeatureBuilder();
+		for (WorkUnit workUnit : groupWorkUnits)
+			filteredFeatureBuilder.addWorkUnit(workUnit);
+		return filteredFeatureBuilder.getFeatures();
 	}
 }
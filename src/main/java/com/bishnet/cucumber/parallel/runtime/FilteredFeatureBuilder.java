@@ -0,0 +1,116 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import gherkin.formatter.model.Examples;
+import gherkin.formatter.model.ExamplesTableRow;
+import gherkin.formatter.model.ScenarioOutline;
+import gherkin.formatter.model.Step;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import cucumber.runtime.model.CucumberExamples;
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberScenario;
+import cucumber.runtime.model.CucumberScenarioOutline;
+import cucumber.runtime.model.CucumberTagStatement;
+
+public class FilteredFeatureBuilder {
+
+	private Map<CucumberFeature, Map<Integer, CucumberScenario>> featureScenarios = new LinkedHashMap<CucumberFeature, Map<Integer, CucumberScenario>>();
+
+	public void addWorkUnit(WorkUnit workUnit) {
+		Map<Integer, CucumberScenario> scenariosByLine = featureScenarios.get(workUnit.getFeature());
+		if (scenariosByLine == null) {
+			scenariosByLine = new HashMap<Integer, CucumberScenario>();
+			featureScenarios.put(workUnit.getFeature(), scenariosByLine);
+		}
+		for (CucumberScenario cucumberScenario : workUnit.getScenarios())
+			scenariosByLine.put(cucumberScenario.getGherkinModel().getLine(), cucumberScenario);
+	}
+
+	public List<CucumberFeature> getFeatures() {
+		List<CucumberFeature> features = new ArrayList<CucumberFeature>();
+		for (Map.Entry<CucumberFeature, Map<Integer, CucumberScenario>> entry : featureScenarios.entrySet())
+			features.add(filterFeature(entry.getKey(), entry.getValue()));
+		return features;
+	}
+
+	private CucumberFeature filterFeature(CucumberFeature feature, Map<Integer, CucumberScenario> scenariosByLine) {
+		/*
+		 * Scenarios and example rows are matched on line number, the same way
+		 * cucumber filters a feature loaded from a rerun file, so each runtime
+		 * reports exactly the scenarios it was assigned
+		 */
+		List<CucumberTagStatement> filteredElements = new ArrayList<CucumberTagStatement>();
+		boolean unchanged = true;
+		for (CucumberTagStatement tagStatement : feature.getFeatureElements()) {
+			CucumberTagStatement filteredElement = null;
+			if (tagStatement instanceof CucumberScenarioOutline)
+				filteredElement = filterScenarioOutline(feature, (CucumberScenarioOutline) tagStatement, scenariosByLine);
+			else if (scenariosByLine.containsKey(tagStatement.getGherkinModel().getLine()))
+				filteredElement = tagStatement;
+			if (filteredElement != null)
+				filteredElements.add(filteredElement);
+			unchanged &= filteredElement == tagStatement;
+		}
+		if (unchanged)
+			return feature;
+		return new FilteredCucumberFeature(feature, filteredElements);
+	}
+
+	private CucumberTagStatement filterScenarioOutline(CucumberFeature feature, CucumberScenarioOutline scenarioOutline,
+			Map<Integer, CucumberScenario> scenariosByLine) {
+		List<Examples> filteredExamplesList = new ArrayList<Examples>();
+		CucumberScenario assignedScenario = null;
+		boolean unchanged = true;
+		for (CucumberExamples cucumberExamples : scenarioOutline.getCucumberExamplesList()) {
+			Examples examples = cucumberExamples.getExamples();
+			List<ExamplesTableRow> rows = examples.getRows();
+			if (rows.isEmpty())
+				continue;
+			List<ExamplesTableRow> filteredRows = new ArrayList<ExamplesTableRow>();
+			filteredRows.add(rows.get(0));
+			for (ExamplesTableRow row : rows.subList(1, rows.size())) {
+				CucumberScenario cucumberScenario = scenariosByLine.get(row.getLine());
+				if (cucumberScenario != null) {
+					filteredRows.add(row);
+					assignedScenario = cucumberScenario;
+				}
+			}
+			unchanged &= filteredRows.size() == rows.size();
+			if (filteredRows.size() > 1)
+				filteredExamplesList.add(new Examples(examples.getComments(), examples.getTags(), examples.getKeyword(),
+						examples.getName(), examples.getDescription(), examples.getLine(), examples.getId(), filteredRows));
+		}
+		if (assignedScenario == null)
+			return null;
+		if (unchanged)
+			return scenarioOutline;
+		CucumberScenarioOutline filteredScenarioOutline = new CucumberScenarioOutline(feature,
+				assignedScenario.getCucumberBackground(), (ScenarioOutline) scenarioOutline.getGherkinModel());
+		for (Step step : scenarioOutline.getSteps())
+			filteredScenarioOutline.step(step);
+		for (Examples filteredExamples : filteredExamplesList)
+			filteredScenarioOutline.examples(filteredExamples);
+		return filteredScenarioOutline;
+	}
+
+	private static class FilteredCucumberFeature extends CucumberFeature {
+
+		private List<CucumberTagStatement> featureElements;
+
+		public FilteredCucumberFeature(CucumberFeature feature, List<CucumberTagStatement> featureElements) {
+			super(feature.getGherkinFeature(), feature.getPath());
+			setI18n(feature.getI18n());
+			this.featureElements = featureElements;
+		}
+
+		@Override
+		public List<CucumberTagStatement> getFeatureElements() {
+			return featureElements;
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberScenario;
+
+public class ForkRequest {
+
+	private List<String> arguments;
+	private Map<String, List<Integer>> featureLines;
+	private int failFastBudget;
+
+	public ForkRequest(List<String> arguments, Map<String, List<Integer>> featureLines) {
+		this(arguments, featureLines, 0);
+	}
+
+	public ForkRequest(List<String> arguments, Map<String, List<Integer>> featureLines, int failFastBudget) {
+		this.arguments = arguments;
+		this.featureLines = featureLines;
+		this.failFastBudget = failFastBudget;
+	}
+
+	public List<String> getArguments() {
+		return arguments;
+	}
+
+	public Map<String, List<Integer>> getFeatureLines() {
+		return featureLines;
+	}
+
+	public int getFailFastBudget() {
+		return failFastBudget;
+	}
+
+	public ForkRequest withFailFastBudget(int failFastBudget) {
+		return new ForkRequest(arguments, featureLines, failFastBudget);
+	}
+
+	public static ForkRequest fromFeatures(List<String> arguments, List<CucumberFeature> features) {
+		/*
+		 * Features are sent by path and the lines of the scenarios and example
+		 * rows to run, the forked worker filters its own parsed copy of them
+		 */
+		Map<String, List<Integer>> featureLines = new LinkedHashMap<String, List<Integer>>();
+		for (WorkUnit workUnit : WorkUnit.split(features, Granularity.EXAMPLE)) {
+			List<Integer> lines = featureLines.get(workUnit.getFeature().getPath());
+			if (lines == null) {
+				lines = new ArrayList<Integer>();
+				featureLines.put(workUnit.getFeature().getPath(), lines);
+			}
+			for (CucumberScenario scenario : workUnit.getScenarios())
+				lines.add(scenario.getGherkinModel().getLine());
+		}
+		return new ForkRequest(arguments, Collections.unmodifiableMap(featureLines));
+	}
+}
@@ -0,0 +1,43 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.util.List;
+
+import com.bishnet.cucumber.parallel.report.thread.ThreadTimelineData;
+
+public class ForkResponse {
+
+	private byte exitStatus;
+	private List<ThreadTimelineData> timelineData;
+	private int failedScenarioCount;
+	private String error;
+
+	public ForkResponse(byte exitStatus, List<ThreadTimelineData> timelineData) {
+		this(exitStatus, timelineData, 0);
+	}
+
+	public ForkResponse(byte exitStatus, List<ThreadTimelineData> timelineData, int failedScenarioCount) {
+		this.exitStatus = exitStatus;
+		this.timelineData = timelineData;
+		this.failedScenarioCount = failedScenarioCount;
+	}
+
+	public ForkResponse(String error) {
+		this.error = error;
+	}
+
+	public byte getExitStatus() {
+		return exitStatus;
+	}
+
+	public List<ThreadTimelineData> getTimelineData() {
+		return timelineData;
+	}
+
+	public int getFailedScenarioCount() {
+		return failedScenarioCount;
+	}
+
+	public String getError() {
+		return error;
+	}
+}
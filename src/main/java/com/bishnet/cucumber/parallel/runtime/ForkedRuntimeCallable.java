@@ -0,0 +1,52 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import cucumber.runtime.model.CucumberFeature;
+
+public class ForkedRuntimeCallable implements Callable<Byte> {
+
+	private static final Logger LOG = Logger.getLogger(ForkedRuntimeCallable.class.getName());
+
+	private ForkRequest request;
+	private ForkedWorkerPool workerPool;
+
+	public ForkedRuntimeCallable(List<String> arguments, List<CucumberFeature> features, ForkedWorkerPool workerPool) {
+		this.request = ForkRequest.fromFeatures(arguments, features);
+		this.workerPool = workerPool;
+	}
+
+	@Override
+	public Byte call() throws Exception {
+		/*
+		 * A fork which is lost is replaced and the work is run once more on
+		 * the new fork, if that is lost too only this work is failed
+		 */
+		ForkedWorker worker = workerPool.borrow();
+		boolean retried = false;
+		try {
+			while (true) {
+				try {
+					return worker.run(request);
+				} catch (IOException e) {
+					ForkedWorker lostWorker = worker;
+					worker = null;
+					worker = workerPool.replace(lostWorker);
+					if (retried) {
+						LOG.log(Level.SEVERE, "Failing work after losing a second forked worker", e);
+						return (byte) 1;
+					}
+					LOG.log(Level.WARNING, "Running work again after losing a forked worker", e);
+					retried = true;
+				}
+			}
+		} finally {
+			if (worker != null)
+				workerPool.release(worker);
+		}
+	}
+}
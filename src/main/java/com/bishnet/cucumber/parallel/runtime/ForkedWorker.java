@@ -0,0 +1,145 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import com.bishnet.cucumber.parallel.report.thread.ThreadExecutionRecorder;
+import com.bishnet.cucumber.parallel.report.thread.ThreadTimelineData;
+
+import cucumber.runtime.CucumberException;
+import gherkin.deps.com.google.gson.Gson;
+
+public class ForkedWorker implements Closeable {
+
+	private int workerIndex;
+	private Socket socket;
+	private Process process;
+	private ThreadExecutionRecorder threadExecutionRecorder;
+	private FailFastMonitor failFastMonitor;
+	private BufferedReader responses;
+	private Writer requests;
+	private Gson gson = new Gson();
+	private volatile boolean busy;
+	private volatile long lastHeardMillis;
+	private volatile String lostReason;
+
+	public ForkedWorker(int workerIndex, Socket socket, ThreadExecutionRecorder threadExecutionRecorder)
+			throws IOException {
+		this(workerIndex, socket, null, threadExecutionRecorder, null);
+	}
+
+	public ForkedWorker(int workerIndex, Socket socket, Process process,
+			ThreadExecutionRecorder threadExecutionRecorder, FailFastMonitor failFastMonitor) throws IOException {
+		this.workerIndex = workerIndex;
+		this.socket = socket;
+		this.process = process;
+		this.threadExecutionRecorder = threadExecutionRecorder;
+		this.failFastMonitor = failFastMonitor;
+		responses = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+		requests = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+	}
+
+	public int getWorkerIndex() {
+		return workerIndex;
+	}
+
+	Process getProcess() {
+		return process;
+	}
+
+	public byte run(ForkRequest request) throws IOException {
+		/*
+		 * A fork which exits or stops responding surfaces as an IOException
+		 * so the caller can replace it, an error reported by a fork which is
+		 * still there fails the work as it would in a thread
+		 */
+		if (failFastMonitor != null)
+			request = request.withFailFastBudget(failFastMonitor.getRemainingFailures());
+		String response;
+		lastHeardMillis = System.currentTimeMillis();
+		busy = true;
+		try {
+			requests.write(gson.toJson(request));
+			requests.write('\n');
+			requests.flush();
+			response = readResponse();
+		} catch (IOException e) {
+			throw lost(e);
+		} finally {
+			busy = false;
+		}
+		ForkResponse forkResponse = gson.fromJson(response, ForkResponse.class);
+		if (forkResponse.getError() != null)
+			throw new CucumberException("Forked worker " + workerIndex + " failed: " + forkResponse.getError());
+		recordTimelineData(forkResponse);
+		if (failFastMonitor != null)
+			failFastMonitor.recordFailedScenarios(forkResponse.getFailedScenarioCount());
+		return forkResponse.getExitStatus();
+	}
+
+	void checkAlive(long heartbeatTimeoutMillis) {
+		/*
+		 * A fork sends an empty line as a heartbeat while it runs, the
+		 * connection to one which exited or went silent is closed so the
+		 * thread waiting on it gives up
+		 */
+		if (!busy || lostReason != null)
+			return;
+		if (process != null && !process.isAlive())
+			lostReason = "exited with status " + process.exitValue();
+		else if (System.currentTimeMillis() - lastHeardMillis > heartbeatTimeoutMillis)
+			lostReason = "sent nothing for " + heartbeatTimeoutMillis + "ms";
+		else
+			return;
+		try {
+			socket.close();
+		} catch (IOException e) {
+			/* The waiting thread is released either way */
+		}
+	}
+
+	private String readResponse() throws IOException {
+		String response;
+		do {
+			response = responses.readLine();
+			if (response == null)
+				throw new EOFException("the connection closed");
+			lastHeardMillis = System.currentTimeMillis();
+		} while (response.isEmpty());
+		return response;
+	}
+
+	private IOException lost(IOException cause) {
+		String reason = lostReason;
+		if (reason == null && process != null && !process.isAlive())
+			reason = "exited with status " + process.exitValue();
+		return new IOException("Forked worker " + workerIndex + " was lost before finishing its work: "
+				+ (reason != null ? reason : cause.getMessage()), cause);
+	}
+
+	private void recordTimelineData(ForkResponse forkResponse) {
+		/*
+		 * Thread ids are only unique within a JVM so every event from a fork
+		 * is shown against the fork instead
+		 */
+		if (threadExecutionRecorder == null || forkResponse.getTimelineData() == null)
+			return;
+		for (ThreadTimelineData timelineData : forkResponse.getTimelineData()) {
+			timelineData.setThreadId(workerIndex);
+			threadExecutionRecorder.recordEvent(timelineData);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+}
@@ -0,0 +1,169 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.bishnet.cucumber.parallel.report.thread.ThreadExecutionRecorder;
+
+import cucumber.runtime.CucumberException;
+import cucumber.runtime.io.ResourceLoader;
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberScenario;
+import gherkin.deps.com.google.gson.Gson;
+
+public class ForkedWorkerLoop {
+
+	private RuntimeConfiguration runtimeConfiguration;
+	private CucumberBackendFactory cucumberBackendFactory;
+	private ClassLoader cucumberClassLoader;
+	private Map<String, CucumberFeature> featuresByPath;
+	private ResourceLoader resourceLoader;
+	private Gson gson = new Gson();
+
+	public ForkedWorkerLoop(RuntimeConfiguration runtimeConfiguration, ClassLoader cucumberClassLoader) {
+		this(runtimeConfiguration, null, cucumberClassLoader);
+	}
+
+	public ForkedWorkerLoop(RuntimeConfiguration runtimeConfiguration, CucumberBackendFactory cucumberBackendFactory,
+			ClassLoader cucumberClassLoader) {
+		this.runtimeConfiguration = runtimeConfiguration;
+		this.cucumberBackendFactory = cucumberBackendFactory;
+		this.cucumberClassLoader = cucumberClassLoader;
+	}
+
+	public void run(BufferedReader requests, Writer responses) throws IOException {
+		AtomicBoolean running = new AtomicBoolean();
+		ScheduledExecutorService heartbeat = startHeartbeat(responses, running);
+		try {
+			String request;
+			while ((request = requests.readLine()) != null) {
+				running.set(true);
+				ForkResponse response = runRequest(gson.fromJson(request, ForkRequest.class));
+				synchronized (responses) {
+					running.set(false);
+					responses.write(gson.toJson(response));
+					responses.write('\n');
+					responses.flush();
+				}
+			}
+		} finally {
+			heartbeat.shutdownNow();
+		}
+	}
+
+	public ForkResponse runRequest(ForkRequest request) {
+		ThreadExecutionRecorder threadExecutionRecorder = null;
+		if (runtimeConfiguration.threadTimelineReportRequired)
+			threadExecutionRecorder = new ThreadExecutionRecorder();
+		/*
+		 * A request stops early once it uses up the failures the parent had
+		 * left when sending it, its failures are added to the parent's count
+		 * when it returns
+		 */
+		FailFastMonitor failFastMonitor = null;
+		if (request.getFailFastBudget() > 0)
+			failFastMonitor = new FailFastMonitor(request.getFailFastBudget());
+		else if (runtimeConfiguration.failFastThreshold > 0)
+			failFastMonitor = new FailFastMonitor(runtimeConfiguration.failFastThreshold);
+		CucumberRuntimeFactory runtimeFactory = new CucumberRuntimeFactory.Builder(runtimeConfiguration,
+				cucumberClassLoader).cucumberBackendFactory(cucumberBackendFactory)
+				.threadExecutionRecorder(threadExecutionRecorder).failFastMonitor(failFastMonitor)
+				.resourceLoader(getResourceLoader()).build();
+		try {
+			byte exitStatus = new CucumberRuntimeCallable(request.getArguments(), getFeatures(request), runtimeFactory,
+					null)
+					.call();
+			return new ForkResponse(exitStatus, threadExecutionRecorder == null ? null : threadExecutionRecorder
+					.getRecordedData(), failFastMonitor == null ? 0 : failFastMonitor.getFailedScenarioCount());
+		} catch (Exception e) {
+			StringWriter stackTrace = new StringWriter();
+			e.printStackTrace(new PrintWriter(stackTrace));
+			return new ForkResponse(stackTrace.toString());
+		}
+	}
+
+	private ScheduledExecutorService startHeartbeat(Writer responses, AtomicBoolean running) {
+		/*
+		 * An empty line goes to the parent every few seconds while a request
+		 * runs so it can tell a fork busy with a long work unit from one which
+		 * stopped responding. Nothing is sent while idle, which would be left
+		 * unread when the parent closes the connection
+		 */
+		ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "forked-worker-heartbeat");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long heartbeatIntervalMillis = AgentProtocol.getHeartbeatIntervalMillis(
+				AgentProtocol.DEFAULT_HEARTBEAT_TIMEOUT_MILLIS);
+		heartbeat.scheduleAtFixedRate(() -> {
+			try {
+				synchronized (responses) {
+					if (!running.get())
+						return;
+					responses.write('\n');
+					responses.flush();
+				}
+			} catch (IOException e) {
+				heartbeat.shutdown();
+			}
+		}, heartbeatIntervalMillis, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+		return heartbeat;
+	}
+
+	private List<CucumberFeature> getFeatures(ForkRequest request) {
+		FilteredFeatureBuilder filteredFeatureBuilder = new FilteredFeatureBuilder();
+		for (Map.Entry<String, List<Integer>> featureLines : request.getFeatureLines().entrySet()) {
+			CucumberFeature feature = getFeaturesByPath().get(featureLines.getKey());
+			if (feature == null)
+				throw new CucumberException("Feature " + featureLines.getKey() + " was not found by the forked worker");
+			Set<Integer> lines = new HashSet<Integer>(featureLines.getValue());
+			List<CucumberScenario> scenarios = new ArrayList<CucumberScenario>();
+			for (WorkUnit workUnit : WorkUnit.split(Collections.singletonList(feature), Granularity.EXAMPLE))
+				for (CucumberScenario scenario : workUnit.getScenarios())
+					if (lines.contains(scenario.getGherkinModel().getLine()))
+						scenarios.add(scenario);
+			filteredFeatureBuilder.addWorkUnit(new WorkUnit(feature, scenarios));
+		}
+		return filteredFeatureBuilder.getFeatures();
+	}
+
+	private synchronized ResourceLoader getResourceLoader() {
+		/*
+		 * The requests of a fork or agent share one resource loader, so their
+		 * glue is only scanned for the first request
+		 */
+		if (resourceLoader == null)
+			resourceLoader = new CucumberRuntimeFactory(runtimeConfiguration, cucumberBackendFactory,
+					cucumberClassLoader).getResourceLoader();
+		return resourceLoader;
+	}
+
+	private synchronized Map<String, CucumberFeature> getFeaturesByPath() {
+		/*
+		 * Features are parsed once with the same arguments as the parent so
+		 * every request only has to select scenarios from them
+		 */
+		if (featuresByPath == null) {
+			featuresByPath = new HashMap<String, CucumberFeature>();
+			FeatureParser featureParser = new FeatureParser(runtimeConfiguration, cucumberClassLoader);
+			for (CucumberFeature feature : featureParser.parseFeatures())
+				featuresByPath.put(feature.getPath(), feature);
+		}
+		return featuresByPath;
+	}
+}
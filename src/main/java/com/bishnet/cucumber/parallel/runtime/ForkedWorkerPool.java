@@ -0,0 +1,249 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.bishnet.cucumber.parallel.cli.ForkedWorkerMain;
+import com.bishnet.cucumber.parallel.report.thread.ThreadExecutionRecorder;
+
+import cucumber.runtime.CucumberException;
+
+public class ForkedWorkerPool implements Closeable {
+
+	public static final String TOKEN_ENVIRONMENT_VARIABLE = "PARALLEL_CUCUMBER_FORK_TOKEN";
+
+	private static final int ACCEPT_TIMEOUT_MILLIS = 1000;
+	private static final int CHECK_INTERVAL_MILLIS = 1000;
+	private static final int EXIT_TIMEOUT_SECONDS = 10;
+	private static final Logger LOG = Logger.getLogger(ForkedWorkerPool.class.getName());
+
+	private List<String> arguments;
+	private int numberOfForks;
+	private ClassLoader cucumberClassLoader;
+	private ThreadExecutionRecorder threadExecutionRecorder;
+	private FailFastMonitor failFastMonitor;
+	private ServerSocket serverSocket;
+	private Map<String, Process> startingProcesses = new HashMap<String, Process>();
+	private List<Process> processes = new CopyOnWriteArrayList<Process>();
+	private List<ForkedWorker> workers = new CopyOnWriteArrayList<ForkedWorker>();
+	private BlockingQueue<ForkedWorker> idleWorkers = new LinkedBlockingQueue<ForkedWorker>();
+	private ScheduledExecutorService watchdog;
+	private int heartbeatTimeoutMillis = AgentProtocol.DEFAULT_HEARTBEAT_TIMEOUT_MILLIS;
+
+	public ForkedWorkerPool(List<String> arguments, int numberOfForks, ClassLoader cucumberClassLoader,
+			ThreadExecutionRecorder threadExecutionRecorder) {
+		this(arguments, numberOfForks, cucumberClassLoader, threadExecutionRecorder, null);
+	}
+
+	public ForkedWorkerPool(List<String> arguments, int numberOfForks, ClassLoader cucumberClassLoader,
+			ThreadExecutionRecorder threadExecutionRecorder, FailFastMonitor failFastMonitor) {
+		this.arguments = arguments;
+		this.numberOfForks = numberOfForks;
+		this.cucumberClassLoader = cucumberClassLoader;
+		this.threadExecutionRecorder = threadExecutionRecorder;
+		this.failFastMonitor = failFastMonitor;
+	}
+
+	public synchronized void start() throws IOException {
+		/*
+		 * The port stays open for the whole run so a fork which is lost can
+		 * be replaced by a new one
+		 */
+		serverSocket = new ServerSocket(0, numberOfForks, InetAddress.getLoopbackAddress());
+		serverSocket.setSoTimeout(ACCEPT_TIMEOUT_MILLIS);
+		List<String> tokens = new ArrayList<String>();
+		for (int i = 0; i < numberOfForks; i++)
+			tokens.add(startProcess());
+		for (int i = 0; i < numberOfForks; i++)
+			addWorker(acceptWorker(i, tokens));
+		watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "forked-worker-watchdog");
+			thread.setDaemon(true);
+			return thread;
+		});
+		watchdog.scheduleWithFixedDelay(() -> {
+			for (ForkedWorker worker : workers)
+				worker.checkAlive(heartbeatTimeoutMillis);
+		}, CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+		LOG.info("Started " + numberOfForks + " forked workers");
+	}
+
+	public ForkedWorker borrow() throws InterruptedException {
+		return idleWorkers.take();
+	}
+
+	public void release(ForkedWorker worker) {
+		idleWorkers.add(worker);
+	}
+
+	public ForkedWorker replace(ForkedWorker worker) throws IOException {
+		/*
+		 * A lost fork is killed and a new one takes its place under the same
+		 * index, the replacement goes to the caller rather than the idle pool
+		 */
+		workers.remove(worker);
+		worker.close();
+		Process process = worker.getProcess();
+		if (process != null) {
+			process.destroyForcibly();
+			processes.remove(process);
+		}
+		synchronized (this) {
+			ForkedWorker replacement = acceptWorker(worker.getWorkerIndex(), Collections.singletonList(startProcess()));
+			workers.add(replacement);
+			LOG.warning("Replaced forked worker " + worker.getWorkerIndex() + " with a new fork");
+			return replacement;
+		}
+	}
+
+	void setHeartbeatTimeoutMillis(int heartbeatTimeoutMillis) {
+		this.heartbeatTimeoutMillis = heartbeatTimeoutMillis;
+	}
+
+	@Override
+	public void close() throws IOException {
+		/*
+		 * Closing the connection ends the worker loop of a fork, forks which
+		 * do not exit in time are killed
+		 */
+		if (watchdog != null)
+			watchdog.shutdownNow();
+		if (serverSocket != null)
+			serverSocket.close();
+		for (ForkedWorker worker : workers)
+			worker.close();
+		for (Process process : processes)
+			try {
+				if (!process.waitFor(EXIT_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+					process.destroyForcibly();
+			} catch (InterruptedException e) {
+				process.destroyForcibly();
+				Thread.currentThread().interrupt();
+			}
+	}
+
+	private String startProcess() throws IOException {
+		/*
+		 * The JVM options of the parent, such as its heap size and system
+		 * properties, are passed on to every fork. Each fork is handed a token
+		 * of its own so its connection can be told apart from the others
+		 */
+		List<String> command = new ArrayList<String>();
+		command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(getJvmOptions());
+		command.add("-cp");
+		command.add(getClassPath());
+		command.add(ForkedWorkerMain.class.getName());
+		command.add(String.valueOf(serverSocket.getLocalPort()));
+		command.addAll(arguments);
+		String token = UUID.randomUUID().toString();
+		ProcessBuilder processBuilder = new ProcessBuilder(command).inheritIO();
+		processBuilder.environment().put(TOKEN_ENVIRONMENT_VARIABLE, token);
+		Process process = processBuilder.start();
+		processes.add(process);
+		startingProcesses.put(token, process);
+		return token;
+	}
+
+	private ForkedWorker acceptWorker(int workerIndex, List<String> tokens) throws IOException {
+		/*
+		 * Only connections presenting the token handed to a fork still
+		 * starting are accepted as the port is open to every local process,
+		 * the token tells which process is behind the connection
+		 */
+		while (true) {
+			Socket socket;
+			try {
+				socket = serverSocket.accept();
+			} catch (SocketTimeoutException e) {
+				checkProcessesAlive(tokens);
+				continue;
+			}
+			socket.setSoTimeout(ACCEPT_TIMEOUT_MILLIS);
+			String presentedToken;
+			try {
+				presentedToken = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+						StandardCharsets.UTF_8)).readLine();
+			} catch (SocketTimeoutException e) {
+				presentedToken = null;
+			}
+			socket.setSoTimeout(0);
+			if (presentedToken != null && tokens.contains(presentedToken)
+					&& startingProcesses.containsKey(presentedToken))
+				return new ForkedWorker(workerIndex, socket, startingProcesses.remove(presentedToken),
+						threadExecutionRecorder, failFastMonitor);
+			socket.close();
+		}
+	}
+
+	private void addWorker(ForkedWorker worker) {
+		workers.add(worker);
+		idleWorkers.add(worker);
+	}
+
+	private void checkProcessesAlive(List<String> tokens) {
+		for (String token : tokens) {
+			Process process = startingProcesses.get(token);
+			if (process != null && !process.isAlive())
+				throw new CucumberException("Forked worker exited with status " + process.exitValue()
+						+ " before connecting");
+		}
+	}
+
+	private List<String> getJvmOptions() {
+		/*
+		 * Debugger agents are left out as every fork would try to listen on
+		 * the port of the parent's debugger
+		 */
+		List<String> jvmOptions = new ArrayList<String>();
+		for (String jvmOption : ManagementFactory.getRuntimeMXBean().getInputArguments())
+			if (!jvmOption.startsWith("-agentlib:jdwp") && !jvmOption.startsWith("-Xrunjdwp")
+					&& !jvmOption.equals("-Xdebug"))
+				jvmOptions.add(jvmOption);
+		return jvmOptions;
+	}
+
+	private String getClassPath() {
+		Set<String> classPath = new LinkedHashSet<String>(Arrays.asList(System.getProperty("java.class.path").split(
+				File.pathSeparator)));
+		for (ClassLoader classLoader = cucumberClassLoader; classLoader instanceof URLClassLoader; classLoader = classLoader
+				.getParent())
+			for (URL url : ((URLClassLoader) classLoader).getURLs())
+				if ("file".equals(url.getProtocol()))
+					try {
+						classPath.add(Paths.get(url.toURI()).toString());
+					} catch (URISyntaxException e) {
+						throw new CucumberException(e);
+					}
+		return String.join(File.pathSeparator, classPath);
+	}
+}
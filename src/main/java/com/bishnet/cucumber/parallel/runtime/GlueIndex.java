@@ -0,0 +1,195 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import cucumber.runtime.io.MultiLoader;
+import cucumber.runtime.io.Resource;
+import cucumber.runtime.io.ResourceLoader;
+import gherkin.deps.com.google.gson.Gson;
+import gherkin.deps.com.google.gson.JsonParseException;
+import gherkin.deps.com.google.gson.reflect.TypeToken;
+
+public class GlueIndex {
+
+	private static final Logger LOG = Logger.getLogger(GlueIndex.class.getName());
+	private static final String CLASS_SUFFIX = ".class";
+
+	private Path indexPath;
+	private ClassLoader classLoader;
+	private Map<String, IndexEntry> entries;
+
+	public GlueIndex(Path indexPath, ClassLoader classLoader) {
+		this.indexPath = indexPath;
+		this.classLoader = classLoader;
+	}
+
+	public synchronized List<Resource> resources(String path, ResourceLoader resourceLoader) {
+		/*
+		 * A package is only scanned again once the jars and directories it is
+		 * found in have changed since the index was written
+		 */
+		String fingerprint;
+		try {
+			fingerprint = fingerprint(path.substring(MultiLoader.CLASSPATH_SCHEME.length()));
+		} catch (IOException | URISyntaxException e) {
+			LOG.warning("The glue index is not used for " + path + " as its classpath could not be read: " + e);
+			return scan(path, resourceLoader);
+		}
+		IndexEntry entry = getEntries().get(path);
+		if (entry != null && fingerprint.equals(entry.fingerprint)) {
+			List<Resource> indexedResources = new ArrayList<Resource>();
+			for (String className : entry.classNames)
+				indexedResources.add(new IndexedClassResource(className, classLoader));
+			return indexedResources;
+		}
+		List<Resource> scannedResources = scan(path, resourceLoader);
+		List<String> classNames = new ArrayList<String>();
+		for (Resource resource : scannedResources)
+			classNames.add(resource.getClassName(CLASS_SUFFIX));
+		getEntries().put(path, new IndexEntry(fingerprint, classNames));
+		save();
+		return scannedResources;
+	}
+
+	private List<Resource> scan(String path, ResourceLoader resourceLoader) {
+		List<Resource> scannedResources = new ArrayList<Resource>();
+		for (Resource resource : resourceLoader.resources(path, CLASS_SUFFIX))
+			scannedResources.add(resource);
+		return scannedResources;
+	}
+
+	private String fingerprint(String packagePath) throws IOException, URISyntaxException {
+		MessageDigest digest = newDigest();
+		for (URL root : Collections.list(classLoader.getResources(packagePath))) {
+			update(digest, root.toString());
+			if ("jar".equals(root.getProtocol())) {
+				Path jar = Paths.get(((JarURLConnection) root.openConnection()).getJarFileURL().toURI());
+				update(digest, Files.size(jar) + ":" + Files.getLastModifiedTime(jar).toMillis());
+			} else if ("file".equals(root.getProtocol())) {
+				try (Stream<Path> files = Files.walk(Paths.get(root.toURI()))) {
+					files.sorted().forEach(file -> update(digest, file + ":" + file.toFile().lastModified()));
+				}
+			}
+		}
+		StringBuilder fingerprint = new StringBuilder();
+		for (byte digestByte : digest.digest())
+			fingerprint.append(String.format("%02x", digestByte));
+		return fingerprint.toString();
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+
+	private Map<String, IndexEntry> getEntries() {
+		if (entries == null) {
+			entries = new HashMap<String, IndexEntry>();
+			if (Files.exists(indexPath))
+				try (Reader reader = Files.newBufferedReader(indexPath, StandardCharsets.UTF_8)) {
+					Type mapType = new TypeToken<Map<String, IndexEntry>>() {
+					}.getType();
+					Map<String, IndexEntry> savedEntries = new Gson().fromJson(reader, mapType);
+					if (savedEntries != null)
+						entries.putAll(savedEntries);
+				} catch (IOException | JsonParseException e) {
+					LOG.warning("The glue index " + indexPath + " could not be read and is rebuilt: " + e);
+				}
+		}
+		return entries;
+	}
+
+	private void save() {
+		/*
+		 * Forks and parallel builds may share the index, so it is written to a
+		 * temporary file first and then moved into place in one step
+		 */
+		try {
+			Path absoluteIndexPath = indexPath.toAbsolutePath();
+			Files.createDirectories(absoluteIndexPath.getParent());
+			Path temporaryIndex = Files.createTempFile(absoluteIndexPath.getParent(), "glueIndex", ".tmp");
+			try (Writer writer = Files.newBufferedWriter(temporaryIndex, StandardCharsets.UTF_8)) {
+				new Gson().toJson(entries, writer);
+			}
+			Files.move(temporaryIndex, absoluteIndexPath, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOG.warning("The glue index " + indexPath + " could not be written: " + e);
+		}
+	}
+
+	private static class IndexEntry {
+
+		private String fingerprint;
+		private List<String> classNames;
+
+		public IndexEntry(String fingerprint, List<String> classNames) {
+			this.fingerprint = fingerprint;
+			this.classNames = classNames;
+		}
+	}
+
+	private static class IndexedClassResource implements Resource {
+
+		private String className;
+		private ClassLoader classLoader;
+
+		public IndexedClassResource(String className, ClassLoader classLoader) {
+			this.className = className;
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		public String getPath() {
+			return className.replace('.', '/') + CLASS_SUFFIX;
+		}
+
+		@Override
+		public String getAbsolutePath() {
+			URL classUrl = classLoader.getResource(getPath());
+			return classUrl == null ? getPath() : classUrl.toString();
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			InputStream classStream = classLoader.getResourceAsStream(getPath());
+			if (classStream == null)
+				throw new IOException(getPath() + " is no longer on the classpath");
+			return classStream;
+		}
+
+		@Override
+		public String getClassName(String extension) {
+			return className;
+		}
+	}
+}
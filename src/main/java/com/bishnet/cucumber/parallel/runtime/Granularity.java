@@ -0,0 +1,10 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+public enum Granularity {
+
+	FEATURE, SCENARIO, EXAMPLE;
+
+	public static Granularity fromArgument(String argument) {
+		return valueOf(argument.trim().toUpperCase());
+	}
+}
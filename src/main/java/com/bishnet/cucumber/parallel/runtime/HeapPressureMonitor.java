@@ -0,0 +1,228 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.io.Closeable;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.logging.Logger;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.bishnet.cucumber.parallel.report.thread.ThreadExecutionRecorder;
+import com.bishnet.cucumber.parallel.report.thread.ThreadTimelineData;
+import com.bishnet.cucumber.parallel.report.thread.ThreadTimelineEventType;
+import com.bishnet.cucumber.parallel.util.WorkQueue;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+public class HeapPressureMonitor implements Closeable {
+
+	private static final Logger LOG = Logger.getLogger(HeapPressureMonitor.class.getName());
+	private static final int RESUME_MARGIN_PERCENT = 10;
+	private static final long OVERHEAD_WINDOW_MILLIS = 10000;
+	private static final double OVERHEAD_LIMIT = 0.25;
+	/*
+	 * Java thread ids start at 1 so pauses get a row of their own in the
+	 * thread timeline report
+	 */
+	private static final long TIMELINE_THREAD_ID = 0;
+
+	private int thresholdPercent;
+	private ThreadExecutionRecorder threadExecutionRecorder;
+	private List<MemoryPoolMXBean> tenuredPools = new ArrayList<MemoryPoolMXBean>();
+	private List<NotificationEmitter> emitters = new ArrayList<NotificationEmitter>();
+	private NotificationListener listener = this::handleNotification;
+	private Deque<long[]> recentCollections = new ArrayDeque<long[]>();
+	private ThreadTimelineData pause;
+	private List<ThreadTimelineData> pauses = new ArrayList<ThreadTimelineData>();
+	private boolean paused;
+	private int runningWork;
+	private int admissionLimit = Integer.MAX_VALUE;
+	private int runningWorkAtPause;
+
+	public HeapPressureMonitor(int thresholdPercent, ThreadExecutionRecorder threadExecutionRecorder) {
+		this.thresholdPercent = thresholdPercent;
+		this.threadExecutionRecorder = threadExecutionRecorder;
+	}
+
+	public void start() {
+		/*
+		 * Only the pools a collection leaves live objects in support usage
+		 * thresholds, so they tell how full the heap really is
+		 */
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			long max = pool.getUsage().getMax();
+			if (pool.getType() != MemoryType.HEAP || !pool.isUsageThresholdSupported()
+					|| !pool.isCollectionUsageThresholdSupported() || max <= 0)
+				continue;
+			pool.setCollectionUsageThreshold(max * thresholdPercent / 100);
+			tenuredPools.add(pool);
+		}
+		addListener(ManagementFactory.getMemoryMXBean());
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+			addListener(collector);
+	}
+
+	public WorkQueue<Callable<Byte>> throttle(final WorkQueue<Callable<Byte>> workQueue) {
+		/*
+		 * A worker only counts as running once the queue has handed it work,
+		 * a worker still waiting on the queue cannot free any of the heap
+		 */
+		return workerIndex -> {
+			final Callable<Byte> work = workQueue.poll(workerIndex);
+			if (work == null)
+				return null;
+			awaitAdmission();
+			return () -> {
+				try {
+					return work.call();
+				} finally {
+					workFinished();
+				}
+			};
+		};
+	}
+
+	public synchronized boolean isPaused() {
+		return paused;
+	}
+
+	public synchronized List<ThreadTimelineData> getPauses() {
+		/*
+		 * Pauses end on the notification thread, so they are kept here under
+		 * the monitor's lock rather than in that thread's recorder buffer
+		 */
+		return new ArrayList<ThreadTimelineData>(pauses);
+	}
+
+	@Override
+	public void close() {
+		for (NotificationEmitter emitter : emitters)
+			try {
+				emitter.removeNotificationListener(listener);
+			} catch (ListenerNotFoundException e) {
+				/* Already removed */
+			}
+		for (MemoryPoolMXBean pool : tenuredPools)
+			pool.setCollectionUsageThreshold(0);
+		synchronized (this) {
+			if (paused)
+				resume("the run finished");
+		}
+	}
+
+	synchronized void awaitAdmission() throws InterruptedException {
+		/*
+		 * New work waits while the heap is under pressure, but never when
+		 * nothing is running as only running work can free the heap
+		 */
+		while ((paused || runningWork >= admissionLimit) && runningWork > 0)
+			wait();
+		runningWork++;
+	}
+
+	synchronized void workFinished() {
+		runningWork--;
+		notifyAll();
+	}
+
+	synchronized void collectionThresholdExceeded() {
+		if (!paused)
+			pause("heap use after collection is above " + thresholdPercent + "%");
+	}
+
+	synchronized void recordCollection(long endMillis, long durationMillis, double usageAfterCollection) {
+		recentCollections.addLast(new long[] { endMillis, durationMillis });
+		while (recentCollections.peekFirst()[0] < endMillis - OVERHEAD_WINDOW_MILLIS)
+			recentCollections.removeFirst();
+		long collectionMillis = 0;
+		for (long[] collection : recentCollections)
+			collectionMillis += collection[1];
+		double overhead = (double) collectionMillis / OVERHEAD_WINDOW_MILLIS;
+		if (!paused && overhead > OVERHEAD_LIMIT)
+			pause(String.format("%.0f%% of the last %d seconds was spent collecting garbage", overhead * 100,
+					OVERHEAD_WINDOW_MILLIS / 1000));
+		else if (overhead <= OVERHEAD_LIMIT && usageAfterCollection * 100 < thresholdPercent - RESUME_MARGIN_PERCENT)
+			relieve(usageAfterCollection);
+	}
+
+	private void relieve(double usageAfterCollection) {
+		/*
+		 * Work is let back in one more at a time with every collection which
+		 * finds the heap reclaimed, as letting every waiting worker start at
+		 * once would bring the pressure straight back
+		 */
+		if (paused) {
+			resume(String.format("heap use after collection is down to %.0f%%", usageAfterCollection * 100));
+			admissionLimit = runningWork + 1;
+		} else if (admissionLimit != Integer.MAX_VALUE) {
+			admissionLimit++;
+			if (admissionLimit > runningWorkAtPause)
+				admissionLimit = Integer.MAX_VALUE;
+		}
+		notifyAll();
+	}
+
+	private void pause(String reason) {
+		LOG.warning("No new work is handed out as " + reason);
+		paused = true;
+		if (admissionLimit == Integer.MAX_VALUE)
+			runningWorkAtPause = runningWork;
+		if (threadExecutionRecorder != null) {
+			pause = new ThreadTimelineData(threadExecutionRecorder.getTimestamp(), TIMELINE_THREAD_ID,
+					"Heap pressure;Paused", ThreadTimelineEventType.HEAP_PRESSURE_PAUSE, "Paused as " + reason);
+		}
+	}
+
+	private void resume(String reason) {
+		LOG.info("Work is handed out again as " + reason);
+		paused = false;
+		notifyAll();
+		if (pause != null) {
+			pause.setEndTime(threadExecutionRecorder.getTimestamp());
+			pauses.add(pause);
+			pause = null;
+		}
+	}
+
+	private void addListener(Object bean) {
+		if (!(bean instanceof NotificationEmitter))
+			return;
+		NotificationEmitter emitter = (NotificationEmitter) bean;
+		emitter.addNotificationListener(listener, null, null);
+		emitters.add(emitter);
+	}
+
+	private void handleNotification(Notification notification, Object handback) {
+		if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+			collectionThresholdExceeded();
+		} else if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+			GarbageCollectionNotificationInfo collection = GarbageCollectionNotificationInfo
+					.from((CompositeData) notification.getUserData());
+			recordCollection(System.currentTimeMillis(), collection.getGcInfo().getDuration(),
+					getTenuredUsage(collection.getGcInfo().getMemoryUsageAfterGc()));
+		}
+	}
+
+	private double getTenuredUsage(Map<String, MemoryUsage> usageAfterCollection) {
+		double tenuredUsage = 0;
+		for (MemoryPoolMXBean pool : tenuredPools) {
+			MemoryUsage usage = usageAfterCollection.get(pool.getName());
+			if (usage != null && usage.getMax() > 0)
+				tenuredUsage = Math.max(tenuredUsage, (double) usage.getUsed() / usage.getMax());
+		}
+		return tenuredUsage;
+	}
+}
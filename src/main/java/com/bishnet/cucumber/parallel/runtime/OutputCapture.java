@@ -0,0 +1,307 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class OutputCapture implements Closeable {
+
+	private static final byte[] END_OF_OUTPUT = new byte[0];
+
+	private PrintStream originalOut;
+	private BlockingQueue<byte[]> blocks = new LinkedBlockingQueue<byte[]>();
+	private Set<ThreadOutput> openThreadOutputs = ConcurrentHashMap.newKeySet();
+	private ThreadLocal<ThreadOutput> threadOutputs = ThreadLocal.withInitial(this::openThreadOutput);
+	private Thread writer;
+	private final Object closeLock = new Object();
+	private boolean closed;
+
+	public void start() {
+		originalOut = System.out;
+		writer = new Thread(this::writeBlocks, "output-writer");
+		writer.setDaemon(true);
+		writer.start();
+		System.setOut(new ThreadRoutedPrintStream(originalOut));
+	}
+
+	public Callable<Byte> capture(final Callable<Byte> work) {
+		/*
+		 * The output of a work unit is only handed to the writer a whole
+		 * feature at a time, other threads get theirs written line by line
+		 */
+		return () -> {
+			ThreadOutput threadOutput = threadOutputs.get();
+			threadOutput.captured = true;
+			try {
+				return work.call();
+			} finally {
+				threadOutput.captured = false;
+				threadOutput.release();
+				openThreadOutputs.remove(threadOutput);
+				threadOutputs.remove();
+			}
+		};
+	}
+
+	public void flushThread() {
+		threadOutputs.get().release();
+	}
+
+	@Override
+	public void close() {
+		if (writer == null)
+			return;
+		/*
+		 * Whatever any thread has left in its buffer is written out, and
+		 * blocks are only queued while the queue is open, so none can land
+		 * behind the end of the output where the writer would never see them
+		 */
+		for (ThreadOutput threadOutput : openThreadOutputs)
+			threadOutput.release();
+		synchronized (closeLock) {
+			if (closed)
+				return;
+			closed = true;
+			blocks.add(END_OF_OUTPUT);
+		}
+		System.setOut(originalOut);
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private ThreadOutput openThreadOutput() {
+		/*
+		 * The buffer of a thread is let go of once its work unit is done, as a
+		 * new virtual thread can be started for every work unit
+		 */
+		ThreadOutput threadOutput = new ThreadOutput();
+		openThreadOutputs.add(threadOutput);
+		return threadOutput;
+	}
+
+	private void writeBlocks() {
+		try {
+			byte[] block;
+			while ((block = blocks.take()) != END_OF_OUTPUT) {
+				originalOut.write(block, 0, block.length);
+				if (blocks.isEmpty())
+					originalOut.flush();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		originalOut.flush();
+	}
+
+	private class ThreadOutput extends OutputStream {
+
+		private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		private PrintStream printStream = new PrintStream(this, true);
+		private boolean captured;
+
+		@Override
+		public synchronized void write(int b) {
+			buffer.write(b);
+		}
+
+		@Override
+		public synchronized void write(byte[] b, int off, int len) {
+			buffer.write(b, off, len);
+		}
+
+		@Override
+		public void flush() {
+			if (!captured)
+				release();
+		}
+
+		private synchronized void release() {
+			if (buffer.size() == 0)
+				return;
+			byte[] block = buffer.toByteArray();
+			buffer.reset();
+			synchronized (closeLock) {
+				if (!closed) {
+					blocks.add(block);
+					return;
+				}
+			}
+			originalOut.write(block, 0, block.length);
+		}
+	}
+
+	private class ThreadRoutedPrintStream extends PrintStream {
+
+		/*
+		 * Every call goes straight to the print stream of the calling thread,
+		 * so threads never wait on each other for the lock of System.out
+		 */
+		public ThreadRoutedPrintStream(OutputStream out) {
+			super(out, true);
+		}
+
+		private PrintStream out() {
+			return threadOutputs.get().printStream;
+		}
+
+		@Override
+		public void write(int b) {
+			out().write(b);
+		}
+
+		@Override
+		public void write(byte[] buf, int off, int len) {
+			out().write(buf, off, len);
+		}
+
+		@Override
+		public void flush() {
+			out().flush();
+		}
+
+		@Override
+		public void close() {
+			/* System.out stays open */
+		}
+
+		@Override
+		public boolean checkError() {
+			return out().checkError();
+		}
+
+		@Override
+		public void print(boolean b) {
+			out().print(b);
+		}
+
+		@Override
+		public void print(char c) {
+			out().print(c);
+		}
+
+		@Override
+		public void print(int i) {
+			out().print(i);
+		}
+
+		@Override
+		public void print(long l) {
+			out().print(l);
+		}
+
+		@Override
+		public void print(float f) {
+			out().print(f);
+		}
+
+		@Override
+		public void print(double d) {
+			out().print(d);
+		}
+
+		@Override
+		public void print(char[] s) {
+			out().print(s);
+		}
+
+		@Override
+		public void print(String s) {
+			out().print(s);
+		}
+
+		@Override
+		public void print(Object obj) {
+			out().print(obj);
+		}
+
+		@Override
+		public void println() {
+			out().println();
+		}
+
+		@Override
+		public void println(boolean x) {
+			out().println(x);
+		}
+
+		@Override
+		public void println(char x) {
+			out().println(x);
+		}
+
+		@Override
+		public void println(int x) {
+			out().println(x);
+		}
+
+		@Override
+		public void println(long x) {
+			out().println(x);
+		}
+
+		@Override
+		public void println(float x) {
+			out().println(x);
+		}
+
+		@Override
+		public void println(double x) {
+			out().println(x);
+		}
+
+		@Override
+		public void println(char[] x) {
+			out().println(x);
+		}
+
+		@Override
+		public void println(String x) {
+			out().println(x);
+		}
+
+		@Override
+		public void println(Object x) {
+			out().println(x);
+		}
+
+		@Override
+		public PrintStream format(String format, Object... args) {
+			out().format(format, args);
+			return this;
+		}
+
+		@Override
+		public PrintStream format(Locale l, String format, Object... args) {
+			out().format(l, format, args);
+			return this;
+		}
+
+		@Override
+		public PrintStream append(CharSequence csq) {
+			out().append(csq);
+			return this;
+		}
+
+		@Override
+		public PrintStream append(CharSequence csq, int start, int end) {
+			out().append(csq, start, end);
+			return this;
+		}
+
+		@Override
+		public PrintStream append(char c) {
+			out().append(c);
+			return this;
+		}
+	}
+}
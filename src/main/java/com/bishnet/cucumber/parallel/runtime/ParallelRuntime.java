@@ -1,20 +1,36 @@
 package com.bishnet.cucumber.parallel.runtime;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
 
 import com.bishnet.cucumber.parallel.cli.ArgumentsParser;
-import com.bishnet.cucumber.parallel.report.HtmlReportMerger;
-import com.bishnet.cucumber.parallel.report.JsonReportMerger;
+import com.bishnet.cucumber.parallel.report.DurationStore;
+import com.bishnet.cucumber.parallel.report.FailedScenarioCollector;
+import com.bishnet.cucumber.parallel.report.PipelinedReportMerger;
+import com.bishnet.cucumber.parallel.report.RetryReportWriter;
 import com.bishnet.cucumber.parallel.report.thread.ThreadExecutionRecorder;
 import com.bishnet.cucumber.parallel.report.thread.ThreadExecutionReporter;
+import com.bishnet.cucumber.parallel.report.thread.ThreadTimelineData;
 
 import cucumber.runtime.CucumberException;
 import cucumber.runtime.model.CucumberFeature;
 
 public class ParallelRuntime {
 
+	private static final Logger LOG = Logger.getLogger(ParallelRuntime.class.getName());
+
+	private List<String> arguments;
 	private RuntimeConfiguration runtimeConfiguration;
 	private ClassLoader cucumberClassLoader;
 	private CucumberBackendFactory cucumberBackendFactory;
@@ -34,33 +50,97 @@ public class ParallelRuntime {
 	public ParallelRuntime(List<String> arguments, ClassLoader cucumberClassLoader, CucumberBackendFactory cucumberBackendFactory) {
 		this.cucumberClassLoader = cucumberClassLoader;
 		this.cucumberBackendFactory = cucumberBackendFactory;
+		this.arguments = arguments;
 		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
 		runtimeConfiguration = argumentsParser.parse();
 	}
 
 	public byte run() {
+		if (runtimeConfiguration.coordinatorAddress != null)
+			return runAgent();
+		if (runtimeConfiguration.streamFeatures)
+			try {
+				return runFeatures(null, null, null);
+			} catch (InterruptedException | IOException e) {
+				throw new CucumberException(e);
+			}
 		List<CucumberFeature> features = parseFeatures();
 		if (features.isEmpty())
 			return 0;
 		try {
-			List<Path> rerunFiles = splitFeaturesIntoRerunFiles(features);
-			return runFeatures(rerunFiles);
+			DurationEstimator durationEstimator = getDurationEstimator();
+			features = selectShard(features, durationEstimator);
+			if (features.isEmpty())
+				return 0;
+			List<List<CucumberFeature>> featureGroups = splitFeaturesIntoGroups(features, durationEstimator);
+			return runFeatures(features, featureGroups, durationEstimator);
 		} catch (InterruptedException | IOException e) {
 			throw new CucumberException(e);
 		}
 	}
 
+	private byte runAgent() {
+		Agent agent = new Agent(runtimeConfiguration.coordinatorAddress,
+				AgentProtocol.resolveToken(runtimeConfiguration.agentToken), runtimeConfiguration.numberOfThreads,
+				cucumberBackendFactory, cucumberClassLoader);
+		try {
+			agent.run();
+		} catch (IOException e) {
+			throw new CucumberException(e);
+		}
+		return 0;
+	}
+
 	private List<CucumberFeature> parseFeatures() {
 		FeatureParser featureParser = new FeatureParser(runtimeConfiguration, cucumberClassLoader);
 		return featureParser.parseFeatures();
 	}
 
-	private List<Path> splitFeaturesIntoRerunFiles(List<CucumberFeature> features) throws IOException {
-		FeatureSplitter featureSplitter = new FeatureSplitter(runtimeConfiguration, features);
-		return featureSplitter.splitFeaturesIntoRerunFiles();
+	private List<CucumberFeature> selectShard(List<CucumberFeature> features, DurationEstimator durationEstimator) {
+		if (runtimeConfiguration.shardCount <= 0)
+			return features;
+		ShardSelector shardSelector = new ShardSelector(runtimeConfiguration, durationEstimator);
+		List<CucumberFeature> shardFeatures = shardSelector.selectShard(features);
+		LOG.info("Running shard " + runtimeConfiguration.shardIndex + " of " + runtimeConfiguration.shardCount + " with "
+				+ shardFeatures.size() + " of " + features.size() + " features");
+		return shardFeatures;
+	}
+
+	private List<List<CucumberFeature>> splitFeaturesIntoGroups(List<CucumberFeature> features,
+			DurationEstimator durationEstimator) {
+		FeatureSplitter featureSplitter = new FeatureSplitter(runtimeConfiguration, features, durationEstimator);
+		return featureSplitter.splitFeaturesIntoGroups();
+	}
+
+	private DurationEstimator getDurationEstimator() throws IOException {
+		Path durationHistoryPath = runtimeConfiguration.durationHistoryPath;
+		if (durationHistoryPath == null)
+			return null;
+		DurationStore durationStore = new DurationStore();
+		if (Files.exists(durationHistoryPath))
+			durationStore.addReport(durationHistoryPath);
+		else
+			LOG.warning("No duration history found at " + durationHistoryPath.toAbsolutePath()
+					+ ", features will be balanced by step count");
+		return new DurationEstimator(durationStore);
+	}
+
+	private byte runFeatures(List<CucumberFeature> features, List<List<CucumberFeature>> featureGroups,
+			DurationEstimator durationEstimator) throws InterruptedException, IOException {
+		/*
+		 * Every report of the run is written to a workspace of its own, which
+		 * is removed in the background once the reports have been merged
+		 */
+		RunWorkspace runWorkspace = new RunWorkspace(runtimeConfiguration.workspacePath);
+		try {
+			return runFeatures(features, featureGroups, durationEstimator, runWorkspace);
+		} finally {
+			runWorkspace.close();
+		}
 	}
 
-	private byte runFeatures(List<Path> rerunFiles) throws InterruptedException, IOException {
+	private byte runFeatures(List<CucumberFeature> features, List<List<CucumberFeature>> featureGroups,
+			DurationEstimator durationEstimator, RunWorkspace runWorkspace) throws InterruptedException, IOException {
 
 		CucumberRuntimeFactory runtimeFactory = null;
 		ThreadExecutionRecorder threadExecutionRecorder = null;
@@ -68,26 +148,200 @@ public class ParallelRuntime {
 		if (runtimeConfiguration.threadTimelineReportRequired)
 			threadExecutionRecorder = new ThreadExecutionRecorder();
 
-		runtimeFactory = new CucumberRuntimeFactory(runtimeConfiguration, cucumberBackendFactory, cucumberClassLoader, threadExecutionRecorder);
+		FailFastMonitor failFastMonitor = null;
+		if (runtimeConfiguration.failFastThreshold > 0)
+			failFastMonitor = new FailFastMonitor(runtimeConfiguration.failFastThreshold);
 
-		CucumberRuntimeExecutor executor = new CucumberRuntimeExecutor(runtimeFactory, rerunFiles, runtimeConfiguration);
+		HeapPressureMonitor heapPressureMonitor = null;
+		if (runtimeConfiguration.heapPressureThreshold > 0 && runtimeConfiguration.coordinatorPort <= 0)
+			heapPressureMonitor = new HeapPressureMonitor(runtimeConfiguration.heapPressureThreshold,
+					threadExecutionRecorder);
 
-		byte result = executor.run();
+		/*
+		 * When asked to, threads sharing the console write to it a whole
+		 * feature at a time, forks and agents write to consoles of their own
+		 */
+		OutputCapture outputCapture = null;
+		if (runtimeConfiguration.bufferOutput && runtimeConfiguration.numberOfForks <= 0
+				&& runtimeConfiguration.coordinatorPort <= 0
+				&& (runtimeConfiguration.numberOfThreads > 1 || runtimeConfiguration.isThreadCountAdaptive()))
+			outputCapture = new OutputCapture();
+
+		runtimeFactory = new CucumberRuntimeFactory.Builder(runtimeConfiguration, cucumberClassLoader)
+				.cucumberBackendFactory(cucumberBackendFactory)
+				.threadExecutionRecorder(threadExecutionRecorder)
+				.failFastMonitor(failFastMonitor)
+				.heapPressureMonitor(heapPressureMonitor)
+				.runWorkspace(runWorkspace)
+				.outputCapture(outputCapture)
+				.build();
 
-		if (runtimeConfiguration.jsonReportRequired) {
-			JsonReportMerger merger = new JsonReportMerger(executor.getJsonReports());
-			merger.merge(runtimeConfiguration.jsonReportPath);
+		/*
+		 * With retries the first run is merged into a report of its own which
+		 * is rewritten with the retried scenarios once they have run
+		 */
+		Path jsonReportPath = runtimeConfiguration.jsonReportRequired ? runtimeConfiguration.jsonReportPath : null;
+		Path firstRunJsonReportPath = jsonReportPath;
+		RetryReportWriter retryReportWriter = null;
+		if (jsonReportPath != null && runtimeConfiguration.retryCount > 0) {
+			firstRunJsonReportPath = runWorkspace.createJsonReport();
+			retryReportWriter = new RetryReportWriter();
 		}
-		if (runtimeConfiguration.htmlReportRequired) {
-			HtmlReportMerger merger = new HtmlReportMerger(executor.getHtmlReports());
-			merger.merge(runtimeConfiguration.htmlReportPath);
+
+		/*
+		 * Streamed features are counted as they are split, always before any
+		 * of their parts can have run
+		 */
+		Map<String, Integer> featurePartCounts;
+		if (featureGroups == null)
+			featurePartCounts = new ConcurrentHashMap<String, Integer>();
+		else
+			featurePartCounts = getFeaturePartCounts(featureGroups);
+		PipelinedReportMerger reportMerger = new PipelinedReportMerger(firstRunJsonReportPath,
+				runtimeConfiguration.htmlReportRequired ? runtimeConfiguration.htmlReportPath : null,
+				featurePartCounts);
+		reportMerger.open();
+
+		ForkedWorkerPool forkedWorkerPool = null;
+		Coordinator coordinator = null;
+		byte result;
+		try {
+			if (heapPressureMonitor != null)
+				heapPressureMonitor.start();
+			if (outputCapture != null)
+				outputCapture.start();
+			forkedWorkerPool = startForkedWorkers(threadExecutionRecorder, failFastMonitor);
+			coordinator = startCoordinator(threadExecutionRecorder, failFastMonitor);
+			RuntimeReportListener reportListener = reportMerger::addReports;
+			FailedScenarioRetrier retrier = null;
+			FailedScenarioCollector failedScenarioCollector = null;
+			if (runtimeConfiguration.retryCount > 0) {
+				retrier = new FailedScenarioRetrier(runtimeConfiguration, runtimeFactory, durationEstimator,
+						reportListener, forkedWorkerPool, coordinator);
+				failedScenarioCollector = retrier.createFailedScenarioCollector();
+				reportListener = retrier.collectFailures(failedScenarioCollector, reportListener);
+			}
+			if (featureGroups == null) {
+				CucumberRuntimeExecutor executor = new CucumberRuntimeExecutor.Builder(runtimeFactory,
+						runtimeConfiguration).reportListener(reportListener).forkedWorkerPool(forkedWorkerPool)
+						.streamFeatureGroups(true).build();
+				features = new ArrayList<CucumberFeature>();
+				result = runStreamed(executor, features, featurePartCounts);
+			} else {
+				CucumberRuntimeExecutor executor = new CucumberRuntimeExecutor.Builder(runtimeFactory,
+						runtimeConfiguration).featureGroups(featureGroups).reportListener(reportListener)
+						.forkedWorkerPool(forkedWorkerPool).coordinator(coordinator).build();
+				result = executor.run();
+			}
+			boolean stoppedEarly = failFastMonitor != null && failFastMonitor.isStopped();
+			if (result != 0 && retrier != null && !stoppedEarly && !failedScenarioCollector.getFailedScenarios().isEmpty())
+				result = retrier.retry(features, failedScenarioCollector,
+						retryReportWriter == null ? new RetryReportWriter() : retryReportWriter);
+		} finally {
+			try {
+				if (heapPressureMonitor != null)
+					heapPressureMonitor.close();
+				if (outputCapture != null)
+					outputCapture.close();
+				if (forkedWorkerPool != null)
+					forkedWorkerPool.close();
+				if (coordinator != null)
+					coordinator.close();
+			} finally {
+				reportMerger.close();
+			}
 		}
+
+		if (retryReportWriter != null)
+			retryReportWriter.write(firstRunJsonReportPath, jsonReportPath);
+
 		if (runtimeConfiguration.threadTimelineReportRequired) {
 			ThreadExecutionReporter threadExecutionReporter = new ThreadExecutionReporter();
-			threadExecutionReporter.writeReport(threadExecutionRecorder.getRecordedData(), runtimeConfiguration.threadTimelineReportPath);
+			List<ThreadTimelineData> timelineData = threadExecutionRecorder.getRecordedData();
+			if (heapPressureMonitor != null)
+				timelineData.addAll(heapPressureMonitor.getPauses());
+			threadExecutionReporter.writeReport(timelineData, runtimeConfiguration.threadTimelineReportPath);
 		}
 		
 		
 		return result;
 	}
+
+	private byte runStreamed(final CucumberRuntimeExecutor executor, List<CucumberFeature> features,
+			final Map<String, Integer> featurePartCounts) throws InterruptedException, IOException {
+		/*
+		 * Features are parsed on a thread of their own and every feature is
+		 * handed to the workers as soon as it is parsed, while the workers
+		 * already run the features parsed before it
+		 */
+		ExecutorService parser = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "feature-parser"));
+		Future<List<CucumberFeature>> parsedFeatures = parser.submit(() -> {
+			FeatureParser featureParser = new FeatureParser(runtimeConfiguration, cucumberClassLoader);
+			try {
+				List<CucumberFeature> allFeatures = featureParser.parseFeatures(feature -> {
+					List<List<CucumberFeature>> featureGroups = FeatureSplitter.splitIntoWorkUnitGroups(feature,
+							runtimeConfiguration.granularity);
+					featurePartCounts.merge(feature.getPath(), featureGroups.size(), Integer::sum);
+					try {
+						executor.addFeatureGroups(featureGroups);
+					} catch (IOException e) {
+						throw new CucumberException(e);
+					}
+				});
+				executor.finishFeatureGroups();
+				return allFeatures;
+			} catch (RuntimeException e) {
+				executor.cancelFeatureGroups();
+				throw e;
+			}
+		});
+		parser.shutdown();
+		byte result = executor.run();
+		try {
+			features.addAll(parsedFeatures.get());
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new CucumberException(e.getCause());
+		}
+		return result;
+	}
+
+	private ForkedWorkerPool startForkedWorkers(ThreadExecutionRecorder threadExecutionRecorder,
+			FailFastMonitor failFastMonitor) throws IOException {
+		if (runtimeConfiguration.numberOfForks <= 0 || runtimeConfiguration.coordinatorPort > 0)
+			return null;
+		if (cucumberBackendFactory != null)
+			throw new CucumberException("Forked workers cannot use a backend factory as their backends are created in the forked JVM");
+		ForkedWorkerPool forkedWorkerPool = new ForkedWorkerPool(arguments, runtimeConfiguration.numberOfForks,
+				cucumberClassLoader, threadExecutionRecorder, failFastMonitor);
+		try {
+			forkedWorkerPool.start();
+		} catch (IOException | RuntimeException e) {
+			forkedWorkerPool.close();
+			throw e;
+		}
+		return forkedWorkerPool;
+	}
+
+	private Coordinator startCoordinator(ThreadExecutionRecorder threadExecutionRecorder,
+			FailFastMonitor failFastMonitor) throws IOException {
+		if (runtimeConfiguration.coordinatorPort <= 0)
+			return null;
+		Coordinator coordinator = new Coordinator(runtimeConfiguration.coordinatorBindAddress,
+				runtimeConfiguration.coordinatorPort, AgentProtocol.resolveToken(runtimeConfiguration.agentToken),
+				arguments, threadExecutionRecorder, failFastMonitor);
+		coordinator.start();
+		return coordinator;
+	}
+
+	private Map<String, Integer> getFeaturePartCounts(List<List<CucumberFeature>> featureGroups) {
+		Map<String, Integer> featurePartCounts = new HashMap<String, Integer>();
+		for (List<CucumberFeature> featureGroup : featureGroups)
+			for (CucumberFeature feature : featureGroup) {
+				Integer partCount = featurePartCounts.get(feature.getPath());
+				featurePartCounts.put(feature.getPath(), partCount == null ? 1 : partCount + 1);
+			}
+		return featurePartCounts;
+	}
 }
@@ -0,0 +1,26 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.util.List;
+
+import cucumber.runtime.RuntimeOptions;
+import cucumber.runtime.io.ResourceLoader;
+import cucumber.runtime.model.CucumberFeature;
+
+public class ParsedFeatureRuntimeOptions extends RuntimeOptions {
+
+	private List<CucumberFeature> features;
+
+	public ParsedFeatureRuntimeOptions(List<String> arguments, List<CucumberFeature> features) {
+		super(arguments);
+		this.features = features;
+	}
+
+	@Override
+	public List<CucumberFeature> cucumberFeatures(ResourceLoader resourceLoader) {
+		/*
+		 * The features have already been parsed and filtered by the parallel
+		 * runtime so the runtime is handed them rather than loading them again
+		 */
+		return features;
+	}
+}
@@ -31,6 +31,12 @@ public class RerunFileBuilder {
 		addFeatureElements(feature);
 	}
 
+	public void addWorkUnit(WorkUnit workUnit) {
+		formatter.uri(workUnit.getFeature().getPath());
+		for (CucumberScenario cucumberScenario : workUnit.getScenarios())
+			addScenario(cucumberScenario);
+	}
+
 	public void close() {
 		formatter.done();
 		formatter.close();
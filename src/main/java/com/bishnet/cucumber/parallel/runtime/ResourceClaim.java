@@ -0,0 +1,103 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import cucumber.runtime.CucumberException;
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberScenario;
+import gherkin.formatter.model.Tag;
+
+public class ResourceClaim {
+
+	public static final ResourceClaim NONE = new ResourceClaim(false, Collections.<String, Integer> emptyMap());
+
+	private static final String EXCLUSIVE_TAG = "@exclusive";
+	private static final String RESOURCE_TAG_PREFIX = "@resource:";
+	private static final String LIMIT_SEPARATOR = "=";
+
+	private boolean exclusive;
+	private Map<String, Integer> resourceLimits;
+
+	public ResourceClaim(boolean exclusive, Map<String, Integer> resourceLimits) {
+		this.exclusive = exclusive;
+		this.resourceLimits = resourceLimits;
+	}
+
+	public boolean isExclusive() {
+		return exclusive;
+	}
+
+	public Map<String, Integer> getResourceLimits() {
+		return resourceLimits;
+	}
+
+	public boolean isEmpty() {
+		return !exclusive && resourceLimits.isEmpty();
+	}
+
+	public static ResourceClaim fromTags(Collection<String> tagNames) {
+		/*
+		 * A resource named without a limit can only be used by one work unit
+		 * at a time, the smallest limit wins when a resource is given several
+		 */
+		boolean exclusive = false;
+		Map<String, Integer> resourceLimits = new HashMap<String, Integer>();
+		for (String tagName : tagNames) {
+			if (EXCLUSIVE_TAG.equals(tagName)) {
+				exclusive = true;
+			} else if (tagName.startsWith(RESOURCE_TAG_PREFIX)) {
+				String resource = tagName.substring(RESOURCE_TAG_PREFIX.length());
+				int limit = 1;
+				int separatorIndex = resource.indexOf(LIMIT_SEPARATOR);
+				if (separatorIndex >= 0) {
+					limit = parseLimit(tagName, resource.substring(separatorIndex + 1));
+					resource = resource.substring(0, separatorIndex);
+				}
+				if (resource.isEmpty())
+					throw new CucumberException("Resource tag " + tagName + " does not name a resource");
+				Integer previousLimit = resourceLimits.get(resource);
+				resourceLimits.put(resource, previousLimit == null ? limit : Math.min(previousLimit, limit));
+			}
+		}
+		if (!exclusive && resourceLimits.isEmpty())
+			return NONE;
+		return new ResourceClaim(exclusive, resourceLimits);
+	}
+
+	public static ResourceClaim fromWorkUnit(WorkUnit workUnit) {
+		return fromTags(collectTagNames(Collections.singletonList(workUnit)));
+	}
+
+	public static ResourceClaim fromFeatures(List<CucumberFeature> features) {
+		return fromTags(collectTagNames(WorkUnit.split(features, Granularity.FEATURE)));
+	}
+
+	private static List<String> collectTagNames(List<WorkUnit> workUnits) {
+		List<String> tagNames = new ArrayList<String>();
+		for (WorkUnit workUnit : workUnits) {
+			for (Tag tag : workUnit.getFeature().getGherkinFeature().getTags())
+				tagNames.add(tag.getName());
+			for (CucumberScenario scenario : workUnit.getScenarios())
+				for (Tag tag : scenario.getGherkinModel().getTags())
+					tagNames.add(tag.getName());
+		}
+		return tagNames;
+	}
+
+	private static int parseLimit(String tagName, String limit) {
+		int parsedLimit;
+		try {
+			parsedLimit = Integer.parseInt(limit);
+		} catch (NumberFormatException e) {
+			parsedLimit = 0;
+		}
+		if (parsedLimit < 1)
+			throw new CucumberException("Resource tag " + tagName + " must give a limit of at least 1");
+		return parsedLimit;
+	}
+}
@@ -0,0 +1,98 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.bishnet.cucumber.parallel.util.WorkQueue;
+
+public class ResourceLimitedWorkQueue implements WorkQueue<Callable<Byte>> {
+
+	private List<PendingWork> pendingWork = new LinkedList<PendingWork>();
+	private ResourceLimiter resourceLimiter;
+	private boolean closed;
+
+	public ResourceLimitedWorkQueue() {
+		this.resourceLimiter = new ResourceLimiter(Collections.<ResourceClaim> emptyList());
+	}
+
+	public ResourceLimitedWorkQueue(List<Callable<Byte>> workItems, List<ResourceClaim> resourceClaims) {
+		for (int i = 0; i < workItems.size(); i++)
+			pendingWork.add(new PendingWork(workItems.get(i), resourceClaims.get(i)));
+		this.resourceLimiter = new ResourceLimiter(resourceClaims);
+		this.closed = true;
+	}
+
+	public static boolean isLimited(List<ResourceClaim> resourceClaims) {
+		for (ResourceClaim resourceClaim : resourceClaims)
+			if (!resourceClaim.isEmpty())
+				return true;
+		return false;
+	}
+
+	public synchronized void add(Callable<Byte> workItem, ResourceClaim resourceClaim) {
+		if (closed)
+			throw new IllegalStateException("No work can be added once the queue is closed");
+		resourceLimiter.addClaim(resourceClaim);
+		pendingWork.add(new PendingWork(workItem, resourceClaim));
+		notifyAll();
+	}
+
+	public synchronized void close() {
+		closed = true;
+		notifyAll();
+	}
+
+	public synchronized void cancel() {
+		pendingWork.clear();
+		close();
+	}
+
+	@Override
+	public synchronized Callable<Byte> poll(int workerIndex) throws InterruptedException {
+		/*
+		 * Work which cannot get its resources yet is passed over for the next
+		 * item that can, a worker only waits when everything left is blocked
+		 * or while more work can still be added
+		 */
+		while (!pendingWork.isEmpty() || !closed) {
+			for (Iterator<PendingWork> pendingIterator = pendingWork.iterator(); pendingIterator.hasNext();) {
+				PendingWork work = pendingIterator.next();
+				if (resourceLimiter.tryAcquire(work.resourceClaim)) {
+					pendingIterator.remove();
+					return releaseOnCompletion(work);
+				}
+			}
+			wait();
+		}
+		return null;
+	}
+
+	private Callable<Byte> releaseOnCompletion(final PendingWork work) {
+		return () -> {
+			try {
+				return work.workItem.call();
+			} finally {
+				release(work.resourceClaim);
+			}
+		};
+	}
+
+	private synchronized void release(ResourceClaim resourceClaim) {
+		resourceLimiter.release(resourceClaim);
+		notifyAll();
+	}
+
+	private static class PendingWork {
+
+		private Callable<Byte> workItem;
+		private ResourceClaim resourceClaim;
+
+		public PendingWork(Callable<Byte> workItem, ResourceClaim resourceClaim) {
+			this.workItem = workItem;
+			this.resourceClaim = resourceClaim;
+		}
+	}
+}
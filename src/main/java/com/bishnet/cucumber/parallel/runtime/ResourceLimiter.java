@@ -0,0 +1,76 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ResourceLimiter {
+
+	private Map<String, Integer> resourceLimits = new HashMap<String, Integer>();
+	private Map<String, Integer> resourcesInUse = new HashMap<String, Integer>();
+	private int runningWorkUnits;
+	private boolean exclusiveRunning;
+	private boolean exclusiveWaiting;
+
+	public ResourceLimiter(Collection<ResourceClaim> resourceClaims) {
+		/*
+		 * Each named resource acts as a semaphore with the smallest limit any
+		 * work unit gave it, so every claim agrees on how many may run at once
+		 */
+		for (ResourceClaim resourceClaim : resourceClaims)
+			addClaim(resourceClaim);
+	}
+
+	public synchronized void addClaim(ResourceClaim resourceClaim) {
+		for (Map.Entry<String, Integer> resourceLimit : resourceClaim.getResourceLimits().entrySet()) {
+			Integer previousLimit = resourceLimits.get(resourceLimit.getKey());
+			resourceLimits.put(resourceLimit.getKey(), previousLimit == null ? resourceLimit.getValue() : Math.min(
+					previousLimit, resourceLimit.getValue()));
+		}
+	}
+
+	public synchronized boolean tryAcquire(ResourceClaim resourceClaim) {
+		/*
+		 * An exclusive work unit only starts once nothing else is running and
+		 * nothing else starts while it runs. Once one has been turned away no
+		 * other work starts either, so the running work drains and it is not
+		 * held back for as long as other work keeps coming
+		 */
+		if (exclusiveRunning)
+			return false;
+		if (resourceClaim.isExclusive() && runningWorkUnits > 0) {
+			exclusiveWaiting = true;
+			return false;
+		}
+		if (exclusiveWaiting && !resourceClaim.isExclusive())
+			return false;
+		for (String resource : resourceClaim.getResourceLimits().keySet())
+			if (getInUse(resource) >= getLimit(resource, resourceClaim))
+				return false;
+		for (String resource : resourceClaim.getResourceLimits().keySet())
+			resourcesInUse.put(resource, getInUse(resource) + 1);
+		runningWorkUnits++;
+		exclusiveRunning = resourceClaim.isExclusive();
+		if (exclusiveRunning)
+			exclusiveWaiting = false;
+		return true;
+	}
+
+	public synchronized void release(ResourceClaim resourceClaim) {
+		for (String resource : resourceClaim.getResourceLimits().keySet())
+			resourcesInUse.put(resource, getInUse(resource) - 1);
+		runningWorkUnits--;
+		if (resourceClaim.isExclusive())
+			exclusiveRunning = false;
+	}
+
+	private int getInUse(String resource) {
+		Integer inUse = resourcesInUse.get(resource);
+		return inUse == null ? 0 : inUse;
+	}
+
+	private int getLimit(String resource, ResourceClaim resourceClaim) {
+		Integer limit = resourceLimits.get(resource);
+		return limit == null ? resourceClaim.getResourceLimits().get(resource) : limit;
+	}
+}
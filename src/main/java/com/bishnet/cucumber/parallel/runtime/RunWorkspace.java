@@ -0,0 +1,105 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FileUtils;
+
+public class RunWorkspace implements Closeable {
+
+	private static final Logger LOG = Logger.getLogger(RunWorkspace.class.getName());
+	private static final long EXIT_REMOVAL_TIMEOUT_SECONDS = 30;
+	private static final Set<RunWorkspace> OPEN_WORKSPACES = ConcurrentHashMap.newKeySet();
+	private static final ExecutorService REMOVER = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "run-workspace-remover");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	static {
+		/*
+		 * A single hook for every workspace of the JVM, removing those never
+		 * closed and waiting for removals still going on
+		 */
+		Runtime.getRuntime().addShutdownHook(new Thread(RunWorkspace::removeAtExit, "run-workspace-exit"));
+	}
+
+	private Path parentDirectory;
+	private Path directory;
+	private boolean closed;
+
+	public RunWorkspace() {
+		this(null);
+	}
+
+	public RunWorkspace(Path parentDirectory) {
+		this.parentDirectory = parentDirectory;
+	}
+
+	public synchronized Path getDirectory() throws IOException {
+		if (closed)
+			throw new IllegalStateException("The run workspace has already been closed");
+		if (directory == null) {
+			if (parentDirectory == null) {
+				directory = Files.createTempDirectory("parallelCukes");
+			} else {
+				Files.createDirectories(parentDirectory);
+				directory = Files.createTempDirectory(parentDirectory, "parallelCukes");
+			}
+			OPEN_WORKSPACES.add(this);
+		}
+		return directory;
+	}
+
+	public Path createJsonReport() throws IOException {
+		return Files.createTempFile(getDirectory(), "report", ".json");
+	}
+
+	public Path createHtmlReport() throws IOException {
+		return Files.createTempDirectory(getDirectory(), "html");
+	}
+
+	@Override
+	public synchronized void close() {
+		/*
+		 * The reports are removed in the background so a run does not wait on
+		 * deleting what could be a large number of screenshots
+		 */
+		if (closed)
+			return;
+		closed = true;
+		if (directory == null)
+			return;
+		OPEN_WORKSPACES.remove(this);
+		final Path removedDirectory = directory;
+		REMOVER.submit(() -> remove(removedDirectory));
+	}
+
+	private static void remove(Path directory) {
+		try {
+			FileUtils.deleteDirectory(directory.toFile());
+		} catch (IOException e) {
+			LOG.log(Level.WARNING, "Could not remove the run workspace " + directory, e);
+		}
+	}
+
+	private static void removeAtExit() {
+		for (RunWorkspace workspace : OPEN_WORKSPACES)
+			remove(workspace.directory);
+		REMOVER.shutdown();
+		try {
+			REMOVER.awaitTermination(EXIT_REMOVAL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -15,20 +15,268 @@ public class RuntimeConfiguration {
 	public final boolean htmlReportRequired;
 	public final boolean jsonReportRequired;
 	public final boolean threadTimelineReportRequired;
+	public final SchedulingMode schedulingMode;
+	public final Path durationHistoryPath;
+	public final Granularity granularity;
+	public final int numberOfForks;
+	public final int coordinatorPort;
+	public final String coordinatorBindAddress;
+	public final String coordinatorAddress;
+	public final String agentToken;
+	public final int shardIndex;
+	public final int shardCount;
+	public final int retryCount;
+	public final int failFastThreshold;
+	public final int minimumThreads;
+	public final int maximumThreads;
+	public final int heapPressureThreshold;
+	public final ExecutorMode executorMode;
+	public final Path glueIndexPath;
+	public final Path featureCachePath;
+	public final boolean streamFeatures;
+	public final boolean bufferOutput;
+	public final Path workspacePath;
 
 	public RuntimeConfiguration(int numberOfThreads, List<String> cucumberPassThroughArguments,
 								List<String> featureParsingArguments, List<String> featurePaths, Path htmlReportPath, boolean htmlReportRequired,
 								Path jsonReportPath, boolean jsonReportRequired, Path threadTimelineReportPath, boolean threadTimelineReportRequired) {
-		this.numberOfThreads = numberOfThreads;
-		this.cucumberPassthroughArguments = cucumberPassThroughArguments;
-		this.featureParsingArguments = featureParsingArguments;
-		this.featurePaths = featurePaths;
-		this.htmlReportPath = htmlReportPath;
-		this.htmlReportRequired = htmlReportRequired;
-		this.jsonReportPath = jsonReportPath;
-		this.jsonReportRequired = jsonReportRequired;
-		this.threadTimelineReportPath = threadTimelineReportPath;
-		this.threadTimelineReportRequired = threadTimelineReportRequired;
+		this(new Builder().numberOfThreads(numberOfThreads).cucumberPassthroughArguments(cucumberPassThroughArguments)
+				.featureParsingArguments(featureParsingArguments).featurePaths(featurePaths)
+				.htmlReportPath(htmlReportPath).htmlReportRequired(htmlReportRequired)
+				.jsonReportPath(jsonReportPath).jsonReportRequired(jsonReportRequired)
+				.threadTimelineReportPath(threadTimelineReportPath)
+				.threadTimelineReportRequired(threadTimelineReportRequired));
 	}
 
+	private RuntimeConfiguration(Builder builder) {
+		this.numberOfThreads = builder.numberOfThreads;
+		this.cucumberPassthroughArguments = builder.cucumberPassthroughArguments;
+		this.featureParsingArguments = builder.featureParsingArguments;
+		this.featurePaths = builder.featurePaths;
+		this.htmlReportPath = builder.htmlReportPath;
+		this.jsonReportPath = builder.jsonReportPath;
+		this.threadTimelineReportPath = builder.threadTimelineReportPath;
+		this.htmlReportRequired = builder.htmlReportRequired;
+		this.jsonReportRequired = builder.jsonReportRequired;
+		this.threadTimelineReportRequired = builder.threadTimelineReportRequired;
+		this.schedulingMode = builder.schedulingMode;
+		this.durationHistoryPath = builder.durationHistoryPath;
+		this.granularity = builder.granularity;
+		this.numberOfForks = builder.numberOfForks;
+		this.coordinatorPort = builder.coordinatorPort;
+		this.coordinatorBindAddress = builder.coordinatorBindAddress;
+		this.coordinatorAddress = builder.coordinatorAddress;
+		this.agentToken = builder.agentToken;
+		this.shardIndex = builder.shardIndex;
+		this.shardCount = builder.shardCount;
+		this.retryCount = builder.retryCount;
+		this.failFastThreshold = builder.failFastThreshold;
+		this.minimumThreads = builder.minimumThreads;
+		this.maximumThreads = builder.maximumThreads;
+		this.heapPressureThreshold = builder.heapPressureThreshold;
+		this.executorMode = builder.executorMode;
+		this.glueIndexPath = builder.glueIndexPath;
+		this.featureCachePath = builder.featureCachePath;
+		this.streamFeatures = builder.streamFeatures;
+		this.bufferOutput = builder.bufferOutput;
+		this.workspacePath = builder.workspacePath;
+	}
+
+	public boolean isThreadCountAdaptive() {
+		return maximumThreads > 0;
+	}
+
+	public static class Builder {
+
+		private int numberOfThreads;
+		private List<String> cucumberPassthroughArguments;
+		private List<String> featureParsingArguments;
+		private List<String> featurePaths;
+		private Path htmlReportPath;
+		private Path jsonReportPath;
+		private Path threadTimelineReportPath;
+		private boolean htmlReportRequired;
+		private boolean jsonReportRequired;
+		private boolean threadTimelineReportRequired;
+		private SchedulingMode schedulingMode = SchedulingMode.STATIC;
+		private Path durationHistoryPath;
+		private Granularity granularity = Granularity.FEATURE;
+		private int numberOfForks;
+		private int coordinatorPort;
+		private String coordinatorBindAddress;
+		private String coordinatorAddress;
+		private String agentToken;
+		private int shardIndex;
+		private int shardCount;
+		private int retryCount;
+		private int failFastThreshold;
+		private int minimumThreads;
+		private int maximumThreads;
+		private int heapPressureThreshold;
+		private ExecutorMode executorMode = ExecutorMode.PLATFORM;
+		private Path glueIndexPath;
+		private Path featureCachePath;
+		private boolean streamFeatures;
+		private boolean bufferOutput;
+		private Path workspacePath;
+
+		public Builder numberOfThreads(int numberOfThreads) {
+			this.numberOfThreads = numberOfThreads;
+			return this;
+		}
+
+		public Builder cucumberPassthroughArguments(List<String> cucumberPassthroughArguments) {
+			this.cucumberPassthroughArguments = cucumberPassthroughArguments;
+			return this;
+		}
+
+		public Builder featureParsingArguments(List<String> featureParsingArguments) {
+			this.featureParsingArguments = featureParsingArguments;
+			return this;
+		}
+
+		public Builder featurePaths(List<String> featurePaths) {
+			this.featurePaths = featurePaths;
+			return this;
+		}
+
+		public Builder htmlReportPath(Path htmlReportPath) {
+			this.htmlReportPath = htmlReportPath;
+			return this;
+		}
+
+		public Builder jsonReportPath(Path jsonReportPath) {
+			this.jsonReportPath = jsonReportPath;
+			return this;
+		}
+
+		public Builder threadTimelineReportPath(Path threadTimelineReportPath) {
+			this.threadTimelineReportPath = threadTimelineReportPath;
+			return this;
+		}
+
+		public Builder htmlReportRequired(boolean htmlReportRequired) {
+			this.htmlReportRequired = htmlReportRequired;
+			return this;
+		}
+
+		public Builder jsonReportRequired(boolean jsonReportRequired) {
+			this.jsonReportRequired = jsonReportRequired;
+			return this;
+		}
+
+		public Builder threadTimelineReportRequired(boolean threadTimelineReportRequired) {
+			this.threadTimelineReportRequired = threadTimelineReportRequired;
+			return this;
+		}
+
+		public Builder schedulingMode(SchedulingMode schedulingMode) {
+			this.schedulingMode = schedulingMode;
+			return this;
+		}
+
+		public Builder durationHistoryPath(Path durationHistoryPath) {
+			this.durationHistoryPath = durationHistoryPath;
+			return this;
+		}
+
+		public Builder granularity(Granularity granularity) {
+			this.granularity = granularity;
+			return this;
+		}
+
+		public Builder numberOfForks(int numberOfForks) {
+			this.numberOfForks = numberOfForks;
+			return this;
+		}
+
+		public Builder coordinatorPort(int coordinatorPort) {
+			this.coordinatorPort = coordinatorPort;
+			return this;
+		}
+
+		public Builder coordinatorBindAddress(String coordinatorBindAddress) {
+			this.coordinatorBindAddress = coordinatorBindAddress;
+			return this;
+		}
+
+		public Builder coordinatorAddress(String coordinatorAddress) {
+			this.coordinatorAddress = coordinatorAddress;
+			return this;
+		}
+
+		public Builder agentToken(String agentToken) {
+			this.agentToken = agentToken;
+			return this;
+		}
+
+		public Builder shardIndex(int shardIndex) {
+			this.shardIndex = shardIndex;
+			return this;
+		}
+
+		public Builder shardCount(int shardCount) {
+			this.shardCount = shardCount;
+			return this;
+		}
+
+		public Builder retryCount(int retryCount) {
+			this.retryCount = retryCount;
+			return this;
+		}
+
+		public Builder failFastThreshold(int failFastThreshold) {
+			this.failFastThreshold = failFastThreshold;
+			return this;
+		}
+
+		public Builder minimumThreads(int minimumThreads) {
+			this.minimumThreads = minimumThreads;
+			return this;
+		}
+
+		public Builder maximumThreads(int maximumThreads) {
+			this.maximumThreads = maximumThreads;
+			return this;
+		}
+
+		public Builder heapPressureThreshold(int heapPressureThreshold) {
+			this.heapPressureThreshold = heapPressureThreshold;
+			return this;
+		}
+
+		public Builder executorMode(ExecutorMode executorMode) {
+			this.executorMode = executorMode;
+			return this;
+		}
+
+		public Builder glueIndexPath(Path glueIndexPath) {
+			this.glueIndexPath = glueIndexPath;
+			return this;
+		}
+
+		public Builder featureCachePath(Path featureCachePath) {
+			this.featureCachePath = featureCachePath;
+			return this;
+		}
+
+		public Builder streamFeatures(boolean streamFeatures) {
+			this.streamFeatures = streamFeatures;
+			return this;
+		}
+
+		public Builder bufferOutput(boolean bufferOutput) {
+			this.bufferOutput = bufferOutput;
+			return this;
+		}
+
+		public Builder workspacePath(Path workspacePath) {
+			this.workspacePath = workspacePath;
+			return this;
+		}
+
+		public RuntimeConfiguration build() {
+			return new RuntimeConfiguration(this);
+		}
+	}
 }
@@ -0,0 +1,10 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.nio.file.Path;
+
+import com.bishnet.cucumber.parallel.report.JsonReport;
+
+public interface RuntimeReportListener {
+
+	void reportsCompleted(JsonReport jsonReport, Path htmlReport);
+}
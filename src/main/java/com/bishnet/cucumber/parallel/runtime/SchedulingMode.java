@@ -0,0 +1,10 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+public enum SchedulingMode {
+
+	STATIC, DYNAMIC;
+
+	public static SchedulingMode fromArgument(String argument) {
+		return valueOf(argument.trim().toUpperCase());
+	}
+}
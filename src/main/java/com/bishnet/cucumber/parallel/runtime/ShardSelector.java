@@ -0,0 +1,78 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.bishnet.cucumber.parallel.util.ListUtils;
+
+import cucumber.runtime.model.CucumberFeature;
+
+public class ShardSelector {
+
+	private RuntimeConfiguration runtimeConfiguration;
+	private DurationEstimator durationEstimator;
+
+	public ShardSelector(RuntimeConfiguration runtimeConfiguration) {
+		this(runtimeConfiguration, null);
+	}
+
+	public ShardSelector(RuntimeConfiguration runtimeConfiguration, DurationEstimator durationEstimator) {
+		this.runtimeConfiguration = runtimeConfiguration;
+		this.durationEstimator = durationEstimator;
+	}
+
+	public List<CucumberFeature> selectShard(List<CucumberFeature> features) {
+		List<WorkUnit> workUnits = WorkUnit.split(features, runtimeConfiguration.granularity);
+		/*
+		 * Work units are put in an order which only depends on the features
+		 * themselves so every shard computes the same split on its own
+		 */
+		Collections.sort(workUnits, new Comparator<WorkUnit>() {
+			@Override
+			public int compare(WorkUnit first, WorkUnit second) {
+				int pathComparison = first.getFeature().getPath().compareTo(second.getFeature().getPath());
+				if (pathComparison != 0)
+					return pathComparison;
+				return Integer.compare(getFirstLine(first), getFirstLine(second));
+			}
+		});
+		FilteredFeatureBuilder filteredFeatureBuilder = new FilteredFeatureBuilder();
+		for (WorkUnit workUnit : getShardWorkUnits(workUnits))
+			filteredFeatureBuilder.addWorkUnit(workUnit);
+		return filteredFeatureBuilder.getFeatures();
+	}
+
+	private List<WorkUnit> getShardWorkUnits(List<WorkUnit> workUnits) {
+		int shardIndex = runtimeConfiguration.shardIndex - 1;
+		int shardCount = runtimeConfiguration.shardCount;
+		if (durationEstimator != null) {
+			List<List<WorkUnit>> shards = ListUtils.partitionByCost(workUnits, shardCount, durationEstimator::estimate);
+			return shardIndex < shards.size() ? shards.get(shardIndex) : Collections.<WorkUnit> emptyList();
+		}
+		List<WorkUnit> shardWorkUnits = new ArrayList<WorkUnit>();
+		for (WorkUnit workUnit : workUnits)
+			if (Math.floorMod(hash(workUnit), shardCount) == shardIndex)
+				shardWorkUnits.add(workUnit);
+		return shardWorkUnits;
+	}
+
+	private long hash(WorkUnit workUnit) {
+		/*
+		 * A work unit stays on the same shard while the rest of the suite
+		 * changes around it
+		 */
+		CRC32 crc = new CRC32();
+		crc.update((workUnit.getFeature().getPath() + ":" + getFirstLine(workUnit)).getBytes(StandardCharsets.UTF_8));
+		return crc.getValue();
+	}
+
+	private int getFirstLine(WorkUnit workUnit) {
+		if (workUnit.getScenarios().isEmpty())
+			return 0;
+		return workUnit.getScenarios().get(0).getGherkinModel().getLine();
+	}
+}
@@ -0,0 +1,122 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+public class ThreadCountController {
+
+	private static final Logger LOG = Logger.getLogger(ThreadCountController.class.getName());
+	private static final long SAMPLE_INTERVAL_MILLIS = 5000;
+	private static final double THROUGHPUT_TOLERANCE = 0.05;
+	private static final double CPU_SATURATION = 0.95;
+	private static final double LOAD_PER_CORE_SATURATION = 2.0;
+
+	private int minimumThreads;
+	private int maximumThreads;
+	private int activeThreads;
+	private int direction = 1;
+	private double previousThroughput = -1;
+	private boolean finished;
+	private AtomicInteger completedScenarios = new AtomicInteger();
+	private OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+	private ScheduledExecutorService sampler;
+	private long lastSampleNanos;
+
+	public ThreadCountController(int minimumThreads, int maximumThreads, int initialThreads) {
+		this.minimumThreads = minimumThreads;
+		this.maximumThreads = maximumThreads;
+		this.activeThreads = Math.max(minimumThreads, Math.min(maximumThreads, initialThreads));
+	}
+
+	public void start() {
+		lastSampleNanos = System.nanoTime();
+		sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "thread-count-controller");
+			thread.setDaemon(true);
+			return thread;
+		});
+		sampler.scheduleAtFixedRate(this::sample, SAMPLE_INTERVAL_MILLIS, SAMPLE_INTERVAL_MILLIS,
+				TimeUnit.MILLISECONDS);
+	}
+
+	public void recordCompletedScenarios(int count) {
+		completedScenarios.addAndGet(count);
+	}
+
+	public synchronized int getActiveThreads() {
+		return activeThreads;
+	}
+
+	public synchronized boolean awaitTurn(int workerIndex) throws InterruptedException {
+		/*
+		 * Workers beyond the active thread count wait here between work units
+		 * until the count grows again or the work has run out
+		 */
+		while (!finished && workerIndex >= activeThreads)
+			wait();
+		return !finished;
+	}
+
+	public synchronized void finish() {
+		finished = true;
+		notifyAll();
+		if (sampler != null)
+			sampler.shutdownNow();
+	}
+
+	synchronized void adjust(double throughput, double cpuLoad, double loadPerCore) {
+		/*
+		 * Hill climbing on scenario throughput: the thread count keeps moving
+		 * the same way while throughput holds up and turns back when it drops.
+		 * A saturated host always makes it shrink
+		 */
+		if (cpuLoad > CPU_SATURATION || loadPerCore > LOAD_PER_CORE_SATURATION)
+			direction = -1;
+		else if (previousThroughput >= 0 && throughput < previousThroughput * (1 - THROUGHPUT_TOLERANCE))
+			direction = -direction;
+		previousThroughput = throughput;
+		int step = Math.max(1, activeThreads / 4);
+		int adjustedThreads = Math.max(minimumThreads, Math.min(maximumThreads, activeThreads + direction * step));
+		if (adjustedThreads == activeThreads) {
+			direction = -direction;
+			return;
+		}
+		LOG.info(String.format("Adjusting from %d to %d threads at %.2f scenarios per second", activeThreads,
+				adjustedThreads, throughput));
+		activeThreads = adjustedThreads;
+		notifyAll();
+	}
+
+	private void sample() {
+		/*
+		 * A sample only counts once every active thread could have finished a
+		 * scenario, so long scenarios do not read as a drop in throughput
+		 */
+		int completed = completedScenarios.get();
+		if (completed < getActiveThreads())
+			return;
+		completedScenarios.addAndGet(-completed);
+		long sampleNanos = System.nanoTime();
+		double elapsedSeconds = (sampleNanos - lastSampleNanos) / 1e9;
+		lastSampleNanos = sampleNanos;
+		double throughput = completed / elapsedSeconds;
+		adjust(throughput, getCpuLoad(), operatingSystem.getSystemLoadAverage()
+				/ operatingSystem.getAvailableProcessors());
+	}
+
+	@SuppressWarnings("deprecation")
+	private double getCpuLoad() {
+		/*
+		 * getCpuLoad only replaced getSystemCpuLoad in Java 14, which is still
+		 * the one available on the Java 8 this is built for
+		 */
+		if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean)
+			return ((com.sun.management.OperatingSystemMXBean) operatingSystem).getSystemCpuLoad();
+		return -1;
+	}
+}
@@ -1,18 +1,26 @@
 package com.bishnet.cucumber.parallel.runtime;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import com.bishnet.cucumber.parallel.report.thread.ThreadExecutionRecorder;
 import com.bishnet.cucumber.parallel.report.thread.ThreadTimelineData;
+import com.bishnet.cucumber.parallel.report.thread.ThreadTimelineEventType;
+import com.bishnet.cucumber.parallel.report.thread.TimelineLanes;
 
+import cucumber.runtime.AmbiguousStepDefinitionsException;
 import cucumber.runtime.Backend;
 import cucumber.runtime.ClassFinder;
 import cucumber.runtime.Runtime;
 import cucumber.runtime.RuntimeOptions;
+import cucumber.runtime.StepDefinitionMatch;
 import cucumber.runtime.io.ResourceLoader;
 import gherkin.I18n;
 import gherkin.formatter.Reporter;
+import gherkin.formatter.model.Match;
+import gherkin.formatter.model.Result;
 import gherkin.formatter.model.Scenario;
 import gherkin.formatter.model.Step;
 import gherkin.formatter.model.Tag;
@@ -20,6 +28,7 @@ import gherkin.formatter.model.Tag;
 public class ThreadLoggedRuntime extends Runtime {
 
 	private ThreadTimelineData threadTimelineData;
+	private List<ThreadTimelineData> nestedTimelineData = new ArrayList<ThreadTimelineData>();
 	private ThreadExecutionRecorder threadExecutionRecorder;
 
 	public ThreadLoggedRuntime(ResourceLoader resourceLoader, ClassFinder classFinder, ClassLoader classLoader,
@@ -41,10 +50,38 @@ public class ThreadLoggedRuntime extends Runtime {
 		createTimelineData(gherkinScenario);
 	}
 
+	@Override
+	public void runBeforeHooks(Reporter reporter, Set<Tag> tags) {
+		ThreadTimelineData hookTimelineData = createNestedTimelineData(ThreadTimelineEventType.BEFORE_HOOKS, "Before hooks");
+		try {
+			super.runBeforeHooks(reporter, tags);
+		} finally {
+			hookTimelineData.setEndTime(threadExecutionRecorder.getTimestamp());
+		}
+	}
+
 	@Override
 	public void runStep(String featurePath, Step step, Reporter reporter, I18n i18n) {
-		super.runStep(featurePath, step, reporter, i18n);
-		addFeaturePathToTimelineData(featurePath);
+		ThreadTimelineData stepTimelineData = createNestedTimelineData(ThreadTimelineEventType.STEP, step.getKeyword()
+				+ step.getName());
+		MatchRecordingReporter matchRecordingReporter = new MatchRecordingReporter(reporter);
+		try {
+			super.runStep(featurePath, step, matchRecordingReporter, i18n);
+		} finally {
+			stepTimelineData.setEndTime(threadExecutionRecorder.getTimestamp());
+			stepTimelineData.setStepDefinition(matchRecordingReporter.getStepDefinition(step));
+			addFeaturePathToTimelineData(featurePath);
+		}
+	}
+
+	@Override
+	public void runAfterHooks(Reporter reporter, Set<Tag> tags) {
+		ThreadTimelineData hookTimelineData = createNestedTimelineData(ThreadTimelineEventType.AFTER_HOOKS, "After hooks");
+		try {
+			super.runAfterHooks(reporter, tags);
+		} finally {
+			hookTimelineData.setEndTime(threadExecutionRecorder.getTimestamp());
+		}
 	}
 
 	@Override
@@ -54,18 +91,81 @@ public class ThreadLoggedRuntime extends Runtime {
 	}
 
 	private void createTimelineData(Scenario gherkinScenario) {
-		threadTimelineData = new ThreadTimelineData(System.currentTimeMillis(), Thread.currentThread().getId(),
-				gherkinScenario.getId());
+		threadTimelineData = new ThreadTimelineData(threadExecutionRecorder.getTimestamp(),
+				TimelineLanes.getCurrentThreadId(), gherkinScenario.getId());
 	}
 	
+	private ThreadTimelineData createNestedTimelineData(ThreadTimelineEventType eventType, String name) {
+		ThreadTimelineData timelineData = new ThreadTimelineData(threadExecutionRecorder.getTimestamp(),
+				TimelineLanes.getCurrentThreadId(), threadTimelineData.getScenarioId(), eventType, name);
+		nestedTimelineData.add(timelineData);
+		return timelineData;
+	}
+
 	private void addFeaturePathToTimelineData(String featurePath) {
 		if (threadTimelineData.getFeaturePath() == null)
 			threadTimelineData.setFeaturePath(featurePath);
 	}
 	
 	private void saveTimelineData() {
-		threadTimelineData.setEndTime(System.currentTimeMillis());
+		threadTimelineData.setEndTime(threadExecutionRecorder.getTimestamp());
 		threadExecutionRecorder.recordEvent(threadTimelineData);
+		for (ThreadTimelineData timelineData : nestedTimelineData) {
+			timelineData.setFeaturePath(threadTimelineData.getFeaturePath());
+			threadExecutionRecorder.recordEvent(timelineData);
+		}
+		nestedTimelineData.clear();
+	}
+
+	private static class MatchRecordingReporter implements Reporter {
+
+		private Reporter reporter;
+		private Match match;
+
+		public MatchRecordingReporter(Reporter reporter) {
+			this.reporter = reporter;
+		}
+
+		public String getStepDefinition(Step step) {
+			/*
+			 * The match the runtime ran is taken as it is reported rather than
+			 * matching the step again, undefined and ambiguous steps are
+			 * grouped by their text
+			 */
+			return match instanceof StepDefinitionMatch ? ((StepDefinitionMatch) match).getPattern() : step.getName();
+		}
+
+		@Override
+		public void before(Match match, Result result) {
+			reporter.before(match, result);
+		}
+
+		@Override
+		public void result(Result result) {
+			if (result.getError() instanceof AmbiguousStepDefinitionsException)
+				match = null;
+			reporter.result(result);
+		}
+
+		@Override
+		public void after(Match match, Result result) {
+			reporter.after(match, result);
+		}
+
+		@Override
+		public void match(Match match) {
+			this.match = match;
+			reporter.match(match);
+		}
+
+		@Override
+		public void embedding(String mimeType, byte[] data) {
+			reporter.embedding(mimeType, data);
+		}
+
+		@Override
+		public void write(String text) {
+			reporter.write(text);
+		}
 	}
-	
 }
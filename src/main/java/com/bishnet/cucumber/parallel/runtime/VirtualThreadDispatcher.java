@@ -0,0 +1,120 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import com.bishnet.cucumber.parallel.report.thread.TimelineLanes;
+import com.bishnet.cucumber.parallel.util.VirtualThreads;
+import com.bishnet.cucumber.parallel.util.WorkQueue;
+
+import cucumber.runtime.CucumberException;
+
+public class VirtualThreadDispatcher implements Callable<Byte> {
+
+	private static final long THREAD_COUNT_RECHECK_MILLIS = 500;
+
+	private WorkQueue<Callable<Byte>> workQueue;
+	private Semaphore freeLaneCount;
+	private TreeSet<Integer> freeLanes = new TreeSet<Integer>();
+	private int runningWork;
+	private FailFastMonitor failFastMonitor;
+	private ThreadCountController threadCountController;
+
+	public VirtualThreadDispatcher(WorkQueue<Callable<Byte>> workQueue, int numberOfLanes,
+			FailFastMonitor failFastMonitor, ThreadCountController threadCountController) {
+		this.workQueue = workQueue;
+		this.freeLaneCount = new Semaphore(numberOfLanes);
+		for (int lane = 0; lane < numberOfLanes; lane++)
+			freeLanes.add(lane);
+		this.failFastMonitor = failFastMonitor;
+		this.threadCountController = threadCountController;
+	}
+
+	@Override
+	public Byte call() throws Exception {
+		/*
+		 * Every work unit gets a virtual thread of its own rather than lanes
+		 * of long lived threads taking turns, the lanes only limit how many
+		 * run at once and give the timeline report a row for each
+		 */
+		ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("cucumber-work-unit-");
+		List<Future<Byte>> futures = new ArrayList<Future<Byte>>();
+		try {
+			while (true) {
+				/*
+				 * A lane may only come free once the work unit in it has
+				 * failed, so the run is checked for a stop after the wait
+				 */
+				int lane = acquireLane();
+				Callable<Byte> workUnit = null;
+				try {
+					if (!isStopped())
+						workUnit = workQueue.poll(lane);
+				} catch (InterruptedException | RuntimeException e) {
+					releaseLane(lane);
+					throw e;
+				}
+				if (workUnit == null) {
+					releaseLane(lane);
+					break;
+				}
+				futures.add(executor.submit(TimelineLanes.inLane(lane + 1, runInLane(workUnit, lane))));
+			}
+		} finally {
+			executor.shutdown();
+		}
+		byte result = 0;
+		for (Future<Byte> future : futures)
+			try {
+				result |= future.get();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof Exception)
+					throw (Exception) e.getCause();
+				throw new CucumberException(e.getCause());
+			}
+		return result;
+	}
+
+	private Callable<Byte> runInLane(final Callable<Byte> workUnit, final int lane) {
+		return () -> {
+			try {
+				return workUnit.call();
+			} finally {
+				releaseLane(lane);
+			}
+		};
+	}
+
+	private int acquireLane() throws InterruptedException {
+		freeLaneCount.acquire();
+		synchronized (this) {
+			/*
+			 * With an adaptive thread count fewer lanes than there are may be
+			 * in use, the count is checked again every so often as it grows
+			 */
+			while (threadCountController != null && runningWork >= threadCountController.getActiveThreads())
+				wait(THREAD_COUNT_RECHECK_MILLIS);
+			runningWork++;
+			return freeLanes.pollFirst();
+		}
+	}
+
+	private void releaseLane(int lane) {
+		synchronized (this) {
+			runningWork--;
+			freeLanes.add(lane);
+			notifyAll();
+		}
+		freeLaneCount.release();
+	}
+
+	private boolean isStopped() {
+		return failFastMonitor != null && failFastMonitor.isStopped();
+	}
+}
@@ -0,0 +1,64 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import cucumber.runtime.model.CucumberExamples;
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberScenario;
+import cucumber.runtime.model.CucumberScenarioOutline;
+import cucumber.runtime.model.CucumberTagStatement;
+
+public class WorkUnit {
+
+	private CucumberFeature feature;
+	private List<CucumberScenario> scenarios;
+
+	public WorkUnit(CucumberFeature feature, List<CucumberScenario> scenarios) {
+		this.feature = feature;
+		this.scenarios = scenarios;
+	}
+
+	public CucumberFeature getFeature() {
+		return feature;
+	}
+
+	public List<CucumberScenario> getScenarios() {
+		return scenarios;
+	}
+
+	public static List<WorkUnit> split(List<CucumberFeature> features, Granularity granularity) {
+		List<WorkUnit> workUnits = new ArrayList<WorkUnit>();
+		for (CucumberFeature feature : features) {
+			if (granularity == Granularity.FEATURE) {
+				List<CucumberScenario> featureScenarios = new ArrayList<CucumberScenario>();
+				for (CucumberTagStatement tagStatement : feature.getFeatureElements())
+					featureScenarios.addAll(expandScenarios(tagStatement));
+				workUnits.add(new WorkUnit(feature, featureScenarios));
+				continue;
+			}
+			for (CucumberTagStatement tagStatement : feature.getFeatureElements()) {
+				List<CucumberScenario> tagStatementScenarios = expandScenarios(tagStatement);
+				if (granularity == Granularity.EXAMPLE) {
+					for (CucumberScenario scenario : tagStatementScenarios)
+						workUnits.add(new WorkUnit(feature, Collections.singletonList(scenario)));
+				} else if (!tagStatementScenarios.isEmpty()) {
+					workUnits.add(new WorkUnit(feature, tagStatementScenarios));
+				}
+			}
+		}
+		return workUnits;
+	}
+
+	private static List<CucumberScenario> expandScenarios(CucumberTagStatement tagStatement) {
+		List<CucumberScenario> scenarios = new ArrayList<CucumberScenario>();
+		if (tagStatement instanceof CucumberScenarioOutline) {
+			for (CucumberExamples cucumberExamples : ((CucumberScenarioOutline) tagStatement).getCucumberExamplesList())
+				scenarios.addAll(cucumberExamples.createExampleScenarios());
+		} else if (tagStatement instanceof CucumberScenario) {
+			scenarios.add((CucumberScenario) tagStatement);
+		}
+		return scenarios;
+	}
+}
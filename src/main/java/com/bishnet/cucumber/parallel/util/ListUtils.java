@@ -2,7 +2,9 @@ package com.bishnet.cucumber.parallel.util;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.ToLongFunction;
 
 public class ListUtils {
 
@@ -27,4 +29,64 @@ public class ListUtils {
 
 		return partitionedList;
 	}
+
+	public static <T> List<List<T>> partitionByCost(List<T> sourceList, int numberOfSegments, ToLongFunction<T> costFunction) {
+		List<List<T>> partitionedList = new ArrayList<>();
+		if (sourceList.isEmpty()) {
+			partitionedList.add(Collections.<T> emptyList());
+			return partitionedList;
+		}
+
+		int actualNumberOfSegments = Math.min(sourceList.size(), numberOfSegments);
+		long[] segmentCosts = new long[actualNumberOfSegments];
+
+		for (int i = 0; i < actualNumberOfSegments; i++)
+			partitionedList.add(new ArrayList<T>());
+
+		/*
+		 * Longest processing time first: each element, most costly first, goes
+		 * to the segment with the lowest total cost so far
+		 */
+		long[] costs = getCosts(sourceList, costFunction);
+		for (int sourceElementIndex : getIndicesByCostDescending(costs)) {
+			int cheapestSegmentIndex = 0;
+			for (int i = 1; i < actualNumberOfSegments; i++)
+				if (segmentCosts[i] < segmentCosts[cheapestSegmentIndex])
+					cheapestSegmentIndex = i;
+			partitionedList.get(cheapestSegmentIndex).add(sourceList.get(sourceElementIndex));
+			segmentCosts[cheapestSegmentIndex] += costs[sourceElementIndex];
+		}
+
+		return partitionedList;
+	}
+
+	public static <T> List<T> sortByCostDescending(List<T> sourceList, ToLongFunction<T> costFunction) {
+		List<T> sortedList = new ArrayList<>();
+		for (int sourceElementIndex : getIndicesByCostDescending(getCosts(sourceList, costFunction)))
+			sortedList.add(sourceList.get(sourceElementIndex));
+		return sortedList;
+	}
+
+	private static <T> long[] getCosts(List<T> sourceList, ToLongFunction<T> costFunction) {
+		long[] costs = new long[sourceList.size()];
+		int sourceElementIndex = 0;
+		for (T sourceElement : sourceList) {
+			costs[sourceElementIndex] = costFunction.applyAsLong(sourceElement);
+			sourceElementIndex++;
+		}
+		return costs;
+	}
+
+	private static List<Integer> getIndicesByCostDescending(final long[] costs) {
+		List<Integer> indices = new ArrayList<>();
+		for (int i = 0; i < costs.length; i++)
+			indices.add(i);
+		Collections.sort(indices, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer first, Integer second) {
+				return Long.compare(costs[second], costs[first]);
+			}
+		});
+		return indices;
+	}
 }
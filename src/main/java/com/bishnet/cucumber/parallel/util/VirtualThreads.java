@@ -0,0 +1,46 @@
+package com.bishnet.cucumber.parallel.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+public class VirtualThreads {
+
+	private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+
+	private VirtualThreads() {
+	}
+
+	public static boolean isSupported() {
+		return OF_VIRTUAL != null;
+	}
+
+	public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+		/*
+		 * The project is built for Java 8, so the Java 21 API is looked up
+		 * through the public Thread.Builder interface rather than called
+		 */
+		try {
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Object builder = OF_VIRTUAL.invoke(null);
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+			ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+			return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+					.invoke(null, threadFactory);
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException(e.getCause());
+		} catch (ReflectiveOperationException e) {
+			throw new UnsupportedOperationException("Virtual threads need Java 21 or later", e);
+		}
+	}
+
+	private static Method findMethod(Class<?> type, String name) {
+		try {
+			return type.getMethod(name);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+}
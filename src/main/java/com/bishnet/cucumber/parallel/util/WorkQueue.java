@@ -0,0 +1,6 @@
+package com.bishnet.cucumber.parallel.util;
+
+public interface WorkQueue<T> {
+
+	T poll(int workerIndex) throws InterruptedException;
+}
@@ -0,0 +1,37 @@
+package com.bishnet.cucumber.parallel.util;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+public class WorkStealingQueue<T> implements WorkQueue<T> {
+
+	private List<Deque<T>> workerDeques = new ArrayList<Deque<T>>();
+
+	public WorkStealingQueue(List<T> workItems, int numberOfWorkers) {
+		for (int i = 0; i < numberOfWorkers; i++)
+			workerDeques.add(new ConcurrentLinkedDeque<T>());
+		int workItemIndex = 0;
+		for (T workItem : workItems) {
+			workerDeques.get(workItemIndex % numberOfWorkers).addLast(workItem);
+			workItemIndex++;
+		}
+	}
+
+	public int getNumberOfWorkers() {
+		return workerDeques.size();
+	}
+
+	@Override
+	public T poll(int workerIndex) {
+		/*
+		 * Workers take from the head of their own deque and steal from the
+		 * tail of the others so owner and thief only meet on the last item
+		 */
+		T workItem = workerDeques.get(workerIndex).pollFirst();
+		for (int offset = 1; workItem == null && offset < workerDeques.size(); offset++)
+			workItem = workerDeques.get((workerIndex + offset) % workerDeques.size()).pollLast();
+		return workItem;
+	}
+}
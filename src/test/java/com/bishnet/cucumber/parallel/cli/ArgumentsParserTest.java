@@ -8,7 +8,10 @@ import java.util.List;
 
 import org.junit.Test;
 
+import com.bishnet.cucumber.parallel.runtime.ExecutorMode;
+import com.bishnet.cucumber.parallel.runtime.Granularity;
 import com.bishnet.cucumber.parallel.runtime.RuntimeConfiguration;
+import com.bishnet.cucumber.parallel.runtime.SchedulingMode;
 
 public class ArgumentsParserTest {
 
@@ -294,4 +297,302 @@ public class ArgumentsParserTest {
 		assertThat(runtimeConfiguration.threadTimelineReportPath.toString()).isEqualTo(REPORT_THREADREPORT);
 	}
 
+	@Test
+	public void schedulingModeShouldBeStaticWhenNotSpecified() {
+		List<String> emptyArgList = new ArrayList<String>();
+		ArgumentsParser argumentsParser = new ArgumentsParser(emptyArgList);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.schedulingMode).isEqualTo(SchedulingMode.STATIC);
+	}
+
+	@Test
+	public void schedulingModeCanBeSetByAnArgumentAndIsNotPassedThroughToCucumberArgsList() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--scheduler");
+		arguments.add("dynamic");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.schedulingMode).isEqualTo(SchedulingMode.DYNAMIC);
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void durationHistoryPathIsParsedFromArgumentAndIsNotPassedThroughToCucumberArgsList() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--duration-history");
+		arguments.add(REPORT_MYREPORT_JSON);
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.durationHistoryPath.toString()).isEqualTo(REPORT_MYREPORT_JSON);
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void durationHistoryPathShouldBeNullWhenNotSpecified() {
+		ArgumentsParser argumentsParser = new ArgumentsParser(new ArrayList<String>());
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.durationHistoryPath).isNull();
+	}
+
+	@Test
+	public void granularityShouldBeFeatureWhenNotSpecified() {
+		ArgumentsParser argumentsParser = new ArgumentsParser(new ArrayList<String>());
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.granularity).isEqualTo(Granularity.FEATURE);
+	}
+
+	@Test
+	public void granularityCanBeSetByAnArgumentAndIsNotPassedThroughToCucumberArgsList() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--granularity");
+		arguments.add("example");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.granularity).isEqualTo(Granularity.EXAMPLE);
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void numberOfForksShouldBeZeroWhenNotSpecified() {
+		ArgumentsParser argumentsParser = new ArgumentsParser(new ArrayList<String>());
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.numberOfForks).isEqualTo(0);
+	}
+
+	@Test
+	public void numberOfForksCanBeSetByAnArgumentAndReplacesNumberOfThreads() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--num-threads");
+		arguments.add("2");
+		arguments.add("--fork");
+		arguments.add("6");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.numberOfForks).isEqualTo(6);
+		assertThat(runtimeConfiguration.numberOfThreads).isEqualTo(6);
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void coordinatorPortCanBeSetByAnArgumentAndSelectsTheDynamicScheduler() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--coordinator");
+		arguments.add("7000");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.coordinatorPort).isEqualTo(7000);
+		assertThat(runtimeConfiguration.coordinatorBindAddress).isNull();
+		assertThat(runtimeConfiguration.schedulingMode).isEqualTo(SchedulingMode.DYNAMIC);
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void coordinatorBindAddressCanBeGivenInFrontOfThePort() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--coordinator");
+		arguments.add("10.0.0.5:7000");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.coordinatorBindAddress).isEqualTo("10.0.0.5");
+		assertThat(runtimeConfiguration.coordinatorPort).isEqualTo(7000);
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void coordinatorAddressCanBeSetByAnArgumentAndIsNotPassedThroughToCucumberArgsList() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--agent");
+		arguments.add("build-host:7000");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.coordinatorAddress).isEqualTo("build-host:7000");
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void agentTokenCanBeSetByAnArgumentAndIsNotPassedThroughToCucumberArgsList() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--agent-token");
+		arguments.add("secret");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.agentToken).isEqualTo("secret");
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void shardCanBeSetByAnArgumentAndIsNotPassedThroughToCucumberArgsList() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--shard");
+		arguments.add("2/8");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.shardIndex).isEqualTo(2);
+		assertThat(runtimeConfiguration.shardCount).isEqualTo(8);
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shardIndexOutsideTheNumberOfShardsShouldBeRejected() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--shard");
+		arguments.add("9/8");
+		new ArgumentsParser(arguments).parse();
+	}
+
+	@Test
+	public void retryCountCanBeSetByAnArgumentAndIsNotPassedThroughToCucumberArgsList() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--retry");
+		arguments.add("2");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.retryCount).isEqualTo(2);
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void failFastWithoutAThresholdShouldStopAfterTheFirstFailure() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--fail-fast");
+		arguments.add("path/to/features");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.failFastThreshold).isEqualTo(1);
+		assertThat(runtimeConfiguration.featurePaths).containsExactly("path/to/features");
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void failFastThresholdCanBeSetByAnArgument() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--fail-fast");
+		arguments.add("5");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.failFastThreshold).isEqualTo(5);
+		assertThat(runtimeConfiguration.featurePaths).isEmpty();
+	}
+
+
+	@Test
+	public void autoNumberOfThreadsShouldAdaptBetweenTheRangeGivenWithTheDynamicScheduler() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--num-threads");
+		arguments.add("auto:2-12");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.isThreadCountAdaptive()).isTrue();
+		assertThat(runtimeConfiguration.minimumThreads).isEqualTo(2);
+		assertThat(runtimeConfiguration.maximumThreads).isEqualTo(12);
+		assertThat(runtimeConfiguration.numberOfThreads).isBetween(2, 12);
+		assertThat(runtimeConfiguration.schedulingMode).isEqualTo(SchedulingMode.DYNAMIC);
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void autoNumberOfThreadsWithoutARangeShouldAllowUpToFourThreadsPerCore() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--num-threads");
+		arguments.add("auto");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.minimumThreads).isEqualTo(1);
+		assertThat(runtimeConfiguration.maximumThreads).isEqualTo(Runtime.getRuntime().availableProcessors() * 4);
+		assertThat(runtimeConfiguration.numberOfThreads).isEqualTo(Runtime.getRuntime().availableProcessors());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void autoNumberOfThreadsWithADecreasingRangeShouldBeRejected() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--num-threads");
+		arguments.add("auto:8-2");
+		new ArgumentsParser(arguments).parse();
+	}
+
+	@Test
+	public void heapPressureThresholdCanBeSetByAnArgumentAndSelectsTheDynamicScheduler() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--heap-pressure");
+		arguments.add("85");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.heapPressureThreshold).isEqualTo(85);
+		assertThat(runtimeConfiguration.schedulingMode).isEqualTo(SchedulingMode.DYNAMIC);
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void executorModeShouldBePlatformWhenNotSpecified() {
+		List<String> emptyArgList = new ArrayList<String>();
+		ArgumentsParser argumentsParser = new ArgumentsParser(emptyArgList);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.executorMode).isEqualTo(ExecutorMode.PLATFORM);
+	}
+
+	@Test
+	public void executorModeCanBeSetByAnArgumentAndIsNotPassedThroughToCucumberArgsList() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--executor");
+		arguments.add("virtual");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.executorMode).isEqualTo(ExecutorMode.VIRTUAL);
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void glueIndexPathCanBeSetByAnArgumentAndIsNotPassedThroughToCucumberArgsList() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--glue-index");
+		arguments.add("target/glue-index.json");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.glueIndexPath).isEqualTo(new File("target/glue-index.json").toPath());
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void streamingShouldUseDynamicSchedulingAndIsNotPassedThroughToCucumberArgsList() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--stream");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.streamFeatures).isTrue();
+		assertThat(runtimeConfiguration.schedulingMode).isEqualTo(SchedulingMode.DYNAMIC);
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void bufferOutputShouldBeOffUnlessAskedForAndIsNotPassedThroughToCucumberArgsList() {
+		assertThat(new ArgumentsParser(new ArrayList<String>()).parse().bufferOutput).isFalse();
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--buffer-output");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.bufferOutput).isTrue();
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
+
+	@Test
+	public void streamingShouldBeTurnedOffWhenRunningAShard() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--stream");
+		arguments.add("--shard");
+		arguments.add("1/2");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.streamFeatures).isFalse();
+	}
+
+	@Test
+	public void workspacePathCanBeSetByAnArgumentAndIsNotPassedThroughToCucumberArgsList() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--workspace");
+		arguments.add("/dev/shm/cukes");
+		ArgumentsParser argumentsParser = new ArgumentsParser(arguments);
+		RuntimeConfiguration runtimeConfiguration = argumentsParser.parse();
+		assertThat(runtimeConfiguration.workspacePath).isEqualTo(new File("/dev/shm/cukes").toPath());
+		assertThat(runtimeConfiguration.cucumberPassthroughArguments).isEmpty();
+	}
 }
@@ -0,0 +1,48 @@
+package com.bishnet.cucumber.parallel.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DurationStoreTest {
+
+	private DurationStore durationStore;
+
+	@Before
+	public void setUp() throws IOException, URISyntaxException {
+		Path durationReport = Paths.get(getClass().getResource("durationReport.json").toURI());
+		durationStore = new DurationStore();
+		durationStore.addReport(durationReport);
+	}
+
+	@Test
+	public void scenarioDurationShouldIncludeHooksStepsAndPrecedingBackground() {
+		assertThat(durationStore.getScenarioDuration("sample-scenarios;basic-navigation")).isEqualTo(110L);
+	}
+
+	@Test
+	public void stepsWithoutADurationShouldNotAddToTheScenarioDuration() {
+		assertThat(durationStore.getScenarioDuration("sample-scenarios;backwards-navigation")).isEqualTo(50L);
+	}
+
+	@Test
+	public void unknownScenarioShouldHaveNoDuration() {
+		assertThat(durationStore.getScenarioDuration("sample-scenarios;goto-navigation")).isNull();
+	}
+
+	@Test
+	public void averageStepDurationShouldBeCalculatedOverAllRecordedSteps() {
+		assertThat(durationStore.getAverageStepDuration()).isEqualTo(25L);
+	}
+
+	@Test
+	public void averageStepDurationOfAnEmptyStoreShouldBeOne() {
+		assertThat(new DurationStore().getAverageStepDuration()).isEqualTo(1L);
+	}
+}
@@ -0,0 +1,77 @@
+package com.bishnet.cucumber.parallel.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FailedScenarioCollectorTest {
+
+	private static final String REPORT = "[{\"elements\":["
+			+ "{\"line\":3,\"type\":\"scenario\",\"steps\":[{\"result\":{\"status\":\"passed\"}}]},"
+			+ "{\"line\":2,\"type\":\"background\",\"steps\":[{\"result\":{\"status\":\"failed\"}}]},"
+			+ "{\"line\":7,\"type\":\"scenario\",\"steps\":[{\"result\":{\"status\":\"skipped\"}}]},"
+			+ "{\"line\":12,\"type\":\"scenario\",\"steps\":[{\"result\":{\"status\":\"passed\"}}],"
+			+ "\"after\":[{\"result\":{\"status\":\"failed\"}}]},"
+			+ "{\"line\":15,\"type\":\"scenario\",\"steps\":[{\"result\":{\"status\":\"undefined\"}}]}"
+			+ "],\"uri\":\"a.feature\"}]";
+
+	private Path reportDirectory;
+
+	@Before
+	public void setUp() throws IOException {
+		reportDirectory = Files.createTempDirectory("tempTestFailedScenarios");
+	}
+
+	@After
+	public void teardown() throws IOException {
+		FileUtils.deleteDirectory(reportDirectory.toFile());
+	}
+
+	@Test
+	public void scenariosWithAFailedStepHookOrBackgroundShouldBeCollected() throws IOException {
+		FailedScenarioCollector failedScenarioCollector = new FailedScenarioCollector(false);
+		failedScenarioCollector.addReport(writeReport(REPORT));
+		assertThat(failedScenarioCollector.getFailedScenarios()).containsOnlyKeys("a.feature");
+		assertThat(failedScenarioCollector.getFailedScenarios().get("a.feature")).isEqualTo(Arrays.asList(7, 12));
+		assertThat(failedScenarioCollector.hasFailed("a.feature", 3)).isFalse();
+		assertThat(failedScenarioCollector.getScenarioElements("a.feature", 7)).isNull();
+	}
+
+	@Test
+	public void undefinedStepsShouldOnlyFailScenariosWhenStrict() throws IOException {
+		FailedScenarioCollector failedScenarioCollector = new FailedScenarioCollector(true);
+		failedScenarioCollector.addReport(writeReport(REPORT));
+		assertThat(failedScenarioCollector.getFailedScenarios().get("a.feature")).isEqualTo(Arrays.asList(7, 12, 15));
+	}
+
+	@Test
+	public void keptScenarioElementsShouldIncludeTheBackgroundTheScenarioRanWith() throws IOException {
+		FailedScenarioCollector failedScenarioCollector = new FailedScenarioCollector(false, true);
+		failedScenarioCollector.addReport(writeReport(REPORT));
+		assertThat(failedScenarioCollector.getScenarioElements("a.feature", 3)).hasSize(1);
+		assertThat(failedScenarioCollector.getScenarioElements("a.feature", 7)).hasSize(2);
+	}
+
+	@Test
+	public void emptyReportsShouldBeIgnored() throws IOException {
+		FailedScenarioCollector failedScenarioCollector = new FailedScenarioCollector(false);
+		failedScenarioCollector.addReport(writeReport(""));
+		failedScenarioCollector.addReport((Path) null);
+		assertThat(failedScenarioCollector.getFailedScenarios()).isEmpty();
+	}
+
+	private Path writeReport(String json) throws IOException {
+		Path report = Files.createTempFile(reportDirectory, "report", ".json");
+		Files.write(report, json.getBytes(StandardCharsets.UTF_8));
+		return report;
+	}
+}
@@ -0,0 +1,88 @@
+package com.bishnet.cucumber.parallel.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HtmlReportMergerTest {
+
+	private Path reportDirectory;
+
+	@Before
+	public void setUp() throws IOException {
+		reportDirectory = Files.createTempDirectory("tempTestHtmlReport");
+	}
+
+	@After
+	public void teardown() throws IOException {
+		FileUtils.deleteDirectory(reportDirectory.toFile());
+	}
+
+	@Test
+	public void identicalImagesFromDifferentReportsShouldBeMergedIntoOneFile() throws IOException {
+		Path firstReport = writeReport("first", "embedded0.png", "same");
+		Path secondReport = writeReport("second", "embedded0.png", "same");
+		Path mergedReport = reportDirectory.resolve("merged");
+		new HtmlReportMerger(Arrays.asList(firstReport, secondReport)).merge(mergedReport);
+		assertThat(getImages(mergedReport).size()).isEqualTo(1);
+	}
+
+	@Test
+	public void everyImageReferenceShouldBeRewrittenToTheMergedImage() throws IOException {
+		Path firstReport = writeReport("first", "embedded0.png", "first");
+		Path secondReport = writeReport("second", "embedded0.png", "second");
+		Path mergedReport = reportDirectory.resolve("merged");
+		new HtmlReportMerger(Arrays.asList(firstReport, secondReport)).merge(mergedReport);
+		List<String> images = getImages(mergedReport);
+		assertThat(images.size()).isEqualTo(2);
+		List<String> reportJs = Files.readAllLines(mergedReport.resolve("report.js"), StandardCharsets.UTF_8);
+		assertThat(reportJs.size()).isEqualTo(2);
+		for (String line : reportJs)
+			assertThat(line).doesNotContain("embedded0.png");
+		assertThat(reportJs.get(0) + reportJs.get(1)).contains(images.get(0)).contains(images.get(1));
+		assertThat(Files.exists(mergedReport.resolve("style.css"))).isTrue();
+	}
+
+	@Test
+	public void reportsShouldBeLeftInPlaceUnlessTheirImagesMayBeMoved() throws IOException {
+		Path firstReport = writeReport("first", "embedded0.png", "first");
+		Path secondReport = writeReport("second", "embedded0.png", "second");
+		Path mergedReport = reportDirectory.resolve("merged");
+		new HtmlReportMerger(Arrays.asList(firstReport, secondReport), false).merge(mergedReport);
+		assertThat(getImages(mergedReport).size()).isEqualTo(2);
+		assertThat(Files.readAllBytes(firstReport.resolve("embedded0.png"))).isEqualTo(
+				"first".getBytes(StandardCharsets.UTF_8));
+		assertThat(Files.readAllBytes(secondReport.resolve("embedded0.png"))).isEqualTo(
+				"second".getBytes(StandardCharsets.UTF_8));
+	}
+
+	private Path writeReport(String name, String imageName, String imageContent) throws IOException {
+		Path report = Files.createDirectories(reportDirectory.resolve(name));
+		Files.write(report.resolve(imageName), imageContent.getBytes(StandardCharsets.UTF_8));
+		Files.write(report.resolve("report.js"),
+				("formatter.embedding(\"image/png\", \"" + imageName + "\");").getBytes(StandardCharsets.UTF_8));
+		Files.write(report.resolve("style.css"), "body {}".getBytes(StandardCharsets.UTF_8));
+		return report;
+	}
+
+	private List<String> getImages(Path mergedReport) throws IOException {
+		List<String> images = new ArrayList<String>();
+		try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(mergedReport, "*.png")) {
+			for (Path image : dirStream)
+				images.add(image.getFileName().toString());
+		}
+		return images;
+	}
+}
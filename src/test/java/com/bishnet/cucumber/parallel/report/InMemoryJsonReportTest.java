@@ -0,0 +1,147 @@
+package com.bishnet.cucumber.parallel.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cucumber.runtime.formatter.CucumberJSONFormatter;
+import gherkin.deps.com.google.gson.stream.JsonReader;
+import gherkin.formatter.Formatter;
+import gherkin.formatter.Reporter;
+import gherkin.formatter.model.Comment;
+import gherkin.formatter.model.Feature;
+import gherkin.formatter.model.Match;
+import gherkin.formatter.model.Result;
+import gherkin.formatter.model.Scenario;
+import gherkin.formatter.model.Step;
+import gherkin.formatter.model.Tag;
+
+public class InMemoryJsonReportTest {
+
+	private Path reportDirectory;
+
+	@Before
+	public void setUp() throws IOException {
+		reportDirectory = Files.createTempDirectory("tempTestInMemoryJsonReport");
+	}
+
+	@After
+	public void teardown() throws IOException {
+		FileUtils.deleteDirectory(reportDirectory.toFile());
+	}
+
+	@Test
+	public void reportShouldBeEmptyUntilTheRuntimeIsDone() throws IOException {
+		InMemoryJsonReport jsonReport = new InMemoryJsonReport();
+		formatFeature(jsonReport);
+		assertThat(jsonReport.isEmpty()).isTrue();
+		jsonReport.done();
+		assertThat(jsonReport.isEmpty()).isFalse();
+	}
+
+	@Test
+	public void mergedReportShouldMatchTheOneMergedFromAWrittenReport() throws IOException {
+		InMemoryJsonReport inMemoryReport = new InMemoryJsonReport();
+		formatFeature(inMemoryReport);
+		inMemoryReport.done();
+		Path writtenReport = reportDirectory.resolve("written.json");
+		try (Writer writer = Files.newBufferedWriter(writtenReport, StandardCharsets.UTF_8)) {
+			CucumberJSONFormatter fileFormatter = new CucumberJSONFormatter(writer);
+			formatFeature(fileFormatter);
+			fileFormatter.done();
+		}
+
+		Path mergedFromMemory = reportDirectory.resolve("mergedFromMemory.json");
+		JsonReportMerger memoryMerger = new JsonReportMerger(Collections.<String, Integer> emptyMap());
+		memoryMerger.open(mergedFromMemory);
+		memoryMerger.addReport(inMemoryReport);
+		memoryMerger.close();
+		Path mergedFromFile = reportDirectory.resolve("mergedFromFile.json");
+		new JsonReportMerger(Collections.singletonList(writtenReport)).merge(mergedFromFile);
+
+		String mergedJson = new String(Files.readAllBytes(mergedFromMemory), StandardCharsets.UTF_8);
+		assertThat(mergedJson).contains("\"uri\": \"a.feature\"").contains("\"duration\": 1500000000");
+		assertThat(mergedJson).isEqualTo(new String(Files.readAllBytes(mergedFromFile), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void aReportLargerThanTheSpillLengthShouldBeReadFromTheWorkspace() throws IOException {
+		InMemoryJsonReport jsonReport = new InMemoryJsonReport(reportDirectory, 10);
+		formatFeature(jsonReport);
+		jsonReport.done();
+		jsonReport.close();
+		assertThat(jsonReport.isSpilled()).isTrue();
+		assertThat(jsonReport.isEmpty()).isFalse();
+		assertThat(reportDirectory.toFile().list()).hasSize(1);
+		FailedScenarioCollector failedScenarioCollector = new FailedScenarioCollector(false);
+		failedScenarioCollector.addReport(jsonReport);
+		assertThat(failedScenarioCollector.hasFailed("a.feature", 3)).isTrue();
+	}
+
+	@Test
+	public void aSpilledReportShouldBeReadBackAsUtf8() throws IOException {
+		InMemoryJsonReport jsonReport = new InMemoryJsonReport(reportDirectory, 10);
+		jsonReport.uri("a.feature");
+		jsonReport.feature(new Feature(Collections.<Comment> emptyList(), Collections.<Tag> emptyList(), "Feature",
+				"Gr\u00f6\u00dfe \u2713", "", 1, "a"));
+		jsonReport.eof();
+		jsonReport.done();
+		assertThat(jsonReport.isSpilled()).isTrue();
+		try (JsonReader reader = jsonReport.openReader()) {
+			reader.beginArray();
+			reader.beginObject();
+			String name = null;
+			while (reader.hasNext()) {
+				if (reader.nextName().equals("name"))
+					name = reader.nextString();
+				else
+					reader.skipValue();
+			}
+			assertThat(name).isEqualTo("Gr\u00f6\u00dfe \u2713");
+		}
+	}
+
+	@Test
+	public void aReportWithinTheSpillLengthShouldStayInMemory() throws IOException {
+		InMemoryJsonReport jsonReport = new InMemoryJsonReport(reportDirectory, Integer.MAX_VALUE);
+		formatFeature(jsonReport);
+		jsonReport.done();
+		assertThat(jsonReport.isSpilled()).isFalse();
+		assertThat(reportDirectory.toFile().list()).isEmpty();
+	}
+
+	@Test
+	public void failedScenariosShouldBeCollectedFromTheReportInMemory() throws IOException {
+		InMemoryJsonReport jsonReport = new InMemoryJsonReport();
+		formatFeature(jsonReport);
+		jsonReport.done();
+		FailedScenarioCollector failedScenarioCollector = new FailedScenarioCollector(false);
+		failedScenarioCollector.addReport(jsonReport);
+		assertThat(failedScenarioCollector.hasFailed("a.feature", 3)).isTrue();
+	}
+
+	private <T extends Formatter & Reporter> void formatFeature(T formatter) {
+		formatter.uri("a.feature");
+		formatter.feature(new Feature(Collections.<Comment> emptyList(), Collections.<Tag> emptyList(), "Feature",
+				"A", "", 1, "a"));
+		Scenario scenario = new Scenario(Collections.<Comment> emptyList(), Collections.<Tag> emptyList(),
+				"Scenario", "Fails", "", 3, "a;fails");
+		formatter.startOfScenarioLifeCycle(scenario);
+		formatter.scenario(scenario);
+		formatter.step(new Step(Collections.<Comment> emptyList(), "Given ", "it fails", 4, null, null));
+		formatter.match(new Match(Collections.emptyList(), "Steps.fails()"));
+		formatter.result(new Result(Result.FAILED, 1500000000L, "failed on purpose"));
+		formatter.endOfScenarioLifeCycle(scenario);
+		formatter.eof();
+	}
+}
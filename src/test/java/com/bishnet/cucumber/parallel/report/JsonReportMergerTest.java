@@ -0,0 +1,140 @@
+package com.bishnet.cucumber.parallel.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import gherkin.deps.com.google.gson.Gson;
+import gherkin.deps.com.google.gson.reflect.TypeToken;
+
+public class JsonReportMergerTest {
+
+	private Path reportDirectory;
+
+	@Before
+	public void setUp() throws IOException {
+		reportDirectory = Files.createTempDirectory("tempTestJsonReport");
+	}
+
+	@After
+	public void teardown() throws IOException {
+		FileUtils.deleteDirectory(reportDirectory.toFile());
+	}
+
+	@Test
+	public void featuresFromDifferentReportsShouldAllBeInTheMergedReport() throws IOException {
+		Path firstReport = writeReport("first.json", "[{\"uri\":\"a.feature\",\"elements\":[{\"id\":\"a;1\",\"line\":3}]}]");
+		Path secondReport = writeReport("second.json", "[{\"uri\":\"b.feature\",\"elements\":[{\"id\":\"b;1\",\"line\":3}]}]");
+		List<Map<String, Object>> mergedFeatures = merge(firstReport, secondReport);
+		assertThat(mergedFeatures.size()).isEqualTo(2);
+		assertThat(mergedFeatures.get(0).get("uri")).isEqualTo("a.feature");
+		assertThat(mergedFeatures.get(1).get("uri")).isEqualTo("b.feature");
+	}
+
+	@Test
+	public void partsOfASplitFeatureShouldBeJoinedInLineOrderKeepingBackgroundsInFrontOfTheirScenario()
+			throws IOException {
+		Path firstReport = writeReport("first.json", "[{\"uri\":\"a.feature\",\"elements\":["
+				+ "{\"type\":\"background\",\"line\":2},{\"id\":\"a;3\",\"type\":\"scenario\",\"line\":12},"
+				+ "{\"type\":\"background\",\"line\":2},{\"id\":\"a;1\",\"type\":\"scenario\",\"line\":4}]}]");
+		Path secondReport = writeReport("second.json", "[{\"uri\":\"a.feature\",\"elements\":["
+				+ "{\"type\":\"background\",\"line\":2},{\"id\":\"a;2\",\"type\":\"scenario\",\"line\":8}]}]");
+		List<Map<String, Object>> mergedFeatures = merge(firstReport, secondReport);
+		assertThat(mergedFeatures.size()).isEqualTo(1);
+		List<Object> elementIds = new ArrayList<Object>();
+		for (Object element : (List<?>) mergedFeatures.get(0).get("elements"))
+			elementIds.add(((Map<?, ?>) element).get("id"));
+		assertThat(elementIds).containsExactly(null, "a;1", null, "a;2", null, "a;3");
+	}
+
+	@Test
+	public void mergedReportShouldKeepEveryValueAndWriteWholeNumbersWithoutAFraction() throws IOException {
+		Path firstReport = writeReport("first.json", "[{\"uri\":\"a.feature\",\"elements\":[{\"id\":\"a;1\",\"line\":3,"
+				+ "\"steps\":[{\"result\":{\"duration\":1.5E9,\"status\":\"passed\"},\"embeddings\":[{\"data\":\"iVBOR\"}],"
+				+ "\"matched\":true}]}]}]");
+		String mergedJson = mergeToString(firstReport);
+		assertThat(mergedJson).contains("\"duration\": 1500000000").contains("\"data\": \"iVBOR\"")
+				.contains("\"matched\": true");
+	}
+
+	@Test
+	public void reportsWithoutAnyFeaturesShouldBeIgnored() throws IOException {
+		Path firstReport = writeReport("first.json", "");
+		Path secondReport = writeReport("second.json", "[]");
+		Path thirdReport = writeReport("third.json", "[{\"uri\":\"a.feature\",\"elements\":[{\"id\":\"a;1\",\"line\":3}]}]");
+		assertThat(merge(firstReport, secondReport, thirdReport).size()).isEqualTo(1);
+	}
+
+	@Test
+	public void incrementallyAddedReportsShouldJoinASplitFeatureOnceAllItsPartsHaveArrived() throws IOException {
+		Path firstReport = writeReport("first.json", "[{\"uri\":\"a.feature\",\"elements\":[{\"id\":\"a;2\",\"line\":8}]},"
+				+ "{\"uri\":\"b.feature\",\"elements\":[{\"id\":\"b;1\",\"line\":3}]}]");
+		Path secondReport = writeReport("second.json", "[{\"uri\":\"a.feature\",\"elements\":[{\"id\":\"a;1\",\"line\":4}]}]");
+		Map<String, Integer> featurePartCounts = new HashMap<String, Integer>();
+		featurePartCounts.put("a.feature", 2);
+		featurePartCounts.put("b.feature", 1);
+		Path mergedReport = reportDirectory.resolve("merged").resolve("report.json");
+		JsonReportMerger merger = new JsonReportMerger(featurePartCounts);
+		merger.open(mergedReport);
+		merger.addReport(firstReport);
+		assertThat(merger.getWaitingFeatureCount()).isEqualTo(1);
+		merger.addReport(secondReport);
+		assertThat(merger.getWaitingFeatureCount()).isEqualTo(0);
+		merger.close();
+		List<Map<String, Object>> mergedFeatures = readReport(mergedReport);
+		assertThat(mergedFeatures.size()).isEqualTo(2);
+		assertThat(mergedFeatures.get(0).get("uri")).isEqualTo("b.feature");
+		assertThat(mergedFeatures.get(1).get("uri")).isEqualTo("a.feature");
+		assertThat(((List<?>) mergedFeatures.get(1).get("elements")).size()).isEqualTo(2);
+	}
+
+	@Test
+	public void closingShouldWriteASplitFeatureWithThePartsThatArrived() throws IOException {
+		Path firstReport = writeReport("first.json", "[{\"uri\":\"a.feature\",\"elements\":[{\"id\":\"a;2\",\"line\":8}]}]");
+		Path mergedReport = reportDirectory.resolve("merged").resolve("report.json");
+		JsonReportMerger merger = new JsonReportMerger(Collections.singletonMap("a.feature", 2));
+		merger.open(mergedReport);
+		merger.addReport(firstReport);
+		merger.close();
+		assertThat(readReport(mergedReport).size()).isEqualTo(1);
+	}
+
+	private List<Map<String, Object>> merge(Path... reports) throws IOException {
+		return parseReport(mergeToString(reports));
+	}
+
+	private List<Map<String, Object>> readReport(Path mergedReport) throws IOException {
+		return parseReport(new String(Files.readAllBytes(mergedReport), StandardCharsets.UTF_8));
+	}
+
+	private List<Map<String, Object>> parseReport(String mergedJson) {
+		return new Gson().fromJson(mergedJson, new TypeToken<List<Map<String, Object>>>() {
+		}.getType());
+	}
+
+	private String mergeToString(Path... reports) throws IOException {
+		Path mergedReport = reportDirectory.resolve("merged").resolve("report.json");
+		new JsonReportMerger(Arrays.asList(reports)).merge(mergedReport);
+		return new String(Files.readAllBytes(mergedReport), StandardCharsets.UTF_8);
+	}
+
+	private Path writeReport(String fileName, String json) throws IOException {
+		Path report = reportDirectory.resolve(fileName);
+		Files.write(report, json.getBytes(StandardCharsets.UTF_8));
+		return report;
+	}
+}
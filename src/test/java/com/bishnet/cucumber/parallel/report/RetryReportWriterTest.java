@@ -0,0 +1,100 @@
+package com.bishnet.cucumber.parallel.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import gherkin.deps.com.google.gson.Gson;
+import gherkin.deps.com.google.gson.reflect.TypeToken;
+
+public class RetryReportWriterTest {
+
+	private Path reportDirectory;
+
+	@Before
+	public void setUp() throws IOException {
+		reportDirectory = Files.createTempDirectory("tempTestRetryReport");
+	}
+
+	@After
+	public void teardown() throws IOException {
+		FileUtils.deleteDirectory(reportDirectory.toFile());
+	}
+
+	@Test
+	public void retriedScenariosShouldBeReplacedByTheirLastAttemptAndMarked() throws IOException {
+		Path firstRunReport = writeReport("first.json", "[{\"elements\":["
+				+ "{\"line\":2,\"type\":\"background\",\"name\":\"first\"},"
+				+ "{\"line\":4,\"type\":\"scenario\",\"name\":\"first\"},"
+				+ "{\"line\":2,\"type\":\"background\",\"name\":\"first\"},"
+				+ "{\"line\":8,\"type\":\"scenario\",\"name\":\"first\"},"
+				+ "{\"line\":2,\"type\":\"background\",\"name\":\"first\"},"
+				+ "{\"line\":12,\"type\":\"scenario\",\"name\":\"first\"}"
+				+ "],\"uri\":\"a.feature\"}]");
+		Path attemptReport = writeReport("attempt.json", "[{\"uri\":\"a.feature\",\"elements\":["
+				+ "{\"line\":2,\"type\":\"background\",\"name\":\"retry\"},"
+				+ "{\"line\":8,\"type\":\"scenario\",\"name\":\"retry\"},"
+				+ "{\"line\":2,\"type\":\"background\",\"name\":\"retry\"},"
+				+ "{\"line\":12,\"type\":\"scenario\",\"name\":\"retry\"}]}]");
+		FailedScenarioCollector attemptResults = new FailedScenarioCollector(false, true);
+		attemptResults.addReport(attemptReport);
+		RetryReportWriter retryReportWriter = new RetryReportWriter();
+		retryReportWriter.addRetriedScenario("a.feature", 8, attemptResults.getScenarioElements("a.feature", 8), 2, true);
+		retryReportWriter.addRetriedScenario("a.feature", 12, attemptResults.getScenarioElements("a.feature", 12), 3,
+				false);
+		Path mergedReport = reportDirectory.resolve("merged").resolve("report.json");
+		retryReportWriter.write(firstRunReport, mergedReport);
+
+		List<Map<String, Object>> elements = readElements(mergedReport);
+		assertThat(elements).hasSize(6);
+		assertThat(elements.get(0).get("name")).isEqualTo("first");
+		assertThat(elements.get(1).get("name")).isEqualTo("first");
+		assertThat(elements.get(1)).doesNotContainKey("outcome");
+		assertThat(elements.get(2).get("name")).isEqualTo("retry");
+		assertThat(elements.get(3).get("name")).isEqualTo("retry");
+		assertThat(elements.get(3).get("outcome")).isEqualTo("flaky");
+		assertThat(elements.get(3).get("attempts")).isEqualTo(2.0);
+		assertThat(elements.get(5).get("outcome")).isEqualTo("failed");
+		assertThat(elements.get(5).get("attempts")).isEqualTo(3.0);
+	}
+
+	@Test
+	public void retriedScenarioMissingFromItsAttemptShouldKeepItsFirstRunElements() throws IOException {
+		Path firstRunReport = writeReport("first.json", "[{\"uri\":\"a.feature\",\"elements\":["
+				+ "{\"line\":4,\"type\":\"scenario\",\"name\":\"first\"}]}]");
+		RetryReportWriter retryReportWriter = new RetryReportWriter();
+		retryReportWriter.addRetriedScenario("a.feature", 4, null, 2, false);
+		Path mergedReport = reportDirectory.resolve("report.json");
+		retryReportWriter.write(firstRunReport, mergedReport);
+
+		List<Map<String, Object>> elements = readElements(mergedReport);
+		assertThat(elements).hasSize(1);
+		assertThat(elements.get(0).get("name")).isEqualTo("first");
+		assertThat(elements.get(0).get("outcome")).isEqualTo("failed");
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Map<String, Object>> readElements(Path report) throws IOException {
+		List<Map<String, Object>> features = new Gson().fromJson(new String(Files.readAllBytes(report),
+				StandardCharsets.UTF_8), new TypeToken<List<Map<String, Object>>>() {
+		}.getType());
+		assertThat(features).hasSize(1);
+		return (List<Map<String, Object>>) features.get(0).get("elements");
+	}
+
+	private Path writeReport(String fileName, String json) throws IOException {
+		Path report = reportDirectory.resolve(fileName);
+		Files.write(report, json.getBytes(StandardCharsets.UTF_8));
+		return report;
+	}
+}
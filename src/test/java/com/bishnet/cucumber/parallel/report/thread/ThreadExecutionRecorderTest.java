@@ -2,7 +2,9 @@ package com.bishnet.cucumber.parallel.report.thread;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -22,4 +24,38 @@ public class ThreadExecutionRecorderTest {
 
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void shouldRecordEventsFromAllThreads() throws InterruptedException {
+
+		ThreadExecutionRecorder threadExecutionRecorder = new ThreadExecutionRecorder();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int threadIndex = 0; threadIndex < 4; threadIndex++) {
+			final String scenarioId = "scenarioId" + threadIndex;
+			threads.add(new Thread(() -> {
+				for (int eventIndex = 0; eventIndex < 100; eventIndex++)
+					threadExecutionRecorder.recordEvent(new ThreadTimelineData(0, 0, scenarioId));
+			}));
+		}
+		for (Thread thread : threads)
+			thread.start();
+		for (Thread thread : threads)
+			thread.join();
+
+		assertThat(threadExecutionRecorder.getRecordedData().size()).isEqualTo(400);
+
+	}
+
+	@Test
+	public void shouldReturnIncreasingNanosecondTimestampsFromEpoch() {
+
+		ThreadExecutionRecorder threadExecutionRecorder = new ThreadExecutionRecorder();
+		long wallClockNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+		long firstTimestamp = threadExecutionRecorder.getTimestamp();
+		long secondTimestamp = threadExecutionRecorder.getTimestamp();
+
+		assertThat(secondTimestamp).isGreaterThanOrEqualTo(firstTimestamp);
+		assertThat(Math.abs(firstTimestamp - wallClockNanos)).isLessThan(TimeUnit.SECONDS.toNanos(1));
+
+	}
+
+}
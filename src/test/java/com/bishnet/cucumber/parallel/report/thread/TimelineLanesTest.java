@@ -0,0 +1,16 @@
+package com.bishnet.cucumber.parallel.report.thread;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class TimelineLanesTest {
+
+	@Test
+	public void workRunInALaneShouldBeGivenTheLaneIdInPlaceOfTheThreadId() throws Exception {
+		long laneThreadId = TimelineLanes.inLane(3, TimelineLanes::getCurrentThreadId).call();
+
+		assertThat(laneThreadId).isEqualTo(3);
+		assertThat(TimelineLanes.getCurrentThreadId()).isEqualTo(Thread.currentThread().getId());
+	}
+}
@@ -0,0 +1,67 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cucumber.runtime.io.Resource;
+import cucumber.runtime.model.CucumberFeature;
+
+public class CachingFeatureBuilderTest {
+
+	private static final String SOURCE = "Feature: A\n\n  Scenario: B\n    Given a step\n";
+
+	private Path cacheDirectory;
+
+	@Before
+	public void setUp() throws IOException {
+		cacheDirectory = Files.createTempDirectory("tempTestCachingFeatureBuilder");
+	}
+
+	@After
+	public void teardown() throws IOException {
+		FileUtils.deleteDirectory(cacheDirectory.toFile());
+	}
+
+	@Test
+	public void theSourceHandedInShouldBeParsedWithoutReadingTheResource() throws IOException {
+		Resource resource = mockResource();
+		List<CucumberFeature> cucumberFeatures = new ArrayList<CucumberFeature>();
+		new CachingFeatureBuilder(cucumberFeatures, new FeatureCache(cacheDirectory)).parse(resource, SOURCE,
+				FeatureCache.hash(SOURCE), Collections.emptyList());
+		assertThat(cucumberFeatures.size()).isEqualTo(1);
+		assertThat(cucumberFeatures.get(0).getFeatureElements().size()).isEqualTo(1);
+		verify(resource, never()).getInputStream();
+	}
+
+	@Test
+	public void theSourceHandedInShouldBeParsedWithoutACache() throws IOException {
+		Resource resource = mockResource();
+		List<CucumberFeature> cucumberFeatures = new ArrayList<CucumberFeature>();
+		new CachingFeatureBuilder(cucumberFeatures, null).parse(resource, SOURCE, FeatureCache.hash(SOURCE),
+				Collections.emptyList());
+		assertThat(cucumberFeatures.size()).isEqualTo(1);
+		assertThat(cacheDirectory.toFile().list()).isEmpty();
+		verify(resource, never()).getInputStream();
+	}
+
+	private Resource mockResource() {
+		Resource resource = mock(Resource.class);
+		when(resource.getPath()).thenReturn("a.feature");
+		return resource;
+	}
+}
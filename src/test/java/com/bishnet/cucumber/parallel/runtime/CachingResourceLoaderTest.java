@@ -0,0 +1,32 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import cucumber.runtime.io.MultiLoader;
+import cucumber.runtime.io.Resource;
+import cucumber.runtime.io.ResourceLoader;
+
+public class CachingResourceLoaderTest {
+
+	private AtomicInteger scanCount = new AtomicInteger();
+
+	@Test
+	public void eachLookupShouldOnlyBeScannedOnce() {
+		ResourceLoader resourceLoader = new MultiLoader(Thread.currentThread().getContextClassLoader());
+		CachingResourceLoader cachingResourceLoader = new CachingResourceLoader((path, suffix) -> {
+			scanCount.incrementAndGet();
+			return resourceLoader.resources(path, suffix);
+		});
+		Iterable<Resource> firstLookup = cachingResourceLoader.resources("classpath:cucumber/runtime", ".class");
+		Iterable<Resource> secondLookup = cachingResourceLoader.resources("classpath:cucumber/runtime", ".class");
+		cachingResourceLoader.resources("classpath:cucumber/runtime", ".feature");
+
+		assertThat(secondLookup).isSameAs(firstLookup);
+		assertThat(firstLookup).isNotEmpty();
+		assertThat(scanCount.get()).isEqualTo(2);
+	}
+}
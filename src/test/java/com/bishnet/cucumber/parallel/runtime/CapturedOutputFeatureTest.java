@@ -0,0 +1,98 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import cucumber.runtime.Runtime;
+import cucumber.runtime.model.CucumberFeature;
+import gherkin.formatter.Formatter;
+import gherkin.formatter.Reporter;
+import gherkin.formatter.model.Feature;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CapturedOutputFeatureTest {
+
+	private static final String NEWLINE = System.lineSeparator();
+
+	@Mock
+	private CucumberFeature feature;
+	@Mock
+	private Feature gherkinFeature;
+	@Mock
+	private Runtime runtime;
+	@Mock
+	private Formatter formatter;
+	@Mock
+	private Reporter reporter;
+
+	private PrintStream originalOut;
+	private ByteArrayOutputStream console;
+	private OutputCapture outputCapture;
+
+	@Before
+	public void setUp() {
+		when(feature.getGherkinFeature()).thenReturn(gherkinFeature);
+		when(feature.getPath()).thenReturn("a.feature");
+		originalOut = System.out;
+		console = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(console, true));
+		outputCapture = new OutputCapture();
+		outputCapture.start();
+	}
+
+	@After
+	public void teardown() {
+		outputCapture.close();
+		System.setOut(originalOut);
+	}
+
+	@Test(timeout = 10000)
+	public void outputOfAFeatureShouldBeWrittenOnceTheFeatureHasRun() throws Exception {
+		doAnswer(invocation -> {
+			System.out.println("feature output");
+			return null;
+		}).when(feature).run(formatter, reporter, runtime);
+		outputCapture.capture(() -> {
+			System.out.println("before feature");
+			new CapturedOutputFeature(feature, outputCapture).run(formatter, reporter, runtime);
+			awaitConsole("before feature" + NEWLINE + "feature output" + NEWLINE);
+			System.out.println("after feature");
+			Thread.sleep(100);
+			assertThat(console.toString()).doesNotContain("after feature");
+			return (byte) 0;
+		}).call();
+		outputCapture.close();
+		assertThat(console.toString()).endsWith("after feature" + NEWLINE);
+	}
+
+	@Test(timeout = 10000)
+	public void outputOfAFailingFeatureShouldStillBeWritten() throws Exception {
+		doAnswer(invocation -> {
+			System.out.println("feature output");
+			throw new IllegalStateException();
+		}).when(feature).run(formatter, reporter, runtime);
+		outputCapture.capture(() -> {
+			try {
+				new CapturedOutputFeature(feature, outputCapture).run(formatter, reporter, runtime);
+			} catch (IllegalStateException e) {
+				awaitConsole("feature output" + NEWLINE);
+			}
+			return (byte) 0;
+		}).call();
+	}
+
+	private void awaitConsole(String expectedOutput) throws InterruptedException {
+		while (!console.toString().equals(expectedOutput))
+			Thread.sleep(10);
+	}
+}
@@ -0,0 +1,218 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bishnet.cucumber.parallel.report.JsonReportFile;
+
+import cucumber.runtime.CucumberException;
+
+public class CoordinatorTest {
+
+	private static final String TOKEN = "secret";
+	private static final String THREE_SCENARIOS = "classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/individual/ValidFeatureThreeScenarios.feature";
+
+	private Coordinator coordinator;
+	private List<Path> jsonReports = new ArrayList<Path>();
+	private Path htmlReportDirectory;
+
+	@Before
+	public void setUp() throws IOException {
+		coordinator = new Coordinator(InetAddress.getLoopbackAddress().getHostAddress(), 0, TOKEN,
+				Arrays.asList(THREE_SCENARIOS, "--plugin", "json:unused.json"), null, null);
+		coordinator.start();
+		htmlReportDirectory = Files.createTempDirectory("coordinatorTest");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		coordinator.close();
+		for (Path jsonReport : jsonReports)
+			Files.deleteIfExists(jsonReport);
+		FileUtils.deleteDirectory(htmlReportDirectory.toFile());
+	}
+
+	@Test(timeout = 30000)
+	public void shouldRunEveryWorkUnitOnAnAgent() throws Exception {
+		List<CoordinatedWorkUnit> workUnits = createWorkUnits();
+		startInBackground(() -> createAgent().run());
+		List<Path> completedReports = Collections.synchronizedList(new ArrayList<Path>());
+
+		byte result = coordinator.run(workUnits,
+				(jsonReport, htmlReport) -> completedReports.add(((JsonReportFile) jsonReport).getPath()));
+
+		assertThat(result).isEqualTo((byte) 0);
+		assertThat(completedReports).containsOnlyElementsOf(jsonReports).hasSize(jsonReports.size());
+		for (Path jsonReport : jsonReports)
+			assertThat(new String(Files.readAllBytes(jsonReport), StandardCharsets.UTF_8)).contains("\"type\": \"scenario\"");
+	}
+
+	@Test(timeout = 30000)
+	public void shouldRequeueTheWorkOfAnAgentWhichLeaves() throws Exception {
+		List<CoordinatedWorkUnit> workUnits = createWorkUnits();
+		startInBackground(() -> {
+			leaveAfterFirstRequest();
+			createAgent().run();
+		});
+		List<Path> completedReports = Collections.synchronizedList(new ArrayList<Path>());
+
+		coordinator.run(workUnits,
+				(jsonReport, htmlReport) -> completedReports.add(((JsonReportFile) jsonReport).getPath()));
+
+		assertThat(completedReports).containsOnlyElementsOf(jsonReports).hasSize(jsonReports.size());
+	}
+
+	@Test(timeout = 30000)
+	public void shouldRequeueTheWorkOfAnAgentWhichStopsResponding() throws Exception {
+		coordinator.setHeartbeatTimeoutMillis(3000);
+		List<CoordinatedWorkUnit> workUnits = createWorkUnits();
+		startInBackground(() -> {
+			try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), coordinator.getPort())) {
+				DataInputStream input = new DataInputStream(socket.getInputStream());
+				readFirstRequest(socket, input);
+				startInBackground(() -> createAgent().run());
+				while (input.read() >= 0)
+					;
+			}
+		});
+		List<Path> completedReports = Collections.synchronizedList(new ArrayList<Path>());
+
+		coordinator.run(workUnits,
+				(jsonReport, htmlReport) -> completedReports.add(((JsonReportFile) jsonReport).getPath()));
+
+		assertThat(completedReports).containsOnlyElementsOf(jsonReports).hasSize(jsonReports.size());
+	}
+
+	@Test(timeout = 30000)
+	public void shouldNotWriteReportFilesOutsideOfTheReportDirectory() throws Exception {
+		List<CoordinatedWorkUnit> workUnits = createWorkUnits();
+		startInBackground(() -> {
+			try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), coordinator.getPort())) {
+				DataInputStream input = new DataInputStream(socket.getInputStream());
+				AgentProtocol.Request request = readFirstRequest(socket, input);
+				DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+				AgentProtocol.writeMessage(output, new AgentProtocol.Response(request.getId(), (byte) 0, false,
+						Collections.singletonList("../escaped.html"), null));
+				Path escapedReport = htmlReportDirectory.resolve("escaped.html");
+				Files.write(escapedReport, "escaped".getBytes(StandardCharsets.UTF_8));
+				AgentProtocol.writeReport(output, escapedReport);
+				Files.delete(escapedReport);
+				output.flush();
+				while (input.read() >= 0)
+					;
+			}
+			createAgent().run();
+		});
+		List<Path> completedReports = Collections.synchronizedList(new ArrayList<Path>());
+
+		coordinator.run(workUnits,
+				(jsonReport, htmlReport) -> completedReports.add(((JsonReportFile) jsonReport).getPath()));
+
+		assertThat(completedReports).containsOnlyElementsOf(jsonReports).hasSize(jsonReports.size());
+		assertThat(htmlReportDirectory.resolve("escaped.html")).doesNotExist();
+	}
+
+	@Test(timeout = 30000)
+	public void shouldNotHandWorkToAnAgentWithTheWrongToken() throws Exception {
+		List<CoordinatedWorkUnit> workUnits = createWorkUnits();
+		startInBackground(() -> {
+			try {
+				createAgent("wrong").run();
+				fail("The coordinator should have refused the agent");
+			} catch (CucumberException e) {
+				assertThat(e.getMessage()).contains("agent token");
+			}
+			createAgent().run();
+		});
+		List<Path> completedReports = Collections.synchronizedList(new ArrayList<Path>());
+
+		coordinator.run(workUnits,
+				(jsonReport, htmlReport) -> completedReports.add(((JsonReportFile) jsonReport).getPath()));
+
+		assertThat(completedReports).containsOnlyElementsOf(jsonReports).hasSize(jsonReports.size());
+	}
+
+	@Test
+	public void shouldOnlyListenOnTheLoopbackInterfaceWithoutABindAddress() throws IOException {
+		try (Coordinator loopbackCoordinator = new Coordinator(0, TOKEN, Collections.<String> emptyList(), null)) {
+			loopbackCoordinator.start();
+			assertThat(loopbackCoordinator.getBindAddress().isLoopbackAddress()).isTrue();
+		}
+	}
+
+	private void leaveAfterFirstRequest() throws IOException {
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), coordinator.getPort())) {
+			readFirstRequest(socket, new DataInputStream(socket.getInputStream()));
+		}
+	}
+
+	private AgentProtocol.Request readFirstRequest(Socket socket, DataInputStream input) throws IOException {
+		AgentProtocol.writeMessage(new DataOutputStream(socket.getOutputStream()), new AgentProtocol.Hello(TOKEN, 1));
+		assertThat(AgentProtocol.readMessage(input, AgentProtocol.Setup.class)).isNotNull();
+		AgentProtocol.Request request = AgentProtocol.readMessage(input, AgentProtocol.Request.class);
+		assertThat(request).isNotNull();
+		return request;
+	}
+
+	private Agent createAgent() {
+		return createAgent(TOKEN);
+	}
+
+	private Agent createAgent(String token) {
+		return new Agent("localhost:" + coordinator.getPort(), token, 2, new FakeCucumberBackendFactory(), Thread
+				.currentThread().getContextClassLoader());
+	}
+
+	private List<CoordinatedWorkUnit> createWorkUnits() throws IOException {
+		List<CoordinatedWorkUnit> workUnits = new ArrayList<CoordinatedWorkUnit>();
+		String featurePath = getFeaturePath();
+		for (int line : Arrays.asList(4, 9, 14)) {
+			Path jsonReport = Files.createTempFile("coordinatorTest", ".json");
+			jsonReports.add(jsonReport);
+			workUnits.add(new CoordinatedWorkUnit(Collections.singletonMap(featurePath, Arrays.asList(line)),
+					jsonReport, Files.createTempDirectory(htmlReportDirectory, "html")));
+		}
+		return workUnits;
+	}
+
+	private String getFeaturePath() {
+		RuntimeConfiguration runtimeConfiguration = new RuntimeConfiguration(0, null, Arrays.asList(THREE_SCENARIOS),
+				null, null, false, null, false, null, false);
+		return new FeatureParser(runtimeConfiguration, Thread.currentThread().getContextClassLoader()).parseFeatures()
+				.get(0).getPath();
+	}
+
+	private void startInBackground(BackgroundTask task) {
+		Thread thread = new Thread(() -> {
+			try {
+				task.run();
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private interface BackgroundTask {
+		void run() throws IOException;
+	}
+}
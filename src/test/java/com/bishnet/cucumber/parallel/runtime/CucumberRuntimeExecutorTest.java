@@ -3,14 +3,16 @@ package com.bishnet.cucumber.parallel.runtime;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.IOException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Test;
 
+import com.bishnet.cucumber.parallel.report.JsonReport;
+
 import cucumber.runtime.CucumberException;
+import cucumber.runtime.model.CucumberFeature;
 
 public class CucumberRuntimeExecutorTest {
 
@@ -19,7 +21,7 @@ public class CucumberRuntimeExecutorTest {
 		byte[] exitCodes = new byte[] { 0, 0 };
 		boolean[] shouldThrowExceptions = new boolean[] { false, false };
 		FakeCucumberRuntimeFactory runtimeFactory = new FakeCucumberRuntimeFactory(exitCodes, shouldThrowExceptions);
-		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor(runtimeFactory, getRerunFiles(),
+		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor(runtimeFactory, getFeatureGroups(),
 				getRuntimeConfiguration(false, false));
 		assertThat(runtimeExecutor.run()).isEqualTo((byte) 0);
 	}
@@ -29,7 +31,7 @@ public class CucumberRuntimeExecutorTest {
 		byte[] exitCodes = new byte[] { 0, 1 };
 		boolean[] shouldThrowExceptions = new boolean[] { false, false };
 		FakeCucumberRuntimeFactory runtimeFactory = new FakeCucumberRuntimeFactory(exitCodes, shouldThrowExceptions);
-		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor(runtimeFactory, getRerunFiles(),
+		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor(runtimeFactory, getFeatureGroups(),
 				getRuntimeConfiguration(false, false));
 		assertThat(runtimeExecutor.run()).isEqualTo((byte) 1);
 	}
@@ -39,7 +41,7 @@ public class CucumberRuntimeExecutorTest {
 		byte[] exitCodes = new byte[] { 1, 1 };
 		boolean[] shouldThrowExceptions = new boolean[] { false, false };
 		FakeCucumberRuntimeFactory runtimeFactory = new FakeCucumberRuntimeFactory(exitCodes, shouldThrowExceptions);
-		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor(runtimeFactory, getRerunFiles(),
+		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor(runtimeFactory, getFeatureGroups(),
 				getRuntimeConfiguration(false, false));
 		assertThat(runtimeExecutor.run()).isEqualTo((byte) 1);
 	}
@@ -49,43 +51,127 @@ public class CucumberRuntimeExecutorTest {
 		byte[] exitCodes = new byte[] { 0, 0 };
 		boolean[] shouldThrowExceptions = new boolean[] { false, true };
 		FakeCucumberRuntimeFactory runtimeFactory = new FakeCucumberRuntimeFactory(exitCodes, shouldThrowExceptions);
-		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor(runtimeFactory, getRerunFiles(),
+		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor(runtimeFactory, getFeatureGroups(),
 				getRuntimeConfiguration(false, false));
 		assertThat(runtimeExecutor.run()).isEqualTo((byte) 0);
 	}
 
 	@Test
-	public void shouldReturnANumberOfHtmlReportsEqualToTheNumberOfRerunFiles() throws InterruptedException, IOException {
+	public void shouldReturnANumberOfHtmlReportsEqualToTheNumberOfFeatureGroups() throws InterruptedException, IOException {
 		byte[] exitCodes = new byte[] { 0, 0 };
 		boolean[] shouldThrowExceptions = new boolean[] { false, false };
 		FakeCucumberRuntimeFactory runtimeFactory = new FakeCucumberRuntimeFactory(exitCodes, shouldThrowExceptions);
-		List<Path> rerunFiles = getRerunFiles();
-		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor(runtimeFactory, rerunFiles,
+		List<List<CucumberFeature>> featureGroups = getFeatureGroups();
+		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor(runtimeFactory, featureGroups,
 				getRuntimeConfiguration(false, true));
 		runtimeExecutor.run();
-		assertThat(runtimeExecutor.getHtmlReports().size()).isEqualTo(rerunFiles.size());
+		assertThat(runtimeExecutor.getHtmlReports().size()).isEqualTo(featureGroups.size());
 	}
 
 	@Test
-	public void shouldReturnANumberOfJsonReportsEqualToTheNumberOfRerunFiles() throws InterruptedException, IOException {
+	public void shouldReturnANumberOfJsonReportsEqualToTheNumberOfFeatureGroups() throws InterruptedException, IOException {
 		byte[] exitCodes = new byte[] { 0, 0 };
 		boolean[] shouldThrowExceptions = new boolean[] { false, false };
 		FakeCucumberRuntimeFactory runtimeFactory = new FakeCucumberRuntimeFactory(exitCodes, shouldThrowExceptions);
-		List<Path> rerunFiles = getRerunFiles();
-		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor(runtimeFactory, rerunFiles,
+		List<List<CucumberFeature>> featureGroups = getFeatureGroups();
+		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor(runtimeFactory, featureGroups,
 				getRuntimeConfiguration(true, false));
 		runtimeExecutor.run();
-		assertThat(runtimeExecutor.getJsonReports().size()).isEqualTo(rerunFiles.size());
+		assertThat(runtimeExecutor.getJsonReports().size()).isEqualTo(featureGroups.size());
+	}
+
+	@Test
+	public void jsonReportsHandedToTheListenerShouldNotBeKept() throws InterruptedException, IOException {
+		byte[] exitCodes = new byte[] { 0, 0 };
+		boolean[] shouldThrowExceptions = new boolean[] { false, false };
+		FakeCucumberRuntimeFactory runtimeFactory = new FakeCucumberRuntimeFactory(exitCodes, shouldThrowExceptions);
+		List<List<CucumberFeature>> featureGroups = getFeatureGroups();
+		List<JsonReport> completedReports = Collections.synchronizedList(new ArrayList<JsonReport>());
+		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor.Builder(runtimeFactory,
+				getRuntimeConfiguration(true, false)).featureGroups(featureGroups)
+						.reportListener((jsonReport, htmlReport) -> completedReports.add(jsonReport)).build();
+		runtimeExecutor.run();
+		assertThat(completedReports).hasSize(featureGroups.size()).doesNotContainNull();
+		assertThat(runtimeExecutor.getJsonReports()).isEmpty();
 	}
 
-	private List<Path> getRerunFiles() {
-		List<Path> rerunFiles = new ArrayList<Path>();
-		rerunFiles.add(Paths.get("/some/path"));
-		rerunFiles.add(Paths.get("/some/other/path"));
-		return rerunFiles;
+	@Test
+	public void dynamicSchedulingShouldRunEveryFeatureGroupAndCombineTheirExitCodes() throws InterruptedException, IOException {
+		byte[] exitCodes = new byte[] { 0, 0, 1, 0, 0 };
+		boolean[] shouldThrowExceptions = new boolean[] { false, false, false, false, false };
+		FakeCucumberRuntimeFactory runtimeFactory = new FakeCucumberRuntimeFactory(exitCodes, shouldThrowExceptions);
+		List<List<CucumberFeature>> featureGroups = new ArrayList<List<CucumberFeature>>();
+		for (int i = 0; i < exitCodes.length; i++)
+			featureGroups.add(new ArrayList<CucumberFeature>());
+		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor(runtimeFactory, featureGroups,
+				getDynamicRuntimeConfiguration(2));
+		assertThat(runtimeExecutor.run()).isEqualTo((byte) 1);
+		assertThat(runtimeFactory.getInvocationCount()).isEqualTo(featureGroups.size());
+	}
+
+	@Test(expected = CucumberException.class)
+	public void dynamicSchedulingShouldThrowCucumberExceptionWhenOneUnderlyingRuntimeDoes() throws InterruptedException, IOException {
+		byte[] exitCodes = new byte[] { 0, 0 };
+		boolean[] shouldThrowExceptions = new boolean[] { false, true };
+		FakeCucumberRuntimeFactory runtimeFactory = new FakeCucumberRuntimeFactory(exitCodes, shouldThrowExceptions);
+		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor(runtimeFactory, getFeatureGroups(),
+				getDynamicRuntimeConfiguration(4));
+		runtimeExecutor.run();
+	}
+
+	@Test
+	public void virtualExecutorShouldRunEveryFeatureGroupAndCombineTheirExitCodes() throws InterruptedException, IOException {
+		byte[] exitCodes = new byte[] { 0, 1, 0, 0 };
+		boolean[] shouldThrowExceptions = new boolean[] { false, false, false, false };
+		FakeCucumberRuntimeFactory runtimeFactory = new FakeCucumberRuntimeFactory(exitCodes, shouldThrowExceptions);
+		List<List<CucumberFeature>> featureGroups = new ArrayList<List<CucumberFeature>>();
+		for (int i = 0; i < exitCodes.length; i++)
+			featureGroups.add(new ArrayList<CucumberFeature>());
+		RuntimeConfiguration runtimeConfiguration = new RuntimeConfiguration.Builder().numberOfThreads(2)
+				.schedulingMode(SchedulingMode.DYNAMIC).executorMode(ExecutorMode.VIRTUAL).build();
+		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor(runtimeFactory, featureGroups,
+				runtimeConfiguration);
+		assertThat(runtimeExecutor.run()).isEqualTo((byte) 1);
+		assertThat(runtimeFactory.getInvocationCount()).isEqualTo(featureGroups.size());
+	}
+
+	@Test(timeout = 10000)
+	public void streamedFeatureGroupsShouldRunAsTheyAreAddedUntilTheyAreFinished() throws Exception {
+		byte[] exitCodes = new byte[] { 0, 1, 0 };
+		boolean[] shouldThrowExceptions = new boolean[] { false, false, false };
+		FakeCucumberRuntimeFactory runtimeFactory = new FakeCucumberRuntimeFactory(exitCodes, shouldThrowExceptions);
+		CucumberRuntimeExecutor runtimeExecutor = new CucumberRuntimeExecutor.Builder(runtimeFactory,
+				getDynamicRuntimeConfiguration(2)).streamFeatureGroups(true).build();
+		Thread addFeatureGroups = new Thread(() -> {
+			try {
+				for (int i = 0; i < exitCodes.length; i++) {
+					Thread.sleep(50);
+					runtimeExecutor.addFeatureGroups(Collections.singletonList(new ArrayList<CucumberFeature>()));
+				}
+				runtimeExecutor.finishFeatureGroups();
+			} catch (InterruptedException | IOException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		addFeatureGroups.start();
+		assertThat(runtimeExecutor.run()).isEqualTo((byte) 1);
+		assertThat(runtimeFactory.getInvocationCount()).isEqualTo(exitCodes.length);
+		addFeatureGroups.join();
+	}
+
+	private List<List<CucumberFeature>> getFeatureGroups() {
+		List<List<CucumberFeature>> featureGroups = new ArrayList<List<CucumberFeature>>();
+		featureGroups.add(new ArrayList<CucumberFeature>());
+		featureGroups.add(new ArrayList<CucumberFeature>());
+		return featureGroups;
 	}
 
 	private RuntimeConfiguration getRuntimeConfiguration(boolean jsonReportRequired, boolean htmlReportRequired) {
 		return new RuntimeConfiguration(0, null, null, null, null, htmlReportRequired, null, jsonReportRequired, null, false);
 	}
+
+	private RuntimeConfiguration getDynamicRuntimeConfiguration(int numberOfThreads) {
+		return new RuntimeConfiguration.Builder().numberOfThreads(numberOfThreads)
+				.schedulingMode(SchedulingMode.DYNAMIC).build();
+	}
 }
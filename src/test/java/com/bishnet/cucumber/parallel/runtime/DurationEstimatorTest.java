@@ -0,0 +1,45 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.bishnet.cucumber.parallel.report.DurationStore;
+
+import cucumber.runtime.model.CucumberFeature;
+
+public class DurationEstimatorTest {
+
+	@Test
+	public void featureEstimateShouldUseRecordedDurationsAndStepCountForUnknownScenarios() throws IOException,
+			URISyntaxException {
+		DurationStore durationStore = new DurationStore();
+		durationStore.addReport(Paths.get(getClass().getResource(
+				"/com/bishnet/cucumber/parallel/report/durationReport.json").toURI()));
+		DurationEstimator durationEstimator = new DurationEstimator(durationStore);
+		CucumberFeature feature = parseFeature("ValidFeatureThreeScenarios.feature");
+		assertThat(durationEstimator.estimate(feature)).isEqualTo(110L + 50L + 3 * 25L);
+	}
+
+	@Test
+	public void featureEstimateWithoutHistoryShouldBeTheStepCount() {
+		DurationEstimator durationEstimator = new DurationEstimator(new DurationStore());
+		CucumberFeature feature = parseFeature("ValidFeatureWithScenarioOutlineWithTwoExamples.feature");
+		assertThat(durationEstimator.estimate(feature)).isEqualTo(6L);
+	}
+
+	private CucumberFeature parseFeature(String featureName) {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/individual/" + featureName);
+		RuntimeConfiguration runtimeConfiguration = new RuntimeConfiguration(0, null, arguments, null, null, false, null,
+				false, null, false);
+		FeatureParser featureParser = new FeatureParser(runtimeConfiguration, Thread.currentThread().getContextClassLoader());
+		return featureParser.parseFeatures().get(0);
+	}
+}
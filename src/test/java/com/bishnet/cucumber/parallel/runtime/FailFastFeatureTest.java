@@ -0,0 +1,119 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import cucumber.api.PendingException;
+import cucumber.runtime.Runtime;
+import cucumber.runtime.model.CucumberExamples;
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberScenario;
+import cucumber.runtime.model.CucumberScenarioOutline;
+import cucumber.runtime.model.CucumberTagStatement;
+import gherkin.formatter.Formatter;
+import gherkin.formatter.Reporter;
+import gherkin.formatter.model.Feature;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FailFastFeatureTest {
+
+	@Mock
+	private CucumberFeature feature;
+	@Mock
+	private Feature gherkinFeature;
+	@Mock
+	private CucumberTagStatement firstScenario;
+	@Mock
+	private CucumberTagStatement secondScenario;
+	@Mock
+	private Runtime runtime;
+	@Mock
+	private Formatter formatter;
+	@Mock
+	private Reporter reporter;
+
+	private List<Throwable> errors = new ArrayList<Throwable>();
+
+	@Before
+	public void setUp() {
+		when(feature.getGherkinFeature()).thenReturn(gherkinFeature);
+		when(feature.getPath()).thenReturn("a.feature");
+		when(feature.getFeatureElements()).thenReturn(Arrays.asList(firstScenario, secondScenario));
+		when(runtime.getErrors()).thenReturn(errors);
+	}
+
+	@Test
+	public void scenariosShouldStopOnceTheThresholdIsReached() {
+		failScenario(firstScenario, new AssertionError());
+		FailFastMonitor failFastMonitor = new FailFastMonitor(1);
+		new FailFastFeature(feature, failFastMonitor).run(formatter, reporter, runtime);
+		verify(secondScenario, never()).run(formatter, reporter, runtime);
+		verify(formatter).eof();
+		assertThat(failFastMonitor.isStopped()).isTrue();
+	}
+
+	@Test
+	public void scenariosShouldContinueBelowTheThreshold() {
+		failScenario(firstScenario, new AssertionError());
+		FailFastMonitor failFastMonitor = new FailFastMonitor(2);
+		new FailFastFeature(feature, failFastMonitor).run(formatter, reporter, runtime);
+		verify(secondScenario).run(formatter, reporter, runtime);
+		assertThat(failFastMonitor.getFailedScenarioCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void pendingStepsShouldNotCountAsFailures() {
+		failScenario(firstScenario, new PendingException());
+		FailFastMonitor failFastMonitor = new FailFastMonitor(1);
+		new FailFastFeature(feature, failFastMonitor).run(formatter, reporter, runtime);
+		verify(secondScenario).run(formatter, reporter, runtime);
+		assertThat(failFastMonitor.isStopped()).isFalse();
+	}
+
+	@Test
+	public void featureShouldNotBeReportedOnceTheRunHasStopped() {
+		FailFastMonitor failFastMonitor = new FailFastMonitor(1);
+		failFastMonitor.recordFailedScenarios(1);
+		new FailFastFeature(feature, failFastMonitor).run(formatter, reporter, runtime);
+		verify(firstScenario, never()).run(formatter, reporter, runtime);
+		verify(formatter, never()).uri("a.feature");
+	}
+
+	@Test
+	public void everyExampleRowOfAnOutlineShouldCountAsAScenario() {
+		CucumberScenarioOutline scenarioOutline = mock(CucumberScenarioOutline.class);
+		CucumberExamples examples = mock(CucumberExamples.class);
+		CucumberScenario firstRow = mock(CucumberScenario.class);
+		CucumberScenario secondRow = mock(CucumberScenario.class);
+		CucumberScenario thirdRow = mock(CucumberScenario.class);
+		when(feature.getFeatureElements()).thenReturn(Arrays.<CucumberTagStatement> asList(scenarioOutline));
+		when(scenarioOutline.getCucumberExamplesList()).thenReturn(Arrays.asList(examples));
+		when(examples.createExampleScenarios()).thenReturn(Arrays.asList(firstRow, secondRow, thirdRow));
+		failScenario(firstRow, new AssertionError());
+		failScenario(secondRow, new AssertionError());
+		FailFastMonitor failFastMonitor = new FailFastMonitor(2);
+		new FailFastFeature(feature, failFastMonitor).run(formatter, reporter, runtime);
+		verify(scenarioOutline).formatOutlineScenario(formatter);
+		verify(examples).format(formatter);
+		verify(thirdRow, never()).run(formatter, reporter, runtime);
+		assertThat(failFastMonitor.getFailedScenarioCount()).isEqualTo(2);
+		assertThat(failFastMonitor.isStopped()).isTrue();
+	}
+
+	private void failScenario(CucumberTagStatement scenario, Throwable error) {
+		doAnswer(invocation -> errors.add(error)).when(scenario).run(formatter, reporter, runtime);
+	}
+}
@@ -7,6 +7,7 @@ import cucumber.runtime.RuntimeOptions;
 import cucumber.runtime.io.MultiLoader;
 import cucumber.runtime.io.ResourceLoader;
 import cucumber.runtime.io.ResourceLoaderClassFinder;
+import cucumber.runtime.model.CucumberFeature;
 
 import java.util.List;
 
@@ -24,7 +25,8 @@ public class FakeCucumberRuntimeFactory extends CucumberRuntimeFactory {
 	}
 
 	@Override
-	public synchronized Runtime getRuntime(List<String> additionalCucumberArgs) {
+	public synchronized Runtime getRuntime(List<String> additionalCucumberArgs, List<CucumberFeature> features,
+			Object plugin) {
 		RuntimeOptions runtimeOptions = new RuntimeOptions(additionalCucumberArgs);
 		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
 		ResourceLoader resourceLoader = new MultiLoader(classLoader);
@@ -35,4 +37,8 @@ public class FakeCucumberRuntimeFactory extends CucumberRuntimeFactory {
 		ThreadExecutionRecorder threadExecutionRecorder = new ThreadExecutionRecorder();
 		return new FakeCucumberRuntime(exitCode, shouldThrowException, resourceLoader, classFinder, classLoader, runtimeOptions, threadExecutionRecorder);
 	}
+
+	public synchronized int getInvocationCount() {
+		return invocationCount;
+	}
 }
@@ -2,16 +2,43 @@ package com.bishnet.cucumber.parallel.runtime;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
 import cucumber.runtime.CucumberException;
+import cucumber.runtime.RuntimeOptions;
+import cucumber.runtime.io.MultiLoader;
+import cucumber.runtime.model.CucumberExamples;
 import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberScenario;
+import cucumber.runtime.model.CucumberScenarioOutline;
+import cucumber.runtime.model.CucumberTagStatement;
+import gherkin.formatter.model.Step;
+import gherkin.formatter.model.Tag;
 
 public class FeatureParserTest {
 
+	private Path cacheDirectory;
+
+	@Before
+	public void setUp() throws IOException {
+		cacheDirectory = Files.createTempDirectory("tempTestFeatureCache");
+	}
+
+	@After
+	public void teardown() throws IOException {
+		FileUtils.deleteDirectory(cacheDirectory.toFile());
+	}
+
 	@Test
 	public void singleFeatureFileWithValidScenariosShouldReturnOneFeature() {
 		List<String> arguments = new ArrayList<String>();
@@ -41,7 +68,92 @@ public class FeatureParserTest {
 		featureParser.parseFeatures();
 	}
 
+	@Test
+	public void featuresLoadedFromTheCacheShouldMatchTheParsedFeatures() throws IOException {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--tags");
+		arguments.add("~@exclusive");
+		arguments.add("classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/individual/ValidFeatureWithResourceTags.feature");
+		arguments.add("classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/individual/ValidFeatureWithScenarioOutlineWithTwoExamples.feature");
+		List<CucumberFeature> parsedFeatures = new FeatureParser(getCachingRuntimeConfiguration(arguments), Thread
+				.currentThread().getContextClassLoader()).parseFeatures();
+		List<CucumberFeature> cachedFeatures = new FeatureParser(getCachingRuntimeConfiguration(arguments), Thread
+				.currentThread().getContextClassLoader()).parseFeatures();
+		assertThat(describe(cachedFeatures)).isEqualTo(describe(parsedFeatures));
+		assertThat(describe(cachedFeatures)).hasSize(4);
+		try (Stream<Path> cacheFiles = Files.list(cacheDirectory)) {
+			assertThat(cacheFiles.count()).isEqualTo(2);
+		}
+	}
+
+	@Test
+	public void aChangedFeatureShouldBeParsedAgain() throws IOException {
+		Path featureDirectory = cacheDirectory.resolve("features");
+		Files.createDirectories(featureDirectory);
+		Path feature = featureDirectory.resolve("Changing.feature");
+		Files.write(feature, "Feature: Changing\n\n  Scenario: first\n    Given a step\n".getBytes("UTF-8"));
+		List<String> arguments = new ArrayList<String>();
+		arguments.add(featureDirectory.toString());
+		new FeatureParser(getCachingRuntimeConfiguration(arguments), Thread.currentThread().getContextClassLoader())
+				.parseFeatures();
+		Files.write(feature, ("Feature: Changing\n\n  Scenario: first\n    Given a step\n\n"
+				+ "  Scenario: second\n    Given a step\n").getBytes("UTF-8"));
+		List<CucumberFeature> features = new FeatureParser(getCachingRuntimeConfiguration(arguments), Thread
+				.currentThread().getContextClassLoader()).parseFeatures();
+		assertThat(features.get(0).getFeatureElements()).hasSize(2);
+	}
+
+	@Test
+	public void featuresParsedInParallelShouldMatchThoseLoadedByCucumber() throws IOException {
+		Path featureDirectory = cacheDirectory.resolve("features");
+		for (int i = 0; i < 50; i++) {
+			Path subDirectory = featureDirectory.resolve("directory" + i % 5);
+			Files.createDirectories(subDirectory);
+			Files.write(subDirectory.resolve("Feature" + i + ".feature"), ("Feature: Feature " + i % 40
+					+ "\n\n  @tag" + i % 40 % 3 + "\n  Scenario: only\n    Given a step\n").getBytes("UTF-8"));
+		}
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("--tags");
+		arguments.add("~@tag1");
+		arguments.add(featureDirectory.resolve("directory3").toString());
+		arguments.add(featureDirectory.toString());
+		List<CucumberFeature> expectedFeatures = new RuntimeOptions(arguments).cucumberFeatures(new MultiLoader(Thread
+				.currentThread().getContextClassLoader()));
+		List<CucumberFeature> features = new FeatureParser(getRuntimeConfiguration(arguments), Thread
+				.currentThread().getContextClassLoader()).parseFeatures();
+		assertThat(describe(features)).isEqualTo(describe(expectedFeatures));
+		assertThat(features).hasSize(40);
+	}
+
+	private List<String> describe(List<CucumberFeature> features) {
+		List<String> descriptions = new ArrayList<String>();
+		for (CucumberFeature feature : features)
+			for (CucumberTagStatement element : feature.getFeatureElements()) {
+				List<CucumberTagStatement> scenarios = new ArrayList<CucumberTagStatement>();
+				if (element instanceof CucumberScenarioOutline)
+					for (CucumberExamples examples : ((CucumberScenarioOutline) element).getCucumberExamplesList())
+						scenarios.addAll(examples.createExampleScenarios());
+				else
+					scenarios.add(element);
+				for (CucumberTagStatement scenario : scenarios) {
+					StringBuilder description = new StringBuilder(feature.getPath() + " " + feature.getI18n()
+							.getIsoCode() + " " + scenario.getGherkinModel().getId() + " " + scenario.getVisualName());
+					for (Tag tag : scenario.getGherkinModel().getTags())
+						description.append(" ").append(tag.getName());
+					for (Step step : ((CucumberScenario) scenario).getSteps())
+						description.append(" | ").append(step.getKeyword()).append(step.getName());
+					descriptions.add(description.toString());
+				}
+			}
+		return descriptions;
+	}
+
 	private RuntimeConfiguration getRuntimeConfiguration(List<String> featureParsingArguments) {
 		return new RuntimeConfiguration(0, null, featureParsingArguments, null, null, false, null, false, null, false);
 	}
+
+	private RuntimeConfiguration getCachingRuntimeConfiguration(List<String> featureParsingArguments) {
+		return new RuntimeConfiguration.Builder().featureParsingArguments(featureParsingArguments)
+				.featureCachePath(cacheDirectory).build();
+	}
 }
@@ -2,49 +2,103 @@ package com.bishnet.cucumber.parallel.runtime;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-import java.io.IOException;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Test;
 
+import com.bishnet.cucumber.parallel.report.DurationStore;
+
 import cucumber.runtime.model.CucumberFeature;
 
 public class FeatureSplitterTest {
 
 	@Test
-	public void whenPassedARequestForOneThreadShouldReturnOneRerunFile() throws IOException {
+	public void whenPassedARequestForOneThreadShouldReturnOneFeatureGroup() {
 		List<String> arguments = new ArrayList<String>();
 		arguments.add("classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/directory");
 		RuntimeConfiguration runtimeConfiguration = getRuntimeConfiguration(arguments, 1);
 		FeatureParser featureParser = new FeatureParser(runtimeConfiguration, Thread.currentThread().getContextClassLoader());
 		FeatureSplitter featureSplitter = new FeatureSplitter(runtimeConfiguration, featureParser.parseFeatures());
-		List<Path> rerunFiles = featureSplitter.splitFeaturesIntoRerunFiles();
-		assertThat(rerunFiles.size()).isEqualTo(1);
+		List<List<CucumberFeature>> featureGroups = featureSplitter.splitFeaturesIntoGroups();
+		assertThat(featureGroups.size()).isEqualTo(1);
 	}
 
 	@Test
-	public void whenPassedARequestForTwoThreadsShouldReturnTwoRerunFiles() throws IOException {
+	public void whenPassedARequestForTwoThreadsShouldReturnTwoFeatureGroups() {
 		List<String> arguments = new ArrayList<String>();
 		arguments.add("classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/directory");
 		RuntimeConfiguration runtimeConfiguration = getRuntimeConfiguration(arguments, 2);
 		FeatureParser featureParser = new FeatureParser(runtimeConfiguration, Thread.currentThread().getContextClassLoader());
 		FeatureSplitter featureSplitter = new FeatureSplitter(runtimeConfiguration, featureParser.parseFeatures());
-		List<Path> rerunFiles = featureSplitter.splitFeaturesIntoRerunFiles();
-		assertThat(rerunFiles.size()).isEqualTo(2);
+		List<List<CucumberFeature>> featureGroups = featureSplitter.splitFeaturesIntoGroups();
+		assertThat(featureGroups.size()).isEqualTo(2);
 	}
 
 	@Test
-	public void whenPassedARequestForMoreThreadsThanFeaturesShouldReturnRerunFilesEqualToFeatureCount() throws IOException {
+	public void whenPassedARequestForMoreThreadsThanFeaturesShouldReturnFeatureGroupsEqualToFeatureCount() {
 		List<String> arguments = new ArrayList<String>();
 		arguments.add("classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/directory");
 		RuntimeConfiguration runtimeConfiguration = getRuntimeConfiguration(arguments, 10);
 		FeatureParser featureParser = new FeatureParser(runtimeConfiguration, Thread.currentThread().getContextClassLoader());
 		List<CucumberFeature> features = featureParser.parseFeatures();
 		FeatureSplitter featureSplitter = new FeatureSplitter(runtimeConfiguration, features);
-		List<Path> rerunFiles = featureSplitter.splitFeaturesIntoRerunFiles();
-		assertThat(rerunFiles.size()).isEqualTo(features.size());
+		List<List<CucumberFeature>> featureGroups = featureSplitter.splitFeaturesIntoGroups();
+		assertThat(featureGroups.size()).isEqualTo(features.size());
+	}
+
+	@Test
+	public void whenDynamicSchedulingIsRequestedShouldReturnOneFeatureGroupPerFeature() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/directory");
+		RuntimeConfiguration runtimeConfiguration = new RuntimeConfiguration.Builder().numberOfThreads(1)
+				.featureParsingArguments(arguments).schedulingMode(SchedulingMode.DYNAMIC).build();
+		FeatureParser featureParser = new FeatureParser(runtimeConfiguration, Thread.currentThread().getContextClassLoader());
+		List<CucumberFeature> features = featureParser.parseFeatures();
+		FeatureSplitter featureSplitter = new FeatureSplitter(runtimeConfiguration, features);
+		List<List<CucumberFeature>> featureGroups = featureSplitter.splitFeaturesIntoGroups();
+		assertThat(featureGroups.size()).isEqualTo(features.size());
+	}
+
+	@Test
+	public void whenADurationEstimatorIsProvidedShouldReturnOneFeatureGroupPerThread() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/directory");
+		RuntimeConfiguration runtimeConfiguration = getRuntimeConfiguration(arguments, 2);
+		FeatureParser featureParser = new FeatureParser(runtimeConfiguration, Thread.currentThread().getContextClassLoader());
+		FeatureSplitter featureSplitter = new FeatureSplitter(runtimeConfiguration, featureParser.parseFeatures(),
+				new DurationEstimator(new DurationStore()));
+		List<List<CucumberFeature>> featureGroups = featureSplitter.splitFeaturesIntoGroups();
+		assertThat(featureGroups.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void whenDynamicSchedulingIsRequestedWithScenarioGranularityShouldReturnOneFeatureGroupPerScenario() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/directory");
+		RuntimeConfiguration runtimeConfiguration = new RuntimeConfiguration.Builder().numberOfThreads(1)
+				.featureParsingArguments(arguments).schedulingMode(SchedulingMode.DYNAMIC)
+				.granularity(Granularity.SCENARIO).build();
+		FeatureParser featureParser = new FeatureParser(runtimeConfiguration, Thread.currentThread().getContextClassLoader());
+		FeatureSplitter featureSplitter = new FeatureSplitter(runtimeConfiguration, featureParser.parseFeatures());
+		List<List<CucumberFeature>> featureGroups = featureSplitter.splitFeaturesIntoGroups();
+		assertThat(featureGroups.size()).isEqualTo(5);
+	}
+
+	@Test
+	public void workUnitsTaggedWithResourcesShouldGetAFeatureGroupEachAheadOfTheThreadGroups() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/individual/ValidFeatureWithResourceTags.feature");
+		arguments.add("classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/directory");
+		RuntimeConfiguration runtimeConfiguration = new RuntimeConfiguration.Builder().numberOfThreads(2)
+				.featureParsingArguments(arguments).granularity(Granularity.SCENARIO).build();
+		FeatureParser featureParser = new FeatureParser(runtimeConfiguration, Thread.currentThread().getContextClassLoader());
+		FeatureSplitter featureSplitter = new FeatureSplitter(runtimeConfiguration, featureParser.parseFeatures());
+		List<List<CucumberFeature>> featureGroups = featureSplitter.splitFeaturesIntoGroups();
+		assertThat(featureGroups.size()).isEqualTo(5);
+		for (int i = 0; i < 3; i++)
+			assertThat(ResourceClaim.fromFeatures(featureGroups.get(i)).getResourceLimits()).containsKey("db");
+		assertThat(ResourceClaim.fromFeatures(featureGroups.get(3)).isEmpty()).isTrue();
 	}
 
 	private RuntimeConfiguration getRuntimeConfiguration(List<String> featureParsingArguments, int numberOfThreads) {
@@ -0,0 +1,65 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberScenarioOutline;
+
+public class FilteredFeatureBuilderTest {
+
+	private static final String SAMPLE_FEATURES = "classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/";
+
+	@Test
+	public void aFeatureAssignedInFullShouldBeReturnedUnchanged() {
+		List<CucumberFeature> features = parseFeatures("individual/ValidFeatureThreeScenarios.feature");
+		FilteredFeatureBuilder filteredFeatureBuilder = new FilteredFeatureBuilder();
+		for (WorkUnit workUnit : WorkUnit.split(features, Granularity.FEATURE))
+			filteredFeatureBuilder.addWorkUnit(workUnit);
+		List<CucumberFeature> filteredFeatures = filteredFeatureBuilder.getFeatures();
+		assertThat(filteredFeatures.size()).isEqualTo(1);
+		assertThat(filteredFeatures.get(0)).isSameAs(features.get(0));
+	}
+
+	@Test
+	public void shouldOnlyKeepTheAssignedScenarios() {
+		List<CucumberFeature> features = parseFeatures("individual/ValidFeatureThreeScenarios.feature");
+		List<WorkUnit> workUnits = WorkUnit.split(features, Granularity.SCENARIO);
+		FilteredFeatureBuilder filteredFeatureBuilder = new FilteredFeatureBuilder();
+		filteredFeatureBuilder.addWorkUnit(workUnits.get(0));
+		filteredFeatureBuilder.addWorkUnit(workUnits.get(2));
+		List<CucumberFeature> filteredFeatures = filteredFeatureBuilder.getFeatures();
+		assertThat(filteredFeatures.size()).isEqualTo(1);
+		assertThat(filteredFeatures.get(0).getPath()).isEqualTo(features.get(0).getPath());
+		assertThat(filteredFeatures.get(0).getFeatureElements()).containsExactly(
+				features.get(0).getFeatureElements().get(0), features.get(0).getFeatureElements().get(2));
+	}
+
+	@Test
+	public void shouldOnlyKeepTheAssignedExampleRows() {
+		List<CucumberFeature> features = parseFeatures("individual/ValidFeatureWithScenarioOutlineWithTwoExamples.feature");
+		List<WorkUnit> workUnits = WorkUnit.split(features, Granularity.EXAMPLE);
+		FilteredFeatureBuilder filteredFeatureBuilder = new FilteredFeatureBuilder();
+		filteredFeatureBuilder.addWorkUnit(workUnits.get(1));
+		List<CucumberFeature> filteredFeatures = filteredFeatureBuilder.getFeatures();
+		CucumberScenarioOutline scenarioOutline = (CucumberScenarioOutline) filteredFeatures.get(0).getFeatureElements()
+				.get(0);
+		assertThat(scenarioOutline.getCucumberExamplesList().size()).isEqualTo(1);
+		assertThat(scenarioOutline.getCucumberExamplesList().get(0).createExampleScenarios().size()).isEqualTo(1);
+		assertThat(scenarioOutline.getCucumberExamplesList().get(0).createExampleScenarios().get(0).getGherkinModel()
+				.getLine()).isEqualTo(workUnits.get(1).getScenarios().get(0).getGherkinModel().getLine());
+	}
+
+	private List<CucumberFeature> parseFeatures(String featurePath) {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add(SAMPLE_FEATURES + featurePath);
+		RuntimeConfiguration runtimeConfiguration = new RuntimeConfiguration(0, null, arguments, null, null, false, null,
+				false, null, false);
+		FeatureParser featureParser = new FeatureParser(runtimeConfiguration, Thread.currentThread().getContextClassLoader());
+		return featureParser.parseFeatures();
+	}
+}
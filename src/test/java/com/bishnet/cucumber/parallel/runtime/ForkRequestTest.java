@@ -0,0 +1,54 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import cucumber.runtime.model.CucumberFeature;
+import gherkin.deps.com.google.gson.Gson;
+
+public class ForkRequestTest {
+
+	private static final String SAMPLE_FEATURES = "classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/";
+
+	@Test
+	public void shouldListTheLinesOfEveryScenarioOfAFeature() {
+		List<CucumberFeature> features = parseFeatures("individual/ValidFeatureThreeScenarios.feature");
+		ForkRequest forkRequest = ForkRequest.fromFeatures(new ArrayList<String>(), features);
+		assertThat(forkRequest.getFeatureLines()).containsOnlyKeys(features.get(0).getPath());
+		assertThat(forkRequest.getFeatureLines().get(features.get(0).getPath())).containsExactly(4, 9, 14);
+	}
+
+	@Test
+	public void shouldListTheLinesOfTheExampleRowsOfAFilteredFeature() {
+		List<CucumberFeature> features = parseFeatures("individual/ValidFeatureWithScenarioOutlineWithTwoExamples.feature");
+		List<WorkUnit> workUnits = WorkUnit.split(features, Granularity.EXAMPLE);
+		FilteredFeatureBuilder filteredFeatureBuilder = new FilteredFeatureBuilder();
+		filteredFeatureBuilder.addWorkUnit(workUnits.get(1));
+		ForkRequest forkRequest = ForkRequest.fromFeatures(new ArrayList<String>(), filteredFeatureBuilder.getFeatures());
+		assertThat(forkRequest.getFeatureLines().get(features.get(0).getPath())).containsExactly(
+				workUnits.get(1).getScenarios().get(0).getGherkinModel().getLine());
+	}
+
+	@Test
+	public void shouldSurviveASerialisationRoundTrip() {
+		List<CucumberFeature> features = parseFeatures("individual/ValidFeatureThreeScenarios.feature");
+		ForkRequest forkRequest = ForkRequest.fromFeatures(Arrays.asList("--plugin", "json:report.json"), features);
+		Gson gson = new Gson();
+		ForkRequest deserialisedRequest = gson.fromJson(gson.toJson(forkRequest), ForkRequest.class);
+		assertThat(deserialisedRequest.getArguments()).isEqualTo(forkRequest.getArguments());
+		assertThat(deserialisedRequest.getFeatureLines()).isEqualTo(forkRequest.getFeatureLines());
+	}
+
+	private List<CucumberFeature> parseFeatures(String featurePath) {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add(SAMPLE_FEATURES + featurePath);
+		RuntimeConfiguration runtimeConfiguration = new RuntimeConfiguration(0, null, arguments, null, null, false, null,
+				false, null, false);
+		return new FeatureParser(runtimeConfiguration, Thread.currentThread().getContextClassLoader()).parseFeatures();
+	}
+}
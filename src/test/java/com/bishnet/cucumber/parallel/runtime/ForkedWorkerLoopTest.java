@@ -0,0 +1,101 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import gherkin.deps.com.google.gson.Gson;
+import gherkin.deps.com.google.gson.reflect.TypeToken;
+
+public class ForkedWorkerLoopTest {
+
+	private static final String SAMPLE_FEATURES = "classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/";
+	private static final String THREE_SCENARIOS = SAMPLE_FEATURES + "individual/ValidFeatureThreeScenarios.feature";
+
+	private Path jsonReport;
+
+	@Before
+	public void setUp() throws IOException {
+		jsonReport = Files.createTempFile("forkedWorkerLoopTest", ".json");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(jsonReport);
+	}
+
+	@Test
+	public void shouldOnlyRunTheRequestedScenarios() throws IOException {
+		ForkedWorkerLoop workerLoop = createWorkerLoop();
+		ForkRequest forkRequest = new ForkRequest(Arrays.asList("--plugin", "json:" + jsonReport),
+				Collections.singletonMap(getFeaturePath(), Arrays.asList(4, 14)));
+		ForkResponse forkResponse = workerLoop.runRequest(forkRequest);
+		assertThat(forkResponse.getError()).isNull();
+		assertThat(forkResponse.getExitStatus()).isEqualTo((byte) 0);
+		assertThat(getReportedScenarioLines()).containsExactly(4.0, 14.0);
+	}
+
+	@Test
+	public void shouldRespondWithAnErrorForAnUnknownFeature() {
+		ForkedWorkerLoop workerLoop = createWorkerLoop();
+		ForkRequest forkRequest = new ForkRequest(new ArrayList<String>(), Collections.singletonMap("unknown.feature",
+				Arrays.asList(1)));
+		ForkResponse forkResponse = workerLoop.runRequest(forkRequest);
+		assertThat(forkResponse.getError()).contains("unknown.feature");
+	}
+
+	@Test
+	public void shouldAnswerEveryRequestWithOneResponseLine() throws IOException {
+		ForkedWorkerLoop workerLoop = createWorkerLoop();
+		Gson gson = new Gson();
+		ForkRequest forkRequest = new ForkRequest(Arrays.asList("--plugin", "json:" + jsonReport),
+				Collections.singletonMap(getFeaturePath(), Arrays.asList(9)));
+		String requests = gson.toJson(forkRequest) + "\n" + gson.toJson(forkRequest) + "\n";
+		StringWriter responses = new StringWriter();
+		workerLoop.run(new BufferedReader(new StringReader(requests)), responses);
+		String[] responseLines = responses.toString().split("\n");
+		assertThat(responseLines.length).isEqualTo(2);
+		assertThat(gson.fromJson(responseLines[1], ForkResponse.class).getError()).isNull();
+	}
+
+	private ForkedWorkerLoop createWorkerLoop() {
+		List<String> featureParsingArguments = Arrays.asList(THREE_SCENARIOS);
+		RuntimeConfiguration runtimeConfiguration = new RuntimeConfiguration(1, new ArrayList<String>(),
+				featureParsingArguments, new ArrayList<String>(), null, false, null, false, null, false);
+		return new ForkedWorkerLoop(runtimeConfiguration, new FakeCucumberBackendFactory(), Thread.currentThread()
+				.getContextClassLoader());
+	}
+
+	private String getFeaturePath() {
+		List<String> featureParsingArguments = Arrays.asList(THREE_SCENARIOS);
+		RuntimeConfiguration runtimeConfiguration = new RuntimeConfiguration(0, null, featureParsingArguments, null,
+				null, false, null, false, null, false);
+		return new FeatureParser(runtimeConfiguration, Thread.currentThread().getContextClassLoader()).parseFeatures()
+				.get(0).getPath();
+	}
+
+	private List<Object> getReportedScenarioLines() throws IOException {
+		List<Map<String, Object>> features = new Gson().fromJson(new String(Files.readAllBytes(jsonReport), "UTF-8"),
+				new TypeToken<List<Map<String, Object>>>() {
+				}.getType());
+		List<Object> lines = new ArrayList<Object>();
+		for (Map<String, Object> feature : features)
+			for (Object element : (List<?>) feature.get("elements"))
+				lines.add(((Map<?, ?>) element).get("line"));
+		return lines;
+	}
+}
@@ -0,0 +1,93 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import gherkin.deps.com.google.gson.Gson;
+
+public class ForkedWorkerTest {
+
+	private static final ForkRequest REQUEST = new ForkRequest(Collections.<String> emptyList(),
+			Collections.singletonMap("a.feature", Arrays.asList(3)));
+
+	private Socket forkSocket;
+	private ForkedWorker forkedWorker;
+
+	@Before
+	public void setUp() throws IOException {
+		try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			forkSocket = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+			forkedWorker = new ForkedWorker(1, serverSocket.accept(), null);
+		}
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		forkedWorker.close();
+		forkSocket.close();
+	}
+
+	@Test
+	public void heartbeatsShouldBeSkippedWhileWaitingForTheResponse() throws IOException {
+		Thread fork = new Thread(() -> {
+			try {
+				new BufferedReader(new InputStreamReader(forkSocket.getInputStream(), StandardCharsets.UTF_8))
+						.readLine();
+				Writer responses = new OutputStreamWriter(forkSocket.getOutputStream(), StandardCharsets.UTF_8);
+				responses.write("\n\n" + new Gson().toJson(new ForkResponse((byte) 1, null)) + "\n");
+				responses.flush();
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		fork.start();
+		assertThat(forkedWorker.run(REQUEST)).isEqualTo((byte) 1);
+	}
+
+	@Test
+	public void aForkWhichClosesTheConnectionShouldBeReportedAsLost() throws IOException {
+		forkSocket.close();
+		try {
+			forkedWorker.run(REQUEST);
+			fail("The lost fork should have been reported");
+		} catch (IOException e) {
+			assertThat(e).hasMessageContaining("Forked worker 1 was lost");
+		}
+	}
+
+	@Test
+	public void aForkWhichSendsNothingShouldBeReportedAsLostOnceItIsChecked() throws Exception {
+		Thread watchdog = new Thread(() -> {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				return;
+			}
+			forkedWorker.checkAlive(100);
+		});
+		watchdog.start();
+		try {
+			forkedWorker.run(REQUEST);
+			fail("The silent fork should have been reported");
+		} catch (IOException e) {
+			assertThat(e).hasMessageContaining("sent nothing for 100ms");
+		}
+		watchdog.join();
+	}
+}
@@ -0,0 +1,82 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cucumber.runtime.io.MultiLoader;
+import cucumber.runtime.io.Resource;
+import cucumber.runtime.io.ResourceLoader;
+
+public class GlueIndexTest {
+
+	private Path classesDirectory;
+	private Path indexPath;
+	private ClassLoader classLoader;
+	private AtomicInteger scanCount = new AtomicInteger();
+	private ResourceLoader countingResourceLoader;
+
+	@Before
+	public void setUp() throws IOException {
+		classesDirectory = Files.createTempDirectory("tempTestGlueIndex");
+		Files.createDirectories(classesDirectory.resolve("glue"));
+		Files.write(classesDirectory.resolve("glue/FirstSteps.class"), new byte[0]);
+		indexPath = classesDirectory.resolve("index/glue.json");
+		classLoader = new URLClassLoader(new URL[] { classesDirectory.toUri().toURL() }, null);
+		ResourceLoader resourceLoader = new MultiLoader(classLoader);
+		countingResourceLoader = (path, suffix) -> {
+			scanCount.incrementAndGet();
+			return resourceLoader.resources(path, suffix);
+		};
+	}
+
+	@After
+	public void teardown() throws IOException {
+		FileUtils.deleteDirectory(classesDirectory.toFile());
+	}
+
+	@Test
+	public void aLaterRunShouldReadTheGlueClassesFromTheIndexWithoutScanning() {
+		assertThat(getClassNames(new GlueIndex(indexPath, classLoader))).containsExactly("glue.FirstSteps");
+		assertThat(Files.exists(indexPath)).isTrue();
+		assertThat(getClassNames(new GlueIndex(indexPath, classLoader))).containsExactly("glue.FirstSteps");
+		assertThat(scanCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void theGlueShouldBeScannedAgainOnceTheClasspathHasChanged() throws IOException {
+		getClassNames(new GlueIndex(indexPath, classLoader));
+		Files.write(classesDirectory.resolve("glue/SecondSteps.class"), new byte[0]);
+		assertThat(getClassNames(new GlueIndex(indexPath, classLoader))).containsOnly("glue.FirstSteps",
+				"glue.SecondSteps");
+		assertThat(scanCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void anUnreadableIndexShouldBeRebuilt() throws IOException {
+		Files.createDirectories(indexPath.getParent());
+		Files.write(indexPath, "not json".getBytes("UTF-8"));
+		assertThat(getClassNames(new GlueIndex(indexPath, classLoader))).containsExactly("glue.FirstSteps");
+		assertThat(getClassNames(new GlueIndex(indexPath, classLoader))).containsExactly("glue.FirstSteps");
+		assertThat(scanCount.get()).isEqualTo(1);
+	}
+
+	private List<String> getClassNames(GlueIndex glueIndex) {
+		List<String> classNames = new ArrayList<String>();
+		for (Resource resource : glueIndex.resources("classpath:glue", countingResourceLoader))
+			classNames.add(resource.getClassName(".class"));
+		return classNames;
+	}
+}
@@ -0,0 +1,122 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.bishnet.cucumber.parallel.report.thread.ThreadExecutionRecorder;
+import com.bishnet.cucumber.parallel.report.thread.ThreadTimelineData;
+import com.bishnet.cucumber.parallel.report.thread.ThreadTimelineEventType;
+import com.bishnet.cucumber.parallel.util.WorkQueue;
+
+public class HeapPressureMonitorTest {
+
+	@Test
+	public void exceedingTheCollectionThresholdShouldPauseUntilTheHeapIsReclaimed() {
+		HeapPressureMonitor heapPressureMonitor = new HeapPressureMonitor(80, null);
+		heapPressureMonitor.collectionThresholdExceeded();
+		assertThat(heapPressureMonitor.isPaused()).isTrue();
+		heapPressureMonitor.recordCollection(1000, 10, 0.75);
+		assertThat(heapPressureMonitor.isPaused()).isTrue();
+		heapPressureMonitor.recordCollection(2000, 10, 0.5);
+		assertThat(heapPressureMonitor.isPaused()).isFalse();
+	}
+
+	@Test
+	public void spendingTooMuchTimeCollectingGarbageShouldPause() {
+		HeapPressureMonitor heapPressureMonitor = new HeapPressureMonitor(80, null);
+		heapPressureMonitor.recordCollection(1000, 1500, 0.4);
+		assertThat(heapPressureMonitor.isPaused()).isFalse();
+		heapPressureMonitor.recordCollection(3000, 1500, 0.4);
+		assertThat(heapPressureMonitor.isPaused()).isTrue();
+		heapPressureMonitor.recordCollection(20000, 10, 0.4);
+		assertThat(heapPressureMonitor.isPaused()).isFalse();
+	}
+
+	@Test(timeout = 10000)
+	public void pausedWorkShouldWaitForRunningWorkButNeverWhenNothingIsRunning() throws Exception {
+		HeapPressureMonitor heapPressureMonitor = new HeapPressureMonitor(80, null);
+		heapPressureMonitor.collectionThresholdExceeded();
+		heapPressureMonitor.awaitAdmission();
+		Thread finishRunningWork = new Thread(() -> {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			heapPressureMonitor.workFinished();
+		});
+		long startMillis = System.currentTimeMillis();
+		finishRunningWork.start();
+		heapPressureMonitor.awaitAdmission();
+		assertThat(System.currentTimeMillis() - startMillis).isGreaterThanOrEqualTo(150);
+		finishRunningWork.join();
+	}
+
+	@Test(timeout = 10000)
+	public void workShouldBeLetBackInOneMoreAtATimeOnceTheHeapIsReclaimed() throws Exception {
+		HeapPressureMonitor heapPressureMonitor = new HeapPressureMonitor(80, null);
+		heapPressureMonitor.awaitAdmission();
+		heapPressureMonitor.awaitAdmission();
+		heapPressureMonitor.collectionThresholdExceeded();
+		heapPressureMonitor.workFinished();
+		heapPressureMonitor.workFinished();
+		heapPressureMonitor.recordCollection(1000, 10, 0.5);
+		heapPressureMonitor.awaitAdmission();
+		Thread secondWorker = new Thread(() -> {
+			try {
+				heapPressureMonitor.awaitAdmission();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		secondWorker.start();
+		secondWorker.join(200);
+		assertThat(secondWorker.isAlive()).isTrue();
+		heapPressureMonitor.recordCollection(2000, 10, 0.5);
+		secondWorker.join();
+	}
+
+	@Test(timeout = 10000)
+	public void workersWaitingOnTheQueueShouldNotCountAsRunningWork() throws Exception {
+		HeapPressureMonitor heapPressureMonitor = new HeapPressureMonitor(80, null);
+		CountDownLatch workArrived = new CountDownLatch(1);
+		WorkQueue<Callable<Byte>> workQueue = heapPressureMonitor.throttle(workerIndex -> {
+			if (workerIndex == 0)
+				workArrived.await();
+			return () -> (byte) 0;
+		});
+		heapPressureMonitor.collectionThresholdExceeded();
+		Thread waitingWorker = new Thread(() -> {
+			try {
+				workQueue.poll(0);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		waitingWorker.start();
+		assertThat(workQueue.poll(1).call()).isEqualTo((byte) 0);
+		workArrived.countDown();
+		waitingWorker.join();
+	}
+
+	@Test
+	public void pausesShouldBeRecordedInTheThreadTimeline() throws Exception {
+		ThreadExecutionRecorder threadExecutionRecorder = new ThreadExecutionRecorder();
+		HeapPressureMonitor heapPressureMonitor = new HeapPressureMonitor(80, threadExecutionRecorder);
+		Thread notificationThread = new Thread(() -> {
+			heapPressureMonitor.collectionThresholdExceeded();
+			heapPressureMonitor.recordCollection(1000, 10, 0.5);
+		});
+		notificationThread.start();
+		notificationThread.join();
+		List<ThreadTimelineData> timelineData = heapPressureMonitor.getPauses();
+		assertThat(timelineData).hasSize(1);
+		assertThat(timelineData.get(0).getEventType()).isEqualTo(ThreadTimelineEventType.HEAP_PRESSURE_PAUSE);
+		assertThat(timelineData.get(0).getEndTime()).isGreaterThanOrEqualTo(timelineData.get(0).getStartTime());
+	}
+}
@@ -0,0 +1,115 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OutputCaptureTest {
+
+	private PrintStream originalOut;
+	private ByteArrayOutputStream console;
+
+	@Before
+	public void setUp() {
+		originalOut = System.out;
+		console = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(console, true));
+	}
+
+	@After
+	public void teardown() {
+		System.setOut(originalOut);
+	}
+
+	@Test(timeout = 10000)
+	public void outputOfThreadsRunningAtOnceShouldBeWrittenABlockAtATime() throws Exception {
+		final OutputCapture outputCapture = new OutputCapture();
+		outputCapture.start();
+		final CyclicBarrier barrier = new CyclicBarrier(2);
+		List<Callable<Byte>> workers = new ArrayList<Callable<Byte>>();
+		for (final String worker : new String[] { "a", "b" })
+			workers.add(outputCapture.capture(() -> {
+				for (int feature = 0; feature < 3; feature++) {
+					for (int step = 0; step < 3; step++) {
+						System.out.println(worker + feature + " step " + step);
+						barrier.await();
+					}
+					outputCapture.flushThread();
+				}
+				return (byte) 0;
+			}));
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		for (Future<Byte> future : executor.invokeAll(workers))
+			future.get();
+		executor.shutdown();
+		outputCapture.close();
+
+		String[] lines = console.toString().split(System.lineSeparator());
+		assertThat(lines).hasSize(18);
+		for (int block = 0; block < lines.length; block += 3)
+			for (int step = 0; step < 3; step++)
+				assertThat(lines[block + step]).isEqualTo(lines[block].substring(0, 2) + " step " + step);
+	}
+
+	@Test
+	public void outputOutsideOfAWorkUnitShouldBeWrittenLineByLine() throws Exception {
+		OutputCapture outputCapture = new OutputCapture();
+		PrintStream consoleOut = System.out;
+		outputCapture.start();
+		System.out.printf("%d scenarios%n", 3);
+		System.out.print("not finished");
+		outputCapture.close();
+		assertThat(System.out).isSameAs(consoleOut);
+		assertThat(console.toString()).isEqualTo("3 scenarios" + System.lineSeparator() + "not finished");
+	}
+
+	@Test(timeout = 10000)
+	public void outputLeftInTheBufferOfAnotherThreadShouldBeWrittenOnClose() throws Exception {
+		OutputCapture outputCapture = new OutputCapture();
+		outputCapture.start();
+		Thread otherThread = new Thread(() -> System.out.print("not finished"));
+		otherThread.start();
+		otherThread.join();
+		outputCapture.close();
+		assertThat(console.toString()).isEqualTo("not finished");
+	}
+
+	@Test(timeout = 10000)
+	public void outputOfAWorkUnitFinishingAfterCloseShouldStillBeWritten() throws Exception {
+		final OutputCapture outputCapture = new OutputCapture();
+		outputCapture.start();
+		final CountDownLatch printed = new CountDownLatch(1);
+		final CountDownLatch closed = new CountDownLatch(1);
+		Thread workUnit = new Thread(() -> {
+			try {
+				outputCapture.capture(() -> {
+					System.out.println("late feature");
+					printed.countDown();
+					closed.await();
+					return (byte) 0;
+				}).call();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		workUnit.start();
+		printed.await();
+		outputCapture.close();
+		closed.countDown();
+		workUnit.join();
+		assertThat(console.toString()).isEqualTo("late feature" + System.lineSeparator());
+	}
+}
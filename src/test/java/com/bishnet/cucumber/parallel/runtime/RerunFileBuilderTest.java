@@ -85,6 +85,22 @@ public class RerunFileBuilderTest {
 		assertThat(fakeRerunFormatter.getUriInvocationCount()).isEqualTo(1);
 	}
 
+	@Test
+	public void formatterCalledCorrectlyForASingleExampleWorkUnit() {
+		String featurePath = "com/bishnet/cucumber/parallel/runtime/samplefeatures/individual/ValidFeatureWithScenarioOutlineWithTwoExamples.feature";
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("classpath:" + featurePath);
+		FeatureParser featureParser = new FeatureParser(getRuntimeConfiguration(arguments), Thread.currentThread()
+				.getContextClassLoader());
+		List<WorkUnit> workUnits = WorkUnit.split(featureParser.parseFeatures(), Granularity.EXAMPLE);
+		rerunFileBuilder.addWorkUnit(workUnits.get(1));
+		assertThat(fakeRerunFormatter.getUri()).isEqualTo(featurePath);
+		assertThat(fakeRerunFormatter.getStartOfLifeCycleInvocationCount()).isEqualTo(1);
+		assertThat(fakeRerunFormatter.getEndOfLifeCycleInvocationCount()).isEqualTo(1);
+		assertThat(fakeRerunFormatter.getScenarioInvocationCount()).isEqualTo(1);
+		assertThat(fakeRerunFormatter.getUriInvocationCount()).isEqualTo(1);
+	}
+
 	@Test
 	public void formatterCalledCorrectlyWhenFileBuilderIsClose() {
 		rerunFileBuilder.close();
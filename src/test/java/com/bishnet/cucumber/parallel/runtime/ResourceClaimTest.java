@@ -0,0 +1,57 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import cucumber.runtime.CucumberException;
+import cucumber.runtime.model.CucumberFeature;
+
+public class ResourceClaimTest {
+
+	private static final String RESOURCE_TAGGED_FEATURE = "classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/individual/ValidFeatureWithResourceTags.feature";
+
+	@Test
+	public void resourceTagWithoutALimitShouldAllowOneAtATime() {
+		ResourceClaim resourceClaim = ResourceClaim.fromTags(Arrays.asList("@resource:db", "@slow"));
+		assertThat(resourceClaim.isExclusive()).isFalse();
+		assertThat(resourceClaim.getResourceLimits()).containsOnlyKeys("db").containsEntry("db", 1);
+	}
+
+	@Test
+	public void resourceTagWithALimitShouldKeepTheSmallestLimit() {
+		ResourceClaim resourceClaim = ResourceClaim.fromTags(Arrays.asList("@resource:sap=3", "@resource:sap=2"));
+		assertThat(resourceClaim.getResourceLimits()).containsEntry("sap", 2);
+	}
+
+	@Test
+	public void untaggedWorkShouldClaimNothing() {
+		assertThat(ResourceClaim.fromTags(Arrays.asList("@slow")).isEmpty()).isTrue();
+	}
+
+	@Test(expected = CucumberException.class)
+	public void resourceTagWithAnInvalidLimitShouldBeRejected() {
+		ResourceClaim.fromTags(Arrays.asList("@resource:sap=0"));
+	}
+
+	@Test
+	public void workUnitsShouldClaimTheResourcesOfTheirFeatureAndScenarioTags() {
+		List<WorkUnit> workUnits = WorkUnit.split(parseFeatures(), Granularity.SCENARIO);
+		assertThat(ResourceClaim.fromWorkUnit(workUnits.get(0)).getResourceLimits()).containsOnlyKeys("db");
+		assertThat(ResourceClaim.fromWorkUnit(workUnits.get(1)).getResourceLimits()).containsOnlyKeys("db", "sap");
+		assertThat(ResourceClaim.fromWorkUnit(workUnits.get(2)).isExclusive()).isTrue();
+	}
+
+	private List<CucumberFeature> parseFeatures() {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add(RESOURCE_TAGGED_FEATURE);
+		RuntimeConfiguration runtimeConfiguration = new RuntimeConfiguration(0, null, arguments, null, null, false, null,
+				false, null, false);
+		FeatureParser featureParser = new FeatureParser(runtimeConfiguration, Thread.currentThread().getContextClassLoader());
+		return featureParser.parseFeatures();
+	}
+}
@@ -0,0 +1,114 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+public class ResourceLimitedWorkQueueTest {
+
+	private static final ResourceClaim DATABASE = ResourceClaim.fromTags(Collections.singletonList("@resource:db"));
+	private static final ResourceClaim EXCLUSIVE = ResourceClaim.fromTags(Collections.singletonList("@exclusive"));
+
+	@Test
+	public void workWaitingOnAResourceShouldBePassedOverForWorkWhichCanRun() throws Exception {
+		ResourceLimitedWorkQueue workQueue = new ResourceLimitedWorkQueue(workItems(1, 2, 3), Arrays.asList(DATABASE,
+				DATABASE, ResourceClaim.NONE));
+		assertThat(workQueue.poll(0)).isNotNull();
+		Callable<Byte> unlimitedWork = workQueue.poll(1);
+		assertThat(unlimitedWork.call()).isEqualTo((byte) 3);
+	}
+
+	@Test
+	public void releasingAResourceShouldLetTheNextWorkTakeIt() throws Exception {
+		ResourceLimitedWorkQueue workQueue = new ResourceLimitedWorkQueue(workItems(1, 2), Arrays.asList(DATABASE,
+				DATABASE));
+		assertThat(workQueue.poll(0).call()).isEqualTo((byte) 1);
+		assertThat(workQueue.poll(1).call()).isEqualTo((byte) 2);
+		assertThat(workQueue.poll(0)).isNull();
+	}
+
+	@Test(timeout = 10000)
+	public void exclusiveWorkShouldWaitUntilNothingElseIsRunning() throws Exception {
+		ResourceLimitedWorkQueue workQueue = new ResourceLimitedWorkQueue(workItems(1, 2), Arrays.asList(
+				ResourceClaim.NONE, EXCLUSIVE));
+		Callable<Byte> runningWork = workQueue.poll(0);
+		Thread finishRunningWork = new Thread(() -> {
+			try {
+				Thread.sleep(200);
+				runningWork.call();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		long startMillis = System.currentTimeMillis();
+		finishRunningWork.start();
+		Callable<Byte> exclusiveWork = workQueue.poll(1);
+		assertThat(System.currentTimeMillis() - startMillis).isGreaterThanOrEqualTo(150);
+		assertThat(exclusiveWork.call()).isEqualTo((byte) 2);
+		finishRunningWork.join();
+	}
+
+	@Test(timeout = 10000)
+	public void noOtherWorkShouldStartOnceExclusiveWorkIsWaiting() throws Exception {
+		ResourceLimitedWorkQueue workQueue = new ResourceLimitedWorkQueue(workItems(1, 2, 3), Arrays.asList(
+				ResourceClaim.NONE, EXCLUSIVE, ResourceClaim.NONE));
+		Callable<Byte> runningWork = workQueue.poll(0);
+		List<Callable<Byte>> polledWork = Collections.synchronizedList(new ArrayList<Callable<Byte>>());
+		Thread pollWork = new Thread(() -> {
+			try {
+				polledWork.add(workQueue.poll(1));
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		pollWork.start();
+		pollWork.join(200);
+		assertThat(polledWork).isEmpty();
+		assertThat(runningWork.call()).isEqualTo((byte) 1);
+		pollWork.join();
+		assertThat(polledWork.get(0).call()).isEqualTo((byte) 2);
+		assertThat(workQueue.poll(0).call()).isEqualTo((byte) 3);
+	}
+
+	@Test(timeout = 10000)
+	public void anOpenQueueShouldWaitForWorkToBeAddedUntilItIsClosed() throws Exception {
+		ResourceLimitedWorkQueue workQueue = new ResourceLimitedWorkQueue();
+		Thread addWork = new Thread(() -> {
+			try {
+				Thread.sleep(200);
+				workQueue.add(() -> (byte) 1, DATABASE);
+				workQueue.close();
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		long startMillis = System.currentTimeMillis();
+		addWork.start();
+		Callable<Byte> addedWork = workQueue.poll(0);
+		assertThat(System.currentTimeMillis() - startMillis).isGreaterThanOrEqualTo(150);
+		assertThat(addedWork.call()).isEqualTo((byte) 1);
+		assertThat(workQueue.poll(0)).isNull();
+		addWork.join();
+	}
+
+	@Test
+	public void cancellingAnOpenQueueShouldDropTheWorkNotYetHandedOut() throws Exception {
+		ResourceLimitedWorkQueue workQueue = new ResourceLimitedWorkQueue();
+		workQueue.add(() -> (byte) 1, ResourceClaim.NONE);
+		workQueue.cancel();
+		assertThat(workQueue.poll(0)).isNull();
+	}
+
+	private List<Callable<Byte>> workItems(int... results) {
+		List<Callable<Byte>> workItems = new ArrayList<Callable<Byte>>();
+		for (int result : results)
+			workItems.add(() -> (byte) result);
+		return workItems;
+	}
+}
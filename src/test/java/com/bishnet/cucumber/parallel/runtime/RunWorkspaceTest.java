@@ -0,0 +1,66 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RunWorkspaceTest {
+
+	private Path parentDirectory;
+
+	@Before
+	public void setUp() throws IOException {
+		parentDirectory = Files.createTempDirectory("tempTestWorkspaces");
+	}
+
+	@After
+	public void teardown() throws IOException {
+		FileUtils.deleteDirectory(parentDirectory.toFile());
+	}
+
+	@Test(timeout = 10000)
+	public void reportsShouldBeCreatedInsideTheGivenDirectory() throws Exception {
+		RunWorkspace runWorkspace = new RunWorkspace(parentDirectory.resolve("fast"));
+		Path jsonReport = runWorkspace.createJsonReport();
+		Path htmlReport = runWorkspace.createHtmlReport();
+		assertThat(jsonReport.getParent()).isEqualTo(runWorkspace.getDirectory());
+		assertThat(htmlReport.getParent()).isEqualTo(runWorkspace.getDirectory());
+		assertThat(runWorkspace.getDirectory().getParent()).isEqualTo(parentDirectory.resolve("fast"));
+		assertThat(Files.isDirectory(htmlReport)).isTrue();
+		Path directory = runWorkspace.getDirectory();
+		runWorkspace.close();
+		awaitRemoval(directory);
+	}
+
+	@Test(timeout = 10000)
+	public void closingShouldRemoveTheWorkspaceWithEverythingInIt() throws Exception {
+		RunWorkspace runWorkspace = new RunWorkspace(parentDirectory);
+		Path htmlReport = runWorkspace.createHtmlReport();
+		Files.write(htmlReport.resolve("embedded0.png"), new byte[] { 1, 2, 3 });
+		Path directory = runWorkspace.getDirectory();
+		runWorkspace.close();
+		awaitRemoval(directory);
+	}
+
+	@Test(timeout = 10000, expected = IllegalStateException.class)
+	public void noReportsShouldBeCreatedOnceClosed() throws Exception {
+		RunWorkspace runWorkspace = new RunWorkspace(parentDirectory);
+		runWorkspace.createJsonReport();
+		Path directory = runWorkspace.getDirectory();
+		runWorkspace.close();
+		awaitRemoval(directory);
+		runWorkspace.createJsonReport();
+	}
+
+	private void awaitRemoval(Path directory) throws InterruptedException {
+		while (Files.exists(directory))
+			Thread.sleep(10);
+	}
+}
@@ -0,0 +1,87 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.bishnet.cucumber.parallel.report.DurationStore;
+
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberTagStatement;
+
+public class ShardSelectorTest {
+
+	private static final String FEATURE_DIRECTORY = "classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/individual/";
+
+	@Test
+	public void shardsShouldRunEveryScenarioExactlyOnce() {
+		List<CucumberFeature> features = parseFeatures();
+		List<String> shardedScenarios = new ArrayList<String>();
+		for (int shardIndex = 1; shardIndex <= 3; shardIndex++)
+			shardedScenarios.addAll(getScenarioIds(new ShardSelector(createConfiguration(shardIndex, 3))
+					.selectShard(features)));
+		List<String> allScenarios = getScenarioIds(features);
+		assertThat(shardedScenarios).hasSameSizeAs(allScenarios);
+		assertThat(shardedScenarios).containsOnlyElementsOf(allScenarios);
+		assertThat(shardedScenarios).doesNotHaveDuplicates();
+	}
+
+	@Test
+	public void shardShouldNotDependOnTheOrderOfTheFeatures() {
+		List<CucumberFeature> features = parseFeatures();
+		List<CucumberFeature> reversedFeatures = parseFeatures();
+		Collections.reverse(reversedFeatures);
+		ShardSelector shardSelector = new ShardSelector(createConfiguration(2, 3));
+		assertThat(getScenarioIds(shardSelector.selectShard(reversedFeatures))).isEqualTo(
+				getScenarioIds(shardSelector.selectShard(features)));
+	}
+
+	@Test
+	public void shardsBalancedByDurationShouldRunEveryScenarioExactlyOnce() {
+		List<CucumberFeature> features = parseFeatures();
+		DurationEstimator durationEstimator = new DurationEstimator(new DurationStore());
+		List<String> shardedScenarios = new ArrayList<String>();
+		for (int shardIndex = 1; shardIndex <= 2; shardIndex++) {
+			List<CucumberFeature> shard = new ShardSelector(createConfiguration(shardIndex, 2), durationEstimator)
+					.selectShard(features);
+			assertThat(shard).isNotEmpty();
+			shardedScenarios.addAll(getScenarioIds(shard));
+		}
+		assertThat(shardedScenarios).containsOnlyElementsOf(getScenarioIds(features));
+		assertThat(shardedScenarios).hasSameSizeAs(getScenarioIds(features));
+	}
+
+	@Test
+	public void shardBeyondTheNumberOfWorkUnitsShouldBeEmptyWhenBalancedByDuration() {
+		List<CucumberFeature> features = parseFeatures();
+		DurationEstimator durationEstimator = new DurationEstimator(new DurationStore());
+		assertThat(new ShardSelector(createConfiguration(20, 20), durationEstimator).selectShard(features)).isEmpty();
+	}
+
+	private List<String> getScenarioIds(List<CucumberFeature> features) {
+		List<String> scenarioIds = new ArrayList<String>();
+		for (CucumberFeature feature : features)
+			for (CucumberTagStatement scenario : feature.getFeatureElements())
+				scenarioIds.add(feature.getPath() + ":" + scenario.getGherkinModel().getLine());
+		return scenarioIds;
+	}
+
+	private RuntimeConfiguration createConfiguration(int shardIndex, int shardCount) {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add(FEATURE_DIRECTORY + "ValidFeature.feature");
+		arguments.add(FEATURE_DIRECTORY + "ValidFeatureThreeScenarios.feature");
+		arguments.add(FEATURE_DIRECTORY + "ValidFeatureWithScenarioOutlineWithTwoExamples.feature");
+		return new RuntimeConfiguration.Builder().featureParsingArguments(arguments)
+				.granularity(Granularity.SCENARIO).shardIndex(shardIndex).shardCount(shardCount).build();
+	}
+
+	private List<CucumberFeature> parseFeatures() {
+		FeatureParser featureParser = new FeatureParser(createConfiguration(1, 1), Thread.currentThread()
+				.getContextClassLoader());
+		return featureParser.parseFeatures();
+	}
+}
@@ -0,0 +1,54 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class ThreadCountControllerTest {
+
+	private static final double IDLE_CPU = 0.3;
+	private static final double LIGHT_LOAD = 0.5;
+
+	@Test
+	public void threadCountShouldKeepGrowingWhileThroughputImproves() {
+		ThreadCountController threadCountController = new ThreadCountController(1, 32, 4);
+		threadCountController.adjust(4, IDLE_CPU, LIGHT_LOAD);
+		assertThat(threadCountController.getActiveThreads()).isEqualTo(5);
+		threadCountController.adjust(5, IDLE_CPU, LIGHT_LOAD);
+		assertThat(threadCountController.getActiveThreads()).isEqualTo(6);
+	}
+
+	@Test
+	public void threadCountShouldTurnBackWhenThroughputDrops() {
+		ThreadCountController threadCountController = new ThreadCountController(1, 32, 4);
+		threadCountController.adjust(4, IDLE_CPU, LIGHT_LOAD);
+		threadCountController.adjust(3, IDLE_CPU, LIGHT_LOAD);
+		assertThat(threadCountController.getActiveThreads()).isEqualTo(4);
+	}
+
+	@Test
+	public void threadCountShouldShrinkOnASaturatedHostAndStayWithinTheRange() {
+		ThreadCountController threadCountController = new ThreadCountController(3, 32, 4);
+		threadCountController.adjust(4, 1.0, LIGHT_LOAD);
+		assertThat(threadCountController.getActiveThreads()).isEqualTo(3);
+		threadCountController.adjust(4, 1.0, 3.0);
+		assertThat(threadCountController.getActiveThreads()).isEqualTo(3);
+	}
+
+	@Test(timeout = 10000)
+	public void workersBeyondTheActiveThreadCountShouldWaitUntilTheWorkIsFinished() throws Exception {
+		ThreadCountController threadCountController = new ThreadCountController(1, 4, 1);
+		assertThat(threadCountController.awaitTurn(0)).isTrue();
+		Thread finishWork = new Thread(() -> {
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			threadCountController.finish();
+		});
+		finishWork.start();
+		assertThat(threadCountController.awaitTurn(2)).isFalse();
+		finishWork.join();
+	}
+}
@@ -2,11 +2,16 @@ package com.bishnet.cucumber.parallel.runtime;
 
 import com.bishnet.cucumber.parallel.report.thread.ThreadExecutionRecorder;
 import com.bishnet.cucumber.parallel.report.thread.ThreadTimelineData;
+import com.bishnet.cucumber.parallel.report.thread.ThreadTimelineEventType;
 import cucumber.runtime.Backend;
+import cucumber.runtime.Glue;
 import cucumber.runtime.RuntimeOptions;
+import cucumber.runtime.StepDefinition;
 import cucumber.runtime.io.ResourceLoader;
 import gherkin.I18n;
+import gherkin.formatter.Argument;
 import gherkin.formatter.Reporter;
+import gherkin.formatter.model.Match;
 import gherkin.formatter.model.Scenario;
 import gherkin.formatter.model.Step;
 import gherkin.formatter.model.Tag;
@@ -18,10 +23,18 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -82,15 +95,93 @@ public class ThreadLoggedRuntimeTest {
 		threadLoggedRuntime.disposeBackendWorlds("");
 
 		ArgumentCaptor<ThreadTimelineData> argumentCaptor = ArgumentCaptor.forClass(ThreadTimelineData.class);
-		verify(threadExecutionRecorder).recordEvent(argumentCaptor.capture());
+		verify(threadExecutionRecorder, times(2)).recordEvent(argumentCaptor.capture());
 
-		ThreadTimelineData recordedData = argumentCaptor.getValue();
+		ThreadTimelineData recordedData = argumentCaptor.getAllValues().get(0);
 
 		assertThat(recordedData.getFeaturePath()).isEqualTo(FEATURE_PATH);
 		assertThat(recordedData.getThreadId()).isEqualTo(Thread.currentThread().getId());
 		assertThat(recordedData.getScenarioId()).isEqualTo(SCENARIO_ID);
 		assertThat(recordedData.getStartTime()).isNotNull();
 		assertThat(recordedData.getEndTime()).isNotNull();
+		assertThat(recordedData.getEventType()).isEqualTo(ThreadTimelineEventType.SCENARIO);
+
+	}
+
+	@Test
+	public void shouldRecordNestedTimelineDataForHooksAndSteps() {
+
+		when(step.getKeyword()).thenReturn("Given ");
+		when(step.getName()).thenReturn("a step");
+
+		threadLoggedRuntime.buildBackendWorlds(reporter, tags, scenario);
+		threadLoggedRuntime.runBeforeHooks(reporter, tags);
+		threadLoggedRuntime.runStep(FEATURE_PATH, step, reporter, i18n);
+		threadLoggedRuntime.runAfterHooks(reporter, tags);
+		threadLoggedRuntime.disposeBackendWorlds("");
+
+		ArgumentCaptor<ThreadTimelineData> argumentCaptor = ArgumentCaptor.forClass(ThreadTimelineData.class);
+		verify(threadExecutionRecorder, times(4)).recordEvent(argumentCaptor.capture());
+
+		List<ThreadTimelineData> recordedData = argumentCaptor.getAllValues();
+		assertThat(recordedData).extracting("eventType").containsExactly(ThreadTimelineEventType.SCENARIO,
+				ThreadTimelineEventType.BEFORE_HOOKS, ThreadTimelineEventType.STEP, ThreadTimelineEventType.AFTER_HOOKS);
+		assertThat(recordedData).extracting("scenarioId").containsOnly(SCENARIO_ID);
+		assertThat(recordedData).extracting("featurePath").containsOnly(FEATURE_PATH);
+
+		ThreadTimelineData stepData = recordedData.get(2);
+		assertThat(stepData.getName()).isEqualTo("Given a step");
+		assertThat(stepData.getStepDefinition()).isEqualTo("a step");
+
+	}
+
+	@Test
+	public void shouldRecordTheStepDefinitionTheRuntimeMatchedWithoutMatchingTheStepAgain() {
+
+		when(step.getKeyword()).thenReturn("Given ");
+		when(step.getName()).thenReturn("a step");
+		StepDefinition stepDefinition = mock(StepDefinition.class);
+		when(stepDefinition.matchedArguments(step)).thenReturn(Collections.<Argument> emptyList());
+		when(stepDefinition.getPattern()).thenReturn("^a step$");
+		doAnswer(invocation -> {
+			((Glue) invocation.getArgument(0)).addStepDefinition(stepDefinition);
+			return null;
+		}).when(backend).loadGlue(any(Glue.class), anyListOf(String.class));
+		threadLoggedRuntime = new ThreadLoggedRuntime(resourceLoader, classLoader, Arrays.asList(backend),
+				runtimeOptions, threadExecutionRecorder);
+
+		threadLoggedRuntime.buildBackendWorlds(reporter, tags, scenario);
+		threadLoggedRuntime.runStep(FEATURE_PATH, step, reporter, i18n);
+		threadLoggedRuntime.disposeBackendWorlds("");
+
+		ArgumentCaptor<ThreadTimelineData> argumentCaptor = ArgumentCaptor.forClass(ThreadTimelineData.class);
+		verify(threadExecutionRecorder, times(2)).recordEvent(argumentCaptor.capture());
+		assertThat(argumentCaptor.getAllValues().get(1).getStepDefinition()).isEqualTo("^a step$");
+		verify(stepDefinition, times(1)).matchedArguments(step);
+
+	}
+
+	@Test
+	public void shouldEndTheStepWhenRunningItThrows() {
+
+		when(step.getKeyword()).thenReturn("Given ");
+		when(step.getName()).thenReturn("a step");
+		doThrow(new IllegalStateException("reporter failed")).when(reporter).match(any(Match.class));
+
+		threadLoggedRuntime.buildBackendWorlds(reporter, tags, scenario);
+		try {
+			threadLoggedRuntime.runStep(FEATURE_PATH, step, reporter, i18n);
+			fail("The step should have thrown");
+		} catch (IllegalStateException e) {
+			assertThat(e).hasMessage("reporter failed");
+		}
+		threadLoggedRuntime.disposeBackendWorlds("");
+
+		ArgumentCaptor<ThreadTimelineData> argumentCaptor = ArgumentCaptor.forClass(ThreadTimelineData.class);
+		verify(threadExecutionRecorder, times(2)).recordEvent(argumentCaptor.capture());
+		ThreadTimelineData stepData = argumentCaptor.getAllValues().get(1);
+		assertThat(stepData.getEndTime()).isNotNull();
+		assertThat(stepData.getFeaturePath()).isEqualTo(FEATURE_PATH);
 
 	}
 
@@ -0,0 +1,67 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bishnet.cucumber.parallel.util.VirtualThreads;
+import com.bishnet.cucumber.parallel.util.WorkStealingQueue;
+
+public class VirtualThreadDispatcherTest {
+
+	private AtomicInteger runningWorkUnits = new AtomicInteger();
+	private AtomicInteger mostRunningWorkUnits = new AtomicInteger();
+	private Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+
+	@Before
+	public void setUp() {
+		assumeTrue(VirtualThreads.isSupported());
+	}
+
+	@Test(timeout = 10000)
+	public void everyWorkUnitShouldRunOnAThreadOfItsOwnWithinTheLaneLimit() throws Exception {
+		List<Callable<Byte>> workUnits = new ArrayList<Callable<Byte>>();
+		for (int i = 0; i < 20; i++)
+			workUnits.add(this::runWorkUnit);
+		VirtualThreadDispatcher dispatcher = new VirtualThreadDispatcher(
+				new WorkStealingQueue<Callable<Byte>>(workUnits, 3), 3, null, null);
+		assertThat(dispatcher.call()).isEqualTo((byte) 0);
+		assertThat(threads).hasSize(20);
+		assertThat(mostRunningWorkUnits.get()).isLessThanOrEqualTo(3);
+	}
+
+	@Test(timeout = 10000)
+	public void noFurtherWorkUnitsShouldStartOnceTheRunHasStopped() throws Exception {
+		FailFastMonitor failFastMonitor = new FailFastMonitor(1);
+		List<Callable<Byte>> workUnits = new ArrayList<Callable<Byte>>();
+		for (int i = 0; i < 5; i++)
+			workUnits.add(() -> {
+				runWorkUnit();
+				failFastMonitor.recordFailedScenarios(1);
+				return (byte) 1;
+			});
+		VirtualThreadDispatcher dispatcher = new VirtualThreadDispatcher(
+				new WorkStealingQueue<Callable<Byte>>(workUnits, 1), 1, failFastMonitor, null);
+		assertThat(dispatcher.call()).isEqualTo((byte) 1);
+		assertThat(threads).hasSize(1);
+	}
+
+	private Byte runWorkUnit() throws InterruptedException {
+		threads.add(Thread.currentThread());
+		int running = runningWorkUnits.incrementAndGet();
+		mostRunningWorkUnits.accumulateAndGet(running, Math::max);
+		Thread.sleep(20);
+		runningWorkUnits.decrementAndGet();
+		return (byte) 0;
+	}
+}
@@ -0,0 +1,55 @@
+package com.bishnet.cucumber.parallel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import cucumber.runtime.model.CucumberFeature;
+
+public class WorkUnitTest {
+
+	private static final String SAMPLE_FEATURES = "classpath:com/bishnet/cucumber/parallel/runtime/samplefeatures/";
+
+	@Test
+	public void featureGranularityShouldGiveOneWorkUnitPerFeatureContainingEveryScenario() {
+		List<WorkUnit> workUnits = WorkUnit.split(parseFeatures("directory"), Granularity.FEATURE);
+		assertThat(workUnits.size()).isEqualTo(2);
+		assertThat(workUnits.get(0).getScenarios().size() + workUnits.get(1).getScenarios().size()).isEqualTo(5);
+	}
+
+	@Test
+	public void scenarioGranularityShouldGiveOneWorkUnitPerScenario() {
+		List<WorkUnit> workUnits = WorkUnit.split(parseFeatures("directory"), Granularity.SCENARIO);
+		assertThat(workUnits.size()).isEqualTo(5);
+		for (WorkUnit workUnit : workUnits)
+			assertThat(workUnit.getScenarios().size()).isEqualTo(1);
+	}
+
+	@Test
+	public void scenarioGranularityShouldKeepTheExamplesOfAScenarioOutlineTogether() {
+		List<WorkUnit> workUnits = WorkUnit.split(
+				parseFeatures("individual/ValidFeatureWithScenarioOutlineWithTwoExamples.feature"), Granularity.SCENARIO);
+		assertThat(workUnits.size()).isEqualTo(1);
+		assertThat(workUnits.get(0).getScenarios().size()).isEqualTo(2);
+	}
+
+	@Test
+	public void exampleGranularityShouldGiveOneWorkUnitPerExampleRow() {
+		List<WorkUnit> workUnits = WorkUnit.split(
+				parseFeatures("individual/ValidFeatureWithScenarioOutlineWithTwoExamples.feature"), Granularity.EXAMPLE);
+		assertThat(workUnits.size()).isEqualTo(2);
+		assertThat(workUnits.get(0).getFeature()).isSameAs(workUnits.get(1).getFeature());
+	}
+
+	private List<CucumberFeature> parseFeatures(String featurePath) {
+		List<String> arguments = new ArrayList<String>();
+		arguments.add(SAMPLE_FEATURES + featurePath);
+		RuntimeConfiguration runtimeConfiguration = new RuntimeConfiguration(0, null, arguments, null, null, false, null,
+				false, null, false);
+		FeatureParser featureParser = new FeatureParser(runtimeConfiguration, Thread.currentThread().getContextClassLoader());
+		return featureParser.parseFeatures();
+	}
+}
@@ -3,6 +3,7 @@ package com.bishnet.cucumber.parallel.util;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
@@ -72,4 +73,34 @@ public class ListUtilsTest {
 		List<List<Object>> partitionedList = ListUtils.partition(sourceList, numberOfSegments);
 		assertThat(partitionedList.size()).isEqualTo(numberOfSourceElements);
 	}
+
+	@Test
+	public void partitionByCostShouldBalanceTheTotalCostOfEachList() {
+		List<Long> sourceList = Arrays.asList(3L, 3L, 2L, 2L, 2L);
+		List<List<Long>> partitionedList = ListUtils.partitionByCost(sourceList, 2, Long::longValue);
+		assertThat(partitionedList.size()).isEqualTo(2);
+		assertThat(partitionedList.get(0)).containsExactly(3L, 2L, 2L);
+		assertThat(partitionedList.get(1)).containsExactly(3L, 2L);
+	}
+
+	@Test
+	public void partitionByCostShouldGiveEachLongElementItsOwnListBeforeSharing() {
+		List<Long> sourceList = Arrays.asList(1L, 1L, 1L, 1L, 10L, 4L);
+		List<List<Long>> partitionedList = ListUtils.partitionByCost(sourceList, 2, Long::longValue);
+		assertThat(partitionedList.get(0)).containsExactly(10L);
+		assertThat(partitionedList.get(1)).containsExactly(4L, 1L, 1L, 1L, 1L);
+	}
+
+	@Test
+	public void partitionByCostShouldReturnASingleEmptyListIfAnEmptySourceListIsProvided() {
+		List<List<Long>> partitionedList = ListUtils.partitionByCost(new ArrayList<Long>(), 3, Long::longValue);
+		assertThat(partitionedList.size()).isEqualTo(1);
+		assertThat(partitionedList.get(0)).isEmpty();
+	}
+
+	@Test
+	public void sortByCostDescendingShouldKeepSourceOrderForEqualCosts() {
+		List<String> sourceList = Arrays.asList("bb", "a", "ccc", "dd");
+		assertThat(ListUtils.sortByCostDescending(sourceList, String::length)).containsExactly("ccc", "bb", "dd", "a");
+	}
 }
@@ -0,0 +1,72 @@
+package com.bishnet.cucumber.parallel.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class WorkStealingQueueTest {
+
+	@Test
+	public void workerShouldTakeItsOwnItemsInOrder() {
+		WorkStealingQueue<String> workQueue = new WorkStealingQueue<String>(Arrays.asList("a", "b", "c", "d"), 2);
+		assertThat(workQueue.poll(0)).isEqualTo("a");
+		assertThat(workQueue.poll(0)).isEqualTo("c");
+		assertThat(workQueue.poll(1)).isEqualTo("b");
+	}
+
+	@Test
+	public void workerShouldStealFromTheTailOfAnotherWorkerWhenItsOwnItemsAreExhausted() {
+		WorkStealingQueue<String> workQueue = new WorkStealingQueue<String>(Arrays.asList("a", "b", "c", "d", "e"), 2);
+		assertThat(workQueue.poll(1)).isEqualTo("b");
+		assertThat(workQueue.poll(1)).isEqualTo("d");
+		assertThat(workQueue.poll(1)).isEqualTo("e");
+		assertThat(workQueue.poll(0)).isEqualTo("a");
+		assertThat(workQueue.poll(0)).isEqualTo("c");
+	}
+
+	@Test
+	public void pollShouldReturnNullWhenAllItemsHaveBeenTaken() {
+		WorkStealingQueue<String> workQueue = new WorkStealingQueue<String>(Arrays.asList("a"), 3);
+		assertThat(workQueue.poll(2)).isEqualTo("a");
+		assertThat(workQueue.poll(0)).isNull();
+		assertThat(workQueue.poll(1)).isNull();
+		assertThat(workQueue.poll(2)).isNull();
+	}
+
+	@Test
+	public void everyItemShouldBeTakenExactlyOnceByConcurrentWorkers() throws InterruptedException {
+		List<Integer> workItems = new ArrayList<Integer>();
+		for (int i = 0; i < 10000; i++)
+			workItems.add(i);
+		final WorkStealingQueue<Integer> workQueue = new WorkStealingQueue<Integer>(workItems, 4);
+		final List<List<Integer>> takenItems = new ArrayList<List<Integer>>();
+		List<Thread> workers = new ArrayList<Thread>();
+		for (int i = 0; i < workQueue.getNumberOfWorkers(); i++) {
+			final int workerIndex = i;
+			final List<Integer> workerItems = new ArrayList<Integer>();
+			takenItems.add(workerItems);
+			Thread worker = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					Integer workItem;
+					while ((workItem = workQueue.poll(workerIndex)) != null)
+						workerItems.add(workItem);
+				}
+			});
+			workers.add(worker);
+			worker.start();
+		}
+		for (Thread worker : workers)
+			worker.join();
+		List<Integer> allTakenItems = new ArrayList<Integer>();
+		for (List<Integer> workerItems : takenItems)
+			allTakenItems.addAll(workerItems);
+		assertThat(allTakenItems).hasSameSizeAs(workItems);
+		assertThat(allTakenItems).containsOnlyElementsOf(workItems);
+		assertThat(allTakenItems).doesNotHaveDuplicates();
+	}
+}
@@ -0,0 +1,17 @@
+@resource:db
+Feature: Resource Tagged Sample
+
+  Scenario: uses the database only
+    Given there are 12 cucumbers
+
+  @resource:sap=2
+  Scenario: uses the database and the licensed service
+    Given there are 12 cucumbers
+
+  @exclusive
+  Scenario Outline: runs alone
+    Given there are <start> cucumbers
+
+    Examples: 
+      | start |
+      | 12    |